@@ -70,6 +70,8 @@ public class ClasspathResolutionCoordinator {
     /** Shared scheduling pool for delayed backfill tasks. */
     private final ScheduledExecutorService schedulingPool;
 
+    private final ExecutorPools executorPools;
+
     /** Tracks pending backfill per Gradle root to avoid duplicate scheduling. */
     private final ConcurrentHashMap<Path, ScheduledFuture<?>> pendingBackfills = new ConcurrentHashMap<>();
 
@@ -98,6 +100,7 @@ public class ClasspathResolutionCoordinator {
         this.projectImporterMap = projectImporterMap;
         this.importPool = executorPools.getImportPool();
         this.schedulingPool = executorPools.getSchedulingPool();
+        this.executorPools = executorPools;
     }
 
     public void setLanguageClient(GroovyLanguageClient client) {
@@ -148,7 +151,8 @@ public class ClasspathResolutionCoordinator {
         // Set MDC so the MDC-propagating executor captures project context
         MdcProjectContext.setProject(projectRoot);
         logger.info("Scheduling lazy classpath resolution for {}", projectRoot);
-        importPool.submit(() -> {
+        // Resolution is requested for a file the user just opened
+        importPool.submit(WorkPriority.VISIBLE_DOCUMENT.wrap(() -> {
             try {
                 doResolve(scope);
             } catch (Exception e) {
@@ -158,7 +162,7 @@ public class ClasspathResolutionCoordinator {
             } finally {
                 scopeManager.markResolutionComplete(projectRoot);
             }
-        });
+        }));
         MdcProjectContext.clear();
     }
 
@@ -268,13 +272,13 @@ public class ClasspathResolutionCoordinator {
     }
 
     private void scheduleSourceJarDownload(ProjectImporter importer, Path projectRoot) {
-        importPool.submit(() -> {
+        importPool.submit(WorkPriority.BACKFILL.wrap(() -> {
             try {
                 importer.downloadSourceJarsAsync(projectRoot);
             } catch (Exception e) {
                 logger.debug("Background source JAR download failed: {}", e.getMessage());
             }
-        });
+        }));
     }
 
     private static final class ResolutionResult {
@@ -311,7 +315,7 @@ public class ClasspathResolutionCoordinator {
         }
 
         ScheduledFuture<?> future = schedulingPool.schedule(
-            () -> importPool.submit(() -> doBackfill(importer, buildToolRoot)),
+            () -> importPool.submit(WorkPriority.BACKFILL.wrap(() -> doBackfill(importer, buildToolRoot))),
             BACKFILL_DELAY_MS, TimeUnit.MILLISECONDS);
 
         pendingBackfills.put(buildToolRoot, future);
@@ -493,6 +497,9 @@ public class ClasspathResolutionCoordinator {
         int scopeCount = scopeManager.getProjectScopes().size();
         logger.info("JVM memory after backfill: used={}MB, max={}MB, scopes={}",
                 usedMB, maxMB, scopeCount);
+        logger.info("Queue waits after backfill: {}; compilation permit waits: {}",
+                executorPools.getQueueWaitStats().summary(),
+                executorPools.getCompilationPermits().getWaitStats().summary());
         if (usedMB > maxMB * 0.8) {
             String warning = String.format(
                     "Memory usage is high (%dMB / %dMB, %d project scopes). "
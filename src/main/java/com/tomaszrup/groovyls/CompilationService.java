@@ -21,18 +21,30 @@
 package com.tomaszrup.groovyls;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Phases;
@@ -49,10 +61,19 @@ import org.eclipse.lsp4j.services.LanguageClient;
 import groovy.lang.GroovyClassLoader;
 import io.github.classgraph.ScanResult;
 import com.tomaszrup.groovyls.compiler.ClassSignature;
+import com.tomaszrup.groovyls.compiler.CompilationCostModel;
 import com.tomaszrup.groovyls.compiler.CompilationOrchestrator;
+import com.tomaszrup.groovyls.compiler.CompilationPartitioner;
+import com.tomaszrup.groovyls.compiler.DependencyGraph;
 import com.tomaszrup.groovyls.compiler.DiagnosticHandler;
+import com.tomaszrup.groovyls.compiler.IncrementalCompilationPlanner;
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
+import com.tomaszrup.groovyls.compiler.WorkspaceSymbolIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.control.CompilationCancelledException;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.PartitionClassNodeResolver;
+import com.tomaszrup.groovyls.config.ICompilationUnitFactory;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
 import com.tomaszrup.groovyls.util.MdcProjectContext;
@@ -68,18 +89,6 @@ public class CompilationService {
 	private static final Logger logger = LoggerFactory.getLogger(CompilationService.class);
 	private static final String VERSION_GUARD_DIAGNOSTIC_SOURCE = "groovy-language-server";
 
-	/**
-	 * Maximum number of simultaneously changed files for which incremental
-	 * compilation is attempted instead of falling back to full compilation.
-	 */
-	private static final int INCREMENTAL_MAX_CHANGED = 3;
-
-	/**
-	 * Maximum total source files (changed + dependencies) to include in an
-	 * incremental compilation unit. If exceeded, falls back to full compile.
-	 */
-	private static final int INCREMENTAL_MAX_FILES = 50;
-
 	private final CompilationOrchestrator compilationOrchestrator = new CompilationOrchestrator();
 	private final DiagnosticHandler diagnosticHandler = new DiagnosticHandler();
 	private final FileContentsTracker fileContentsTracker;
@@ -91,7 +100,23 @@ public class CompilationService {
 	 * pools (import, background, LSP).  May be {@code null} for tests that
 	 * don't inject an {@link ExecutorPools} instance.
 	 */
-	private final AtomicReference<Semaphore> compilationPermits = new AtomicReference<>();
+	private final AtomicReference<PriorityPermits> compilationPermits = new AtomicReference<>();
+
+	/** Compilations aborted because a newer edit superseded them. */
+	private final AtomicLong supersededCompilations = new AtomicLong();
+
+	/** Receives the usages of every visited file; may be {@code null} in tests. */
+	private final AtomicReference<WorkspaceReferenceIndex> workspaceReferenceIndex = new AtomicReference<>();
+
+	/** Receives the declarations of every visited file; may be {@code null} in tests. */
+	private final AtomicReference<WorkspaceSymbolIndex> workspaceSymbolIndex = new AtomicReference<>();
+
+	/**
+	 * Runs partitions of large projects concurrently with the compiling
+	 * thread; may be {@code null} in tests, which compile partitions one
+	 * after another.
+	 */
+	private final AtomicReference<Executor> partitionExecutor = new AtomicReference<>();
 
 	public CompilationService(FileContentsTracker fileContentsTracker) {
 		this.fileContentsTracker = fileContentsTracker;
@@ -107,10 +132,35 @@ public class CompilationService {
 	 * When set, all compilation entry points will acquire a permit before
 	 * starting compilation and release it in a {@code finally} block.
 	 */
-	public void setCompilationPermits(Semaphore permits) {
+	public void setCompilationPermits(PriorityPermits permits) {
 		this.compilationPermits.set(permits);
 	}
 
+	/**
+	 * Inject the workspace-wide reference index. When set, every published
+	 * AST snapshot contributes the usages of its visited files.
+	 */
+	public void setWorkspaceReferenceIndex(WorkspaceReferenceIndex index) {
+		this.workspaceReferenceIndex.set(index);
+	}
+
+	/**
+	 * Inject the workspace-wide symbol index. When set, every published
+	 * AST snapshot contributes the declarations of its visited files.
+	 */
+	public void setWorkspaceSymbolIndex(WorkspaceSymbolIndex index) {
+		this.workspaceSymbolIndex.set(index);
+	}
+
+	/**
+	 * Inject the pool that compiles the partitions of projects too large for
+	 * one compilation unit in parallel. Concurrency stays capped by the
+	 * compilation permits.
+	 */
+	public void setPartitionExecutor(Executor executor) {
+		this.partitionExecutor.set(executor);
+	}
+
 	public FileContentsTracker getFileContentsTracker() {
 		return fileContentsTracker;
 	}
@@ -145,7 +195,24 @@ public class CompilationService {
 		}
 		if (visitor != null) {
 			preserveASTForErrorFiles(visitor, oldVisitor, errorURIs, uris);
-			scope.setAstVisitor(visitor);
+			publishAstVisitor(scope, visitor, uris);
+		}
+	}
+
+	/**
+	 * Publishes a new AST snapshot for the scope and schedules the
+	 * contribution of {@code visitedURIs} (all files if empty) to the
+	 * workspace reference and symbol indexes.
+	 */
+	private void publishAstVisitor(ProjectScope scope, ASTNodeVisitor visitor, Set<URI> visitedURIs) {
+		scope.setAstVisitor(visitor);
+		WorkspaceReferenceIndex index = workspaceReferenceIndex.get();
+		if (index != null) {
+			index.scheduleContribution(scope.getProjectRoot(), visitor, visitedURIs);
+		}
+		WorkspaceSymbolIndex symbolIndex = workspaceSymbolIndex.get();
+		if (symbolIndex != null) {
+			symbolIndex.contribute(scope.getProjectRoot(), visitor, visitedURIs);
 		}
 	}
 
@@ -200,20 +267,48 @@ public class CompilationService {
 	 *         or an empty set if compilation succeeded without errors
 	 */
 	public Set<URI> compile(ProjectScope scope) {
+		return compile(scope, null);
+	}
+
+	/**
+	 * Same as {@link #compile(ProjectScope)}, but aborts as soon as
+	 * {@code supersededCheck} returns {@code true}, without publishing
+	 * diagnostics and with the permit released.
+	 *
+	 * @throws CompilationCancelledException if the compilation was aborted
+	 */
+	private Set<URI> compile(ProjectScope scope, BooleanSupplier supersededCheck) {
 		MdcProjectContext.setProject(scope.getProjectRoot());
-		Semaphore permits = compilationPermits.get();
+		GroovyLSCompilationUnit compilationUnit = scope.getCompilationUnit();
+		if (supersededCheck != null && supersededCheck.getAsBoolean()) {
+			// superseded while waiting for the write lock: skip the permit too
+			throw new CompilationCancelledException(Phases.INITIALIZATION, compilationUnit);
+		}
+		PriorityPermits permits = compilationPermits.get();
+		WorkPriority priority = WorkPriority.current();
 		if (permits != null) {
 			try {
-				permits.acquire();
+				permits.acquire(priority);
 			} catch (InterruptedException e) {
 				Thread.currentThread().interrupt();
 				logger.debug("Compilation interrupted for {}", scope.getProjectRoot());
 				return Collections.emptySet();
 			}
 		}
+		CompilationUnit.ProgressCallback previousCallback =
+				compilationUnit != null ? compilationUnit.getProgressCallback() : null;
+		if (permits != null && compilationUnit != null && priority != WorkPriority.INTERACTIVE) {
+			compilationUnit.setProgressCallback(yieldBetweenPhases(permits, priority, previousCallback));
+		}
+		if (compilationUnit != null) {
+			compilationUnit.setCancellationCheck(supersededCheck);
+			setParseExecutor(compilationUnit, permits, priority);
+		}
 		try {
+			long start = System.nanoTime();
 			ErrorCollector collector = compilationOrchestrator.compile(
-					scope.getCompilationUnit(), scope.getProjectRoot());
+					compilationUnit, scope.getProjectRoot());
+			scope.getCompilationCostModel().recordFull(countSources(compilationUnit), System.nanoTime() - start);
 			if (collector != null) {
 				DiagnosticHandler.DiagnosticResult result = diagnosticHandler.handleErrorCollector(
 						scope.getCompilationUnit(), collector, scope.getProjectRoot(), scope.getPrevDiagnosticsByFile());
@@ -228,6 +323,11 @@ public class CompilationService {
 		} catch (VirtualMachineError e) {
 			handleCompilationOOM(scope, e, "compile");
 		} finally {
+			if (compilationUnit != null) {
+				compilationUnit.setProgressCallback(previousCallback);
+				compilationUnit.setCancellationCheck(null);
+				compilationUnit.setParseExecutor(null, 0);
+			}
 			if (permits != null) {
 				permits.release();
 			}
@@ -235,6 +335,26 @@ public class CompilationService {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Progress callback that hands the compilation permit over to more
+	 * urgent waiters after each compiler phase, so that a long background
+	 * compile delays an interactive one by at most one phase. The yielding
+	 * compile keeps its AST while it waits; {@link PriorityPermits} caps
+	 * how many compiles may be parked like this.
+	 */
+	private CompilationUnit.ProgressCallback yieldBetweenPhases(PriorityPermits permits,
+			WorkPriority priority, CompilationUnit.ProgressCallback delegate) {
+		return (context, phase) -> {
+			if (delegate != null) {
+				delegate.call(context, phase);
+			}
+			if (permits.yieldToHigherPriority(priority)) {
+				logger.debug("{} compilation yielded its permit to more urgent work after phase {}",
+						priority, phase);
+			}
+		};
+	}
+
 	/**
 	 * Extracts the set of source file URIs that have syntax errors from
 	 * the given error collector.
@@ -390,7 +510,7 @@ public class CompilationService {
 				incrementalUnit, scope.getProjectRoot());
 		ASTNodeVisitor visitor = compilationOrchestrator.visitAST(incrementalUnit);
 		if (visitor != null) {
-			scope.setAstVisitor(visitor);
+			publishAstVisitor(scope, visitor, singleFile);
 		}
 
 		publishPhaseADiagnostics(scope, incrementalUnit, collector);
@@ -418,7 +538,8 @@ public class CompilationService {
 	}
 
 	private void scheduleStagedPhaseB(ProjectScope scope, java.util.concurrent.ExecutorService backgroundCompiler) {
-		backgroundCompiler.submit(() -> {
+		// Phase B completes the project of the document that was just opened
+		backgroundCompiler.submit(WorkPriority.VISIBLE_DOCUMENT.wrap(() -> {
 			scope.getLock().writeLock().lock();
 			try {
 				if (scope.isFullyCompiled()) {
@@ -429,7 +550,7 @@ public class CompilationService {
 			} finally {
 				scope.getLock().writeLock().unlock();
 			}
-		});
+		}));
 	}
 
 	/**
@@ -443,15 +564,15 @@ public class CompilationService {
 		try {
 			createOrUpdateCompilationUnit(scope);
 			resetChangedFilesForScope(scope);
-			Set<URI> errorURIs = compile(scope);
-			visitAST(scope, Collections.emptySet(), errorURIs);
-			// Build the full dependency graph after initial compilation
-			if (scope.getAstVisitor() != null) {
-				scope.getDependencyGraph().clear();
-				for (URI uri : scope.getAstVisitor().getDependenciesByURI().keySet()) {
-					Set<URI> deps = scope.getAstVisitor().resolveSourceDependencies(uri);
-					scope.getDependencyGraph().updateDependencies(uri, deps);
-				}
+			Set<URI> partitionedSources = scope.getCompilationUnitFactory()
+					.getPartitionedSources(scope.getProjectRoot(), fileContentsTracker);
+			if (partitionedSources != null) {
+				compilePartitioned(scope, partitionedSources, null);
+			} else {
+				Set<URI> errorURIs = compile(scope);
+				visitAST(scope, Collections.emptySet(), errorURIs);
+				// Build the full dependency graph after initial compilation
+				rebuildDependencyGraph(scope);
 			}
 		} catch (LinkageError e) {
 			// NoClassDefFoundError or similar — a project dependency could not
@@ -514,11 +635,28 @@ public class CompilationService {
 			compileInitialScopeForContext(scope, uri);
 		} else if (hasScopeChanges(scope)) {
 			recompileChangedScopeForContext(scope, uri);
+		} else {
+			awaitStagedFullCompilation(scope);
 		}
 
 		return scope;
 	}
 
+	/**
+	 * Staged Phase B clears the pending changes before it compiles, so a
+	 * request arriving in that window sees "no changes" next to the
+	 * single-file Phase A AST. Phase B holds the write lock for its whole
+	 * duration; taking the read lock waits for it to publish the full AST.
+	 * No-op once the scope is fully compiled.
+	 */
+	public void awaitStagedFullCompilation(ProjectScope scope) {
+		if (scope.isFullyCompiled()) {
+			return;
+		}
+		scope.getLock().readLock().lock();
+		scope.getLock().readLock().unlock();
+	}
+
 	private boolean requiresInitialCompilation(ProjectScope scope) {
 		return !scope.isCompiled() || scope.getAstVisitor() == null;
 	}
@@ -573,6 +711,14 @@ public class CompilationService {
 		}
 	}
 
+	/**
+	 * Recompiles the scope's pending changes and updates its AST.
+	 *
+	 * <p>Outside of interactive requests, the compilation is abandoned as
+	 * soon as one of the scope's open documents is edited again: the last
+	 * good AST stays published and the changes stay pending, to be picked up
+	 * by the compilation the newer edit schedules.</p>
+	 */
 	public void compileAndVisitAST(ProjectScope scope, URI contextURI) {
 		// Early return: if the scope is already compiled and there are no
 		// pending changes under this scope's root, skip the compile cycle.
@@ -582,13 +728,71 @@ public class CompilationService {
 		}
 
 		Set<URI> changedSnapshot = new HashSet<>(fileContentsTracker.getChangedURIs());
+		try {
+			compileAndVisitAST(scope, contextURI, changedSnapshot, supersededCheck(scope));
+		} catch (CompilationCancelledException e) {
+			// A newer edit arrived mid-compile. The previous AST stays
+			// published and the changes stay pending for the compilation
+			// that the newer edit schedules.
+			for (URI uri : changedSnapshot) {
+				fileContentsTracker.forceChanged(uri);
+			}
+			supersededCompilations.incrementAndGet();
+			logger.debug("Compilation of {} superseded by a newer edit; keeping the previous AST",
+					scope.getProjectRoot());
+		}
+	}
 
-		// Try incremental (single-file) compilation for small change sets
-		if (changedSnapshot.size() <= INCREMENTAL_MAX_CHANGED
-				&& scope.getAstVisitor() != null
+	/**
+	 * Returns a check that reports whether an open document of the scope
+	 * has been edited since this call, or {@code null} if the compilation
+	 * must run to completion.
+	 *
+	 * <p>Interactive requests are not aborted: they need the result, and
+	 * the request executor already discards their response when the
+	 * document changes.</p>
+	 */
+	private BooleanSupplier supersededCheck(ProjectScope scope) {
+		Path projectRoot = scope.getProjectRoot();
+		if (WorkPriority.current() == WorkPriority.INTERACTIVE || projectRoot == null) {
+			return null;
+		}
+		Map<URI, Integer> versions = new HashMap<>();
+		for (URI uri : fileContentsTracker.getOpenURIs()) {
+			try {
+				if (Paths.get(uri).startsWith(projectRoot)) {
+					versions.put(uri, fileContentsTracker.getVersion(uri));
+				}
+			} catch (Exception e) {
+				// ignore URIs that can't be converted to Path
+			}
+		}
+		if (versions.isEmpty()) {
+			return null;
+		}
+		return () -> {
+			for (Map.Entry<URI, Integer> entry : versions.entrySet()) {
+				Integer current = fileContentsTracker.getVersion(entry.getKey());
+				if (current != null && !Objects.equals(current, entry.getValue())) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
+	/** Number of compilations aborted because a newer edit superseded them. */
+	public long getSupersededCompilationCount() {
+		return supersededCompilations.get();
+	}
+
+	private void compileAndVisitAST(ProjectScope scope, URI contextURI, Set<URI> changedSnapshot,
+			BooleanSupplier supersededCheck) {
+		// Try incremental compilation of the changed files and their dependents
+		if (scope.getAstVisitor() != null
 				&& scope.isCompiled()
 				&& !scope.getDependencyGraph().isEmpty()) {
-			if (tryIncrementalCompile(scope, contextURI, changedSnapshot)) {
+			if (tryIncrementalCompile(scope, contextURI, changedSnapshot, supersededCheck)) {
 				clearProcessedChanges(scope, changedSnapshot);
 				scope.setPreviousContext(contextURI);
 				return;
@@ -597,6 +801,18 @@ public class CompilationService {
 		}
 
 		// Full compilation path
+		Set<URI> partitionedSources = scope.getCompilationUnitFactory()
+				.getPartitionedSources(scope.getProjectRoot(), fileContentsTracker);
+		if (partitionedSources != null) {
+			createOrUpdateCompilationUnit(scope);
+			clearProcessedChanges(scope, changedSnapshot);
+			compilePartitioned(scope, partitionedSources, supersededCheck);
+			scope.setPreviousContext(contextURI);
+			scope.setCompiled(true);
+			scope.setFullyCompiled(true);
+			return;
+		}
+
 		Set<URI> affectedDependents = scope.getDependencyGraph().getTransitiveDependents(changedSnapshot);
 
 		Set<URI> allAffectedURIs = new HashSet<>(changedSnapshot);
@@ -605,7 +821,7 @@ public class CompilationService {
 
 		boolean isSameUnit = createOrUpdateCompilationUnit(scope, affectedDependents);
 		clearProcessedChanges(scope, changedSnapshot);
-		Set<URI> errorURIs = compile(scope);
+		Set<URI> errorURIs = compile(scope, supersededCheck);
 		ASTNodeVisitor previousVisitor = scope.getAstVisitor();
 		if (isSameUnit) {
 			visitAST(scope, allAffectedURIs, errorURIs);
@@ -625,67 +841,457 @@ public class CompilationService {
 	}
 
 	/**
-	 * Attempts incremental single-file compilation for a small set of changed files.
+	 * Recompiles the changed files, and the dependents they affect, in
+	 * incremental compilation units instead of the scope's full unit.
+	 *
+	 * <p>The changed files are recompiled first. Files whose classes then
+	 * show a different {@link ClassSignature} have the dependents that can
+	 * see the change, including every subclass in the project, recompiled
+	 * in a next wave (see {@link #affectedDependents}), and so on until no
+	 * API changes. Each wave is split into units by
+	 * {@link IncrementalCompilationPlanner} using the scope's measured
+	 * {@link CompilationCostModel}. The new AST, dependency edges and
+	 * diagnostics are published once all waves succeeded.</p>
+	 *
+	 * @return {@code false} if a full compile is needed instead: the waves
+	 *         together are larger than the project, or incremental units are
+	 *         unsupported
 	 */
-	private boolean tryIncrementalCompile(ProjectScope scope, URI contextURI, Set<URI> changedSnapshot) {
-		Set<URI> changedPlusContext = new HashSet<>(changedSnapshot);
-		changedPlusContext.add(contextURI);
+	private boolean tryIncrementalCompile(ProjectScope scope, URI contextURI, Set<URI> changedSnapshot,
+			BooleanSupplier supersededCheck) {
+		DependencyGraph graph = scope.getDependencyGraph();
+		CompilationCostModel costModel = scope.getCompilationCostModel();
+		int projectFiles = countProjectFiles(scope);
+		ASTNodeVisitor oldVisitor = scope.getAstVisitor();
+		ASTNodeVisitor newVisitor = oldVisitor;
+		Map<URI, List<Diagnostic>> diagnosticsByFile = new HashMap<>();
+
+		Set<URI> wave = filesUnderScope(scope, changedSnapshot);
+		if (contextURI != null) {
+			wave.add(contextURI);
+		}
+		Set<URI> visited = new HashSet<>();
+		IncrementalCompilationPlanner.Plan total = null;
+		while (!wave.isEmpty()) {
+			IncrementalCompilationPlanner.Plan plan = IncrementalCompilationPlanner.plan(graph, wave, costModel);
+			// Bound the waves together: each may be small while their sum is not
+			total = total == null ? plan : total.followedBy(plan);
+			if (total.isLargerThanProject(projectFiles, costModel)) {
+				logger.info("Incremental compile aborted: {} files in {} units exceeds a full compile of {} files",
+						total.getCompiledFileCount(), total.getUnits().size(), projectFiles);
+				return false;
+			}
+			for (IncrementalCompilationPlanner.Unit unit : plan.getUnits()) {
+				newVisitor = compileIncrementalUnit(scope, unit, oldVisitor, newVisitor, diagnosticsByFile,
+						supersededCheck);
+				if (newVisitor == null) {
+					return false;
+				}
+			}
+			visited.addAll(wave);
 
-		Set<URI> forwardDeps = scope.getDependencyGraph().getTransitiveDependencies(changedPlusContext, 2);
+			Set<URI> nextWave = new HashSet<>();
+			for (URI uri : wave) {
+				for (URI dependent : affectedDependents(graph, oldVisitor, newVisitor, uri)) {
+					if (!visited.contains(dependent)) {
+						nextWave.add(dependent);
+					}
+				}
+			}
+			if (!nextWave.isEmpty()) {
+				logger.debug("API change detected in incremental compile for scope {}, recompiling {} dependents",
+						scope.getProjectRoot(), nextWave.size());
+			}
+			wave = nextWave;
+		}
 
-		Set<URI> filesToCompile = new HashSet<>(changedPlusContext);
-		filesToCompile.addAll(forwardDeps);
+		publishAstVisitor(scope, newVisitor, visited);
+		updateDependencyGraph(scope, visited);
+		publishIncrementalDiagnostics(scope, visited, diagnosticsByFile);
 
-		if (filesToCompile.size() > INCREMENTAL_MAX_FILES) {
-			logger.info("Incremental compile aborted: {} files exceeds limit of {}",
-					filesToCompile.size(), INCREMENTAL_MAX_FILES);
-			return false;
+		logger.debug("Incremental compilation succeeded for scope {} ({} files rebuilt, {} compiled in {} units)",
+				scope.getProjectRoot(), visited.size(), total.getCompiledFileCount(), total.getUnits().size());
+		return true;
+	}
+
+	/**
+	 * Returns the dependents of {@code uri} that must be recompiled because
+	 * the classes of {@code uri} changed between the two visitors: every
+	 * file that extends or implements a changed class, directly or through
+	 * other classes of the project (see {@link #inheritanceClosure}), and
+	 * the direct dependents of {@code uri} and of those subclasses that
+	 * reference a changed or removed member. All of these direct dependents
+	 * are returned when a change is not confined to named members (see
+	 * {@link ClassSignature#changedMemberNames}).
+	 *
+	 * <p>Subclasses are found here rather than in the next wave, because
+	 * their own signatures do not change when only an inherited one does.
+	 * For the same reason, a file calling an inherited member through a
+	 * subclass is only a dependent of the subclass.</p>
+	 */
+	private Set<URI> affectedDependents(DependencyGraph graph, ASTNodeVisitor oldVisitor,
+			ASTNodeVisitor newVisitor, URI uri) {
+		Map<String, ClassSignature> before = captureClassSignatures(oldVisitor, Collections.singleton(uri));
+		Map<String, ClassSignature> after = captureClassSignatures(newVisitor, Collections.singleton(uri));
+		if (before.equals(after)) {
+			return Collections.emptySet();
+		}
+		Set<String> changedClasses = new HashSet<>(before.keySet());
+		changedClasses.addAll(after.keySet());
+		Set<String> changedMembers = new HashSet<>();
+		boolean anyMember = false;
+		for (Iterator<String> it = changedClasses.iterator(); it.hasNext();) {
+			String className = it.next();
+			if (Objects.equals(before.get(className), after.get(className))) {
+				it.remove();
+				continue;
+			}
+			Set<String> names = ClassSignature.changedMemberNames(before.get(className), after.get(className));
+			if (names == null) {
+				anyMember = true;
+			} else {
+				changedMembers.addAll(names);
+			}
 		}
 
-		Map<String, ClassSignature> oldSignatures = captureClassSignatures(scope.getAstVisitor(), changedPlusContext);
+		Set<URI> affected = inheritanceClosure(graph, newVisitor, uri, changedClasses);
+		Set<URI> dependents = new HashSet<>(graph.getDirectDependents(uri));
+		for (URI subclassFile : affected) {
+			dependents.addAll(graph.getDirectDependents(subclassFile));
+		}
+		dependents.removeAll(affected);
+		dependents.remove(uri);
+		if (anyMember) {
+			affected.addAll(dependents);
+			return affected;
+		}
+		for (URI dependent : dependents) {
+			Set<String> references = newVisitor.getMemberReferences(dependent);
+			if (references == null || references.contains(ASTNodeVisitor.ANY_MEMBER)
+					|| !Collections.disjoint(references, changedMembers)) {
+				affected.add(dependent);
+			}
+		}
+		logger.debug("{} files inherit from or reference the changed members {} of {} ({} dependents checked)",
+				affected.size(), changedMembers, uri, dependents.size());
+		return affected;
+	}
 
+	/**
+	 * Returns the files other than {@code uri} that declare a class
+	 * extending or implementing one of {@code classNames}, directly or
+	 * through other classes of the project. A subclass depends on the file
+	 * of its superclass, so the walk follows the dependents of {@code uri},
+	 * and continues from each file whose classes inherit.
+	 */
+	private Set<URI> inheritanceClosure(DependencyGraph graph, ASTNodeVisitor visitor, URI uri,
+			Set<String> classNames) {
+		Set<String> inherited = new HashSet<>(classNames);
+		Set<URI> closure = new HashSet<>();
+		Deque<URI> pending = new ArrayDeque<>();
+		pending.add(uri);
+		while (!pending.isEmpty()) {
+			for (URI dependent : graph.getDirectDependents(pending.poll())) {
+				if (dependent.equals(uri) || closure.contains(dependent)) {
+					continue;
+				}
+				List<org.codehaus.groovy.ast.ClassNode> classNodes = visitor.getClassNodes(dependent);
+				if (inheritsFromAny(classNodes, inherited)) {
+					closure.add(dependent);
+					for (org.codehaus.groovy.ast.ClassNode classNode : classNodes) {
+						inherited.add(classNode.getName());
+					}
+					pending.add(dependent);
+				}
+			}
+		}
+		return closure;
+	}
+
+	/** Whether any of {@code classNodes} extends or implements a class named in {@code classNames}. */
+	private boolean inheritsFromAny(List<org.codehaus.groovy.ast.ClassNode> classNodes, Set<String> classNames) {
+		for (org.codehaus.groovy.ast.ClassNode classNode : classNodes) {
+			try {
+				for (org.codehaus.groovy.ast.ClassNode superClass = classNode.getSuperClass(); superClass != null;
+						superClass = superClass.getSuperClass()) {
+					if (classNames.contains(superClass.getName())) {
+						return true;
+					}
+				}
+				for (org.codehaus.groovy.ast.ClassNode iface : classNode.getAllInterfaces()) {
+					if (classNames.contains(iface.getName())) {
+						return true;
+					}
+				}
+			} catch (Exception e) {
+				// unresolvable hierarchy: assume it may inherit
+				logger.debug("Failed to walk the hierarchy of {}: {}", classNode.getName(), e.getMessage());
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compiles one planned unit and visits its targets on top of
+	 * {@code currentVisitor}, collecting the targets' diagnostics.
+	 *
+	 * @return the new visitor, or {@code null} if the factory does not
+	 *         support incremental units
+	 */
+	private ASTNodeVisitor compileIncrementalUnit(ProjectScope scope, IncrementalCompilationPlanner.Unit unit,
+			ASTNodeVisitor oldVisitor, ASTNodeVisitor currentVisitor,
+			Map<URI, List<Diagnostic>> diagnosticsByFile, BooleanSupplier supersededCheck) {
 		GroovyLSCompilationUnit incrementalUnit = scope.getCompilationUnitFactory().createIncremental(
-				scope.getProjectRoot(), fileContentsTracker, filesToCompile);
+				scope.getProjectRoot(), fileContentsTracker, unit.getFiles());
 		if (incrementalUnit == null) {
-			return false;
+			return null;
 		}
 
+		incrementalUnit.setCancellationCheck(supersededCheck);
+		long start = System.nanoTime();
 		ErrorCollector collector = compilationOrchestrator.compileIncremental(incrementalUnit, scope.getProjectRoot());
+		scope.getCompilationCostModel().recordIncremental(unit.getFiles().size(), System.nanoTime() - start);
 
-		Set<URI> errorURIs = collector != null ? extractErrorURIs(collector) : Collections.emptySet();
+		Set<URI> targets = unit.getTargets();
+		Set<URI> errorURIs = new HashSet<>();
+		if (collector != null) {
+			errorURIs.addAll(extractErrorURIs(collector));
+			errorURIs.retainAll(targets);
+		}
 
-		ASTNodeVisitor oldVisitor = scope.getAstVisitor();
-		ASTNodeVisitor newVisitor = compilationOrchestrator.visitAST(
-				incrementalUnit, scope.getAstVisitor(), changedPlusContext);
+		ASTNodeVisitor newVisitor = compilationOrchestrator.visitAST(incrementalUnit, currentVisitor, targets);
 
 		// Preserve last-known-good AST for files with errors
-		preserveASTForErrorFiles(newVisitor, oldVisitor, errorURIs, changedPlusContext);
+		preserveASTForErrorFiles(newVisitor, oldVisitor, errorURIs, targets);
 
-		Map<String, ClassSignature> newSignatures = captureClassSignatures(newVisitor, changedPlusContext);
-		if (!oldSignatures.equals(newSignatures)) {
-			logger.info("API change detected in incremental compile for scope {}, need full recompile",
-					scope.getProjectRoot());
-			return false;
+		if (collector != null) {
+			// Context files are compiled without their own context: only the
+			// targets' diagnostics are meaningful
+			DiagnosticHandler.DiagnosticResult result = diagnosticHandler.handleErrorCollector(
+					incrementalUnit, collector, scope.getProjectRoot(), null);
+			result = syntaxGuard.mergeGroovyVersionSyntaxDiagnostics(scope, incrementalUnit, result);
+			for (Map.Entry<URI, List<Diagnostic>> entry : result.getDiagnosticsByFile().entrySet()) {
+				if (targets.contains(entry.getKey())) {
+					diagnosticsByFile.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return newVisitor;
+	}
+
+	/**
+	 * Replaces the scope's diagnostics of the {@code recompiled} files with
+	 * {@code diagnosticsByFile}, keeping those of every other file, and
+	 * publishes the files whose diagnostics changed.
+	 */
+	private void publishIncrementalDiagnostics(ProjectScope scope, Set<URI> recompiled,
+			Map<URI, List<Diagnostic>> diagnosticsByFile) {
+		Map<URI, List<Diagnostic>> previous = scope.getPrevDiagnosticsByFile();
+		Map<URI, List<Diagnostic>> merged = previous != null ? new HashMap<>(previous) : new HashMap<>();
+		Set<PublishDiagnosticsParams> toPublish = new HashSet<>();
+		for (URI uri : recompiled) {
+			List<Diagnostic> diagnostics = diagnosticsByFile.get(uri);
+			if (diagnostics != null) {
+				merged.put(uri, diagnostics);
+				toPublish.add(new PublishDiagnosticsParams(uri.toString(), diagnostics));
+			} else if (merged.remove(uri) != null) {
+				toPublish.add(new PublishDiagnosticsParams(uri.toString(), new ArrayList<>()));
+			}
+		}
+		scope.setPrevDiagnosticsByFile(merged);
+		LanguageClient client = languageClient.get();
+		if (client != null && !toPublish.isEmpty()) {
+			publishDiagnosticsBatch(client, toPublish);
+		}
+	}
+
+	/**
+	 * Compiles a project too large for one compilation unit in the
+	 * partitions planned by {@link CompilationPartitioner}, and publishes the
+	 * merged AST, the rebuilt dependency graph and the diagnostics of every
+	 * file.
+	 *
+	 * <p>Partitions whose dependencies have compiled run in parallel on the
+	 * partition executor, each holding a compilation permit. A partition
+	 * resolves the classes of the partitions before it to their compiled
+	 * {@link ClassNode}s through a {@link PartitionClassNodeResolver}, so its
+	 * unit holds only its own sources, and the unit is dropped once
+	 * visited.</p>
+	 *
+	 * @throws CompilationCancelledException if {@code supersededCheck}
+	 *         aborted a partition; nothing is published then
+	 */
+	private void compilePartitioned(ProjectScope scope, Set<URI> sources, BooleanSupplier supersededCheck) {
+		long start = System.currentTimeMillis();
+		List<CompilationPartitioner.Partition> partitions = CompilationPartitioner.partition(sources,
+				scope.getDependencyGraph(),
+				uri -> fileContentsTracker.isOpen(uri) ? fileContentsTracker.getContents(uri) : null,
+				scope.getCompilationUnitFactory().getMaxFullCompilationFiles());
+
+		PartitionedCompilation compilation = new PartitionedCompilation();
+		WorkPriority priority = WorkPriority.current();
+		Executor executor = partitionExecutor.get();
+		PriorityPermits permits = compilationPermits.get();
+		int helpers = (permits != null ? permits.getPermits() : Runtime.getRuntime().availableProcessors()) - 1;
+		CompilationPartitioner.run(partitions,
+				executor != null ? task -> executor.execute(priority.wrap(task)) : null, helpers,
+				partition -> compilePartition(scope, partition, compilation, supersededCheck));
+
+		ASTNodeVisitor visitor = compilation.visitor;
+		preserveASTForErrorFiles(visitor, scope.getAstVisitor(), compilation.errorURIs, Collections.emptySet());
+		publishAstVisitor(scope, visitor, Collections.emptySet());
+		rebuildDependencyGraph(scope);
+
+		Set<URI> published = new HashSet<>(sources);
+		if (scope.getPrevDiagnosticsByFile() != null) {
+			published.addAll(scope.getPrevDiagnosticsByFile().keySet());
+		}
+		publishIncrementalDiagnostics(scope, published, compilation.diagnosticsByFile);
+
+		logger.info("Compiled {} files of {} in {} partitions in {}ms", sources.size(), scope.getProjectRoot(),
+				partitions.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Lets {@code unit} parse its uncached sources on the partition pool at
+	 * the caller's priority. The helpers only run while the caller holds its
+	 * permit, so they parse on the caller's share of the permits rather than
+	 * taking extra ones.
+	 */
+	private void setParseExecutor(GroovyLSCompilationUnit unit, PriorityPermits permits, WorkPriority priority) {
+		Executor executor = partitionExecutor.get();
+		if (executor == null) {
+			return;
 		}
+		int helpers = (permits != null ? permits.getPermits() : Runtime.getRuntime().availableProcessors()) - 1;
+		unit.setParseExecutor(task -> executor.execute(priority.wrap(task)), helpers);
+	}
 
-		scope.setAstVisitor(newVisitor);
+	/**
+	 * Compiles one partition and adds its classes, AST and diagnostics to
+	 * {@code compilation}. Called concurrently for independent partitions.
+	 */
+	private void compilePartition(ProjectScope scope, CompilationPartitioner.Partition partition,
+			PartitionedCompilation compilation, BooleanSupplier supersededCheck) {
+		MdcProjectContext.setProject(scope.getProjectRoot());
+		ICompilationUnitFactory factory = scope.getCompilationUnitFactory();
+		GroovyLSCompilationUnit unit;
+		// The factory is not thread-safe; creating a unit only adds its sources
+		synchronized (factory) {
+			unit = factory.createIncremental(scope.getProjectRoot(), fileContentsTracker, partition.getFiles());
+		}
+		if (unit == null) {
+			return;
+		}
+		unit.setClassNodeResolver(new PartitionClassNodeResolver(compilation.compiledClasses));
+		unit.setCancellationCheck(supersededCheck);
 
-		updateDependencyGraph(scope, changedPlusContext);
+		PriorityPermits permits = compilationPermits.get();
+		WorkPriority priority = WorkPriority.current();
+		if (permits != null) {
+			try {
+				permits.acquire(priority);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.debug("Compilation of partition {} interrupted for {}", partition.getIndex(),
+						scope.getProjectRoot());
+				return;
+			}
+			if (priority != WorkPriority.INTERACTIVE) {
+				unit.setProgressCallback(yieldBetweenPhases(permits, priority, unit.getProgressCallback()));
+			}
+		}
+		setParseExecutor(unit, permits, priority);
+		ErrorCollector collector;
+		try {
+			long start = System.nanoTime();
+			collector = compilationOrchestrator.compileIncremental(unit, scope.getProjectRoot());
+			scope.getCompilationCostModel().recordFull(partition.getFiles().size(), System.nanoTime() - start);
+		} finally {
+			if (permits != null) {
+				permits.release();
+			}
+		}
+
+		for (ModuleNode module : unit.getAST().getModules()) {
+			if (module.getContext() != null
+					&& partition.getFiles().contains(module.getContext().getSource().getURI())) {
+				for (ClassNode classNode : module.getClasses()) {
+					compilation.compiledClasses.put(classNode.getName(), classNode);
+				}
+			}
+		}
+		compilation.addVisitor(compilationOrchestrator.visitAST(unit));
 
 		if (collector != null) {
+			for (URI errorURI : extractErrorURIs(collector)) {
+				if (partition.getFiles().contains(errorURI)) {
+					compilation.errorURIs.add(errorURI);
+				}
+			}
 			DiagnosticHandler.DiagnosticResult result = diagnosticHandler.handleErrorCollector(
-					incrementalUnit, collector, scope.getProjectRoot(), scope.getPrevDiagnosticsByFile());
-			result = syntaxGuard.mergeGroovyVersionSyntaxDiagnostics(scope, incrementalUnit, result);
-			scope.setPrevDiagnosticsByFile(result.getDiagnosticsByFile());
-			LanguageClient client = languageClient.get();
-			if (client != null) {
-				publishDiagnosticsBatch(client, result.getDiagnosticsToPublish());
+					unit, collector, scope.getProjectRoot(), null);
+			result = syntaxGuard.mergeGroovyVersionSyntaxDiagnostics(scope, unit, result);
+			for (Map.Entry<URI, List<Diagnostic>> entry : result.getDiagnosticsByFile().entrySet()) {
+				if (partition.getFiles().contains(entry.getKey())) {
+					compilation.diagnosticsByFile.put(entry.getKey(), entry.getValue());
+				}
 			}
 		}
+	}
 
-		logger.debug("Incremental compilation succeeded for scope {} ({} changed, {} total in unit)",
-				scope.getProjectRoot(), changedPlusContext.size(), filesToCompile.size());
-		return true;
+	/** State shared by the partitions of one {@link #compilePartitioned} run. */
+	private static final class PartitionedCompilation {
+		final ASTNodeVisitor visitor = new ASTNodeVisitor();
+		final Map<String, ClassNode> compiledClasses = new ConcurrentHashMap<>();
+		final Map<URI, List<Diagnostic>> diagnosticsByFile = new ConcurrentHashMap<>();
+		final Set<URI> errorURIs = ConcurrentHashMap.newKeySet();
+
+		/** Merges a partition's visitor as soon as it is built, so that it can be collected. */
+		synchronized void addVisitor(ASTNodeVisitor partitionVisitor) {
+			if (partitionVisitor != null) {
+				visitor.merge(partitionVisitor);
+			}
+		}
+	}
+
+	/** Returns the files of {@code uris} that belong to the scope (all of them for a root-less scope). */
+	private Set<URI> filesUnderScope(ProjectScope scope, Set<URI> uris) {
+		Set<URI> result = new HashSet<>();
+		Path projectRoot = scope.getProjectRoot();
+		for (URI uri : uris) {
+			try {
+				if (projectRoot == null || Paths.get(uri).startsWith(projectRoot)) {
+					result.add(uri);
+				}
+			} catch (Exception e) {
+				// ignore URIs that can't be converted to Path
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Number of source files in the scope: those of its full compilation
+	 * unit, or of its dependency graph when the unit holds only part of a
+	 * project compiled in partitions.
+	 */
+	private int countProjectFiles(ProjectScope scope) {
+		return Math.max(countSources(scope.getCompilationUnit()), scope.getDependencyGraph().size());
+	}
+
+	private static int countSources(GroovyLSCompilationUnit compilationUnit) {
+		if (compilationUnit == null) {
+			return 0;
+		}
+		int count = 0;
+		var iter = compilationUnit.iterator();
+		while (iter.hasNext()) {
+			iter.next();
+			count++;
+		}
+		return count;
 	}
 
 	/**
@@ -721,6 +1327,19 @@ public class CompilationService {
 		}
 	}
 
+	/** Replaces the scope's dependency graph with the edges of every file of its AST. */
+	private void rebuildDependencyGraph(ProjectScope scope) {
+		ASTNodeVisitor visitor = scope.getAstVisitor();
+		if (visitor == null) {
+			return;
+		}
+		scope.getDependencyGraph().clear();
+		for (URI uri : visitor.getDependenciesByURI().keySet()) {
+			Set<URI> deps = visitor.resolveSourceDependencies(uri);
+			scope.getDependencyGraph().updateDependencies(uri, deps);
+		}
+	}
+
 	// --- Changed file tracking ---
 
 	public void resetChangedFilesForScope(ProjectScope scope) {
@@ -0,0 +1,308 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Debounce scheduler for {@code didChange}-triggered recompilation.
+ *
+ * <p>Pending work is keyed per {@link ProjectScope}, so an edit in one
+ * project never cancels the pending recompile of another. Within a scope,
+ * every edited URI is remembered until the timer fires, and the whole burst
+ * is coalesced into a single compilation callback for that scope (the
+ * compilation itself picks up all changed files under the scope root).</p>
+ *
+ * <p>The timers run on the small scheduling pool, which only collects the
+ * burst; the compilation callback is handed to the compilation executor
+ * as {@link WorkPriority#VISIBLE_DOCUMENT} work, so a slow compile never
+ * holds up the timers of other scopes.</p>
+ *
+ * <p>The delay adapts per key:</p>
+ * <ul>
+ *   <li>per URI, an exponentially weighted average of the gap between
+ *       consecutive edits — while the user is typing in a burst, the timer
+ *       waits slightly longer than the typical gap so it does not fire
+ *       between two keystrokes;</li>
+ *   <li>per scope, an exponentially weighted average of the measured
+ *       compile latency — slow scopes wait longer, because a compile that
+ *       is superseded by the next keystroke is wasted work.</li>
+ * </ul>
+ *
+ * <p>The resulting delay is clamped to
+ * [{@link #MIN_DELAY_MS}, {@link #MAX_DELAY_MS}] and starts at
+ * {@link #INITIAL_DELAY_MS} for a scope with no history.</p>
+ */
+class DidChangeDebouncer {
+	private static final Logger logger = LoggerFactory.getLogger(DidChangeDebouncer.class);
+
+	/** Delay used for a scope/URI with no measured history (milliseconds). */
+	static final long INITIAL_DELAY_MS = 300;
+
+	/** Lower bound for the adaptive delay (milliseconds). */
+	static final long MIN_DELAY_MS = 150;
+
+	/** Upper bound for the adaptive delay (milliseconds). */
+	static final long MAX_DELAY_MS = 1500;
+
+	/**
+	 * Edits further apart than this are not considered part of the same
+	 * typing burst and do not feed the typing-rate average.
+	 */
+	private static final long BURST_GAP_MS = 1000;
+
+	/** Weight of the newest sample in the exponentially weighted averages. */
+	private static final double EWMA_ALPHA = 0.3;
+
+	/** Multiplier applied to the average typing gap. */
+	private static final double TYPING_GAP_FACTOR = 1.5;
+
+	/** Fraction of the average compile latency added as delay. */
+	private static final double COMPILE_LATENCY_FACTOR = 0.5;
+
+	/**
+	 * Callback invoked once per scope when its debounce timer fires.
+	 */
+	interface CompilationCallback {
+		/**
+		 * @param scope      the scope whose pending edits should be compiled
+		 * @param contextURI the most recently edited URI in the burst
+		 * @param changedURIs all URIs edited in the burst (in edit order)
+		 */
+		void compile(ProjectScope scope, URI contextURI, Set<URI> changedURIs);
+	}
+
+	private final ScheduledExecutorService scheduler;
+	private final Executor compiler;
+	private final CompilationCallback callback;
+	private final LongSupplier nanoClock;
+	private final Map<ProjectScope, ScopeState> states = new ConcurrentHashMap<>();
+
+	/**
+	 * @param scheduler the executor running the debounce timers
+	 * @param compiler  the executor running the compilation callback
+	 */
+	DidChangeDebouncer(ScheduledExecutorService scheduler, Executor compiler, CompilationCallback callback) {
+		this(scheduler, compiler, callback, System::nanoTime);
+	}
+
+	/** As above, measuring typing gaps and compile latency with {@code nanoClock}. */
+	DidChangeDebouncer(ScheduledExecutorService scheduler, Executor compiler, CompilationCallback callback,
+			LongSupplier nanoClock) {
+		this.scheduler = scheduler;
+		this.compiler = compiler;
+		this.callback = callback;
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Records an edit of {@code uri} in {@code scope} and (re)arms the
+	 * scope's debounce timer. Pending timers of other scopes are untouched.
+	 */
+	void schedule(ProjectScope scope, URI uri) {
+		if (scope == null || uri == null) {
+			return;
+		}
+		ScopeState state = states.computeIfAbsent(scope, s -> new ScopeState());
+		long now = nanoClock.getAsLong();
+		synchronized (state) {
+			state.pendingURIs.remove(uri);
+			state.pendingURIs.add(uri);
+			state.lastURI = uri;
+			long delay = state.recordEditAndComputeDelay(uri, now);
+			if (state.pending != null) {
+				state.pending.cancel(false);
+			}
+			try {
+				state.pending = scheduler.schedule(() -> fire(scope, state), delay, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				logger.debug("didChange debounce rejected for {}: {}", scope.getProjectRoot(), e.getMessage());
+				state.pending = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns the delay that would be used for the next edit of
+	 * {@code uri} in {@code scope}, without recording an edit.
+	 */
+	long getCurrentDelayMs(ProjectScope scope, URI uri) {
+		ScopeState state = scope != null ? states.get(scope) : null;
+		if (state == null) {
+			return INITIAL_DELAY_MS;
+		}
+		synchronized (state) {
+			return state.computeDelay(state.typingGapNanosByURI.getOrDefault(uri, 0.0));
+		}
+	}
+
+	/** Returns {@code true} if the scope has an armed, not-yet-fired timer. */
+	boolean hasPending(ProjectScope scope) {
+		ScopeState state = scope != null ? states.get(scope) : null;
+		if (state == null) {
+			return false;
+		}
+		synchronized (state) {
+			return state.pending != null && !state.pending.isDone();
+		}
+	}
+
+	/** Forgets all state kept for a scope (e.g. when the scope is removed). */
+	void forget(ProjectScope scope) {
+		ScopeState state = scope != null ? states.remove(scope) : null;
+		if (state != null) {
+			synchronized (state) {
+				if (state.pending != null) {
+					state.pending.cancel(false);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the state kept for a scope that was evicted or replaced. Unlike
+	 * {@link #forget}, an armed timer still fires, so a pending edit is
+	 * compiled (in the replacing scope, if any).
+	 */
+	void release(ProjectScope scope) {
+		if (scope != null) {
+			states.remove(scope);
+		}
+	}
+
+	/**
+	 * Forgets the typing history of {@code uri} in every scope (e.g. when
+	 * the document is closed). A pending compile that includes the URI
+	 * still fires.
+	 */
+	void forgetURI(URI uri) {
+		if (uri == null) {
+			return;
+		}
+		for (ScopeState state : states.values()) {
+			synchronized (state) {
+				state.lastEditNanosByURI.remove(uri);
+				state.typingGapNanosByURI.remove(uri);
+			}
+		}
+	}
+
+	/** Cancels every pending timer. */
+	void cancelAll() {
+		for (ProjectScope scope : states.keySet()) {
+			forget(scope);
+		}
+	}
+
+	/** Collects the scope's burst and hands its compilation to the compiler. */
+	private void fire(ProjectScope scope, ScopeState state) {
+		URI contextURI;
+		Set<URI> changedURIs;
+		synchronized (state) {
+			if (state.pendingURIs.isEmpty()) {
+				return;
+			}
+			contextURI = state.lastURI;
+			changedURIs = new LinkedHashSet<>(state.pendingURIs);
+			state.pendingURIs.clear();
+			state.pending = null;
+		}
+		try {
+			compiler.execute(WorkPriority.VISIBLE_DOCUMENT.wrap(() -> compile(scope, state, contextURI, changedURIs)));
+		} catch (RejectedExecutionException e) {
+			logger.debug("didChange compile rejected for {}: {}", scope.getProjectRoot(), e.getMessage());
+		}
+	}
+
+	private void compile(ProjectScope scope, ScopeState state, URI contextURI, Set<URI> changedURIs) {
+		long start = nanoClock.getAsLong();
+		try {
+			callback.compile(scope, contextURI, changedURIs);
+		} finally {
+			long elapsedNanos = nanoClock.getAsLong() - start;
+			synchronized (state) {
+				state.recordCompileLatency(elapsedNanos);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("didChange compile for {} ({} file(s)) took {}ms",
+						scope.getProjectRoot(), changedURIs.size(),
+						TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+			}
+		}
+	}
+
+	/**
+	 * Mutable per-scope debounce state. All access is guarded by the
+	 * instance monitor.
+	 */
+	private static final class ScopeState {
+		private final Set<URI> pendingURIs = new LinkedHashSet<>();
+		private final Map<URI, Long> lastEditNanosByURI = new HashMap<>();
+		private final Map<URI, Double> typingGapNanosByURI = new HashMap<>();
+		private URI lastURI;
+		private ScheduledFuture<?> pending;
+		private double compileLatencyNanos;
+
+		long recordEditAndComputeDelay(URI uri, long now) {
+			Long previous = lastEditNanosByURI.put(uri, now);
+			double typingGap = typingGapNanosByURI.getOrDefault(uri, 0.0);
+			if (previous != null) {
+				long gap = now - previous;
+				if (gap <= TimeUnit.MILLISECONDS.toNanos(BURST_GAP_MS)) {
+					typingGap = typingGap == 0.0 ? gap : ewma(typingGap, gap);
+					typingGapNanosByURI.put(uri, typingGap);
+				}
+			}
+			return computeDelay(typingGap);
+		}
+
+		void recordCompileLatency(long nanos) {
+			compileLatencyNanos = compileLatencyNanos == 0.0 ? nanos : ewma(compileLatencyNanos, nanos);
+		}
+
+		long computeDelay(double typingGapNanos) {
+			if (typingGapNanos == 0.0 && compileLatencyNanos == 0.0) {
+				return INITIAL_DELAY_MS;
+			}
+			long typingComponent = TimeUnit.NANOSECONDS.toMillis((long) (typingGapNanos * TYPING_GAP_FACTOR));
+			long compileComponent = TimeUnit.NANOSECONDS.toMillis((long) (compileLatencyNanos * COMPILE_LATENCY_FACTOR));
+			long delay = Math.max(typingComponent, compileComponent);
+			return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, delay));
+		}
+
+		private static double ewma(double average, double sample) {
+			return EWMA_ALPHA * sample + (1.0 - EWMA_ALPHA) * average;
+		}
+	}
+}
@@ -28,7 +28,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -44,7 +43,7 @@ import com.tomaszrup.groovyls.util.MdcProjectContext;
  * {@link GroovyLanguageServer}, {@link GroovyServices},
  * {@link ClasspathResolutionCoordinator}, and
  * {@link com.tomaszrup.groovyls.importers.MavenProjectImporter}.
- * This class consolidates them into 3 shared pools:</p>
+ * This class consolidates them into 4 shared pools:</p>
  *
  * <ul>
  *   <li><b>Scheduling pool</b> — low-overhead scheduled executor for
@@ -57,8 +56,18 @@ import com.tomaszrup.groovyls.util.MdcProjectContext;
  *   <li><b>Background compilation pool</b> — single-threaded executor for
  *       AST compilation work (didOpen background compilation, lazy
  *       classpath resolution compilation, backfill compilation).</li>
+ *   <li><b>Request pool</b> — small, bounded pool that runs LSP request
+ *       handlers off the JSON-RPC listener thread so that
+ *       {@code $/cancelRequest} and subsequent notifications are processed
+ *       while a slow request is still computing.</li>
  * </ul>
  *
+ * <p>The import, background compilation and request pools dequeue tasks by
+ * {@link WorkPriority} rather than FIFO, and compilations are admitted by
+ * {@link PriorityPermits}, so interactive work is never queued behind a
+ * backfill. Queue wait times per class are collected in
+ * {@link #getQueueWaitStats()}.</p>
+ *
  * <p>Lifecycle: create one instance in {@link GroovyLanguageServer},
  * pass it to all components, and call {@link #shutdownAll()} on server
  * shutdown.</p>
@@ -90,13 +99,31 @@ public class ExecutorPools {
      */
     private final ExecutorService backgroundCompilationPool;
 
+    /**
+     * Maximum number of LSP requests waiting for a request pool thread.
+     * Further requests are rejected and answered with {@code ServerCancelled}
+     * rather than queued behind work the client has likely given up on.
+     */
+    static final int REQUEST_QUEUE_CAPACITY = 128;
+
+    /**
+     * Bounded pool for LSP request handlers (hover, completion, references,
+     * ...). Sized to {@code max(2, min(4, availableProcessors))} so that a
+     * slow request cannot starve interactive ones.
+     */
+    private final ExecutorService requestPool;
+
     /**
      * Global semaphore that caps the total number of concurrent compilations
      * across ALL thread pools (import pool, background pool, LSP threads).
      * This prevents memory spikes when many projects resolve their classpaths
      * simultaneously and each triggers compilation on the import pool thread.
+     * Waiting compilations are admitted most urgent class first.
      */
-    private final Semaphore compilationPermits;
+    private final PriorityPermits compilationPermits;
+
+    /** Time tasks spent queued in the priority pools, per class. */
+    private final QueueWaitStats queueWaitStats = new QueueWaitStats();
 
     public ExecutorPools() {
         ScheduledExecutorService rawSchedulingPool = Executors.newScheduledThreadPool(2, r -> {
@@ -108,30 +135,32 @@ public class ExecutorPools {
 
         // Cap the import pool at 4 threads to limit Gradle daemon parallelism
         // and reduce CPU pressure during classpath resolution.
-        ExecutorService rawImportPool = Executors.newFixedThreadPool(
-                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
-                    Thread t = new Thread(r, "groovyls-import");
-                    t.setDaemon(true);
-                    return t;
-                });
-        this.importPool = new MdcExecutorService(rawImportPool);
+        // Import work defaults to BACKGROUND_SCOPE; resolution triggered by
+        // an opened file and backfill are tagged by the coordinator.
+        this.importPool = new PriorityExecutorService(
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+                "groovyls-import", WorkPriority.BACKGROUND_SCOPE, Integer.MAX_VALUE, queueWaitStats);
 
         int bgCompileThreads = Math.min(2, Runtime.getRuntime().availableProcessors());
-        ExecutorService rawBgPool = Executors.newFixedThreadPool(bgCompileThreads, r -> {
-            Thread t = new Thread(r, "groovyls-bg-compile");
-            t.setDaemon(true);
-            return t;
-        });
-        this.backgroundCompilationPool = new MdcExecutorService(rawBgPool);
+        this.backgroundCompilationPool = new PriorityExecutorService(bgCompileThreads,
+                "groovyls-bg-compile", WorkPriority.BACKGROUND_SCOPE, Integer.MAX_VALUE, queueWaitStats);
+
+        int requestThreads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.requestPool = new PriorityExecutorService(requestThreads,
+                "groovyls-request", WorkPriority.INTERACTIVE, REQUEST_QUEUE_CAPACITY, queueWaitStats);
 
         // Allow at most N concurrent compilations regardless of which pool
         // they originate from.  When heap is small (< 1 GB), restrict to 1
         // concurrent compilation to prevent overlapping peak AST memory from
         // causing OOM.  Otherwise allow up to 2 concurrent compilations.
+        // A background compile that yields to interactive work keeps its
+        // AST, so one such compile may be parked on top of the permits, and
+        // none on a small heap, where the permit alone bounds the ASTs.
         long maxHeapMB = Runtime.getRuntime().maxMemory() / (1024 * 1024);
         int permits = maxHeapMB < 1024 ? 1 : Math.min(2, Runtime.getRuntime().availableProcessors());
-        this.compilationPermits = new Semaphore(permits);
-        logger.info("Compilation permits: {} (maxHeap={}MB)", permits, maxHeapMB);
+        int maxYielded = maxHeapMB < 1024 ? 0 : 1;
+        this.compilationPermits = new PriorityPermits(permits, maxYielded);
+        logger.info("Compilation permits: {} (+{} yielded, maxHeap={}MB)", permits, maxYielded, maxHeapMB);
     }
 
     /** Scheduled executor for debounce timers and delayed task scheduling. */
@@ -149,28 +178,45 @@ public class ExecutorPools {
         return backgroundCompilationPool;
     }
 
+    /** Bounded pool for LSP request handlers; rejects work when saturated. */
+    public ExecutorService getRequestPool() {
+        return requestPool;
+    }
+
     /**
      * Global semaphore limiting concurrent compilations across all pools.
      * Callers should {@code acquire()} before starting compilation work
      * and {@code release()} in a {@code finally} block afterwards.
      */
-    public Semaphore getCompilationPermits() {
+    public PriorityPermits getCompilationPermits() {
         return compilationPermits;
     }
 
+    /**
+     * Time tasks spent queued in the import, background compilation and
+     * request pools, per {@link WorkPriority}. Waits for a compilation
+     * permit are in {@code getCompilationPermits().getWaitStats()}.
+     */
+    public QueueWaitStats getQueueWaitStats() {
+        return queueWaitStats;
+    }
+
     /**
      * Shut down all pools. Attempts graceful shutdown first, then forces
      * termination after 5 seconds.
      */
     public void shutdownAll() {
-        logger.debug("Shutting down executor pools");
+        logger.debug("Shutting down executor pools; queue waits: {}; compilation permit waits: {}",
+                queueWaitStats.summary(), compilationPermits.getWaitStats().summary());
         schedulingPool.shutdownNow();
         importPool.shutdownNow();
         backgroundCompilationPool.shutdownNow();
+        requestPool.shutdownNow();
         try {
             schedulingPool.awaitTermination(5, TimeUnit.SECONDS);
             importPool.awaitTermination(5, TimeUnit.SECONDS);
             backgroundCompilationPool.awaitTermination(5, TimeUnit.SECONDS);
+            requestPool.awaitTermination(5, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
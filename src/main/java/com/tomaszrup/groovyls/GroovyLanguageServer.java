@@ -188,6 +188,12 @@ public class GroovyLanguageServer implements LanguageServer, LanguageClientAware
         mavenImporter.setImportPool(executorPools.getImportPool());
         this.importers.add(mavenImporter);
 
+        // Classpath shards are scanned on the import pool, in the class of
+        // the work that needs them.
+        ExecutorService importPool = executorPools.getImportPool();
+        com.tomaszrup.groovyls.compiler.SharedClasspathIndexCache.getInstance().setScanExecutor(
+                task -> importPool.execute(WorkPriority.current().wrap(task)));
+
         // Forward configuration changes to importers that need them.
         this.groovyServices.setSettingsChangeListener(this::applyImporterSettings);
     }
@@ -329,7 +335,7 @@ public class GroovyLanguageServer implements LanguageServer, LanguageClientAware
         CompletionOptions completionOptions = new CompletionOptions(true, Arrays.asList("."));
         ServerCapabilities serverCapabilities = new ServerCapabilities();
         serverCapabilities.setCompletionProvider(completionOptions);
-        serverCapabilities.setTextDocumentSync(TextDocumentSyncKind.Full);
+        serverCapabilities.setTextDocumentSync(TextDocumentSyncKind.Incremental);
         serverCapabilities.setDocumentSymbolProvider(true);
         serverCapabilities.setWorkspaceSymbolProvider(true);
         serverCapabilities.setReferencesProvider(true);
@@ -29,8 +29,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
@@ -42,6 +40,8 @@ import org.eclipse.lsp4j.services.LanguageClientAware;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
+import com.tomaszrup.groovyls.compiler.WorkspaceSymbolIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.config.ICompilationUnitFactory;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
@@ -65,9 +65,6 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 	private static final String IMPORT_KEYWORD = "import ";
 	private static final String PACKAGE_KEYWORD = "package ";
 
-	/** Debounce delay for didChange recompilation (milliseconds). */
-	private static final long DEBOUNCE_DELAY_MS = 300;
-
 	// --- Callback interfaces (kept here for backward compatibility) ---
 
 	/**
@@ -99,12 +96,11 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 	private final ExecutorService backgroundCompiler;
 
 	/**
-	 * Atomic holder for the pending debounce future. Uses
-	 * {@link AtomicReference#compareAndSet} to prevent the TOCTOU race
-	 * where two concurrent {@code didChange} calls could both cancel the
-	 * same future and both schedule new ones, causing redundant compilation.
+	 * Per-scope, adaptive debounce scheduler for {@code didChange}
+	 * recompilation. An edit in one project never cancels the pending
+	 * recompile of another.
 	 */
-	private final AtomicReference<ScheduledFuture<?>> pendingDebounce = new AtomicReference<>();
+	private final DidChangeDebouncer didChangeDebouncer;
 
 	private final CompletionHandler completionHandler;
 	private final DefinitionHandler definitionHandler;
@@ -115,19 +111,51 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 	private final ConfigurationChangeHandler configChangeHandler;
 	private final CodeActionHandler codeActionHandler;
 
+	/** Runs request handlers on the bounded request pool; see {@link LspRequestExecutor}. */
+	private final LspRequestExecutor requestExecutor;
+
+	/** Usages of classes and members across all scopes, for references and rename. */
+	private final WorkspaceReferenceIndex workspaceReferenceIndex;
+
+	/** Declarations across all scopes, for workspace symbols. */
+	private final WorkspaceSymbolIndex workspaceSymbolIndex;
+
 	public GroovyServices(ICompilationUnitFactory factory, ExecutorPools executorPools) {
+		this(factory, executorPools, WorkspaceReferenceIndex.getDefaultCacheDir(),
+				WorkspaceSymbolIndex.getDefaultCacheDir());
+	}
+
+	/**
+	 * Creates the services with the persisted reference and symbol indexes
+	 * kept under the given directories instead of the user's home.
+	 */
+	public GroovyServices(ICompilationUnitFactory factory, ExecutorPools executorPools,
+			Path referenceCacheDir, Path symbolCacheDir) {
 		this.schedulingPool = executorPools.getSchedulingPool();
 		this.backgroundCompiler = executorPools.getBackgroundCompilationPool();
+		this.didChangeDebouncer = new DidChangeDebouncer(schedulingPool, backgroundCompiler,
+				this::runDidChangeCompilation);
 		this.scopeManager = new ProjectScopeManager(factory, fileContentsTracker);
+		this.scopeManager.setScopeEvictionListener(didChangeDebouncer::release);
 		this.compilationService = new CompilationService(fileContentsTracker);
 		this.compilationService.setCompilationPermits(executorPools.getCompilationPermits());
+		this.compilationService.setPartitionExecutor(backgroundCompiler);
+		this.workspaceReferenceIndex = new WorkspaceReferenceIndex(referenceCacheDir,
+				task -> backgroundCompiler.execute(WorkPriority.BACKFILL.wrap(task)));
+		this.workspaceReferenceIndex.setUnsavedCheck(fileContentsTracker::hasUnsavedChanges);
+		this.compilationService.setWorkspaceReferenceIndex(workspaceReferenceIndex);
+		this.workspaceSymbolIndex = new WorkspaceSymbolIndex(symbolCacheDir,
+				task -> backgroundCompiler.execute(WorkPriority.BACKFILL.wrap(task)));
+		this.workspaceSymbolIndex.setUnsavedCheck(fileContentsTracker::hasUnsavedChanges);
+		this.compilationService.setWorkspaceSymbolIndex(workspaceSymbolIndex);
 		this.fileChangeHandler = new FileChangeHandler(scopeManager, compilationService, schedulingPool);
 		var importRewriter = new GroovyImportRewriter(fileContentsTracker);
 		this.fileChangeHandler.setJavaImportMoveListener(
 				(projectRoot, movedImports) -> importRewriter.applyGroovyImportUpdatesForJavaMoves(
 						projectRoot, movedImports, languageClient.get()));
 		this.documentResolverService = new DocumentResolverService(scopeManager);
-		this.providerFacade = new LspProviderFacade(fileContentsTracker);
+		this.providerFacade = new LspProviderFacade(fileContentsTracker, workspaceReferenceIndex,
+				workspaceSymbolIndex);
 		this.completionHandler = new CompletionHandler(scopeManager, compilationService, providerFacade, fileContentsTracker);
 		this.definitionHandler = new DefinitionHandler(fileContentsTracker);
 		this.formattingHandler = new FormattingHandler(providerFacade, fileContentsTracker);
@@ -137,6 +165,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		this.requestGuard = new LspRequestGuard(scopeManager);
 		this.configChangeHandler = new ConfigurationChangeHandler(scopeManager, compilationService);
 		this.codeActionHandler = new CodeActionHandler(compilationService, scopeManager, backgroundCompiler, providerFacade);
+		this.requestExecutor = new LspRequestExecutor(executorPools.getRequestPool(), fileContentsTracker::getVersion);
 	}
 
 	/**
@@ -147,6 +176,15 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		this(factory, new ExecutorPools());
 	}
 
+	/**
+	 * Convenience constructor that creates its own {@link ExecutorPools} and
+	 * keeps the persisted indexes under {@code indexCacheDir}, so that tests
+	 * don't share the user's caches.
+	 */
+	public GroovyServices(ICompilationUnitFactory factory, Path indexCacheDir) {
+		this(factory, new ExecutorPools(), indexCacheDir.resolve("references"), indexCacheDir.resolve("symbols"));
+	}
+
 	// --- Lifecycle / wiring ---
 
 	@Override
@@ -160,10 +198,9 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		// Pool shutdown is handled centrally by ExecutorPools.shutdownAll()
 		// called from GroovyLanguageServer.shutdown().
 		// Cancel any pending debounce to avoid stale tasks.
-		ScheduledFuture<?> pending = pendingDebounce.getAndSet(null);
-		if (pending != null) {
-			pending.cancel(false);
-		}
+		didChangeDebouncer.cancelAll();
+		workspaceReferenceIndex.saveAll();
+		workspaceSymbolIndex.saveAll();
 
 		// Dispose all project scopes to release classloaders, shared caches, etc.
 		for (ProjectScope scope : scopeManager.getProjectScopes()) {
@@ -220,6 +257,12 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 	public void onImportComplete() {
 		scopeManager.setImportInProgress(false);
 		List<ProjectScope> scopes = scopeManager.getProjectScopes();
+		// Let scopes that won't be compiled take part in references, rename
+		// and workspace symbols
+		for (ProjectScope scope : scopes) {
+			workspaceReferenceIndex.scheduleLoad(scope.getProjectRoot());
+			workspaceSymbolIndex.scheduleLoad(scope.getProjectRoot());
+		}
 		if (scopes.isEmpty()) {
 			compileDefaultScopeOpenFiles();
 			return;
@@ -459,7 +502,8 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 				// Classpath not yet resolved — fire a quick syntax-only check
 				// so the user sees parse errors immediately, then trigger lazy
 				// classpath resolution (which will compile fully once resolved).
-				backgroundCompiler.submit(() -> compilationService.syntaxCheckSingleFile(uri));
+				backgroundCompiler.submit(WorkPriority.VISIBLE_DOCUMENT.wrap(
+						() -> compilationService.syntaxCheckSingleFile(uri)));
 				coordinator.requestResolution(scope, uri);
 			} else {
 				// Classpath is resolved. Run staged compilation:
@@ -477,7 +521,8 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		} else {
 			// No matching scope or import is pending — submit a syntax-only
 			// check so the user still gets parse-error feedback.
-			backgroundCompiler.submit(() -> compilationService.syntaxCheckSingleFile(uri));
+			backgroundCompiler.submit(WorkPriority.VISIBLE_DOCUMENT.wrap(
+					() -> compilationService.syntaxCheckSingleFile(uri)));
 		}
 	}
 
@@ -487,16 +532,12 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		traceDidChangeIfEnabled(params);
 
 		URI changeUri = URI.create(params.getTextDocument().getUri());
-		setDidChangeMdcProject(changeUri);
-
-		ScheduledFuture<?> newFuture = schedulingPool.schedule(
-				() -> runDidChangeCompilation(changeUri),
-				DEBOUNCE_DELAY_MS,
-				TimeUnit.MILLISECONDS);
-		ScheduledFuture<?> prev = pendingDebounce.getAndSet(newFuture);
-		if (prev != null) {
-			prev.cancel(false);
+		ProjectScope changeScope = scopeManager.findProjectScope(changeUri);
+		if (changeScope != null) {
+			MdcProjectContext.setProject(changeScope.getProjectRoot());
 		}
+
+		didChangeDebouncer.schedule(changeScope, changeUri);
 		MdcProjectContext.clear();
 	}
 
@@ -548,16 +589,17 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		}
 	}
 
-	private void setDidChangeMdcProject(URI changeUri) {
-		ProjectScope changeScope = scopeManager.findProjectScope(changeUri);
-		if (changeScope != null) {
-			MdcProjectContext.setProject(changeScope.getProjectRoot());
-		}
-	}
-
-	private void runDidChangeCompilation(URI uri) {
+	private void runDidChangeCompilation(ProjectScope debouncedScope, URI uri, Set<URI> changedURIs) {
 		try {
 			ProjectScope scope = scopeManager.findProjectScope(uri);
+			if (scope != debouncedScope) {
+				// The scope was replaced (e.g. project re-registration) while
+				// the timer was pending — drop the stale debounce state.
+				didChangeDebouncer.forget(debouncedScope);
+			}
+			if (logger.isDebugEnabled() && changedURIs.size() > 1) {
+				logger.debug("Coalesced {} edited file(s) into one didChange compilation", changedURIs.size());
+			}
 			if (scope != null && !scopeManager.isImportPendingFor(scope)) {
 				handleDidChangeCompilationForScope(scope, uri);
 			}
@@ -595,6 +637,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		try {
 			URI uri = URI.create(params.getTextDocument().getUri());
 			semanticTokensHandler.clearCache(uri);
+			didChangeDebouncer.forgetURI(uri);
 		} catch (Exception ignored) {
 			// best effort cache cleanup
 		}
@@ -642,7 +685,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 	@Override
 	public CompletableFuture<Hover> hover(HoverParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("hover", uri, () -> {
+		return requestExecutor.submitVersioned("hover", uri, () -> failSoftRequest("hover", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
@@ -650,7 +693,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 			}
 
 			return providerFacade.provideHover(visitor, params.getTextDocument(), params.getPosition());
-		}, null);
+		}, null));
 	}
 
 	@Override
@@ -659,16 +702,16 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		Position position = params.getPosition();
 		URI uri = URI.create(textDocument.getUri());
 
-		return failSoftRequest("completion", uri,
+		return requestExecutor.submitVersioned("completion", uri, () -> failSoftRequest("completion", uri,
 				() -> completionHandler.provideCompletionForUri(params, uri, position),
-				Either.forRight(new CompletionList()));
+				Either.forRight(new CompletionList())));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> definition(
 			DefinitionParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("definition", uri, () -> {
+		return requestExecutor.submit("definition", () -> failSoftRequest("definition", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
@@ -691,7 +734,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 						}
 						return result;
 					});
-		}, Either.forLeft(Collections.emptyList()));
+		}, Either.forLeft(Collections.emptyList())));
 	}
 
 	@Override
@@ -700,7 +743,7 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		Position position = params.getPosition();
 		URI uri = URI.create(textDocument.getUri());
 
-		return failSoftRequest("signatureHelp", uri, () -> {
+		return requestExecutor.submitVersioned("signatureHelp", uri, () -> failSoftRequest("signatureHelp", uri, () -> {
 			ProjectScope scope = scopeManager.findProjectScope(uri);
 			if (scope == null) {
 				return CompletableFuture.completedFuture(new SignatureHelp());
@@ -739,14 +782,14 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 
 			// Provider logic runs lock-free on the captured AST snapshot
 			return providerFacade.provideSignatureHelp(visitor, params.getTextDocument(), params.getPosition());
-		}, new SignatureHelp());
+		}, new SignatureHelp()));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> typeDefinition(
 			TypeDefinitionParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("typeDefinition", uri, () -> {
+		return requestExecutor.submit("typeDefinition", () -> failSoftRequest("typeDefinition", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
@@ -756,14 +799,14 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 			return providerFacade.provideTypeDefinition(visitor, scope.getJavaSourceLocator(),
 					params.getTextDocument(), params.getPosition())
 					.thenApply(definitionHandler::toLspDefinitionResult);
-		}, Either.forLeft(Collections.emptyList()));
+		}, Either.forLeft(Collections.emptyList())));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> implementation(
 			ImplementationParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("implementation", uri, () -> {
+		return requestExecutor.submit("implementation", () -> failSoftRequest("implementation", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
@@ -772,40 +815,43 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 
 			return providerFacade.provideImplementation(visitor, params.getTextDocument(), params.getPosition())
 					.thenApply(definitionHandler::toLspDefinitionResult);
-		}, Either.forLeft(Collections.emptyList()));
+		}, Either.forLeft(Collections.emptyList())));
 	}
 
 	@Override
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(DocumentHighlightParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
-		ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
-		if (visitor == null) {
-			return CompletableFuture.completedFuture(Collections.emptyList());
-		}
+		return requestExecutor.submitVersioned("documentHighlight", uri, () -> {
+			ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
+			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
+			if (visitor == null) {
+				return CompletableFuture.completedFuture(Collections.emptyList());
+			}
 
-		return providerFacade.provideDocumentHighlights(visitor, params.getTextDocument(), params.getPosition());
+			return providerFacade.provideDocumentHighlights(visitor, params.getTextDocument(), params.getPosition());
+		});
 	}
 
 	@Override
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("references", uri, () -> {
+		return requestExecutor.submit("references", () -> failSoftRequest("references", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
 				return CompletableFuture.completedFuture(Collections.emptyList());
 			}
 
-			return providerFacade.provideReferences(visitor, params.getTextDocument(), params.getPosition());
-		}, Collections.emptyList());
+			return providerFacade.provideReferences(visitor, scope.getProjectRoot(), params.getTextDocument(),
+					params.getPosition());
+		}, Collections.emptyList()));
 	}
 
 	@Override
 	public CompletableFuture<List<Either<SymbolInformation, DocumentSymbol>>> documentSymbol(
 			DocumentSymbolParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		return failSoftRequest("documentSymbol", uri, () -> {
+		return requestExecutor.submitVersioned("documentSymbol", uri, () -> failSoftRequest("documentSymbol", uri, () -> {
 			ProjectScope scope = ensureCompiledForContext(uri);
 			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
 			if (visitor == null) {
@@ -813,48 +859,57 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 			}
 
 			return providerFacade.provideDocumentSymbols(visitor, params.getTextDocument());
-		}, Collections.emptyList());
+		}, Collections.emptyList()));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(
 			WorkspaceSymbolParams params) {
-		return workspaceSymbolHandler.symbol(params);
+		return requestExecutor.submit("workspaceSymbol", () -> workspaceSymbolHandler.symbol(params));
 	}
 
 	@Override
 	public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> prepareRename(
 			PrepareRenameParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
-		ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
-		if (visitor == null) {
-			return CompletableFuture.completedFuture(null);
-		}
+		return requestExecutor.submitVersioned("prepareRename", uri, () -> {
+			ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
+			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
+			if (visitor == null) {
+				return CompletableFuture.completedFuture(null);
+			}
 
-		return providerFacade.providePrepareRename(visitor, params);
+			return providerFacade.providePrepareRename(visitor, params);
+		});
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
-		ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
-		if (visitor == null) {
-			return CompletableFuture.completedFuture(new WorkspaceEdit());
-		}
+		return requestExecutor.submitVersioned("rename", uri, () -> {
+			ProjectScope scope = compilationService.ensureCompiledForContext(uri, scopeManager, backgroundCompiler);
+			ASTNodeVisitor visitor = scope != null ? scope.getAstVisitor() : null;
+			if (visitor == null) {
+				return CompletableFuture.completedFuture(new WorkspaceEdit());
+			}
 
-		return providerFacade.provideRename(visitor, params);
+			return providerFacade.provideRename(visitor, scope.getProjectRoot(), params);
+		});
 	}
 
 	@Override
 	public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
-		return codeActionHandler.codeAction(params);
+		URI uri = URI.create(params.getTextDocument().getUri());
+		return requestExecutor.submitVersioned("codeAction", uri, () -> codeActionHandler.codeAction(params));
 	}
 
 	@Override
 	public CompletableFuture<List<InlayHint>> inlayHint(InlayHintParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
+		return requestExecutor.submitVersioned("inlayHint", uri, () -> provideInlayHints(params, uri));
+	}
+
+	private CompletableFuture<List<InlayHint>> provideInlayHints(InlayHintParams params, URI uri) {
 		try {
 			return failSoftRequest("inlayHint", uri, () -> {
 				ProjectScope scope = ensureCompiledForContext(uri);
@@ -877,17 +932,22 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 
 	@Override
 	public CompletableFuture<SemanticTokens> semanticTokensFull(SemanticTokensParams params) {
-		return semanticTokensHandler.semanticTokensFull(params);
+		URI uri = URI.create(params.getTextDocument().getUri());
+		return requestExecutor.submitVersioned("semanticTokensFull", uri,
+				() -> semanticTokensHandler.semanticTokensFull(params));
 	}
 
 	@Override
 	public CompletableFuture<SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params) {
-		return semanticTokensHandler.semanticTokensRange(params);
+		URI uri = URI.create(params.getTextDocument().getUri());
+		return requestExecutor.submitVersioned("semanticTokensRange", uri,
+				() -> semanticTokensHandler.semanticTokensRange(params));
 	}
 
 	@Override
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
-		return CompletableFuture.completedFuture(documentResolverService.resolveCompletionItem(unresolved));
+		return requestExecutor.submit("resolveCompletionItem",
+				() -> CompletableFuture.completedFuture(documentResolverService.resolveCompletionItem(unresolved)));
 	}
 
 	@Override
@@ -895,8 +955,9 @@ public class GroovyServices implements TextDocumentService, WorkspaceService, La
 		if (!scopeManager.isFormattingEnabled()) {
 			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
-		return formattingHandler.formatting(params,
+		URI uri = URI.create(params.getTextDocument().getUri());
+		return requestExecutor.submitVersioned("formatting", uri, () -> formattingHandler.formatting(params,
 				scopeManager.isFormattingOrganizeImportsEnabled(),
-				this::ensureCompiledForContext);
+				this::ensureCompiledForContext));
 	}
 }
@@ -39,6 +39,7 @@ import com.tomaszrup.groovyls.providers.CompletionProvider;
 import com.tomaszrup.groovyls.providers.HoverProvider;
 import com.tomaszrup.groovyls.providers.SignatureHelpProvider;
 import com.tomaszrup.groovyls.providers.SpockCompletionProvider;
+import com.tomaszrup.groovyls.providers.TypeUsageHistory;
 
 /**
  * Sub-facade for intelligence-related LSP providers: hover, completion,
@@ -46,6 +47,9 @@ import com.tomaszrup.groovyls.providers.SpockCompletionProvider;
  */
 final class IntelligenceProviderFacade {
 
+    /** Shared by every completion request of the session, across scopes. */
+    private final TypeUsageHistory typeUsageHistory = new TypeUsageHistory();
+
     CompletableFuture<Hover> provideHover(ASTNodeVisitor visitor, TextDocumentIdentifier textDocument, Position position) {
         HoverProvider provider = new HoverProvider(visitor);
         return provider.provideHover(textDocument, position);
@@ -57,7 +61,8 @@ final class IntelligenceProviderFacade {
             Set<String> classpathSymbolClasspathElements,
             TextDocumentIdentifier textDocument,
             Position position) {
-        CompletionProvider provider = new CompletionProvider(visitor, classpathSymbolIndex, classpathSymbolClasspathElements);
+        CompletionProvider provider = new CompletionProvider(visitor, classpathSymbolIndex, classpathSymbolClasspathElements,
+                typeUsageHistory);
         return provider.provideCompletion(textDocument, position);
     }
 
@@ -1,6 +1,8 @@
 package com.tomaszrup.groovyls;
 
 import com.tomaszrup.groovyls.compiler.ClasspathSymbolIndex;
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
+import com.tomaszrup.groovyls.compiler.WorkspaceSymbolIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 import com.tomaszrup.groovyls.util.JavaSourceLocator;
@@ -33,6 +35,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Either3;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -47,14 +50,16 @@ import java.util.concurrent.CompletableFuture;
  * </ul>
  */
 final class LspProviderFacade {
-    private final NavigationProviderFacade navigation = new NavigationProviderFacade();
+    private final NavigationProviderFacade navigation;
     private final IntelligenceProviderFacade intelligence = new IntelligenceProviderFacade();
     private final RefactoringProviderFacade refactoring;
     private final SymbolProviderFacade symbols;
 
-    LspProviderFacade(FileContentsTracker fileContentsTracker) {
-        this.refactoring = new RefactoringProviderFacade(fileContentsTracker);
-        this.symbols = new SymbolProviderFacade(fileContentsTracker);
+    LspProviderFacade(FileContentsTracker fileContentsTracker, WorkspaceReferenceIndex workspaceReferenceIndex,
+                      WorkspaceSymbolIndex workspaceSymbolIndex) {
+        this.navigation = new NavigationProviderFacade(workspaceReferenceIndex);
+        this.refactoring = new RefactoringProviderFacade(fileContentsTracker, workspaceReferenceIndex);
+        this.symbols = new SymbolProviderFacade(fileContentsTracker, workspaceSymbolIndex);
     }
 
     CompletableFuture<Hover> provideHover(ASTNodeVisitor visitor, TextDocumentIdentifier textDocument, Position position) {
@@ -112,9 +117,10 @@ final class LspProviderFacade {
     @SuppressWarnings("java:S1452")
     CompletableFuture<List<? extends Location>> provideReferences(
             ASTNodeVisitor visitor,
+            Path scopeRoot,
             TextDocumentIdentifier textDocument,
             Position position) {
-        return navigation.provideReferences(visitor, textDocument, position);
+        return navigation.provideReferences(visitor, scopeRoot, textDocument, position);
     }
 
     CompletableFuture<List<Either<org.eclipse.lsp4j.SymbolInformation, DocumentSymbol>>> provideDocumentSymbols(
@@ -123,8 +129,8 @@ final class LspProviderFacade {
         return symbols.provideDocumentSymbols(visitor, textDocument);
     }
 
-    CompletableFuture<List<WorkspaceSymbol>> provideWorkspaceSymbols(ASTNodeVisitor visitor, String query) {
-        return symbols.provideWorkspaceSymbols(visitor, query);
+    CompletableFuture<List<WorkspaceSymbol>> provideWorkspaceSymbols(String query) {
+        return symbols.provideWorkspaceSymbols(query);
     }
 
     CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> providePrepareRename(
@@ -133,8 +139,8 @@ final class LspProviderFacade {
         return refactoring.providePrepareRename(visitor, params);
     }
 
-    CompletableFuture<WorkspaceEdit> provideRename(ASTNodeVisitor visitor, RenameParams params) {
-        return refactoring.provideRename(visitor, params);
+    CompletableFuture<WorkspaceEdit> provideRename(ASTNodeVisitor visitor, Path scopeRoot, RenameParams params) {
+        return refactoring.provideRename(visitor, scopeRoot, params);
     }
 
     CompletableFuture<List<Either<Command, CodeAction>>> provideCodeActions(
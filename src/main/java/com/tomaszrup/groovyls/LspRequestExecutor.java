@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tomaszrup.groovyls.util.RequestCancellation;
+
+/**
+ * Runs LSP request handlers off the JSON-RPC listener thread, on the
+ * bounded request pool from {@link ExecutorPools}.
+ *
+ * <p>The future returned to lsp4j is the one lsp4j cancels when the client
+ * sends {@code $/cancelRequest}. Each task gets a {@link CancelChecker}
+ * bound to that future, installed via {@link RequestCancellation} so that
+ * provider loops can stop early. The checker is consulted before the
+ * handler starts and after it finishes, so a request that is dead by the
+ * time a worker picks it up costs no CPU.</p>
+ *
+ * <p>Requests submitted through {@link #submitVersioned} are additionally
+ * answered with {@code ContentModified} once the document they were issued
+ * against has been edited: their positions refer to text that no longer
+ * exists, and the client re-requests for the new version anyway.</p>
+ *
+ * <p>When the pool's queue is full, requests are answered with
+ * {@code ServerCancelled} instead of piling up behind stale work.</p>
+ *
+ * <p>Handlers run as {@link WorkPriority#INTERACTIVE} work, so compilations
+ * they trigger are admitted ahead of background ones.</p>
+ */
+class LspRequestExecutor {
+	private static final Logger logger = LoggerFactory.getLogger(LspRequestExecutor.class);
+
+	private final Executor executor;
+	private final Function<URI, Integer> versionLookup;
+	private final AtomicLong discardedCount = new AtomicLong();
+
+	/**
+	 * @param executor      bounded pool the handlers run on
+	 * @param versionLookup returns the current client version of an open
+	 *                      document, or {@code null} if it is not open
+	 */
+	LspRequestExecutor(Executor executor, Function<URI, Integer> versionLookup) {
+		this.executor = executor;
+		this.versionLookup = versionLookup;
+	}
+
+	/**
+	 * Runs {@code handler} on the request pool. The request can be cancelled
+	 * by the client but is not tied to a document version (e.g. go to
+	 * definition, whose target locations stay useful after an edit).
+	 */
+	<T> CompletableFuture<T> submit(String requestName, Supplier<CompletableFuture<T>> handler) {
+		return execute(requestName, null, null, handler);
+	}
+
+	/**
+	 * Runs {@code handler} on the request pool; an edit of {@code uri}
+	 * before the result is ready supersedes it.
+	 */
+	<T> CompletableFuture<T> submitVersioned(String requestName, URI uri,
+			Supplier<CompletableFuture<T>> handler) {
+		return execute(requestName, uri, versionLookup.apply(uri), handler);
+	}
+
+	/** Number of requests dropped because they were cancelled or superseded. */
+	long getDiscardedCount() {
+		return discardedCount.get();
+	}
+
+	private <T> CompletableFuture<T> execute(String requestName, URI uri, Integer version,
+			Supplier<CompletableFuture<T>> handler) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		CancelChecker checker = () -> {
+			if (result.isCancelled()) {
+				throw new CancellationException(requestName + " cancelled");
+			}
+			if (uri != null && !Objects.equals(version, versionLookup.apply(uri))) {
+				throw new ResponseErrorException(new ResponseError(ResponseErrorCode.ContentModified,
+						requestName + " superseded: " + uri + " changed", null));
+			}
+		};
+		try {
+			executor.execute(WorkPriority.INTERACTIVE.wrap(() -> run(requestName, handler, checker, result)));
+		} catch (RejectedExecutionException e) {
+			logger.debug("{} rejected: request pool saturated", requestName);
+			result.completeExceptionally(new ResponseErrorException(new ResponseError(
+					ResponseErrorCode.ServerCancelled, "Server busy, " + requestName + " not scheduled", null)));
+		}
+		return result;
+	}
+
+	private <T> void run(String requestName, Supplier<CompletableFuture<T>> handler,
+			CancelChecker checker, CompletableFuture<T> result) {
+		try {
+			T value = RequestCancellation.callWith(checker, () -> {
+				checker.checkCanceled();
+				CompletableFuture<T> future = handler.get();
+				T computed = future != null ? future.join() : null;
+				checker.checkCanceled();
+				return computed;
+			});
+			result.complete(value);
+		} catch (CompletionException e) {
+			completeExceptionally(requestName, result, e.getCause() != null ? e.getCause() : e);
+		} catch (RuntimeException | Error e) {
+			completeExceptionally(requestName, result, e);
+		}
+	}
+
+	private void completeExceptionally(String requestName, CompletableFuture<?> result, Throwable throwable) {
+		if (RequestCancellation.isCancellation(throwable)) {
+			discardedCount.incrementAndGet();
+			logger.debug("{} discarded: {}", requestName, throwable.getMessage());
+		}
+		result.completeExceptionally(throwable);
+	}
+}
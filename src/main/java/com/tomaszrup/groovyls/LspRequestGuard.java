@@ -29,6 +29,8 @@ import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.tomaszrup.groovyls.util.RequestCancellation;
+
 /**
  * Provides fail-soft request execution and error handling
  * for LSP request methods.
@@ -43,6 +45,12 @@ class LspRequestGuard {
 		this.scopeManager = scopeManager;
 	}
 
+	/**
+	 * Runs {@code requestCall}, turning failures into {@code fallbackValue}.
+	 * Cancellation (see {@link RequestCancellation#isCancellation}) is
+	 * propagated unchanged so the client gets a cancelled/content-modified
+	 * response instead of a stale empty result.
+	 */
 	<T> CompletableFuture<T> failSoftRequest(String requestName, URI uri,
 			Supplier<CompletableFuture<T>> requestCall, T fallbackValue) {
 		try {
@@ -52,7 +60,7 @@ class LspRequestGuard {
 			}
 			return future.exceptionally(throwable -> {
 				Throwable root = unwrapRequestThrowable(throwable);
-				if (isFatalRequestThrowable(root)) {
+				if (isFatalRequestThrowable(root) || RequestCancellation.isCancellation(root)) {
 					throwAsUnchecked(root);
 				}
 				logRequestFailure(requestName, uri, root, true);
@@ -60,7 +68,7 @@ class LspRequestGuard {
 			});
 		} catch (Exception | LinkageError throwable) {
 			Throwable root = unwrapRequestThrowable(throwable);
-			if (isFatalRequestThrowable(root)) {
+			if (isFatalRequestThrowable(root) || RequestCancellation.isCancellation(root)) {
 				throwAsUnchecked(root);
 			}
 			logRequestFailure(requestName, uri, root, false);
@@ -19,6 +19,7 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -29,6 +30,7 @@ import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.providers.DefinitionProvider;
 import com.tomaszrup.groovyls.providers.DocumentHighlightProvider;
@@ -42,6 +44,11 @@ import com.tomaszrup.groovyls.util.JavaSourceLocator;
  * type-definition, implementation, document highlights, and references.
  */
 final class NavigationProviderFacade {
+    private final WorkspaceReferenceIndex workspaceReferenceIndex;
+
+    NavigationProviderFacade(WorkspaceReferenceIndex workspaceReferenceIndex) {
+        this.workspaceReferenceIndex = workspaceReferenceIndex;
+    }
 
     CompletableFuture<Either<List<Location>, List<LocationLink>>> provideDefinition(
             ASTNodeVisitor visitor,
@@ -81,9 +88,10 @@ final class NavigationProviderFacade {
     @SuppressWarnings("java:S1452")
     CompletableFuture<List<? extends Location>> provideReferences(
             ASTNodeVisitor visitor,
+            Path scopeRoot,
             TextDocumentIdentifier textDocument,
             Position position) {
-        ReferenceProvider provider = new ReferenceProvider(visitor);
+        ReferenceProvider provider = new ReferenceProvider(visitor, workspaceReferenceIndex, scopeRoot);
         return provider.provideReferences(textDocument, position).thenApply(locations -> locations);
     }
 }
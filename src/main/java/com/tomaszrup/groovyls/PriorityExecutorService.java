@@ -0,0 +1,176 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tomaszrup.groovyls.util.MdcProjectContext;
+
+/**
+ * Fixed-size pool that dequeues tasks by {@link WorkPriority} (FIFO within
+ * a class) instead of strictly FIFO.
+ *
+ * <p>A task's class is the one it was tagged with via
+ * {@link WorkPriority#wrap(Runnable)}, or the pool's default class. While it
+ * runs, the class is available to the task as {@link WorkPriority#current()}.
+ * Like the other pools in {@link ExecutorPools}, every task inherits the
+ * submitting thread's MDC context.</p>
+ *
+ * <p>The time each task spends queued is recorded in the shared
+ * {@link QueueWaitStats}.</p>
+ */
+class PriorityExecutorService extends AbstractExecutorService {
+
+    private final ThreadPoolExecutor delegate;
+    private final WorkPriority defaultPriority;
+    private final int queueCapacity;
+    private final QueueWaitStats waitStats;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param threads         number of worker threads
+     * @param threadName      name of the (daemon) worker threads
+     * @param defaultPriority class of untagged tasks
+     * @param queueCapacity   maximum number of queued tasks; further tasks
+     *                        are rejected with {@link RejectedExecutionException}
+     * @param waitStats       where queue wait times are recorded
+     */
+    PriorityExecutorService(int threads, String threadName, WorkPriority defaultPriority,
+                            int queueCapacity, QueueWaitStats waitStats) {
+        this.delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, threadName);
+                    t.setDaemon(true);
+                    return t;
+                });
+        // With all workers started, every task goes through the queue and
+        // is ordered by class; otherwise a newly created worker would run
+        // the task that triggered its creation regardless of its class.
+        this.delegate.prestartAllCoreThreads();
+        this.defaultPriority = defaultPriority;
+        this.queueCapacity = queueCapacity;
+        this.waitStats = waitStats;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        WorkPriority priority = priorityOf(command);
+        if (delegate.getQueue().size() >= queueCapacity) {
+            throw new RejectedExecutionException("Queue full (" + queueCapacity + " tasks)");
+        }
+        delegate.execute(new QueuedTask(priority, sequence.getAndIncrement(),
+                MdcProjectContext.wrap(command)));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedFuture<>(priorityOf(runnable), runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedFuture<>(defaultPriority, callable);
+    }
+
+    private WorkPriority priorityOf(Runnable command) {
+        if (command instanceof WorkPriority.Tagged) {
+            return ((WorkPriority.Tagged) command).getPriority();
+        }
+        if (command instanceof PrioritizedFuture) {
+            return ((PrioritizedFuture<?>) command).priority;
+        }
+        return defaultPriority;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /** Future that remembers the class of the task it was created for. */
+    private static final class PrioritizedFuture<T> extends FutureTask<T> {
+        final WorkPriority priority;
+
+        PrioritizedFuture(WorkPriority priority, Runnable runnable, T value) {
+            super(runnable, value);
+            this.priority = priority;
+        }
+
+        PrioritizedFuture(WorkPriority priority, Callable<T> callable) {
+            super(callable);
+            this.priority = priority;
+        }
+    }
+
+    /** Queue entry: ordered by class, then by submission order. */
+    private final class QueuedTask implements Runnable, Comparable<QueuedTask> {
+        private final WorkPriority priority;
+        private final long seq;
+        private final long enqueuedNanos = System.nanoTime();
+        private final Runnable task;
+
+        QueuedTask(WorkPriority priority, long seq, Runnable task) {
+            this.priority = priority;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            waitStats.record(priority, System.nanoTime() - enqueuedNanos);
+            WorkPriority.runWith(priority, task);
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
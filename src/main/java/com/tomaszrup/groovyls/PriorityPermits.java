@@ -0,0 +1,206 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Counting semaphore whose waiters are admitted by {@link WorkPriority}
+ * (FIFO within a class) instead of strictly FIFO.
+ *
+ * <p>A permit is never handed to a waiter while a waiter of a more urgent
+ * class is queued, and new arrivals do not barge ahead of queued waiters of
+ * their own or a more urgent class. Long-running holders call
+ * {@link #yieldToHigherPriority} at safe points (between compiler phases)
+ * to hand their permit over to more urgent waiters and queue up again.</p>
+ *
+ * <p>A compile that yielded keeps its half-built AST while it waits, so
+ * the permits alone do not bound how many compilations hold memory at
+ * once. The number of holders parked in a yield is capped separately: at
+ * most {@code permits + maxYielded} compilations are in progress.</p>
+ */
+public class PriorityPermits {
+
+    private final int permits;
+    private final int maxYielded;
+    private final QueueWaitStats waitStats = new QueueWaitStats();
+    private final Deque<Waiter>[] waiters;
+    private int available;
+    private int yielded;
+
+    /** Creates permits whose holders may all yield at once. */
+    public PriorityPermits(int permits) {
+        this(permits, permits);
+    }
+
+    /**
+     * @param maxYielded number of holders that may be parked in
+     *                   {@link #yieldToHigherPriority} at once; further
+     *                   holders keep their permit until they release it
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityPermits(int permits, int maxYielded) {
+        this.permits = permits;
+        this.maxYielded = maxYielded;
+        this.available = permits;
+        this.waiters = new Deque[WorkPriority.values().length];
+        for (int i = 0; i < waiters.length; i++) {
+            waiters[i] = new ArrayDeque<>();
+        }
+    }
+
+    /** Total number of permits. */
+    public int getPermits() {
+        return permits;
+    }
+
+    /** Number of permits currently not held. */
+    public synchronized int availablePermits() {
+        return available;
+    }
+
+    /** Time spent waiting in {@link #acquire} per class. */
+    public QueueWaitStats getWaitStats() {
+        return waitStats;
+    }
+
+    /** Acquires a permit with the class of the work running on this thread. */
+    public void acquire() throws InterruptedException {
+        acquire(WorkPriority.current());
+    }
+
+    /**
+     * Acquires a permit, waiting behind queued work of the same or a more
+     * urgent class.
+     */
+    public void acquire(WorkPriority priority) throws InterruptedException {
+        long start = System.nanoTime();
+        acquire(priority, true);
+        waitStats.record(priority, System.nanoTime() - start);
+    }
+
+    /** Releases a permit to the most urgent waiter, if any. */
+    public synchronized void release() {
+        available++;
+        grantWaiters();
+    }
+
+    /** Returns {@code true} if work more urgent than {@code priority} is waiting. */
+    public synchronized boolean hasWaitersAbove(WorkPriority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (!waiters[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If more urgent work is waiting and fewer than {@code maxYielded}
+     * holders are parked, hands the caller's permit over and waits for a
+     * permit again; otherwise returns immediately. The caller holds a
+     * permit when this returns, also if it is interrupted while waiting
+     * (the interrupt status is restored).
+     *
+     * @return {@code true} if the permit was handed over
+     */
+    public boolean yieldToHigherPriority(WorkPriority priority) {
+        synchronized (this) {
+            if (yielded >= maxYielded || !hasWaitersAbove(priority)) {
+                return false;
+            }
+            yielded++;
+            release();
+        }
+        try {
+            acquire(priority, false);
+        } catch (InterruptedException e) {
+            // not thrown for uninterruptible acquisition
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                yielded--;
+            }
+        }
+        return true;
+    }
+
+    private void acquire(WorkPriority priority, boolean interruptible) throws InterruptedException {
+        boolean interrupted = false;
+        synchronized (this) {
+            if (available > 0 && !hasWaitersAtOrAbove(priority)) {
+                available--;
+                return;
+            }
+            Waiter waiter = new Waiter();
+            waiters[priority.ordinal()].addLast(waiter);
+            while (!waiter.granted) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    if (!interruptible) {
+                        interrupted = true;
+                        continue;
+                    }
+                    if (waiter.granted) {
+                        // granted concurrently with the interrupt: pass it on
+                        available++;
+                        grantWaiters();
+                    } else {
+                        waiters[priority.ordinal()].remove(waiter);
+                    }
+                    throw e;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean hasWaitersAtOrAbove(WorkPriority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!waiters[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void grantWaiters() {
+        boolean granted = false;
+        for (int i = 0; i < waiters.length && available > 0; i++) {
+            Waiter waiter;
+            while (available > 0 && (waiter = waiters[i].pollFirst()) != null) {
+                waiter.granted = true;
+                available--;
+                granted = true;
+            }
+        }
+        if (granted) {
+            notifyAll();
+        }
+    }
+
+    private static final class Waiter {
+        boolean granted;
+    }
+}
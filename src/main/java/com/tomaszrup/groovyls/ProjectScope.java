@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import groovy.lang.GroovyClassLoader;
 import io.github.classgraph.ScanResult;
 import com.tomaszrup.groovyls.compiler.ClasspathSymbolIndex;
+import com.tomaszrup.groovyls.compiler.CompilationCostModel;
 import com.tomaszrup.groovyls.compiler.DependencyGraph;
 import com.tomaszrup.groovyls.compiler.SharedClasspathIndexCache;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
@@ -92,6 +93,7 @@ public class ProjectScope {
 	private final AtomicReference<URI> previousContext = new AtomicReference<>();
 	private final AtomicReference<JavaSourceLocator> javaSourceLocator = new AtomicReference<>();
 	private final DependencyGraph dependencyGraph = new DependencyGraph();
+	private final CompilationCostModel compilationCostModel = new CompilationCostModel();
 
 	/**
 	 * Per-project lock. Write-lock is acquired for compilation and AST
@@ -260,6 +262,11 @@ public class ProjectScope {
 		return dependencyGraph;
 	}
 
+	/** Measured compile cost of this scope; sizes its incremental compilation units. */
+	public CompilationCostModel getCompilationCostModel() {
+		return compilationCostModel;
+	}
+
 	public ReadWriteLock getLock() {
 		return lock;
 	}
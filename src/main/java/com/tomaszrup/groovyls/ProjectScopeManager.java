@@ -33,6 +33,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -46,6 +47,7 @@ import com.tomaszrup.groovyls.config.CompilationUnitFactory;
 import com.tomaszrup.groovyls.config.ICompilationUnitFactory;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 import com.tomaszrup.groovyls.util.GroovyVersionDetector;
+import com.tomaszrup.groovyls.util.InternRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,7 +109,9 @@ public class ProjectScopeManager {
 	 * mapping is stable while the scope list is unchanged, so this avoids
 	 * repeated linear scans on every LSP request (hover, completion,
 	 * semantic tokens, inlay hints, etc.).
-	 * <p>Invalidated whenever the scope list is mutated.</p>
+	 * <p>Invalidated whenever the scope list is mutated. Keys are the
+	 * canonical {@link InternRegistry} URIs, shared with the other per-file
+	 * maps.</p>
 	 */
 	private final ConcurrentHashMap<URI, ProjectScope> scopeCache = new ConcurrentHashMap<>();
 
@@ -118,6 +122,9 @@ public class ProjectScopeManager {
 
 	private final ScopeEvictionManager evictionManager;
 
+	/** Notified of scopes that were evicted or replaced by a re-registration. */
+	private volatile Consumer<ProjectScope> scopeEvictionListener = scope -> { };
+
 	public ProjectScopeManager(ICompilationUnitFactory defaultFactory, FileContentsTracker fileContentsTracker) {
 		this.fileContentsTracker = fileContentsTracker;
 		this.evictionManager = new ScopeEvictionManager(projectScopes::get, fileContentsTracker);
@@ -212,7 +219,9 @@ public class ProjectScopeManager {
 
 		ProjectScope cached = scopeCache.get(uri);
 		if (cached != null) {
-			return cacheAndTouch(uri, cached, "cache-hit");
+			cached.touchAccess();
+			logger.debug("findProjectScope({}) cache-hit -> {}", uri, cached.getProjectRoot());
+			return cached;
 		}
 
 		Path filePath = toFilePath(uri);
@@ -246,7 +255,7 @@ public class ProjectScopeManager {
 	}
 
 	private ProjectScope cacheAndTouch(URI uri, ProjectScope scope, String reason) {
-		scopeCache.put(uri, scope);
+		scopeCache.put(InternRegistry.intern(uri), scope);
 		scope.touchAccess();
 		logger.debug("findProjectScope({}) {} -> {}", uri, reason, scope.getProjectRoot());
 		return scope;
@@ -485,6 +494,7 @@ public class ProjectScopeManager {
 	public void registerDiscoveredProjects(List<Path> projectRoots) {
 		invalidateWorkspaceLocalClasspathCaches(projectRoots);
 
+		List<ProjectScope> replaced;
 		synchronized (scopesMutationLock) {
 			logger.info("registerDiscoveredProjects called with {} projects", projectRoots.size());
 
@@ -505,10 +515,11 @@ public class ProjectScopeManager {
 			}
 
 			newScopes.sort((a, b) -> b.getProjectRoot().toString().length() - a.getProjectRoot().toString().length());
-			projectScopes.set(Collections.unmodifiableList(newScopes));
+			replaced = projectScopes.getAndSet(Collections.unmodifiableList(newScopes));
 			scopeCache.clear();
 		}
 
+		replaced.forEach(scopeEvictionListener);
 		clearDefaultScopeDiagnostics();
 	}
 
@@ -674,6 +685,7 @@ public class ProjectScopeManager {
 								 Map<Path, String> projectGroovyVersions) {
 		invalidateWorkspaceLocalClasspathCaches(new ArrayList<>(projectClasspaths.keySet()));
 
+		List<ProjectScope> replaced;
 		synchronized (scopesMutationLock) {
 			logger.debug("addProjects called with {} projects", projectClasspaths.size());
 			List<Path> projectRoots = new ArrayList<>(projectClasspaths.keySet());
@@ -711,11 +723,12 @@ public class ProjectScopeManager {
 			}
 
 			newScopes.sort((a, b) -> b.getProjectRoot().toString().length() - a.getProjectRoot().toString().length());
-			projectScopes.set(Collections.unmodifiableList(newScopes));
+			replaced = projectScopes.getAndSet(Collections.unmodifiableList(newScopes));
 			scopeCache.clear();
 			logger.info("Registered {} project scope(s)", newScopes.size());
 		}
 
+		replaced.forEach(scopeEvictionListener);
 		clearDefaultScopeDiagnostics();
 		return fileContentsTracker.getOpenURIs();
 	}
@@ -836,6 +849,15 @@ public class ProjectScopeManager {
 		return evictionManager.getMemoryPressureThreshold();
 	}
 
+	/**
+	 * Sets the listener notified when a scope's heavy state is evicted, and
+	 * for each scope dropped when the project scopes are registered anew.
+	 */
+	public void setScopeEvictionListener(Consumer<ProjectScope> listener) {
+		this.scopeEvictionListener = listener != null ? listener : scope -> { };
+		evictionManager.setEvictionListener(listener);
+	}
+
 	public void startEvictionScheduler(ScheduledExecutorService schedulingPool) {
 		evictionManager.startEvictionScheduler(schedulingPool);
 	}
@@ -0,0 +1,121 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free per-{@link WorkPriority} record of how long work waited before
+ * it was admitted (to a pool thread or to a compilation permit).
+ *
+ * <p>Waits are bucketed by powers of two of microseconds, so percentiles
+ * are reported as the upper bound of their bucket: at most twice the real
+ * value, which is precise enough to see a p99 regress from milliseconds to
+ * seconds while an import is running.</p>
+ */
+public class QueueWaitStats {
+
+    /** Bucket {@code i} holds waits below {@code 2^i} microseconds. */
+    private static final int BUCKETS = 40;
+
+    private final PerClass[] classes = new PerClass[WorkPriority.values().length];
+
+    public QueueWaitStats() {
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new PerClass();
+        }
+    }
+
+    /** Records a wait of {@code waitNanos} for work of class {@code priority}. */
+    public void record(WorkPriority priority, long waitNanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(waitNanos));
+        PerClass stats = classes[priority.ordinal()];
+        stats.count.incrementAndGet();
+        stats.totalMicros.addAndGet(micros);
+        stats.maxMicros.accumulateAndGet(micros, Math::max);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        stats.histogram.incrementAndGet(bucket);
+    }
+
+    /** Number of waits recorded for {@code priority}. */
+    public long getCount(WorkPriority priority) {
+        return classes[priority.ordinal()].count.get();
+    }
+
+    /** Mean wait for {@code priority} in milliseconds, or 0 if none was recorded. */
+    public double getMeanMillis(WorkPriority priority) {
+        PerClass stats = classes[priority.ordinal()];
+        long count = stats.count.get();
+        return count == 0 ? 0 : stats.totalMicros.get() / 1000.0 / count;
+    }
+
+    /** Longest wait for {@code priority} in milliseconds. */
+    public double getMaxMillis(WorkPriority priority) {
+        return classes[priority.ordinal()].maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Upper bound of the {@code percentile} (0-100) wait for
+     * {@code priority} in milliseconds, or 0 if none was recorded.
+     */
+    public double getPercentileMillis(WorkPriority priority, double percentile) {
+        PerClass stats = classes[priority.ordinal()];
+        long count = stats.count.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += stats.histogram.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1000.0, getMaxMillis(priority));
+            }
+        }
+        return getMaxMillis(priority);
+    }
+
+    /** One-line summary of all classes that recorded at least one wait, for logging. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (WorkPriority priority : WorkPriority.values()) {
+            long count = getCount(priority);
+            if (count == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(String.format("%s n=%d mean=%.1fms p99<=%.1fms max=%.1fms",
+                    priority.name().toLowerCase(), count, getMeanMillis(priority),
+                    getPercentileMillis(priority, 99), getMaxMillis(priority)));
+        }
+        return sb.length() > 0 ? sb.toString() : "no waits recorded";
+    }
+
+    private static final class PerClass {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalMicros = new AtomicLong();
+        final AtomicLong maxMicros = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    }
+}
@@ -19,6 +19,7 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -38,6 +39,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Either3;
 
 import com.tomaszrup.groovyls.compiler.ClasspathSymbolIndex;
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.providers.CodeActionProvider;
 import com.tomaszrup.groovyls.providers.FormattingProvider;
@@ -52,9 +54,12 @@ import com.tomaszrup.groovyls.util.JavaSourceLocator;
  */
 final class RefactoringProviderFacade {
     private final FileContentsTracker fileContentsTracker;
+    private final WorkspaceReferenceIndex workspaceReferenceIndex;
 
-    RefactoringProviderFacade(FileContentsTracker fileContentsTracker) {
+    RefactoringProviderFacade(FileContentsTracker fileContentsTracker,
+            WorkspaceReferenceIndex workspaceReferenceIndex) {
         this.fileContentsTracker = fileContentsTracker;
+        this.workspaceReferenceIndex = workspaceReferenceIndex;
     }
 
     CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> providePrepareRename(
@@ -64,8 +69,8 @@ final class RefactoringProviderFacade {
         return provider.providePrepareRename(params);
     }
 
-    CompletableFuture<WorkspaceEdit> provideRename(ASTNodeVisitor visitor, RenameParams params) {
-        RenameProvider provider = new RenameProvider(visitor, fileContentsTracker);
+    CompletableFuture<WorkspaceEdit> provideRename(ASTNodeVisitor visitor, Path scopeRoot, RenameParams params) {
+        RenameProvider provider = new RenameProvider(visitor, fileContentsTracker, workspaceReferenceIndex, scopeRoot);
         return provider.provideRename(params);
     }
 
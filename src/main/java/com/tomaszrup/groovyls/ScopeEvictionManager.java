@@ -27,8 +27,10 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import com.tomaszrup.groovyls.compiler.control.ParseTreeCache;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 import com.tomaszrup.groovyls.util.MemoryProfiler;
 
@@ -60,6 +62,9 @@ class ScopeEvictionManager {
 	 */
 	private volatile double memoryPressureThreshold = 0.75;
 
+	/** Notified after a scope's heavy state was evicted. */
+	private volatile Consumer<ProjectScope> evictionListener = scope -> { };
+
 	/** Handle for the periodic eviction sweep, cancelled on shutdown. */
 	private final AtomicReference<ScheduledFuture<?>> evictionFuture = new AtomicReference<>();
 
@@ -96,6 +101,10 @@ class ScopeEvictionManager {
 		return memoryPressureThreshold;
 	}
 
+	void setEvictionListener(Consumer<ProjectScope> evictionListener) {
+		this.evictionListener = evictionListener != null ? evictionListener : scope -> { };
+	}
+
 	// --- Scheduler lifecycle ---
 
 	/**
@@ -173,6 +182,7 @@ class ScopeEvictionManager {
 					+ "Attempting emergency scope eviction.",
 					usedBytes / (1024 * 1024), maxBytes / (1024 * 1024),
 					(int) (heapUsageRatio * 100), (int) (threshold * 100));
+			ParseTreeCache.getInstance().clear();
 			evictLeastRecentScope(openURIs, now);
 		}
 
@@ -196,6 +206,7 @@ class ScopeEvictionManager {
 						logger.info("Evicting scope {} (idle for {}s)",
 								scope.getProjectRoot(), idleMs / 1000);
 						scope.evictHeavyState();
+						evictionListener.accept(scope);
 					}
 				} finally {
 					scope.getLock().writeLock().unlock();
@@ -283,6 +294,7 @@ class ScopeEvictionManager {
 					logger.info("Memory-pressure eviction: scope {} (idle for {}s)",
 							lruScope.getProjectRoot(), idleMs / 1000);
 					lruScope.evictHeavyState();
+					evictionListener.accept(lruScope);
 				}
 			} finally {
 				lruScope.getLock().writeLock().unlock();
@@ -36,6 +36,8 @@ import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.providers.SemanticTokensProvider;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 import com.tomaszrup.groovyls.util.GroovyVersionDetector;
+import com.tomaszrup.groovyls.util.InternRegistry;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -141,6 +143,10 @@ class SemanticTokensHandler {
 			SemanticTokens tokens,
 			Throwable throwable) {
 		if (throwable != null) {
+			Throwable root = LspRequestGuard.unwrapRequestThrowable(throwable);
+			if (RequestCancellation.isCancellation(root)) {
+				LspRequestGuard.throwAsUnchecked(root);
+			}
 			logger.warn("semanticTokensFull failed uri={} projectRoot={} error={}",
 					uri, projectRoot, throwable);
 			logger.debug("semanticTokensFull failure details", throwable);
@@ -148,7 +154,7 @@ class SemanticTokensHandler {
 			return fallback != null ? fallback : emptySemanticTokens();
 		}
 		if (tokens != null && tokens.getData() != null && !tokens.getData().isEmpty()) {
-			lastSemanticTokensByUri.put(uri, tokens);
+			lastSemanticTokensByUri.put(InternRegistry.intern(uri), tokens);
 			return tokens;
 		}
 		SemanticTokens fallback = lastSemanticTokensByUri.get(uri);
@@ -32,6 +32,7 @@ import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
+import com.tomaszrup.groovyls.compiler.WorkspaceSymbolIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.providers.DocumentSymbolProvider;
 import com.tomaszrup.groovyls.providers.InlayHintProvider;
@@ -45,9 +46,11 @@ import com.tomaszrup.groovyls.util.FileContentsTracker;
  */
 final class SymbolProviderFacade {
     private final FileContentsTracker fileContentsTracker;
+    private final WorkspaceSymbolIndex workspaceSymbolIndex;
 
-    SymbolProviderFacade(FileContentsTracker fileContentsTracker) {
+    SymbolProviderFacade(FileContentsTracker fileContentsTracker, WorkspaceSymbolIndex workspaceSymbolIndex) {
         this.fileContentsTracker = fileContentsTracker;
+        this.workspaceSymbolIndex = workspaceSymbolIndex;
     }
 
     CompletableFuture<List<Either<SymbolInformation, DocumentSymbol>>> provideDocumentSymbols(
@@ -57,8 +60,8 @@ final class SymbolProviderFacade {
         return provider.provideDocumentSymbols(textDocument);
     }
 
-    CompletableFuture<List<WorkspaceSymbol>> provideWorkspaceSymbols(ASTNodeVisitor visitor, String query) {
-        WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(visitor);
+    CompletableFuture<List<WorkspaceSymbol>> provideWorkspaceSymbols(String query) {
+        WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(workspaceSymbolIndex);
         return provider.provideWorkspaceSymbols(query);
     }
 
@@ -0,0 +1,107 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+/**
+ * Scheduling class of a unit of server work, from most to least urgent.
+ *
+ * <p>The pools in {@link ExecutorPools} dequeue tasks in this order, and
+ * {@link PriorityPermits} admits waiting compilations in this order, so a
+ * completion request is never queued behind a backfill compile.</p>
+ *
+ * <p>The class of the work running on the current thread is available via
+ * {@link #current()}; it is set by the pools for every task they run, so
+ * code deep inside a task (e.g. {@link CompilationService#compile}) does
+ * not need a priority parameter.</p>
+ */
+public enum WorkPriority {
+    /** LSP requests the user is waiting on (completion, hover, ...). */
+    INTERACTIVE,
+    /** Compilation and resolution for the document the user has open. */
+    VISIBLE_DOCUMENT,
+    /** Whole-scope recompilation triggered by settings or file-system events. */
+    BACKGROUND_SCOPE,
+    /** Sibling-project backfill, indexing and source JAR downloads. */
+    BACKFILL;
+
+    private static final ThreadLocal<WorkPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the class of the work running on this thread, or
+     * {@link #VISIBLE_DOCUMENT} on threads not owned by a pool (the LSP
+     * listener thread handling notifications, tests).
+     */
+    public static WorkPriority current() {
+        WorkPriority priority = CURRENT.get();
+        return priority != null ? priority : VISIBLE_DOCUMENT;
+    }
+
+    /** Returns {@code true} if this class is admitted before {@code other}. */
+    public boolean outranks(WorkPriority other) {
+        return ordinal() < other.ordinal();
+    }
+
+    /**
+     * Tags {@code task} with this class. Pools in {@link ExecutorPools}
+     * queue a tagged task by its tag instead of the pool default, and any
+     * executor runs it with this class as {@link #current()}.
+     */
+    public Runnable wrap(Runnable task) {
+        return new Tagged(this, task);
+    }
+
+    /**
+     * Runs {@code task} on this thread with {@code priority} as
+     * {@link #current()}, restoring the previous class afterwards.
+     */
+    static void runWith(WorkPriority priority, Runnable task) {
+        WorkPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /** A runnable carrying the class it was submitted with. */
+    static final class Tagged implements Runnable {
+        private final WorkPriority priority;
+        private final Runnable task;
+
+        Tagged(WorkPriority priority, Runnable task) {
+            this.priority = priority;
+            this.task = task;
+        }
+
+        WorkPriority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void run() {
+            runWith(priority, task);
+        }
+    }
+}
@@ -21,8 +21,6 @@
 package com.tomaszrup.groovyls;
 
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -33,12 +31,19 @@ import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
-import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
 
 /**
  * Handles LSP workspace symbol requests.
  * Extracted from {@link GroovyServices} for single-responsibility.
+ *
+ * <p>Requests are answered from the
+ * {@link com.tomaszrup.groovyls.compiler.WorkspaceSymbolIndex}, which covers
+ * every scope compiled in this or a previous session, whether or not it has
+ * an open file. Only scopes with open files whose latest edits haven't been
+ * compiled yet are brought up to date first (or, while a staged full
+ * compilation is running, awaited), so that declarations the user just
+ * typed are found; in the steady state nothing is compiled.</p>
  */
 class WorkspaceSymbolHandler {
 
@@ -60,24 +65,18 @@ class WorkspaceSymbolHandler {
 
 	CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(
 			WorkspaceSymbolParams params) {
-		List<ProjectScope> scopesToSearch = resolveScopesToSearchForWorkspaceSymbols();
-		if (scopesToSearch.isEmpty()) {
-			return CompletableFuture.completedFuture(Either.forRight(Collections.emptyList()));
+		for (ProjectScope scope : resolveOpenScopes()) {
+			if (isStale(scope)) {
+				synchronizeScope(scope);
+			} else {
+				// Its declarations are published by the staged full compilation
+				compilationService.awaitStagedFullCompilation(scope);
+			}
 		}
-
-		synchronizeScopesForWorkspaceSymbols(scopesToSearch);
-
-		List<CompletableFuture<List<WorkspaceSymbol>>> futures =
-				createWorkspaceSymbolFutures(scopesToSearch, params.getQuery());
-		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-				.thenApply(v -> Either.forRight(joinWorkspaceSymbols(futures)));
+		return providerFacade.provideWorkspaceSymbols(params.getQuery()).thenApply(Either::forRight);
 	}
 
-	private List<ProjectScope> resolveScopesToSearchForWorkspaceSymbols() {
-		List<ProjectScope> allScopes = scopeManager.getAllScopes();
-		if (allScopes.size() <= 1) {
-			return allScopes;
-		}
+	private Set<ProjectScope> resolveOpenScopes() {
 		Set<ProjectScope> openScopes = new LinkedHashSet<>();
 		for (URI openUri : fileContentsTracker.getOpenURIs()) {
 			ProjectScope openScope = scopeManager.findProjectScope(openUri);
@@ -85,19 +84,14 @@ class WorkspaceSymbolHandler {
 				openScopes.add(openScope);
 			}
 		}
-		return openScopes.isEmpty() ? Collections.emptyList() : new ArrayList<>(openScopes);
+		return openScopes;
 	}
 
-	private void synchronizeScopesForWorkspaceSymbols(List<ProjectScope> scopesToSearch) {
-		for (ProjectScope scope : scopesToSearch) {
-			synchronizeScopeForWorkspaceSymbols(scope);
-		}
+	private boolean isStale(ProjectScope scope) {
+		return !scope.isCompiled() || fileContentsTracker.hasChangedURIsUnder(scope.getProjectRoot());
 	}
 
-	private void synchronizeScopeForWorkspaceSymbols(ProjectScope scope) {
-		if (!shouldSyncScopeForWorkspaceSymbols(scope)) {
-			return;
-		}
+	private void synchronizeScope(ProjectScope scope) {
 		scope.getLock().writeLock().lock();
 		try {
 			boolean didFull = compilationService.ensureScopeCompiled(scope);
@@ -112,33 +106,8 @@ class WorkspaceSymbolHandler {
 		}
 	}
 
-	private boolean shouldSyncScopeForWorkspaceSymbols(ProjectScope scope) {
-		return !scope.isCompiled() || fileContentsTracker.hasChangedURIsUnder(scope.getProjectRoot());
-	}
-
 	private URI firstChangedUriOrNull() {
 		Set<URI> pending = fileContentsTracker.getChangedURIs();
 		return pending.isEmpty() ? null : pending.iterator().next();
 	}
-
-	private List<CompletableFuture<List<WorkspaceSymbol>>> createWorkspaceSymbolFutures(
-			List<ProjectScope> scopesToSearch,
-			String query) {
-		List<CompletableFuture<List<WorkspaceSymbol>>> futures = new ArrayList<>();
-		for (ProjectScope scope : scopesToSearch) {
-			ASTNodeVisitor visitor = scope.getAstVisitor();
-			if (visitor != null) {
-				futures.add(providerFacade.provideWorkspaceSymbols(visitor, query));
-			}
-		}
-		return futures;
-	}
-
-	private List<WorkspaceSymbol> joinWorkspaceSymbols(List<CompletableFuture<List<WorkspaceSymbol>>> futures) {
-		List<WorkspaceSymbol> allSymbols = new ArrayList<>();
-		for (CompletableFuture<List<WorkspaceSymbol>> future : futures) {
-			allSymbols.addAll(future.join());
-		}
-		return allSymbols;
-	}
 }
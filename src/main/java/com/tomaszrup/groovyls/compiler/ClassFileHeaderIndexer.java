@@ -0,0 +1,486 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Builds the {@link ClasspathSymbolIndex} shard of a JAR or class directory
+ * without ClassGraph, reading only what the index needs.
+ *
+ * <p>For a JAR, the zip central directory is read into the heap and
+ * walked; for each class entry only the class-file header is parsed — the
+ * constant pool, access flags and {@code this_class} — inflating a
+ * compressed entry just far enough to reach them. The file is read with
+ * positional reads rather than mapped, as a mapping outlives the channel
+ * until it is garbage collected and locks the JAR on Windows. Nothing but
+ * the index itself is retained, so there is no transient
+ * {@code ScanResult}.</p>
+ *
+ * <p>The classes kept match a default ClassGraph scan with rejected
+ * packages: public, top-level or nested classes whose name matches their
+ * path, excluding {@code module-info}, {@code package-info} and everything
+ * under {@code META-INF/} (multi-release versions and nested JARs are not
+ * indexed).</p>
+ */
+final class ClassFileHeaderIndexer {
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+	private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+	private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+	private static final int LOCAL_FILE_HEADER = 0x04034b50;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+	private static final int MAX_ZIP_COMMENT = 0xFFFF;
+
+	private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_INTERFACE = 0x0200;
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final int ACC_ENUM = 0x4000;
+	private static final int ACC_MODULE = 0x8000;
+	/** Bytes of a class file inflated at first; doubled while the header is incomplete. */
+	private static final int INITIAL_HEADER_BYTES = 1024;
+
+	/** Results of {@link #addClass}. */
+	private static final int ADDED = 0;
+	private static final int SKIPPED = 1;
+	private static final int NEED_MORE_BYTES = 2;
+
+	private static final String CLASS_FILE_EXTENSION = ".class";
+
+	private final String[] rejectedPackages;
+
+	/**
+	 * @param rejectedPackages package prefixes to leave out, with the same
+	 *                         meaning as ClassGraph's {@code rejectPackages}
+	 */
+	ClassFileHeaderIndexer(String[] rejectedPackages) {
+		this.rejectedPackages = new String[rejectedPackages.length];
+		for (int i = 0; i < rejectedPackages.length; i++) {
+			String rejected = rejectedPackages[i];
+			this.rejectedPackages[i] = rejected.endsWith(".") ? rejected.substring(0, rejected.length() - 1)
+					: rejected;
+		}
+	}
+
+	/**
+	 * Indexes a JAR or class directory.
+	 *
+	 * @param element             the JAR or directory
+	 * @param classpathElementPath its canonical path, recorded in the symbols
+	 * @throws IOException if the element cannot be read or is not a valid zip
+	 */
+	ClasspathSymbolIndex index(Path element, String classpathElementPath) throws IOException {
+		ClasspathSymbolIndex.Builder builder = new ClasspathSymbolIndex.Builder(classpathElementPath);
+		if (Files.isDirectory(element)) {
+			indexDirectory(element, builder);
+		} else {
+			indexJar(element, builder);
+		}
+		return builder.build();
+	}
+
+	// ----------------------------------------------------------------
+	// Class directories
+	// ----------------------------------------------------------------
+
+	private void indexDirectory(Path directory, ClasspathSymbolIndex.Builder builder) throws IOException {
+		List<Path> classFiles;
+		try (Stream<Path> paths = Files.walk(directory)) {
+			classFiles = paths
+					.filter(path -> path.getFileName().toString().endsWith(CLASS_FILE_EXTENSION))
+					.filter(Files::isRegularFile)
+					.collect(Collectors.toList());
+		}
+		for (Path classFile : classFiles) {
+			String entryName = directory.relativize(classFile).toString().replace('\\', '/');
+			if (!isCandidate(entryName)) {
+				continue;
+			}
+			byte[] bytes;
+			try {
+				bytes = Files.readAllBytes(classFile);
+			} catch (IOException e) {
+				continue;
+			}
+			addClass(entryName, bytes, bytes.length, builder);
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// JARs
+	// ----------------------------------------------------------------
+
+	private void indexJar(Path jar, ClasspathSymbolIndex.Builder builder) throws IOException {
+		try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+			long[] centralDirectory = findCentralDirectory(channel);
+			long entries = centralDirectory[2];
+			ByteBuffer directory = ByteBuffer.allocate((int) centralDirectory[1]).order(ByteOrder.LITTLE_ENDIAN);
+			if (!readFully(channel, directory, centralDirectory[0])) {
+				throw new IOException("Truncated zip central directory in " + jar);
+			}
+			ByteBuffer localHeader = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+			ByteBuffer compressed = ByteBuffer.allocate(INITIAL_HEADER_BYTES);
+			Inflater inflater = new Inflater(true);
+			byte[] buffer = new byte[INITIAL_HEADER_BYTES];
+			int offset = 0;
+			try {
+				for (long e = 0; e < entries; e++) {
+					if (offset + 46 > directory.limit() || directory.getInt(offset) != CENTRAL_DIRECTORY_ENTRY) {
+						throw new IOException("Corrupt zip central directory in " + jar);
+					}
+					int method = directory.getShort(offset + 10) & 0xFFFF;
+					long compressedSize = directory.getInt(offset + 20) & 0xFFFFFFFFL;
+					long uncompressedSize = directory.getInt(offset + 24) & 0xFFFFFFFFL;
+					int nameLength = directory.getShort(offset + 28) & 0xFFFF;
+					int extraLength = directory.getShort(offset + 30) & 0xFFFF;
+					int commentLength = directory.getShort(offset + 32) & 0xFFFF;
+					long localHeaderOffset = directory.getInt(offset + 42) & 0xFFFFFFFFL;
+					if (offset + 46 + nameLength > directory.limit()) {
+						throw new IOException("Corrupt zip central directory in " + jar);
+					}
+					String entryName = readName(directory, offset + 46, nameLength);
+					offset += 46 + nameLength + extraLength + commentLength;
+
+					if (!isCandidate(entryName) || compressedSize >= Integer.MAX_VALUE
+							|| uncompressedSize >= Integer.MAX_VALUE) {
+						continue;
+					}
+					ByteBuffer data = entryData(channel, localHeaderOffset, (int) compressedSize, localHeader,
+							compressed);
+					if (data == null) {
+						continue;
+					}
+					compressed = data;
+					if (method == STORED) {
+						int length = data.remaining();
+						if (buffer.length < length) {
+							buffer = new byte[length];
+						}
+						data.get(buffer, 0, length);
+						addClass(entryName, buffer, length, builder);
+					} else if (method == DEFLATED) {
+						buffer = inflateHeader(inflater, data, (int) uncompressedSize, entryName, buffer, builder);
+					}
+				}
+			} finally {
+				inflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Returns the central directory's offset, size and entry count, read
+	 * from the end of central directory record.
+	 */
+	private static long[] findCentralDirectory(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int tailLength = (int) Math.min(size, 20 + 22 + MAX_ZIP_COMMENT);
+		long tailStart = size - tailLength;
+		ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+		if (!readFully(channel, tail, tailStart)) {
+			throw new IOException("Truncated zip file");
+		}
+		int stop = Math.max(0, tailLength - 22 - MAX_ZIP_COMMENT);
+		for (int position = tailLength - 22; position >= stop; position--) {
+			if (tail.getInt(position) != END_OF_CENTRAL_DIRECTORY) {
+				continue;
+			}
+			long entries = tail.getShort(position + 10) & 0xFFFF;
+			long directorySize = tail.getInt(position + 12) & 0xFFFFFFFFL;
+			long offset = tail.getInt(position + 16) & 0xFFFFFFFFL;
+			int locator = position - 20;
+			if (locator >= 0 && tail.getInt(locator) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+				long zip64End = tail.getLong(locator + 8);
+				ByteBuffer record = ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN);
+				if (zip64End >= 0 && zip64End + 56 <= size && readFully(channel, record, zip64End)
+						&& record.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY) {
+					entries = record.getLong(32);
+					directorySize = record.getLong(40);
+					offset = record.getLong(48);
+				}
+			}
+			if (offset < 0 || directorySize < 0 || directorySize >= Integer.MAX_VALUE
+					|| offset + directorySize > size) {
+				throw new IOException("Invalid zip central directory offset");
+			}
+			return new long[] { offset, directorySize, entries };
+		}
+		throw new IOException("No zip end of central directory record");
+	}
+
+	/**
+	 * Reads the compressed data of the entry whose local header is at
+	 * {@code localHeaderOffset}, into {@code reuse} if it is large enough.
+	 *
+	 * @return the data, or {@code null} if the entry's local header is invalid
+	 */
+	private static ByteBuffer entryData(FileChannel channel, long localHeaderOffset, int compressedSize,
+			ByteBuffer localHeader, ByteBuffer reuse) throws IOException {
+		localHeader.clear();
+		if (!readFully(channel, localHeader, localHeaderOffset) || localHeader.getInt(0) != LOCAL_FILE_HEADER) {
+			return null;
+		}
+		int nameLength = localHeader.getShort(26) & 0xFFFF;
+		int extraLength = localHeader.getShort(28) & 0xFFFF;
+		ByteBuffer data = reuse.capacity() >= compressedSize ? reuse : ByteBuffer.allocate(compressedSize);
+		data.clear().limit(compressedSize);
+		if (!readFully(channel, data, localHeaderOffset + 30 + nameLength + extraLength)) {
+			return null;
+		}
+		data.flip();
+		return data;
+	}
+
+	/**
+	 * Fills the remaining bytes of {@code buffer} from {@code position} of the
+	 * file, without moving the channel's position. Returns {@code false} if
+	 * the file ends first.
+	 */
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		long next = position;
+		while (buffer.hasRemaining()) {
+			int count = channel.read(buffer, next);
+			if (count < 0) {
+				return false;
+			}
+			next += count;
+		}
+		return true;
+	}
+
+	/**
+	 * Inflates a class entry until its header is complete and adds it;
+	 * returns the (possibly grown) buffer for reuse.
+	 */
+	private byte[] inflateHeader(Inflater inflater, ByteBuffer data, int uncompressedSize, String entryName,
+			byte[] buffer, ClasspathSymbolIndex.Builder builder) {
+		inflater.reset();
+		inflater.setInput(data);
+		int inflated = 0;
+		int wanted = Math.min(uncompressedSize, INITIAL_HEADER_BYTES);
+		try {
+			while (true) {
+				if (buffer.length < wanted) {
+					buffer = Arrays.copyOf(buffer, wanted);
+				}
+				while (inflated < wanted) {
+					int count = inflater.inflate(buffer, inflated, wanted - inflated);
+					if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					inflated += count;
+				}
+				int result = addClass(entryName, buffer, inflated, builder);
+				if (result != NEED_MORE_BYTES || inflated < wanted || wanted == uncompressedSize) {
+					return buffer;
+				}
+				wanted = (int) Math.min(uncompressedSize, (long) wanted * 2);
+			}
+		} catch (DataFormatException e) {
+			return buffer;
+		}
+	}
+
+	private static String readName(ByteBuffer zip, int offset, int length) {
+		byte[] name = new byte[length];
+		ByteBuffer slice = zip.duplicate();
+		slice.position(offset);
+		slice.get(name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	// ----------------------------------------------------------------
+	// Class-file headers
+	// ----------------------------------------------------------------
+
+	private static boolean isCandidate(String entryName) {
+		return entryName.endsWith(CLASS_FILE_EXTENSION)
+				&& !entryName.startsWith("META-INF/")
+				&& !entryName.endsWith("module-info.class")
+				&& !entryName.endsWith("package-info.class");
+	}
+
+	/**
+	 * Parses the header of the class file in {@code bytes[0, length)} and
+	 * adds it to {@code builder} if it belongs in the index.
+	 *
+	 * @return {@link #ADDED}, {@link #SKIPPED}, or {@link #NEED_MORE_BYTES}
+	 *         if the header extends past {@code length}
+	 */
+	private int addClass(String entryName, byte[] bytes, int length, ClasspathSymbolIndex.Builder builder) {
+		if (length < 10) {
+			return NEED_MORE_BYTES;
+		}
+		if (readInt(bytes, 0) != CLASS_FILE_MAGIC) {
+			return SKIPPED;
+		}
+		int constantCount = readUnsignedShort(bytes, 8);
+		int[] utf8Offsets = new int[constantCount];
+		int[] classNameIndexes = new int[constantCount];
+		int position = 10;
+		for (int index = 1; index < constantCount; index++) {
+			if (position >= length) {
+				return NEED_MORE_BYTES;
+			}
+			int tag = bytes[position] & 0xFF;
+			switch (tag) {
+				case 1: // Utf8
+					if (position + 3 > length) {
+						return NEED_MORE_BYTES;
+					}
+					utf8Offsets[index] = position + 1;
+					position += 3 + readUnsignedShort(bytes, position + 1);
+					break;
+				case 7: // Class
+					if (position + 3 > length) {
+						return NEED_MORE_BYTES;
+					}
+					classNameIndexes[index] = readUnsignedShort(bytes, position + 1);
+					position += 3;
+					break;
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					position += 3;
+					break;
+				case 15: // MethodHandle
+					position += 4;
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					position += 5;
+					break;
+				case 5: // Long
+				case 6: // Double
+					position += 9;
+					index++;
+					break;
+				default:
+					return SKIPPED;
+			}
+		}
+		if (position + 4 > length) {
+			return NEED_MORE_BYTES;
+		}
+		int accessFlags = readUnsignedShort(bytes, position);
+		int thisClass = readUnsignedShort(bytes, position + 2);
+		if ((accessFlags & ACC_PUBLIC) == 0 || (accessFlags & ACC_MODULE) != 0
+				|| thisClass >= constantCount || classNameIndexes[thisClass] >= constantCount) {
+			return SKIPPED;
+		}
+		int nameOffset = utf8Offsets[classNameIndexes[thisClass]];
+		if (nameOffset == 0) {
+			return SKIPPED;
+		}
+		String internalName = readModifiedUtf8(bytes, nameOffset);
+		if (internalName == null
+				|| !entryName.regionMatches(0, internalName, 0, internalName.length())
+				|| entryName.length() != internalName.length() + CLASS_FILE_EXTENSION.length()) {
+			return SKIPPED;
+		}
+		String name = internalName.replace('/', '.');
+		int lastDot = name.lastIndexOf('.');
+		String packageName = lastDot < 0 ? "" : name.substring(0, lastDot);
+		if (isRejected(packageName)) {
+			return SKIPPED;
+		}
+		builder.add(name, packageName, toKind(accessFlags));
+		return ADDED;
+	}
+
+	private boolean isRejected(String packageName) {
+		for (String rejected : rejectedPackages) {
+			if (packageName.startsWith(rejected)
+					&& (packageName.length() == rejected.length() || packageName.charAt(rejected.length()) == '.')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static ClasspathSymbolIndex.SymbolKind toKind(int accessFlags) {
+		if ((accessFlags & ACC_ANNOTATION) != 0) {
+			return ClasspathSymbolIndex.SymbolKind.ANNOTATION;
+		}
+		if ((accessFlags & ACC_INTERFACE) != 0) {
+			return ClasspathSymbolIndex.SymbolKind.INTERFACE;
+		}
+		if ((accessFlags & ACC_ENUM) != 0) {
+			return ClasspathSymbolIndex.SymbolKind.ENUM;
+		}
+		return ClasspathSymbolIndex.SymbolKind.CLASS;
+	}
+
+	/** Decodes the modified UTF-8 constant whose length field is at {@code offset}. */
+	private static String readModifiedUtf8(byte[] bytes, int offset) {
+		int length = readUnsignedShort(bytes, offset);
+		char[] chars = new char[length];
+		int count = 0;
+		int position = offset + 2;
+		int end = position + length;
+		while (position < end) {
+			int b = bytes[position] & 0xFF;
+			if (b < 0x80) {
+				chars[count++] = (char) b;
+				position++;
+			} else if ((b & 0xE0) == 0xC0 && position + 1 < end) {
+				chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[position + 1] & 0x3F));
+				position += 2;
+			} else if ((b & 0xF0) == 0xE0 && position + 2 < end) {
+				chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[position + 1] & 0x3F) << 6)
+						| (bytes[position + 2] & 0x3F));
+				position += 3;
+			} else {
+				return null;
+			}
+		}
+		return new String(chars, 0, count);
+	}
+
+	private static int readUnsignedShort(byte[] bytes, int offset) {
+		return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (readUnsignedShort(bytes, offset) << 16) | readUnsignedShort(bytes, offset + 2);
+	}
+}
@@ -25,6 +25,7 @@ import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.groovy.ast.PropertyNode;
 
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -37,9 +38,25 @@ import java.util.TreeSet;
  *
  * <p>Used to determine whether dependent files need recompilation after
  * an incremental compile of a single file. If the changed file's class
- * signatures haven't changed, dependents don't need recompilation.</p>
+ * signatures haven't changed, dependents don't need recompilation; if they
+ * have, {@link #changedMemberNames} narrows it to the dependents that
+ * reference a changed member.</p>
  */
 public class ClassSignature {
+	/**
+	 * Methods that Groovy calls without naming them: operators, coercion,
+	 * iteration and dynamic dispatch. A change to one of them may affect
+	 * any use of the class.
+	 */
+	private static final Set<String> IMPLICIT_METHOD_NAMES = Set.of(
+			"plus", "minus", "multiply", "div", "mod", "remainder", "power", "intdiv",
+			"or", "and", "xor", "leftShift", "rightShift", "rightShiftUnsigned",
+			"next", "previous", "negative", "positive", "bitwiseNegate",
+			"getAt", "putAt", "call", "asType", "asBoolean", "isCase", "iterator",
+			"compareTo", "equals", "hashCode", "toString", "clone",
+			"invokeMethod", "methodMissing", "propertyMissing", "getProperty", "setProperty",
+			"get", "set");
+
 	private final String name;
 	private final String superClassName;
 	private final Set<String> interfaceNames;
@@ -102,6 +119,73 @@ public class ClassSignature {
 				methodSignatures, fieldSignatures, propertySignatures);
 	}
 
+	/**
+	 * Returns the names through which source code can reach the members
+	 * that differ between two signatures of a class: member names, plus
+	 * the property names of accessors and the accessor names of properties.
+	 *
+	 * @return the names, or {@code null} if the change is not confined to
+	 *         named members — the class was added or removed, its hierarchy
+	 *         changed, or a method Groovy calls implicitly changed — so any
+	 *         user of the class may be affected
+	 */
+	public static Set<String> changedMemberNames(ClassSignature before, ClassSignature after) {
+		if (before == null || after == null
+				|| !Objects.equals(before.name, after.name)
+				|| !Objects.equals(before.superClassName, after.superClassName)
+				|| !Objects.equals(before.interfaceNames, after.interfaceNames)) {
+			return null;
+		}
+		Set<String> names = new HashSet<>();
+		for (String member : symmetricDifference(before.methodSignatures, after.methodSignatures)) {
+			String name = member.substring(member.lastIndexOf(' ', member.indexOf('(')) + 1, member.indexOf('('));
+			if (IMPLICIT_METHOD_NAMES.contains(name)) {
+				return null;
+			}
+			addAccessNames(name, names);
+		}
+		for (String member : symmetricDifference(before.fieldSignatures, after.fieldSignatures)) {
+			addAccessNames(member.substring(member.lastIndexOf(' ') + 1), names);
+		}
+		for (String member : symmetricDifference(before.propertySignatures, after.propertySignatures)) {
+			addAccessNames(member.substring(member.lastIndexOf(' ') + 1), names);
+		}
+		return names;
+	}
+
+	private static Set<String> symmetricDifference(Set<String> a, Set<String> b) {
+		Set<String> result = new HashSet<>(a);
+		result.addAll(b);
+		Set<String> common = new HashSet<>(a);
+		common.retainAll(b);
+		result.removeAll(common);
+		return result;
+	}
+
+	private static void addAccessNames(String name, Set<String> names) {
+		names.add(name);
+		String property = accessorProperty(name);
+		if (property != null) {
+			// getURL() is read as "URL", getName() as "name"
+			names.add(property);
+			names.add(Character.toLowerCase(property.charAt(0)) + property.substring(1));
+		} else if (!name.isEmpty()) {
+			String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			names.add("get" + capitalized);
+			names.add("set" + capitalized);
+			names.add("is" + capitalized);
+		}
+	}
+
+	/** Returns the capitalized property name of a getter or setter name, or {@code null}. */
+	private static String accessorProperty(String name) {
+		int prefix = name.startsWith("get") || name.startsWith("set") ? 3 : name.startsWith("is") ? 2 : 0;
+		if (prefix == 0 || name.length() == prefix || !Character.isUpperCase(name.charAt(prefix))) {
+			return null;
+		}
+		return name.substring(prefix);
+	}
+
 	private static String buildMethodSignature(MethodNode method) {
 		StringBuilder sb = new StringBuilder();
 		if (method.isStatic()) {
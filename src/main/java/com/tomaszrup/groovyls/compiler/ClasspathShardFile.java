@@ -0,0 +1,283 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary on-disk form of a {@link ClasspathSymbolIndex} shard.
+ *
+ * <p>A file is a fixed header followed by a payload holding the columns of
+ * a {@link ClasspathSymbolIndex.Snapshot}. The header carries a magic
+ * number, the format version, the payload length and a CRC-32 of the
+ * payload. Files are read through a {@link java.nio.MappedByteBuffer}: the
+ * integer columns are bulk-copied out of the mapping and only the strings
+ * are decoded, so nothing is tokenized or parsed.</p>
+ *
+ * <p>Payload layout, big-endian:</p>
+ * <pre>
+ *   shard key           string
+ *   symbol count, package table size, element table size, package count   4 &times; int
+ *   names               front-coded: shared prefix length (u2), suffix string (u2 length)
+ *   simple name starts  u2[symbols]
+ *   package ids, element ids   int[symbols] each
+ *   kinds               byte[symbols]
+ *   by simple name, by hump initials   int[symbols] each
+ *   package table, element table, package names   string each
+ * </pre>
+ * <p>Strings other than name suffixes are an {@code int} byte length
+ * followed by UTF-8 bytes. Names are sorted, so front coding drops the
+ * package prefix most of them share with their predecessor.</p>
+ */
+final class ClasspathShardFile {
+	/** {@code "GLSI"}. */
+	private static final int MAGIC = 0x474C5349;
+	/** Bump whenever the payload layout or the meaning of a column changes. */
+	static final int FORMAT_VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+
+	private ClasspathShardFile() {
+	}
+
+	/**
+	 * Writes {@code index} to {@code file}, replacing its contents.
+	 *
+	 * @param key identity of the shard; {@link #read} returns {@code null}
+	 *            for any other key
+	 */
+	static void write(Path file, String key, ClasspathSymbolIndex index) throws IOException {
+		ClasspathSymbolIndex.Snapshot snapshot = index.toSnapshot();
+		int size = snapshot.names.length;
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(64 + size * 48);
+		DataOutputStream out = new DataOutputStream(payload);
+		writeString(out, key);
+		out.writeInt(size);
+		out.writeInt(snapshot.packageTable.length);
+		out.writeInt(snapshot.elementTable.length);
+		out.writeInt(snapshot.packageNames.length);
+		String previous = "";
+		for (String name : snapshot.names) {
+			int shared = sharedPrefixLength(previous, name);
+			byte[] suffix = name.substring(shared).getBytes(StandardCharsets.UTF_8);
+			out.writeShort(shared);
+			out.writeShort(suffix.length);
+			out.write(suffix);
+			previous = name;
+		}
+		for (int start : snapshot.simpleNameStarts) {
+			out.writeShort(start);
+		}
+		writeInts(out, snapshot.packageIds);
+		writeInts(out, snapshot.elementIds);
+		out.write(snapshot.kinds);
+		writeInts(out, snapshot.bySimpleName);
+		writeInts(out, snapshot.byHumpInitials);
+		writeStrings(out, snapshot.packageTable);
+		writeStrings(out, snapshot.elementTable);
+		writeStrings(out, snapshot.packageNames);
+		out.flush();
+
+		CRC32 crc = new CRC32();
+		byte[] bytes = payload.toByteArray();
+		crc.update(bytes);
+		try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			stream.writeInt(MAGIC);
+			stream.writeInt(FORMAT_VERSION);
+			stream.writeInt(bytes.length);
+			stream.writeInt((int) crc.getValue());
+			stream.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a shard written by {@link #write}.
+	 *
+	 * @return the shard, or {@code null} if the file was written by another
+	 *         format version or for another key
+	 * @throws IOException if the file cannot be read, is truncated or fails
+	 *                     its checksum, or holds an inconsistent index
+	 */
+	static ClasspathSymbolIndex read(Path file, String key) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+				throw new IOException("Not a classpath shard file: " + file);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a classpath shard file: " + file);
+		}
+		if (buffer.getInt(4) != FORMAT_VERSION) {
+			return null;
+		}
+		int payloadLength = buffer.getInt(8);
+		if (payloadLength != buffer.limit() - HEADER_BYTES) {
+			throw new IOException("Truncated classpath shard file: " + file);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate().position(HEADER_BYTES));
+		if ((int) crc.getValue() != buffer.getInt(12)) {
+			throw new IOException("Checksum mismatch in classpath shard file: " + file);
+		}
+		buffer.position(HEADER_BYTES);
+		try {
+			return new Reader(buffer).read(key);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Invalid classpath shard file " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static int sharedPrefixLength(String a, String b) {
+		int max = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < max && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+		// Never split a surrogate pair between prefix and suffix
+		if (i > 0 && Character.isHighSurrogate(b.charAt(i - 1))) {
+			i--;
+		}
+		return i;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	/** Decodes the payload of a mapped file, positioned at its start. */
+	private static final class Reader {
+		private final ByteBuffer buffer;
+		/** Scratch space for string bytes, grown as needed. */
+		private byte[] scratch = new byte[256];
+
+		Reader(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		ClasspathSymbolIndex read(String key) {
+			if (!key.equals(readString(buffer.getInt()))) {
+				return null;
+			}
+			int size = readCount();
+			int packageTableSize = readCount();
+			int elementTableSize = readCount();
+			int packageCount = readCount();
+
+			ClasspathSymbolIndex.Snapshot snapshot = new ClasspathSymbolIndex.Snapshot();
+			snapshot.names = new String[size];
+			String previous = "";
+			for (int i = 0; i < size; i++) {
+				int shared = buffer.getChar();
+				String suffix = readString(buffer.getChar());
+				if (shared > previous.length()) {
+					throw new IllegalArgumentException("Invalid name prefix at entry " + i);
+				}
+				previous = shared == 0 ? suffix : previous.substring(0, shared).concat(suffix);
+				snapshot.names[i] = previous;
+			}
+			char[] starts = new char[size];
+			buffer.asCharBuffer().get(starts);
+			skip(size * Character.BYTES);
+			snapshot.simpleNameStarts = new int[size];
+			for (int i = 0; i < size; i++) {
+				snapshot.simpleNameStarts[i] = starts[i];
+			}
+			snapshot.packageIds = readInts(size);
+			snapshot.elementIds = readInts(size);
+			snapshot.kinds = new byte[size];
+			buffer.get(snapshot.kinds);
+			snapshot.bySimpleName = readInts(size);
+			snapshot.byHumpInitials = readInts(size);
+			snapshot.packageTable = readStrings(packageTableSize);
+			snapshot.elementTable = readStrings(elementTableSize);
+			snapshot.packageNames = readStrings(packageCount);
+			if (buffer.hasRemaining()) {
+				throw new IllegalArgumentException("Trailing bytes after classpath index");
+			}
+			return ClasspathSymbolIndex.fromSnapshot(snapshot);
+		}
+
+		/** Reads a count, rejecting values that cannot fit in the rest of the file. */
+		private int readCount() {
+			int count = buffer.getInt();
+			if (count < 0 || count > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid count " + count);
+			}
+			return count;
+		}
+
+		private int[] readInts(int count) {
+			int[] values = new int[count];
+			buffer.asIntBuffer().get(values);
+			skip(count * Integer.BYTES);
+			return values;
+		}
+
+		private String[] readStrings(int count) {
+			String[] values = new String[count];
+			for (int i = 0; i < count; i++) {
+				values[i] = readString(buffer.getInt());
+			}
+			return values;
+		}
+
+		private String readString(int length) {
+			if (length < 0 || length > buffer.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			buffer.get(scratch, 0, length);
+			return new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+
+		private void skip(int bytes) {
+			buffer.position(buffer.position() + bytes);
+		}
+	}
+}
@@ -0,0 +1,477 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+import com.tomaszrup.groovyls.config.ClasspathCache;
+
+/**
+ * Process-wide store of per-classpath-element symbol index shards.
+ *
+ * <p>Each JAR or class directory is read once, on its own, by
+ * {@link ClassFileHeaderIndexer} into an immutable
+ * {@link ClasspathSymbolIndex} shard, which every scope whose
+ * classpath contains that element shares. Shards are keyed by the
+ * element's contents — canonical path, size and modification time for a
+ * JAR; path plus the count, total size and latest modification time of its
+ * class files for a directory — and by the rejected-packages configuration.
+ * The JDK module classes form one more shard, keyed by {@code java.home},
+ * the runtime version and the rejected packages; it is the only shard that
+ * holds JDK classes, so per-classpath scans cover dependencies only.</p>
+ *
+ * <p>JAR and JDK shards are persisted under
+ * {@code ~/.groovyls/cache/classpath-shards/} in the binary format of
+ * {@link ClasspathShardFile}, and survive restarts and are shared by every
+ * server process on the machine; the shards of class directories are not,
+ * since they hold build output that changes with every build. In memory,
+ * the JDK shard is strongly held, as every scope uses it; other shards are
+ * softly referenced and reloaded or rescanned if the GC reclaimed them.</p>
+ */
+class ClasspathShardStore {
+	private static final Logger logger = LoggerFactory.getLogger(ClasspathShardStore.class);
+
+	private static final String CLASS_FILE_EXTENSION = ".class";
+
+	private static final ClasspathShardStore INSTANCE = new ClasspathShardStore(getDefaultCacheDir(),
+			SharedClassGraphCache.getInstance());
+
+	static ClasspathShardStore getInstance() {
+		return INSTANCE;
+	}
+
+	/** Directory for persisted shards: {@code ~/.groovyls/cache/classpath-shards/}. */
+	static Path getDefaultCacheDir() {
+		return Paths.get(System.getProperty("user.home"), ".groovyls", "cache", "classpath-shards");
+	}
+
+	/** Identity of a shard: one classpath element's contents under one scan configuration. */
+	static final class ShardKey {
+		/** Canonical element path, or {@code null} for the JDK shard. */
+		final String path;
+		final String id;
+		final boolean persistent;
+
+		ShardKey(String path, String id, boolean persistent) {
+			this.path = path;
+			this.id = id;
+			this.persistent = persistent;
+		}
+	}
+
+	private final Path cacheDir;
+	/** Source of the rejected-packages configuration. */
+	private final SharedClassGraphCache scanSettings;
+	private final Map<String, SoftReference<ClasspathSymbolIndex>> shards = new HashMap<>();
+	/** The JDK shard last used and its id, kept off the soft references. */
+	private ClasspathSymbolIndex jdkShard;
+	private String jdkShardId;
+	private long scanCount;
+	/** Shards being loaded or scanned by one caller, awaited by the others. */
+	private final Map<String, CompletableFuture<ClasspathSymbolIndex>> pending = new HashMap<>();
+	private volatile Executor scanExecutor;
+
+	/**
+	 * @param cacheDir     directory for persisted shards, or {@code null} to
+	 *                     keep shards in memory only
+	 * @param scanSettings source of the rejected-packages configuration
+	 */
+	ClasspathShardStore(Path cacheDir, SharedClassGraphCache scanSettings) {
+		this.cacheDir = cacheDir;
+		this.scanSettings = scanSettings;
+	}
+
+	/** Returns the key of the JDK module shard. */
+	ShardKey jdkKey() {
+		return new ShardKey(null, "jdk\n" + System.getProperty("java.home") + '\n'
+				+ System.getProperty("java.runtime.version") + '\n' + rejectedPackagesSignature(), true);
+	}
+
+	/**
+	 * Returns the key of a classpath element's shard, or {@code null} if the
+	 * element does not exist.
+	 */
+	ShardKey keyFor(Path element) {
+		Path canonical = ClassGraphDiskCache.normalizePath(element);
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(canonical, BasicFileAttributes.class);
+			String path = canonical.toString();
+			if (attributes.isDirectory()) {
+				return new ShardKey(path, "dir\n" + path + '\n' + directoryFingerprint(canonical) + '\n'
+						+ rejectedPackagesSignature(), false);
+			}
+			return new ShardKey(path, "file\n" + path + '\n' + attributes.size() + '\n'
+					+ attributes.lastModifiedTime().toMillis() + '\n' + rejectedPackagesSignature(), true);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/** Count, total size and latest modification time of the class files under {@code directory}. */
+	private static String directoryFingerprint(Path directory) throws IOException {
+		long[] fingerprint = new long[3];
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile() && file.getFileName().toString().endsWith(CLASS_FILE_EXTENSION)) {
+					fingerprint[0]++;
+					fingerprint[1] += attributes.size();
+					fingerprint[2] = Math.max(fingerprint[2], attributes.lastModifiedTime().toMillis());
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return fingerprint[0] + "," + fingerprint[1] + "," + fingerprint[2];
+	}
+
+	private String rejectedPackagesSignature() {
+		String[] rejected = scanSettings.getMergedRejectedPackages();
+		Arrays.sort(rejected);
+		return String.join(",", rejected);
+	}
+
+	/**
+	 * Sets the executor that scans shards. A caller scans those of its
+	 * shards the executor hasn't started itself, so a caller running on
+	 * the executor's own threads never waits on work queued behind it.
+	 * Without an executor, every shard is scanned by its caller.
+	 */
+	void setScanExecutor(Executor scanExecutor) {
+		this.scanExecutor = scanExecutor;
+	}
+
+	/**
+	 * Returns the shards for {@code keys}, in the same order. Shards found
+	 * neither in memory nor on disk are scanned in parallel. A shard that
+	 * another caller is already loading or scanning is awaited rather than
+	 * scanned twice. The shard of an element whose scan failed is
+	 * {@code null}.
+	 *
+	 * <p>The store's lock is only held to claim the missing shards and to
+	 * publish them; disk reads and scans run outside it, so the callers
+	 * of other classpaths and the memory statistics are not blocked.</p>
+	 */
+	List<ClasspathSymbolIndex> getShards(List<ShardKey> keys) {
+		ClasspathSymbolIndex[] result = new ClasspathSymbolIndex[keys.size()];
+		List<CompletableFuture<ClasspathSymbolIndex>> pendingShards = new ArrayList<>(keys.size());
+		List<Integer> claimed = new ArrayList<>();
+		synchronized (this) {
+			for (int i = 0; i < keys.size(); i++) {
+				ShardKey key = keys.get(i);
+				ClasspathSymbolIndex shard = inMemory(key);
+				CompletableFuture<ClasspathSymbolIndex> future = null;
+				if (shard == null) {
+					future = pending.get(key.id);
+					if (future == null) {
+						future = new CompletableFuture<>();
+						pending.put(key.id, future);
+						claimed.add(i);
+					}
+				}
+				result[i] = shard;
+				pendingShards.add(future);
+			}
+		}
+		if (!claimed.isEmpty()) {
+			try {
+				loadOrScan(keys, claimed, pendingShards);
+			} finally {
+				// Never leave other callers waiting on a shard this call claimed
+				for (int i : claimed) {
+					if (!pendingShards.get(i).isDone()) {
+						publish(keys.get(i), null, pendingShards.get(i), false);
+					}
+				}
+			}
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			if (result[i] == null) {
+				result[i] = await(pendingShards.get(i), keys.get(i));
+			}
+		}
+		return Arrays.asList(result);
+	}
+
+	private ClasspathSymbolIndex inMemory(ShardKey key) {
+		if (key.path == null && key.id.equals(jdkShardId)) {
+			return jdkShard;
+		}
+		SoftReference<ClasspathSymbolIndex> reference = shards.get(key.id);
+		return reference != null ? reference.get() : null;
+	}
+
+	private void remember(ShardKey key, ClasspathSymbolIndex shard) {
+		shards.put(key.id, new SoftReference<>(shard));
+		if (key.path == null) {
+			jdkShard = shard;
+			jdkShardId = key.id;
+		}
+	}
+
+	/** Makes a claimed shard available and releases its waiters. */
+	private void publish(ShardKey key, ClasspathSymbolIndex shard, CompletableFuture<ClasspathSymbolIndex> future,
+			boolean scanned) {
+		synchronized (this) {
+			if (shard != null) {
+				remember(key, shard);
+				if (scanned) {
+					scanCount++;
+				}
+			}
+			pending.remove(key.id, future);
+		}
+		future.complete(shard);
+	}
+
+	/** Loads the claimed shards from disk and scans the rest. */
+	private void loadOrScan(List<ShardKey> keys, List<Integer> claimed,
+			List<CompletableFuture<ClasspathSymbolIndex>> pendingShards) {
+		List<Integer> missing = new ArrayList<>();
+		for (int i : claimed) {
+			ShardKey key = keys.get(i);
+			ClasspathSymbolIndex shard = key.persistent ? loadFromDisk(key) : null;
+			if (shard != null) {
+				publish(key, shard, pendingShards.get(i), false);
+			} else {
+				missing.add(i);
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		long start = System.currentTimeMillis();
+		String[] rejected = scanSettings.getMergedRejectedPackages();
+		Executor executor = scanExecutor;
+		List<FutureTask<ClasspathSymbolIndex>> scans = new ArrayList<>(missing.size());
+		for (int i : missing) {
+			ShardKey key = keys.get(i);
+			FutureTask<ClasspathSymbolIndex> scan = new FutureTask<>(() -> scan(key, rejected));
+			scans.add(scan);
+			if (executor != null && missing.size() > 1) {
+				try {
+					executor.execute(scan);
+				} catch (RejectedExecutionException e) {
+					// Scanned by this thread below
+				}
+			}
+		}
+		for (int m = 0; m < missing.size(); m++) {
+			int i = missing.get(m);
+			ShardKey key = keys.get(i);
+			FutureTask<ClasspathSymbolIndex> scan = scans.get(m);
+			// No-op if the executor has started it
+			scan.run();
+			ClasspathSymbolIndex shard = await(scan, key);
+			if (shard != null && key.persistent) {
+				saveToDisk(key, shard);
+			}
+			publish(key, shard, pendingShards.get(i), shard != null);
+		}
+		logger.info("Scanned {} classpath shards in {}ms ({} reused)", missing.size(),
+				System.currentTimeMillis() - start, keys.size() - missing.size());
+	}
+
+	private static ClasspathSymbolIndex await(Future<ClasspathSymbolIndex> scan, ShardKey key) {
+		try {
+			return scan.get();
+		} catch (ExecutionException e) {
+			logger.warn("Classpath shard scan of {} failed: {}", key.path != null ? key.path : "JDK",
+					e.getCause() != null ? e.getCause().toString() : e.toString());
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * Scans one shard; returns {@code null} if the scan failed. Classpath
+	 * elements are read by {@link ClassFileHeaderIndexer}; only the JDK
+	 * modules go through ClassGraph.
+	 */
+	private static ClasspathSymbolIndex scan(ShardKey key, String[] rejected) {
+		try {
+			if (key.path != null) {
+				return new ClassFileHeaderIndexer(rejected).index(Paths.get(key.path), key.path);
+			}
+			try (URLClassLoader noClasspath = new URLClassLoader(new URL[0], null);
+					ScanResult scanResult = new ClassGraph()
+							.overrideClassLoaders(noClasspath)
+							.enableSystemJarsAndModules()
+							.enableClassInfo()
+							.rejectPackages(rejected)
+							.scan()) {
+				return ClasspathSymbolIndex.fromScanResult(scanResult, null);
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Classpath shard scan of {} failed: {}", key.path != null ? key.path : "JDK",
+					e.getMessage());
+			return null;
+		}
+	}
+
+	private ClasspathSymbolIndex loadFromDisk(ShardKey key) {
+		if (cacheDir == null) {
+			return null;
+		}
+		Path cacheFile = getCacheFile(key);
+		if (!Files.isRegularFile(cacheFile)) {
+			return null;
+		}
+		try {
+			return ClasspathShardFile.read(cacheFile, key.id);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to load classpath shard for {}: {}", key.path, e.getMessage());
+			deleteQuietly(cacheFile);
+			return null;
+		}
+	}
+
+	/** Persists a shard atomically (write-to-temp then rename). */
+	private void saveToDisk(ShardKey key, ClasspathSymbolIndex shard) {
+		if (cacheDir == null) {
+			return;
+		}
+		Path cacheFile = getCacheFile(key);
+		Path tempFile = null;
+		try {
+			Files.createDirectories(cacheDir);
+			// Unique per writer, as other server processes share the directory
+			tempFile = Files.createTempFile(cacheDir, cacheFile.getFileName().toString(), ".tmp");
+			ClasspathShardFile.write(tempFile, key.id, shard);
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to persist classpath shard for {}: {}", key.path, e.getMessage());
+			deleteQuietly(tempFile);
+		}
+	}
+
+	private static void deleteQuietly(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.trace("Failed to delete {}", file, e);
+		}
+	}
+
+	Path getCacheFile(ShardKey key) {
+		return cacheDir.resolve("shard-" + ClasspathCache.sha256Hex(key.id).substring(0, 32) + ".idx");
+	}
+
+	/**
+	 * Drops the in-memory shards of classpath elements under
+	 * {@code projectRoot}, so they are rescanned on next use.
+	 *
+	 * @return number of removed shards
+	 */
+	synchronized int invalidateUnder(Path projectRoot) {
+		int removed = 0;
+		Iterator<String> iterator = shards.keySet().iterator();
+		while (iterator.hasNext()) {
+			String path = pathOf(iterator.next());
+			if (path != null && Paths.get(path).startsWith(projectRoot)) {
+				iterator.remove();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/** Returns the element path encoded in a shard id, or {@code null} for the JDK shard. */
+	private static String pathOf(String id) {
+		if (id.startsWith("jdk\n")) {
+			return null;
+		}
+		int start = id.indexOf('\n') + 1;
+		return id.substring(start, id.indexOf('\n', start));
+	}
+
+	/** Drops every in-memory shard; persisted shards are kept. */
+	synchronized void clear() {
+		shards.clear();
+		jdkShard = null;
+		jdkShardId = null;
+	}
+
+	/** Estimates the heap retained by the shards still in memory. */
+	synchronized long estimateMemoryBytes() {
+		long total = 0;
+		for (SoftReference<ClasspathSymbolIndex> reference : shards.values()) {
+			ClasspathSymbolIndex shard = reference.get();
+			if (shard != null) {
+				total += shard.estimateMemoryBytes();
+			}
+		}
+		return total;
+	}
+
+	/** Returns the number of shards still in memory. */
+	synchronized int getShardCount() {
+		int count = 0;
+		for (SoftReference<ClasspathSymbolIndex> reference : shards.values()) {
+			if (reference.get() != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/** Returns the number of shards scanned so far. */
+	synchronized long getScanCount() {
+		return scanCount;
+	}
+}
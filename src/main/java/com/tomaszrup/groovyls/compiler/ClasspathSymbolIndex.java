@@ -21,11 +21,21 @@ package com.tomaszrup.groovyls.compiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 import io.github.classgraph.ClassInfo;
 import io.github.classgraph.ScanResult;
@@ -36,6 +46,23 @@ import io.github.classgraph.ScanResult;
  *
  * <p>Compared to retaining a full ClassGraph {@link ScanResult}, this index
  * stores only data needed by language features, reducing live heap usage.
+ * Symbols are stored column-wise, ordered by fully-qualified name: the
+ * names themselves, the offset of the simple name within each name,
+ * ids into interned package and classpath-element tables, and kinds packed
+ * into a byte array. No per-symbol object is retained; the {@link Symbol}
+ * instances handed out are views created on demand.
+ *
+ * <p>Type-name queries ({@link #forEachTypeMatching}) are answered from two
+ * sorted orders of the symbols — by simple name for prefix queries, and by
+ * camel-hump initials for abbreviations such as {@code HSR} →
+ * {@code HttpServletRequest} — so they touch only matching symbols. Scope
+ * filtering uses a per-scope bitset of visible classpath elements, computed
+ * once per element set and cached.
+ *
+ * <p>An index can cover a single classpath element (a "shard", see
+ * {@link ClasspathShardStore}); {@link #compose} merges shards into the
+ * index of a whole classpath without re-sorting, because every column and
+ * order of a shard is already sorted.
  */
 public final class ClasspathSymbolIndex {
 
@@ -46,9 +73,11 @@ public final class ClasspathSymbolIndex {
 		ANNOTATION
 	}
 
+	private static final SymbolKind[] KINDS = SymbolKind.values();
+
 	public static final class Symbol {
 		private final String name;
-		private final String simpleName;
+		private final int simpleNameStart;
 		private final String packageName;
 		private final SymbolKind kind;
 		/**
@@ -58,8 +87,13 @@ public final class ClasspathSymbolIndex {
 
 		Symbol(String name, String simpleName, String packageName,
 				SymbolKind kind, String classpathElementPath) {
+			this(name, simpleNameStart(name, simpleName), packageName, kind, classpathElementPath);
+		}
+
+		private Symbol(String name, int simpleNameStart, String packageName,
+				SymbolKind kind, String classpathElementPath) {
 			this.name = name;
-			this.simpleName = simpleName;
+			this.simpleNameStart = simpleNameStart;
 			this.packageName = packageName;
 			this.kind = kind;
 			this.classpathElementPath = classpathElementPath;
@@ -70,7 +104,7 @@ public final class ClasspathSymbolIndex {
 		}
 
 		public String getSimpleName() {
-			return simpleName;
+			return name.substring(simpleNameStart);
 		}
 
 		public String getPackageName() {
@@ -86,26 +120,118 @@ public final class ClasspathSymbolIndex {
 		}
 	}
 
-	private final List<Symbol> allSymbols;
+	/** Distinct classpath-element sets cached before the cache is reset. */
+	private static final int MAX_CACHED_VISIBILITIES = 64;
+
+	/** Fully-qualified names; a symbol's position is its index here. */
+	private final String[] names;
+	/**
+	 * Start of the simple name within each name. Class names fit in a
+	 * {@code char}, because the class file format limits them to 65535
+	 * bytes.
+	 */
+	private final char[] simpleNameStarts;
+	private final int[] packageIds;
+	private final String[] packageTable;
+	/** Classpath element id of each symbol, or -1 for JDK module classes. */
+	private final int[] elementIds;
+	private final String[] elementTable;
+	private final Map<String, Integer> elementIdsByPath;
+	/** {@link SymbolKind} ordinal of each symbol. */
+	private final byte[] kinds;
 	private final Set<String> packageNames;
+	/**
+	 * Positions ordered by simple name, then name. Symbols sharing a simple
+	 * name are adjacent, so this also serves as the simple name &rarr;
+	 * symbols multimap.
+	 */
+	private final int[] bySimpleName;
+	/** Positions ordered by camel-hump initials, then simple name. */
+	private final int[] byHumpInitials;
+	/** Visible classpath element ids per scope element set. */
+	private final Map<Set<String>, BitSet> visibilityCache = new ConcurrentHashMap<>();
+	private final List<Symbol> allSymbols = new AbstractList<Symbol>() {
+		@Override
+		public Symbol get(int position) {
+			return symbolAt(position);
+		}
+
+		@Override
+		public int size() {
+			return names.length;
+		}
+	};
+
+	private ClasspathSymbolIndex(List<Symbol> symbols, Set<String> packageNames) {
+		this(Columns.of(symbols), packageNames);
+	}
 
-	private ClasspathSymbolIndex(List<Symbol> allSymbols, Set<String> packageNames) {
-		this.allSymbols = allSymbols;
+	private ClasspathSymbolIndex(Columns columns, Set<String> packageNames) {
+		if (columns.bySimpleName == null) {
+			columns.sortByName();
+		}
+		int size = columns.size;
+		this.names = Arrays.copyOf(columns.names, size);
+		this.simpleNameStarts = Arrays.copyOf(columns.simpleNameStarts, size);
+		this.packageIds = Arrays.copyOf(columns.packageIds, size);
+		this.packageTable = columns.packageTable.toArray(new String[0]);
+		this.elementIds = Arrays.copyOf(columns.elementIds, size);
+		this.elementTable = columns.elementTable.toArray(new String[0]);
+		this.elementIdsByPath = columns.elementIdsByPath;
+		this.kinds = Arrays.copyOf(columns.kinds, size);
 		this.packageNames = packageNames;
+		if (columns.bySimpleName != null) {
+			this.bySimpleName = columns.bySimpleName;
+			this.byHumpInitials = columns.byHumpInitials;
+			return;
+		}
+		String[] initials = new String[size];
+		for (int i = 0; i < size; i++) {
+			initials[i] = humpInitials(names[i], simpleNameStarts[i]);
+		}
+		// Positions are in name order, so the stable sorts break ties by name
+		this.bySimpleName = sortedPositions(size, this::compareSimpleNames);
+		this.byHumpInitials = sortedPositions(size,
+				Comparator.comparing((Integer i) -> initials[i]).thenComparing(this::compareSimpleNames));
+	}
+
+	private static int[] sortedPositions(int size, Comparator<Integer> order) {
+		Integer[] positions = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			positions[i] = i;
+		}
+		Arrays.sort(positions, order);
+		int[] result = new int[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = positions[i];
+		}
+		return result;
 	}
 
 	public static ClasspathSymbolIndex fromScanResult(ScanResult scanResult) {
+		return fromScanResult(scanResult, false, null);
+	}
+
+	/**
+	 * Builds the shard of a single classpath element from a scan of it: only
+	 * classes found in {@code classpathElementPath} are kept, or only JDK
+	 * module classes if it is {@code null}. Classes a scan picks up from
+	 * other elements (e.g. through a JAR manifest {@code Class-Path}) belong
+	 * to their own shards.
+	 */
+	static ClasspathSymbolIndex fromScanResult(ScanResult scanResult, String classpathElementPath) {
+		return fromScanResult(scanResult, true, classpathElementPath);
+	}
+
+	private static ClasspathSymbolIndex fromScanResult(ScanResult scanResult, boolean filterByElement,
+			String classpathElementPath) {
 		if (scanResult == null) {
 			return empty();
 		}
 		List<ClassInfo> classes = scanResult.getAllClasses();
-		List<Symbol> symbols = new ArrayList<>(classes.size());
+		Columns columns = new Columns(classes.size());
 		Set<String> packages = new LinkedHashSet<>();
 		for (ClassInfo classInfo : classes) {
-			String packageName = classInfo.getPackageName();
-			if (packageName != null && !packageName.isEmpty()) {
-				packages.add(packageName);
-			}
 			File classpathElementFile = null;
 			try {
 				classpathElementFile = classInfo.getClasspathElementFile();
@@ -113,22 +239,304 @@ public final class ClasspathSymbolIndex {
 				// Some ClassGraph entries (e.g. synthetic/module edge cases) may
 				// not expose a classpath element. Treat as module/JDK-style entry.
 			}
-			symbols.add(new Symbol(
+			String path = columns.canonicalPath(classpathElementFile);
+			if (filterByElement && !Objects.equals(path, classpathElementPath)) {
+				continue;
+			}
+			String packageName = classInfo.getPackageName();
+			if (packageName != null && !packageName.isEmpty()) {
+				packages.add(packageName);
+			}
+			columns.add(
 					classInfo.getName(),
-					classInfo.getSimpleName(),
+					simpleNameStart(classInfo.getName(), classInfo.getSimpleName()),
 					packageName,
 					toKind(classInfo),
-					toCanonicalClasspathElementPath(classpathElementFile)));
+					path);
+		}
+		return new ClasspathSymbolIndex(columns, Collections.unmodifiableSet(packages));
+	}
+
+	/**
+	 * Merges shards into one index, in O(n log k) for n symbols in k shards.
+	 * When several shards contain a class, the one earliest in
+	 * {@code shards} wins, as the earliest classpath element does for class
+	 * loading.
+	 */
+	static ClasspathSymbolIndex compose(List<ClasspathSymbolIndex> shards) {
+		if (shards.isEmpty()) {
+			return empty();
+		}
+		if (shards.size() == 1) {
+			return shards.get(0);
+		}
+		int count = shards.size();
+		int capacity = 0;
+		for (ClasspathSymbolIndex shard : shards) {
+			capacity += shard.names.length;
+		}
+		Columns columns = new Columns(capacity);
+		Set<String> packages = new LinkedHashSet<>();
+		int[][] packageIdMaps = new int[count][];
+		int[][] elementIdMaps = new int[count][];
+		for (int s = 0; s < count; s++) {
+			ClasspathSymbolIndex shard = shards.get(s);
+			packages.addAll(shard.packageNames);
+			packageIdMaps[s] = new int[shard.packageTable.length];
+			for (int id = 0; id < shard.packageTable.length; id++) {
+				packageIdMaps[s][id] = Columns.intern(shard.packageTable[id], columns.packageTable,
+						columns.packageIdsByName);
+			}
+			elementIdMaps[s] = new int[shard.elementTable.length];
+			for (int id = 0; id < shard.elementTable.length; id++) {
+				elementIdMaps[s][id] = Columns.intern(shard.elementTable[id], columns.elementTable,
+						columns.elementIdsByPath);
+			}
+		}
+
+		// Merge by name; positions[s][i] is the merged position of symbol i
+		// of shard s, or -1 if an earlier shard already has that name
+		int[][] identity = new int[count][];
+		int[][] positions = new int[count][];
+		for (int s = 0; s < count; s++) {
+			int size = shards.get(s).names.length;
+			identity[s] = new int[size];
+			for (int i = 0; i < size; i++) {
+				identity[s][i] = i;
+			}
+			positions[s] = new int[size];
+		}
+		String previous = null;
+		for (long entry : mergeOrders(identity, (sa, a, sb, b) -> {
+			int diff = shards.get(sa).names[a].compareTo(shards.get(sb).names[b]);
+			return diff != 0 ? diff : Integer.compare(sa, sb);
+		})) {
+			int s = (int) (entry >>> 32);
+			int i = (int) entry;
+			ClasspathSymbolIndex shard = shards.get(s);
+			String name = shard.names[i];
+			if (name.equals(previous)) {
+				positions[s][i] = -1;
+				continue;
+			}
+			previous = name;
+			positions[s][i] = columns.size;
+			int elementId = shard.elementIds[i];
+			columns.add(name, shard.simpleNameStarts[i], packageIdMaps[s][shard.packageIds[i]],
+					elementId < 0 ? -1 : elementIdMaps[s][elementId], shard.kinds[i]);
+		}
+
+		// Each shard order maps to a sorted run of merged positions, so the
+		// merged orders are merges of the shard orders
+		int[][] bySimpleNames = new int[count][];
+		int[][] byHumpInitials = new int[count][];
+		for (int s = 0; s < count; s++) {
+			bySimpleNames[s] = shards.get(s).bySimpleName;
+			byHumpInitials[s] = shards.get(s).byHumpInitials;
+		}
+		EntryOrder bySimpleName = (sa, a, sb, b) -> {
+			ClasspathSymbolIndex shardA = shards.get(sa);
+			ClasspathSymbolIndex shardB = shards.get(sb);
+			int diff = compareSimpleNames(shardA.names[a], shardA.simpleNameStarts[a],
+					shardB.names[b], shardB.simpleNameStarts[b]);
+			return diff != 0 ? diff : shardA.names[a].compareTo(shardB.names[b]);
+		};
+		columns.bySimpleName = toPositions(mergeOrders(bySimpleNames, bySimpleName), positions, columns.size);
+		columns.byHumpInitials = toPositions(mergeOrders(byHumpInitials, (sa, a, sb, b) -> {
+			ClasspathSymbolIndex shardA = shards.get(sa);
+			ClasspathSymbolIndex shardB = shards.get(sb);
+			int diff = compareHumpInitials(shardA.names[a], shardA.simpleNameStarts[a],
+					shardB.names[b], shardB.simpleNameStarts[b]);
+			return diff != 0 ? diff : bySimpleName.compare(sa, a, sb, b);
+		}), positions, columns.size);
+		return new ClasspathSymbolIndex(columns, Collections.unmodifiableSet(packages));
+	}
+
+	/** Orders symbol {@code a} of shard {@code sa} against symbol {@code b} of shard {@code sb}. */
+	private interface EntryOrder {
+		int compare(int sa, int a, int sb, int b);
+	}
+
+	/**
+	 * K-way merge of per-shard orders, each already sorted by {@code order}.
+	 * Returns {@code (shard << 32) | index} entries.
+	 */
+	private static long[] mergeOrders(int[][] orders, EntryOrder order) {
+		int total = 0;
+		for (int[] shardOrder : orders) {
+			total += shardOrder.length;
+		}
+		int[] cursors = new int[orders.length];
+		PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, orders.length),
+				(sa, sb) -> order.compare(sa, orders[sa][cursors[sa]], sb, orders[sb][cursors[sb]]));
+		for (int s = 0; s < orders.length; s++) {
+			if (orders[s].length > 0) {
+				heads.add(s);
+			}
+		}
+		long[] merged = new long[total];
+		int n = 0;
+		while (!heads.isEmpty()) {
+			int s = heads.poll();
+			merged[n++] = ((long) s << 32) | orders[s][cursors[s]];
+			if (++cursors[s] < orders[s].length) {
+				heads.add(s);
+			}
+		}
+		return merged;
+	}
+
+	/** Maps merged shard entries to merged positions, dropping shadowed symbols. */
+	private static int[] toPositions(long[] entries, int[][] positions, int size) {
+		int[] result = new int[size];
+		int n = 0;
+		for (long entry : entries) {
+			int position = positions[(int) (entry >>> 32)][(int) entry];
+			if (position >= 0) {
+				result[n++] = position;
+			}
+		}
+		return result;
+	}
+
+	/** Collects the classes of one classpath element into a shard. */
+	static final class Builder {
+		private final String classpathElementPath;
+		private final Columns columns = new Columns(256);
+		private final Set<String> packages = new LinkedHashSet<>();
+
+		/**
+		 * @param classpathElementPath canonical path of the element, or
+		 *                             {@code null} for JDK module classes
+		 */
+		Builder(String classpathElementPath) {
+			this.classpathElementPath = classpathElementPath;
+		}
+
+		void add(String name, String packageName, SymbolKind kind) {
+			if (!packageName.isEmpty()) {
+				packages.add(packageName);
+			}
+			columns.add(name, simpleNameStart(name, null), packageName, kind, classpathElementPath);
+		}
+
+		ClasspathSymbolIndex build() {
+			return new ClasspathSymbolIndex(columns, Collections.unmodifiableSet(packages));
+		}
+	}
+
+	/** Plain-field form of an index, used to persist shards. */
+	static final class Snapshot {
+		String[] names;
+		int[] simpleNameStarts;
+		int[] packageIds;
+		String[] packageTable;
+		int[] elementIds;
+		String[] elementTable;
+		byte[] kinds;
+		String[] packageNames;
+		int[] bySimpleName;
+		int[] byHumpInitials;
+	}
+
+	Snapshot toSnapshot() {
+		Snapshot snapshot = new Snapshot();
+		snapshot.names = names.clone();
+		snapshot.simpleNameStarts = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			snapshot.simpleNameStarts[i] = simpleNameStarts[i];
 		}
-		return new ClasspathSymbolIndex(
-				Collections.unmodifiableList(symbols),
-				Collections.unmodifiableSet(packages));
+		snapshot.packageIds = packageIds.clone();
+		snapshot.packageTable = packageTable.clone();
+		snapshot.elementIds = elementIds.clone();
+		snapshot.elementTable = elementTable.clone();
+		snapshot.kinds = kinds.clone();
+		snapshot.packageNames = packageNames.toArray(new String[0]);
+		snapshot.bySimpleName = bySimpleName.clone();
+		snapshot.byHumpInitials = byHumpInitials.clone();
+		return snapshot;
+	}
+
+	/**
+	 * Restores an index saved with {@link #toSnapshot()}, without sorting.
+	 *
+	 * @throws IllegalArgumentException if the snapshot is incomplete or
+	 *                                  inconsistent
+	 */
+	static ClasspathSymbolIndex fromSnapshot(Snapshot snapshot) {
+		if (snapshot.names == null || snapshot.packageTable == null || snapshot.elementTable == null
+				|| snapshot.packageNames == null) {
+			throw new IllegalArgumentException("Incomplete classpath index snapshot");
+		}
+		int size = snapshot.names.length;
+		checkLength(snapshot.simpleNameStarts, size);
+		checkLength(snapshot.packageIds, size);
+		checkLength(snapshot.elementIds, size);
+		checkLength(snapshot.bySimpleName, size);
+		checkLength(snapshot.byHumpInitials, size);
+		if (snapshot.kinds == null || snapshot.kinds.length != size) {
+			throw new IllegalArgumentException("Classpath index snapshot column length mismatch");
+		}
+		Columns columns = new Columns(size);
+		for (int id = 0; id < snapshot.packageTable.length; id++) {
+			checkInterned(Columns.intern(snapshot.packageTable[id], columns.packageTable, columns.packageIdsByName),
+					id);
+		}
+		for (int id = 0; id < snapshot.elementTable.length; id++) {
+			checkInterned(Columns.intern(snapshot.elementTable[id], columns.elementTable, columns.elementIdsByPath),
+					id);
+		}
+		String previous = null;
+		for (int i = 0; i < size; i++) {
+			String name = snapshot.names[i];
+			int start = snapshot.simpleNameStarts[i];
+			int packageId = snapshot.packageIds[i];
+			int elementId = snapshot.elementIds[i];
+			byte kind = snapshot.kinds[i];
+			if (name == null || (previous != null && previous.compareTo(name) >= 0)
+					|| start < 0 || start > name.length()
+					|| packageId < 0 || packageId >= snapshot.packageTable.length
+					|| elementId < -1 || elementId >= snapshot.elementTable.length
+					|| kind < 0 || kind >= KINDS.length) {
+				throw new IllegalArgumentException("Invalid classpath index snapshot entry " + i);
+			}
+			columns.add(name, start, packageId, elementId, kind);
+			previous = name;
+		}
+		columns.bySimpleName = checkPermutation(snapshot.bySimpleName);
+		columns.byHumpInitials = checkPermutation(snapshot.byHumpInitials);
+		return new ClasspathSymbolIndex(columns,
+				Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(snapshot.packageNames))));
+	}
+
+	private static void checkLength(int[] column, int size) {
+		if (column == null || column.length != size) {
+			throw new IllegalArgumentException("Classpath index snapshot column length mismatch");
+		}
+	}
+
+	private static void checkInterned(int id, int expected) {
+		if (id != expected) {
+			throw new IllegalArgumentException("Duplicate entry in classpath index snapshot table");
+		}
+	}
+
+	private static int[] checkPermutation(int[] order) {
+		BitSet seen = new BitSet(order.length);
+		for (int position : order) {
+			if (position < 0 || position >= order.length || seen.get(position)) {
+				throw new IllegalArgumentException("Invalid classpath index snapshot order");
+			}
+			seen.set(position);
+		}
+		return order;
 	}
 
 	public static ClasspathSymbolIndex empty() {
 		return new ClasspathSymbolIndex(Collections.emptyList(), Collections.emptySet());
 	}
 
+	/** Returns every symbol, in fully-qualified name order. */
 	public List<Symbol> getAllSymbols() {
 		return allSymbols;
 	}
@@ -138,23 +546,369 @@ public final class ClasspathSymbolIndex {
 	}
 
 	/**
-	 * Returns symbols filtered to the given classpath element set.
+	 * Visits the symbols visible to a scope whose simple name matches
+	 * {@code query} (see {@link #matchesTypeName}): first those starting
+	 * with {@code query}, in simple-name order, then — if {@code query} has
+	 * several camel humps — those it abbreviates, in initials order. Only
+	 * matching symbols are touched, and nothing proportional to the size
+	 * of the index is allocated.
+	 *
+	 * @param classpathElementPaths canonical classpath element paths belonging
+	 *                              to a scope; {@code null} means no filtering
+	 * @param visitor               returns {@code false} to stop the iteration
+	 */
+	public void forEachTypeMatching(String query, Set<String> classpathElementPaths, Predicate<Symbol> visitor) {
+		BitSet visible = visibleElements(classpathElementPaths);
+		for (int i = lowerBoundBySimpleName(query); i < bySimpleName.length; i++) {
+			int position = bySimpleName[i];
+			if (!names[position].startsWith(query, simpleNameStarts[position])) {
+				break;
+			}
+			if (isVisible(position, visible) && !visitor.test(symbolAt(position))) {
+				return;
+			}
+		}
+		String queryInitials = queryInitials(query);
+		if (queryInitials.length() < 2) {
+			// A single hump is a plain prefix, already covered above
+			return;
+		}
+		for (int i = lowerBoundByHumpInitials(queryInitials); i < byHumpInitials.length; i++) {
+			int position = byHumpInitials[i];
+			String name = names[position];
+			int start = simpleNameStarts[position];
+			if (compareInitials(name, start, queryInitials) != 0) {
+				break;
+			}
+			if (isVisible(position, visible) && !name.startsWith(query, start)
+					&& matchesCamelHumps(name, start, query) && !visitor.test(symbolAt(position))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the symbols visible to a scope whose simple name is exactly
+	 * {@code simpleName}, in fully-qualified name order. Costs a binary
+	 * search plus the number of symbols sharing that simple name.
 	 *
 	 * @param classpathElementPaths canonical classpath element paths belonging
 	 *                              to a scope; {@code null} means no filtering
 	 */
-	public List<Symbol> getSymbols(Set<String> classpathElementPaths) {
+	public List<Symbol> getSymbolsBySimpleName(String simpleName, Set<String> classpathElementPaths) {
+		BitSet visible = visibleElements(classpathElementPaths);
+		List<Symbol> result = new ArrayList<>();
+		for (int i = lowerBoundBySimpleName(simpleName); i < bySimpleName.length; i++) {
+			int position = bySimpleName[i];
+			if (compareSimpleName(position, simpleName) != 0) {
+				break;
+			}
+			if (isVisible(position, visible)) {
+				result.add(symbolAt(position));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Visits the symbols visible to a scope whose fully-qualified name
+	 * starts with {@code prefix}, in name order.
+	 *
+	 * @param classpathElementPaths canonical classpath element paths belonging
+	 *                              to a scope; {@code null} means no filtering
+	 * @param visitor               returns {@code false} to stop the iteration
+	 */
+	public void forEachTypeWithNamePrefix(String prefix, Set<String> classpathElementPaths,
+			Predicate<Symbol> visitor) {
+		BitSet visible = visibleElements(classpathElementPaths);
+		for (int position = lowerBoundByName(prefix); position < names.length; position++) {
+			if (!names[position].startsWith(prefix)) {
+				break;
+			}
+			if (isVisible(position, visible) && !visitor.test(symbolAt(position))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Estimates the heap retained by this index: the name strings, the
+	 * interned tables and every column and sorted order (with compressed
+	 * references and compact Latin-1 strings).
+	 */
+	public long estimateMemoryBytes() {
+		long total = 64;
+		for (String name : names) {
+			total += estimateStringBytes(name);
+		}
+		for (String packageName : packageTable) {
+			total += estimateStringBytes(packageName);
+		}
+		for (String element : elementTable) {
+			total += estimateStringBytes(element);
+		}
+		long size = names.length;
+		total += 16 + size * 4; // names
+		total += 16 + size * 2; // simpleNameStarts
+		total += 16 + size * 4; // packageIds
+		total += 16 + size * 4; // elementIds
+		total += 16 + size; // kinds
+		total += 2 * (16 + size * 4); // bySimpleName, byHumpInitials
+		total += 16 + (long) packageTable.length * 4 + (long) packageNames.size() * 48;
+		total += 16 + (long) elementTable.length * 4 + (long) elementIdsByPath.size() * 48;
+		return total;
+	}
+
+	private static long estimateStringBytes(String value) {
+		return value == null ? 0 : 40 + value.length();
+	}
+
+	/**
+	 * Returns {@code true} if {@code simpleName} starts with {@code query}
+	 * or {@code query} abbreviates its leading camel humps, each query hump
+	 * being a prefix of the corresponding name hump ({@code HSR} and
+	 * {@code HttSeReq} both match {@code HttpServletRequest}). Matching is
+	 * case-sensitive.
+	 */
+	public static boolean matchesTypeName(String simpleName, String query) {
+		return simpleName.startsWith(query) || matchesCamelHumps(simpleName, 0, query);
+	}
+
+	/** Camel-hump match of {@code query} against {@code name} from {@code start}. */
+	private static boolean matchesCamelHumps(String name, int start, String query) {
+		int ni = start;
+		int qi = 0;
+		while (qi < query.length()) {
+			// query[qi] starts a query hump; it must start a name hump at or after ni
+			if (qi > 0) {
+				while (ni < name.length() && !isHumpStart(name, start, ni)) {
+					ni++;
+				}
+			}
+			if (ni >= name.length()) {
+				return false;
+			}
+			do {
+				if (ni >= name.length() || name.charAt(ni) != query.charAt(qi)) {
+					return false;
+				}
+				ni++;
+				qi++;
+			} while (qi < query.length() && !isQueryHumpStart(query, qi));
+		}
+		return true;
+	}
+
+	static boolean isHumpStart(String name, int i) {
+		return isHumpStart(name, 0, i);
+	}
+
+	/**
+	 * A name hump starts at the first character, at an upper-case letter
+	 * after a non-upper-case character, at the last upper-case letter of an
+	 * acronym followed by a lower-case letter ({@code S} in
+	 * {@code HTTPServer}), and after {@code _} or {@code $}. The name is the
+	 * part of {@code text} from {@code start}.
+	 */
+	private static boolean isHumpStart(String text, int start, int i) {
+		if (i == start) {
+			return true;
+		}
+		char c = text.charAt(i);
+		char previous = text.charAt(i - 1);
+		if (previous == '_' || previous == '$') {
+			return c != '_' && c != '$';
+		}
+		if (!Character.isUpperCase(c)) {
+			return false;
+		}
+		return !Character.isUpperCase(previous)
+				|| (i + 1 < text.length() && Character.isLowerCase(text.charAt(i + 1)));
+	}
+
+	/** In a query, every upper-case letter after the first character starts a hump. */
+	private static boolean isQueryHumpStart(String query, int i) {
+		return Character.isUpperCase(query.charAt(i));
+	}
+
+	private static String queryInitials(String query) {
+		StringBuilder initials = new StringBuilder();
+		for (int i = 0; i < query.length(); i++) {
+			if (i == 0 || isQueryHumpStart(query, i)) {
+				initials.append(query.charAt(i));
+			}
+		}
+		return initials.toString();
+	}
+
+	static String humpInitials(String name) {
+		return humpInitials(name, 0);
+	}
+
+	private static String humpInitials(String text, int start) {
+		StringBuilder initials = new StringBuilder();
+		for (int i = start; i < text.length(); i++) {
+			if (isHumpStart(text, start, i)) {
+				initials.append(text.charAt(i));
+			}
+		}
+		return initials.toString();
+	}
+
+	/**
+	 * Compares the hump initials of the name in {@code text} from
+	 * {@code start} with {@code initials}, returning 0 if they start with
+	 * {@code initials}.
+	 */
+	private static int compareInitials(String text, int start, String initials) {
+		int matched = 0;
+		for (int i = start; i < text.length() && matched < initials.length(); i++) {
+			if (isHumpStart(text, start, i)) {
+				int diff = Character.compare(text.charAt(i), initials.charAt(matched++));
+				if (diff != 0) {
+					return diff;
+				}
+			}
+		}
+		return matched == initials.length() ? 0 : -1;
+	}
+
+	/** Compares the simple name at {@code position} with {@code key}, without slicing it. */
+	private int compareSimpleName(int position, String key) {
+		String name = names[position];
+		int start = simpleNameStarts[position];
+		int length = name.length() - start;
+		int common = Math.min(length, key.length());
+		for (int k = 0; k < common; k++) {
+			int diff = name.charAt(start + k) - key.charAt(k);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return length - key.length();
+	}
+
+	private int compareSimpleNames(int a, int b) {
+		return compareSimpleNames(names[a], simpleNameStarts[a], names[b], simpleNameStarts[b]);
+	}
+
+	private static int compareSimpleNames(String nameA, int startA, String nameB, int startB) {
+		int lengthA = nameA.length() - startA;
+		int lengthB = nameB.length() - startB;
+		int common = Math.min(lengthA, lengthB);
+		for (int k = 0; k < common; k++) {
+			int diff = nameA.charAt(startA + k) - nameB.charAt(startB + k);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return lengthA - lengthB;
+	}
+
+	/**
+	 * Compares the hump initials of two names in place, as
+	 * {@link String#compareTo} would compare the initials strings.
+	 */
+	private static int compareHumpInitials(String nameA, int startA, String nameB, int startB) {
+		int i = startA;
+		int j = startB;
+		while (true) {
+			while (i < nameA.length() && !isHumpStart(nameA, startA, i)) {
+				i++;
+			}
+			while (j < nameB.length() && !isHumpStart(nameB, startB, j)) {
+				j++;
+			}
+			if (i == nameA.length() || j == nameB.length()) {
+				return (i == nameA.length() ? 0 : 1) - (j == nameB.length() ? 0 : 1);
+			}
+			int diff = nameA.charAt(i) - nameB.charAt(j);
+			if (diff != 0) {
+				return diff;
+			}
+			i++;
+			j++;
+		}
+	}
+
+	private Symbol symbolAt(int position) {
+		int elementId = elementIds[position];
+		return new Symbol(names[position], simpleNameStarts[position], packageTable[packageIds[position]],
+				KINDS[kinds[position]], elementId < 0 ? null : elementTable[elementId]);
+	}
+
+	private int lowerBoundByName(String prefix) {
+		int low = 0;
+		int high = names.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (names[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int lowerBoundBySimpleName(String prefix) {
+		int low = 0;
+		int high = bySimpleName.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareSimpleName(bySimpleName[mid], prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int lowerBoundByHumpInitials(String initials) {
+		int low = 0;
+		int high = byHumpInitials.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int position = byHumpInitials[mid];
+			if (compareInitials(names[position], simpleNameStarts[position], initials) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the ids of the classpath elements in {@code classpathElementPaths},
+	 * or {@code null} if every symbol is visible.
+	 */
+	private BitSet visibleElements(Set<String> classpathElementPaths) {
 		if (classpathElementPaths == null || classpathElementPaths.isEmpty()) {
-			return allSymbols;
+			return null;
+		}
+		BitSet cached = visibilityCache.get(classpathElementPaths);
+		if (cached != null) {
+			return cached;
 		}
-		List<Symbol> filtered = new ArrayList<>(allSymbols.size());
-		for (Symbol symbol : allSymbols) {
-			String cpElement = symbol.classpathElementPath;
-			if (cpElement == null || classpathElementPaths.contains(cpElement)) {
-				filtered.add(symbol);
+		BitSet visible = new BitSet(elementIdsByPath.size());
+		for (String path : classpathElementPaths) {
+			Integer id = elementIdsByPath.get(path);
+			if (id != null) {
+				visible.set(id);
 			}
 		}
-		return filtered;
+		if (visibilityCache.size() >= MAX_CACHED_VISIBILITIES) {
+			visibilityCache.clear();
+		}
+		visibilityCache.put(Set.copyOf(classpathElementPaths), visible);
+		return visible;
+	}
+
+	private boolean isVisible(int position, BitSet visibleElements) {
+		int elementId = elementIds[position];
+		return visibleElements == null || elementId < 0 || visibleElements.get(elementId);
 	}
 
 	private static SymbolKind toKind(ClassInfo classInfo) {
@@ -180,4 +934,115 @@ public final class ClasspathSymbolIndex {
 			return file.getAbsolutePath();
 		}
 	}
+
+	private static int simpleNameStart(String name, String simpleName) {
+		if (simpleName != null && name.endsWith(simpleName)) {
+			return name.length() - simpleName.length();
+		}
+		return Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1;
+	}
+
+	/**
+	 * Column builder: interns packages and classpath elements into tables
+	 * while symbols are added, then orders all columns by name.
+	 */
+	private static final class Columns {
+		String[] names;
+		char[] simpleNameStarts;
+		int[] packageIds;
+		int[] elementIds;
+		byte[] kinds;
+		int size;
+		/** Precomputed orders, set when the columns are already sorted by name. */
+		int[] bySimpleName;
+		int[] byHumpInitials;
+		final List<String> packageTable = new ArrayList<>();
+		final Map<String, Integer> packageIdsByName = new HashMap<>();
+		final List<String> elementTable = new ArrayList<>();
+		final Map<String, Integer> elementIdsByPath = new HashMap<>();
+		/** Canonical paths by classpath element file, so each is resolved once. */
+		final Map<File, String> canonicalPaths = new HashMap<>();
+
+		Columns(int capacity) {
+			names = new String[capacity];
+			simpleNameStarts = new char[capacity];
+			packageIds = new int[capacity];
+			elementIds = new int[capacity];
+			kinds = new byte[capacity];
+		}
+
+		static Columns of(List<Symbol> symbols) {
+			Columns columns = new Columns(symbols.size());
+			for (Symbol symbol : symbols) {
+				columns.add(symbol.name, symbol.simpleNameStart, symbol.packageName, symbol.kind,
+						symbol.classpathElementPath);
+			}
+			return columns;
+		}
+
+		String canonicalPath(File classpathElementFile) {
+			return classpathElementFile == null ? null
+					: canonicalPaths.computeIfAbsent(classpathElementFile,
+							ClasspathSymbolIndex::toCanonicalClasspathElementPath);
+		}
+
+		void add(String name, int simpleNameStart, String packageName, SymbolKind kind, String classpathElementPath) {
+			add(name, simpleNameStart, intern(packageName, packageTable, packageIdsByName),
+					classpathElementPath == null ? -1 : intern(classpathElementPath, elementTable, elementIdsByPath),
+					(byte) kind.ordinal());
+		}
+
+		void add(String name, int simpleNameStart, int packageId, int elementId, byte kind) {
+			if (size == names.length) {
+				int capacity = Math.max(16, size * 2);
+				names = Arrays.copyOf(names, capacity);
+				simpleNameStarts = Arrays.copyOf(simpleNameStarts, capacity);
+				packageIds = Arrays.copyOf(packageIds, capacity);
+				elementIds = Arrays.copyOf(elementIds, capacity);
+				kinds = Arrays.copyOf(kinds, capacity);
+			}
+			names[size] = name;
+			simpleNameStarts[size] = (char) simpleNameStart;
+			packageIds[size] = packageId;
+			elementIds[size] = elementId;
+			kinds[size] = kind;
+			size++;
+		}
+
+		static int intern(String value, List<String> table, Map<String, Integer> ids) {
+			Integer id = ids.get(value);
+			if (id == null) {
+				id = table.size();
+				table.add(value);
+				ids.put(value, id);
+			}
+			return id;
+		}
+
+		void sortByName() {
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparing((Integer i) -> names[i]));
+			String[] sortedNames = new String[size];
+			char[] sortedStarts = new char[size];
+			int[] sortedPackageIds = new int[size];
+			int[] sortedElementIds = new int[size];
+			byte[] sortedKinds = new byte[size];
+			for (int i = 0; i < size; i++) {
+				int from = order[i];
+				sortedNames[i] = names[from];
+				sortedStarts[i] = simpleNameStarts[from];
+				sortedPackageIds[i] = packageIds[from];
+				sortedElementIds[i] = elementIds[from];
+				sortedKinds[i] = kinds[from];
+			}
+			names = sortedNames;
+			simpleNameStarts = sortedStarts;
+			packageIds = sortedPackageIds;
+			elementIds = sortedElementIds;
+			kinds = sortedKinds;
+		}
+	}
 }
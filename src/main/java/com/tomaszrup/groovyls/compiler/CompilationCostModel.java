@@ -0,0 +1,153 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+/**
+ * Measured compile cost of one project scope, used to size incremental
+ * compilation units and to choose between incremental and full compiles.
+ *
+ * <p>An incremental unit costs a fixed overhead (class loader, Java stubs)
+ * plus a cost per source file; both are fitted by exponentially weighted
+ * least squares over the recent units, so the model follows the project as
+ * it grows and the JIT warms up. A full compile costs a per-file rate of
+ * its own. Until a scope has been measured, the model answers from
+ * conservative priors.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public class CompilationCostModel {
+	/** Prior cost of compiling one source file to CANONICALIZATION. */
+	static final long DEFAULT_FILE_NANOS = 20_000_000L;
+
+	/** Prior fixed cost of creating and compiling an incremental unit. */
+	static final long DEFAULT_UNIT_OVERHEAD_NANOS = 50_000_000L;
+
+	/**
+	 * Wall time one incremental unit should take. Bounds the latency and
+	 * heap of each unit, and a superseding edit aborts at the latest one
+	 * unit later.
+	 */
+	static final long TARGET_UNIT_NANOS = 1_000_000_000L;
+
+	/** Smallest batch the model proposes, however slow the files are. */
+	static final int MIN_BATCH_FILES = 8;
+
+	/** Weight kept by the history when a new sample arrives. */
+	private static final double DECAY = 0.8;
+
+	private double weight;
+	private double sumFiles;
+	private double sumNanos;
+	private double sumFilesSquared;
+	private double sumFilesNanos;
+	private double fullNanosPerFile = -1;
+
+	/** Records an incremental unit of {@code files} sources that compiled in {@code nanos}. */
+	public synchronized void recordIncremental(int files, long nanos) {
+		if (files <= 0 || nanos <= 0) {
+			return;
+		}
+		weight = weight * DECAY + 1;
+		sumFiles = sumFiles * DECAY + files;
+		sumNanos = sumNanos * DECAY + nanos;
+		sumFilesSquared = sumFilesSquared * DECAY + (double) files * files;
+		sumFilesNanos = sumFilesNanos * DECAY + (double) files * nanos;
+	}
+
+	/** Records a full compile of {@code files} sources that took {@code nanos}. */
+	public synchronized void recordFull(int files, long nanos) {
+		if (files <= 0 || nanos <= 0) {
+			return;
+		}
+		double perFile = (double) nanos / files;
+		fullNanosPerFile = fullNanosPerFile < 0 ? perFile : fullNanosPerFile * DECAY + perFile * (1 - DECAY);
+	}
+
+	/** Whether any incremental unit has been measured. */
+	public synchronized boolean isMeasured() {
+		return weight > 0;
+	}
+
+	/** Estimated incremental cost of one source file. */
+	public synchronized long fileNanos() {
+		return (long) fit()[1];
+	}
+
+	/** Estimated fixed cost of one incremental unit. */
+	public synchronized long unitOverheadNanos() {
+		return (long) fit()[0];
+	}
+
+	/**
+	 * Number of source files, context included, that one incremental unit
+	 * should hold to take about {@link #TARGET_UNIT_NANOS}.
+	 */
+	public synchronized int batchSize() {
+		double[] fit = fit();
+		double files = (TARGET_UNIT_NANOS - fit[0]) / fit[1];
+		return (int) Math.max(MIN_BATCH_FILES, Math.min(Integer.MAX_VALUE, files));
+	}
+
+	/** Estimated cost of compiling {@code files} sources in {@code units} incremental units. */
+	public synchronized long estimateIncrementalNanos(int units, int files) {
+		double[] fit = fit();
+		return (long) (units * fit[0] + files * fit[1]);
+	}
+
+	/** Estimated cost of a full compile of a project of {@code projectFiles} sources. */
+	public synchronized long estimateFullNanos(int projectFiles) {
+		if (fullNanosPerFile > 0) {
+			return (long) (projectFiles * fullNanosPerFile);
+		}
+		double[] fit = fit();
+		return (long) (fit[0] + projectFiles * fit[1]);
+	}
+
+	/**
+	 * Returns {overhead, per-file} nanos. Before the first incremental
+	 * unit, a measured full compile rate stands in for both, so a plan is
+	 * cheaper than a full compile exactly when it compiles fewer files.
+	 * When the recent units all had about the same size, the slope is not
+	 * identifiable; the overhead is then taken from the prior, capped at
+	 * half a unit's cost.
+	 */
+	private double[] fit() {
+		if (weight <= 0) {
+			return fullNanosPerFile > 0
+					? new double[] { 0, fullNanosPerFile }
+					: new double[] { DEFAULT_UNIT_OVERHEAD_NANOS, DEFAULT_FILE_NANOS };
+		}
+		double meanFiles = sumFiles / weight;
+		double meanNanos = sumNanos / weight;
+		double variance = sumFilesSquared / weight - meanFiles * meanFiles;
+		double perFile;
+		double overhead;
+		if (variance >= 1) {
+			perFile = (sumFilesNanos / weight - meanFiles * meanNanos) / variance;
+			overhead = meanNanos - perFile * meanFiles;
+			if (perFile > 0 && overhead >= 0) {
+				return new double[] { overhead, perFile };
+			}
+		}
+		overhead = Math.min(DEFAULT_UNIT_OVERHEAD_NANOS, meanNanos / 2);
+		perFile = Math.max(1, (meanNanos - overhead) / meanFiles);
+		return new double[] { overhead, perFile };
+	}
+}
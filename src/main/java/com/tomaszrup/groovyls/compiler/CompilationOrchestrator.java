@@ -19,18 +19,13 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls.compiler;
 
-import java.io.File;
-import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 import org.codehaus.groovy.GroovyBugError;
 import org.codehaus.groovy.control.CompilationFailedException;
@@ -41,9 +36,9 @@ import org.eclipse.lsp4j.Position;
 import groovy.lang.GroovyClassLoader;
 import io.github.classgraph.ScanResult;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.control.CompilationCancelledException;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
-import com.tomaszrup.lsp.utils.Positions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -117,26 +112,12 @@ public class CompilationOrchestrator {
 			GroovyClassLoader existingClassLoader,
 			Set<URI> additionalInvalidations) {
 
-		if (existingUnit != null) {
-			File targetDirectory = existingUnit.getConfiguration().getTargetDirectory();
-			if (targetDirectory != null && targetDirectory.exists()) {
-				try (Stream<Path> walk = Files.walk(targetDirectory.toPath())) {
-					walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
-				} catch (IOException e) {
-					logger.error("Failed to delete target directory: {}", targetDirectory.getAbsolutePath(), e);
-					return new CompilationResult(null, existingClassLoader, existingScanResult, false);
-				}
-			}
-		}
-
+		// Units compile in memory (see GroovyLSCompilationUnit), so there is
+		// no target directory to clear between compiles
 		GroovyLSCompilationUnit newUnit = compilationUnitFactory.create(
 				projectRoot, fileContentsTracker, additionalInvalidations);
 
 		if (newUnit != null) {
-			File targetDirectory = newUnit.getConfiguration().getTargetDirectory();
-			if (targetDirectory != null && !targetDirectory.exists() && !targetDirectory.mkdirs()) {
-				logger.error("Failed to create target directory: {}", targetDirectory.getAbsolutePath());
-			}
 			// ClassGraph scan is deferred — not needed for compilation or
 			// diagnostics. It will be triggered lazily via
 			// ProjectScope.ensureClassGraphScanned() when a provider
@@ -210,6 +191,8 @@ public class CompilationOrchestrator {
 	 * Compiles the given compilation unit to the CANONICALIZATION phase.
 	 *
 	 * @return the error collector from compilation
+	 * @throws CompilationCancelledException if the unit's cancellation check
+	 *         aborted the compilation
 	 */
 	public ErrorCollector compile(GroovyLSCompilationUnit compilationUnit, Path projectRoot) {
 		if (compilationUnit == null) {
@@ -220,6 +203,8 @@ public class CompilationOrchestrator {
 				compilationUnit.getConfiguration().getClasspath().size());
 		try {
 			compilationUnit.compile(Phases.CANONICALIZATION);
+		} catch (CompilationCancelledException e) {
+			throw e;
 		} catch (CompilationFailedException e) {
 			logger.debug("Compilation failed (expected for incomplete code) for scope {}: {}", projectRoot,
 					e.getMessage());
@@ -264,6 +249,8 @@ public class CompilationOrchestrator {
 	 *                        only the changed files and their dependencies
 	 * @param projectRoot     the project root path (for logging)
 	 * @return the error collector, or {@code null} if the unit is null
+	 * @throws CompilationCancelledException if the unit's cancellation check
+	 *         aborted the compilation
 	 */
 	public ErrorCollector compileIncremental(GroovyLSCompilationUnit incrementalUnit, Path projectRoot) {
 		if (incrementalUnit == null) {
@@ -279,6 +266,8 @@ public class CompilationOrchestrator {
 		logger.debug("Incremental compile for scope: {}, {} sources", projectRoot, sourceCount);
 		try {
 			incrementalUnit.compile(Phases.CANONICALIZATION);
+		} catch (CompilationCancelledException e) {
+			throw e;
 		} catch (CompilationFailedException e) {
 			logger.debug("Incremental compilation failed for {}: {}", projectRoot, e.getMessage());
 		} catch (GroovyBugError e) {
@@ -339,7 +328,7 @@ public class CompilationOrchestrator {
 		if (originalSource == null) {
 			return null;
 		}
-		int offset = Positions.getOffset(originalSource, position);
+		int offset = fileContentsTracker.getOffset(uri, originalSource, position);
 		if (offset < 0 || offset > originalSource.length()) {
 			logger.debug("completion: offset {} out of bounds for source length {}", offset,
 					originalSource.length());
@@ -371,7 +360,7 @@ public class CompilationOrchestrator {
 		if (originalSource == null) {
 			return null;
 		}
-		int offset = Positions.getOffset(originalSource, position);
+		int offset = fileContentsTracker.getOffset(uri, originalSource, position);
 		if (offset < 0 || offset > originalSource.length()) {
 			logger.debug("signatureHelp: offset {} out of bounds for source length {}", offset,
 					originalSource.length());
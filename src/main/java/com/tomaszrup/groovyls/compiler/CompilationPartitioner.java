@@ -0,0 +1,532 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits a project too large for one compilation unit into partitions that
+ * compile separately, each after the partitions it depends on.
+ *
+ * <p>Files are clustered by package directory. Clusters are linked by the
+ * file edges of the scope's {@link DependencyGraph} and by the imports in
+ * the file headers, which are read afresh so that the first compile of a
+ * project, before any graph exists, is ordered too. Directories declaring
+ * the same package in different source roots are linked both ways, as
+ * their files can reference each other without imports. Clusters in a
+ * dependency cycle are merged (the strongly connected components of the
+ * cluster graph), and the components are packed, dependencies first, into
+ * partitions of at most {@code maxFiles} files. A component larger than
+ * that forms a partition of its own, as a cycle cannot be split.</p>
+ *
+ * <p>Packing follows a topological order grouped by depth, so every
+ * dependency between partitions points to an earlier partition, and
+ * partitions of one depth never depend on each other and can compile
+ * concurrently (see {@link #run}).</p>
+ */
+public final class CompilationPartitioner {
+	private static final Logger logger = LoggerFactory.getLogger(CompilationPartitioner.class);
+	private static final String FILE_EXTENSION_GROOVY = ".groovy";
+	private static final String PACKAGE_PREFIX = "package ";
+	private static final String IMPORT_PREFIX = "import ";
+	private static final String STATIC_PREFIX = "static ";
+
+	private CompilationPartitioner() {
+	}
+
+	/**
+	 * Partitions {@code sources}.
+	 *
+	 * @param sources      all source files of the project
+	 * @param graph        the scope's dependency graph, possibly empty
+	 * @param openContents the editor contents of an open file, or
+	 *                     {@code null} to read the file from disk
+	 * @param maxFiles     the number of files a partition should not exceed
+	 * @return the partitions, each after the partitions it depends on
+	 */
+	public static List<Partition> partition(Collection<URI> sources, DependencyGraph graph,
+			Function<URI, String> openContents, int maxFiles) {
+		List<URI> ordered = new ArrayList<>(sources);
+		ordered.sort(Comparator.comparing(URI::toString));
+		Set<URI> sourceSet = new HashSet<>(ordered);
+		Map<URI, Header> headers = new HashMap<>();
+		for (URI file : ordered) {
+			headers.put(file, readHeader(file, openContents));
+		}
+		Map<URI, Set<URI>> dependencies = collectDependencies(ordered, sourceSet, headers, graph);
+
+		Map<URI, List<URI>> filesByCluster = new LinkedHashMap<>();
+		Map<String, Set<URI>> clustersByPackage = new HashMap<>();
+		for (URI file : ordered) {
+			URI cluster = clusterOf(file);
+			filesByCluster.computeIfAbsent(cluster, k -> new ArrayList<>()).add(file);
+			clustersByPackage.computeIfAbsent(headers.get(file).packageName, k -> new HashSet<>()).add(cluster);
+		}
+		DependencyGraph clusterGraph = new DependencyGraph();
+		for (Map.Entry<URI, List<URI>> entry : filesByCluster.entrySet()) {
+			Set<URI> clusterDependencies = new HashSet<>();
+			for (URI file : entry.getValue()) {
+				for (URI dependency : dependencies.get(file)) {
+					clusterDependencies.add(clusterOf(dependency));
+				}
+				clusterDependencies.addAll(clustersByPackage.get(headers.get(file).packageName));
+			}
+			clusterDependencies.remove(entry.getKey());
+			clusterGraph.updateDependencies(entry.getKey(), clusterDependencies);
+		}
+
+		List<Set<URI>> components = new ArrayList<>(clusterGraph.getComponentsInDependencyOrder());
+		Set<URI> linkedClusters = new HashSet<>();
+		components.forEach(linkedClusters::addAll);
+		for (URI cluster : filesByCluster.keySet()) {
+			if (!linkedClusters.contains(cluster)) {
+				components.add(Collections.singleton(cluster));
+			}
+		}
+		sortByDepth(components, clusterGraph);
+
+		List<Set<URI>> packed = new ArrayList<>();
+		Set<URI> current = new LinkedHashSet<>();
+		for (Set<URI> component : components) {
+			List<URI> files = new ArrayList<>();
+			for (URI cluster : new TreeSet<>(component)) {
+				files.addAll(filesByCluster.get(cluster));
+			}
+			if (!current.isEmpty() && current.size() + files.size() > maxFiles) {
+				packed.add(current);
+				current = new LinkedHashSet<>();
+			}
+			if (files.size() > maxFiles) {
+				logger.debug("{} files in a dependency cycle exceed the partition size of {}", files.size(), maxFiles);
+			}
+			current.addAll(files);
+		}
+		if (!current.isEmpty()) {
+			packed.add(current);
+		}
+		return link(packed, dependencies);
+	}
+
+	/**
+	 * Runs {@code task} once for every partition, each after the partitions
+	 * it depends on. Partitions whose dependencies have completed run
+	 * concurrently on up to {@code helpers} tasks submitted to
+	 * {@code executor}; the calling thread runs partitions too, so the run
+	 * completes even if the executor never gets to the helpers.
+	 *
+	 * <p>Once a task throws, no further partitions start, and the exception
+	 * is rethrown here after the running ones completed.</p>
+	 *
+	 * @param executor executor for the helpers, or {@code null} to run
+	 *                 every partition on the calling thread
+	 */
+	public static void run(List<Partition> partitions, Executor executor, int helpers, Consumer<Partition> task) {
+		new Scheduler(partitions, executor, executor != null ? helpers : 0, task).run();
+	}
+
+	/** Returns the project files each source depends on, from the graph and the source's imports. */
+	private static Map<URI, Set<URI>> collectDependencies(List<URI> sources, Set<URI> sourceSet,
+			Map<URI, Header> headers, DependencyGraph graph) {
+		Map<String, URI> filesByClassName = new HashMap<>();
+		Map<String, List<URI>> filesByPackage = new HashMap<>();
+		for (URI file : sources) {
+			Header header = headers.get(file);
+			filesByPackage.computeIfAbsent(header.packageName, k -> new ArrayList<>()).add(file);
+			String className = classNameOf(file, header.packageName);
+			if (className != null) {
+				filesByClassName.put(className, file);
+			}
+		}
+
+		Map<URI, Set<URI>> dependencies = new HashMap<>();
+		for (URI file : sources) {
+			Set<URI> fileDependencies = new HashSet<>();
+			for (URI dependency : graph.getDirectDependencies(file)) {
+				if (sourceSet.contains(dependency)) {
+					fileDependencies.add(dependency);
+				}
+			}
+			for (String imported : headers.get(file).imports) {
+				fileDependencies.addAll(resolveImport(imported, filesByClassName, filesByPackage));
+			}
+			fileDependencies.remove(file);
+			dependencies.put(file, fileDependencies);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Returns the files an import can refer to: the file named after the
+	 * imported class, or else every file of the imported package. Names of
+	 * nested classes and static members are shortened until one matches.
+	 */
+	private static Collection<URI> resolveImport(String imported, Map<String, URI> filesByClassName,
+			Map<String, List<URI>> filesByPackage) {
+		String name = imported;
+		while (true) {
+			URI file = filesByClassName.get(name);
+			if (file != null) {
+				return Collections.singleton(file);
+			}
+			List<URI> files = filesByPackage.get(name);
+			if (files != null) {
+				return files;
+			}
+			int lastDot = name.lastIndexOf('.');
+			if (lastDot < 0) {
+				return Collections.emptySet();
+			}
+			name = name.substring(0, lastDot);
+		}
+	}
+
+	/**
+	 * Reads the package and import declarations at the top of a source file.
+	 * Stops at the first line that is not a declaration, an annotation or a
+	 * comment.
+	 */
+	static Header readHeader(URI file, Function<URI, String> openContents) {
+		Header header = new Header();
+		String contents = openContents != null ? openContents.apply(file) : null;
+		try (BufferedReader reader = new BufferedReader(contents != null
+				? new StringReader(contents) : openReader(file))) {
+			boolean inComment = false;
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String trimmed = line.trim();
+				if (inComment) {
+					inComment = !trimmed.contains("*/");
+				} else if (trimmed.startsWith("/*")) {
+					inComment = !trimmed.contains("*/");
+				} else if (trimmed.startsWith(PACKAGE_PREFIX)) {
+					header.packageName = declaredName(trimmed.substring(PACKAGE_PREFIX.length()));
+				} else if (trimmed.startsWith(IMPORT_PREFIX)) {
+					String imported = declaredName(trimmed.substring(IMPORT_PREFIX.length()));
+					if (imported.startsWith(STATIC_PREFIX)) {
+						imported = imported.substring(STATIC_PREFIX.length()).trim();
+					}
+					if (imported.endsWith(".*")) {
+						imported = imported.substring(0, imported.length() - 2);
+					}
+					header.imports.add(imported);
+				} else if (!trimmed.isEmpty() && !trimmed.startsWith("//") && !trimmed.startsWith("@")
+						&& !trimmed.startsWith("#!")) {
+					break;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Could not read the header of {}: {}", file, e.getMessage());
+		}
+		return header;
+	}
+
+	private static Reader openReader(URI file) throws IOException {
+		return Files.newBufferedReader(Paths.get(file));
+	}
+
+	/** Strips the trailing semicolon, comment and alias from a declared name. */
+	private static String declaredName(String declaration) {
+		String name = declaration;
+		int comment = name.indexOf("//");
+		if (comment >= 0) {
+			name = name.substring(0, comment);
+		}
+		int semicolon = name.indexOf(';');
+		if (semicolon >= 0) {
+			name = name.substring(0, semicolon);
+		}
+		int alias = name.indexOf(" as ");
+		if (alias >= 0) {
+			name = name.substring(0, alias);
+		}
+		return name.trim();
+	}
+
+	private static String classNameOf(URI file, String packageName) {
+		String path = file.getPath();
+		if (path == null || !path.endsWith(FILE_EXTENSION_GROOVY)) {
+			return null;
+		}
+		String simpleName = path.substring(path.lastIndexOf('/') + 1, path.length() - FILE_EXTENSION_GROOVY.length());
+		return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+	}
+
+	/** The package directory of a file. */
+	private static URI clusterOf(URI file) {
+		return file.resolve(".");
+	}
+
+	/**
+	 * Stable-sorts components, given dependencies first, by their depth: the
+	 * length of the longest dependency chain below them.
+	 */
+	private static void sortByDepth(List<Set<URI>> components, DependencyGraph clusterGraph) {
+		Map<URI, Integer> depthByCluster = new HashMap<>();
+		Map<Set<URI>, Integer> depthByComponent = new IdentityHashMap<>();
+		for (Set<URI> component : components) {
+			int depth = 0;
+			for (URI cluster : component) {
+				for (URI dependency : clusterGraph.getDirectDependencies(cluster)) {
+					Integer dependencyDepth = depthByCluster.get(dependency);
+					if (dependencyDepth != null && !component.contains(dependency)) {
+						depth = Math.max(depth, dependencyDepth + 1);
+					}
+				}
+			}
+			for (URI cluster : component) {
+				depthByCluster.put(cluster, depth);
+			}
+			depthByComponent.put(component, depth);
+		}
+		components.sort(Comparator.comparing(depthByComponent::get));
+	}
+
+	/** Creates the partitions, with the earlier partitions each one depends on. */
+	private static List<Partition> link(List<Set<URI>> packed, Map<URI, Set<URI>> dependencies) {
+		Map<URI, Integer> partitionByFile = new HashMap<>();
+		for (int i = 0; i < packed.size(); i++) {
+			for (URI file : packed.get(i)) {
+				partitionByFile.put(file, i);
+			}
+		}
+		List<Partition> partitions = new ArrayList<>(packed.size());
+		for (int i = 0; i < packed.size(); i++) {
+			Set<Integer> partitionDependencies = new TreeSet<>();
+			for (URI file : packed.get(i)) {
+				for (URI dependency : dependencies.get(file)) {
+					int other = partitionByFile.get(dependency);
+					if (other != i) {
+						partitionDependencies.add(other);
+					}
+				}
+			}
+			partitions.add(new Partition(i, packed.get(i), partitionDependencies));
+		}
+		return partitions;
+	}
+
+	/** Package and imports declared by a source file. */
+	static final class Header {
+		String packageName = "";
+		final List<String> imports = new ArrayList<>();
+	}
+
+	/** Files compiled together in one unit. */
+	public static final class Partition {
+		private final int index;
+		private final Set<URI> files;
+		private final Set<Integer> dependencies;
+
+		Partition(int index, Set<URI> files, Set<Integer> dependencies) {
+			this.index = index;
+			this.files = Collections.unmodifiableSet(files);
+			this.dependencies = Collections.unmodifiableSet(dependencies);
+		}
+
+		/** Position of this partition in the list returned by {@link #partition}. */
+		public int getIndex() {
+			return index;
+		}
+
+		public Set<URI> getFiles() {
+			return files;
+		}
+
+		/** Indexes of the partitions that define types this partition references. */
+		public Set<Integer> getDependencies() {
+			return dependencies;
+		}
+	}
+
+	/** Hands out the partitions whose dependencies completed to the caller and the helpers. */
+	private static final class Scheduler {
+		private final Executor executor;
+		private final int maxHelpers;
+		private final Consumer<Partition> task;
+		private final int[] pendingDependencies;
+		private final List<List<Partition>> dependents;
+		private final Deque<Partition> ready = new ArrayDeque<>();
+		private int remaining;
+		private int running;
+		private int helpers;
+		private RuntimeException runtimeFailure;
+		private Error errorFailure;
+
+		Scheduler(List<Partition> partitions, Executor executor, int maxHelpers, Consumer<Partition> task) {
+			this.executor = executor;
+			this.maxHelpers = maxHelpers;
+			this.task = task;
+			this.pendingDependencies = new int[partitions.size()];
+			this.dependents = new ArrayList<>(partitions.size());
+			for (int i = 0; i < partitions.size(); i++) {
+				dependents.add(new ArrayList<>());
+			}
+			for (Partition partition : partitions) {
+				pendingDependencies[partition.getIndex()] = partition.getDependencies().size();
+				for (int dependency : partition.getDependencies()) {
+					dependents.get(dependency).add(partition);
+				}
+				if (partition.getDependencies().isEmpty()) {
+					ready.add(partition);
+				}
+			}
+			this.remaining = partitions.size();
+		}
+
+		void run() {
+			synchronized (this) {
+				submitHelpers();
+			}
+			for (Partition partition = take(true); partition != null; partition = take(true)) {
+				execute(partition);
+			}
+			boolean interrupted = false;
+			synchronized (this) {
+				while (running > 0) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (errorFailure != null) {
+				throw errorFailure;
+			}
+			if (runtimeFailure != null) {
+				throw runtimeFailure;
+			}
+		}
+
+		private void help() {
+			try {
+				for (Partition partition = take(false); partition != null; partition = take(false)) {
+					execute(partition);
+				}
+			} finally {
+				synchronized (this) {
+					helpers--;
+				}
+			}
+		}
+
+		/**
+		 * Returns a ready partition, or {@code null} once all completed or
+		 * one failed. Without {@code wait}, also returns {@code null} when
+		 * none is ready yet.
+		 */
+		private synchronized Partition take(boolean wait) {
+			boolean interrupted = false;
+			try {
+				while (remaining > 0 && runtimeFailure == null && errorFailure == null) {
+					Partition partition = ready.poll();
+					if (partition != null) {
+						running++;
+						return partition;
+					}
+					if (!wait) {
+						return null;
+					}
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				return null;
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		private void execute(Partition partition) {
+			try {
+				task.accept(partition);
+				complete(partition, null);
+			} catch (RuntimeException | Error e) {
+				complete(partition, e);
+			}
+		}
+
+		private synchronized void complete(Partition partition, Throwable failure) {
+			running--;
+			remaining--;
+			if (failure instanceof Error && errorFailure == null) {
+				errorFailure = (Error) failure;
+			} else if (failure instanceof RuntimeException && runtimeFailure == null) {
+				runtimeFailure = (RuntimeException) failure;
+			} else if (failure == null) {
+				for (Partition dependent : dependents.get(partition.getIndex())) {
+					if (--pendingDependencies[dependent.getIndex()] == 0) {
+						ready.add(dependent);
+					}
+				}
+				submitHelpers();
+			}
+			notifyAll();
+		}
+
+		/** Submits helpers until there is one per ready partition, up to the limit. */
+		private void submitHelpers() {
+			while (helpers < Math.min(maxHelpers, ready.size())) {
+				helpers++;
+				try {
+					executor.execute(this::help);
+				} catch (RejectedExecutionException e) {
+					helpers--;
+					logger.debug("Partition helper rejected; compiling on the calling thread: {}", e.getMessage());
+					return;
+				}
+			}
+		}
+	}
+}
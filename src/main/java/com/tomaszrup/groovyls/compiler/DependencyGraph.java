@@ -20,46 +20,94 @@
 package com.tomaszrup.groovyls.compiler;
 
 import java.net.URI;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Queue;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.tomaszrup.groovyls.util.IntCountMap;
+import com.tomaszrup.groovyls.util.InternRegistry;
+
 /**
  * Tracks inter-file dependencies so that when a source file changes, all files
  * that depend on it (directly or transitively) can be identified and
  * recompiled.
  *
- * <p>The graph maintains two concurrent maps:
+ * <p>Files are keyed by their {@link InternRegistry} ids and numbered with
+ * dense local ids, and edges are kept in both directions as primitive id
+ * lists:
  * <ul>
- *   <li>{@code dependsOn} — forward edges: file → set of files it imports/references</li>
- *   <li>{@code dependedOnBy} — reverse edges: file → set of files that reference it</li>
+ *   <li>{@code dependsOn} — forward edges: file → files it imports/references</li>
+ *   <li>{@code dependedOnBy} — reverse edges: file → files that reference it</li>
  * </ul>
  *
- * <p>Both maps are kept in sync by {@link #updateDependencies}. All public
- * methods are thread-safe (backed by {@link ConcurrentHashMap}).
+ * <p>On top of the file graph, the strongly connected components — files
+ * that depend on each other through a cycle — are maintained incrementally,
+ * along with the condensation: the DAG of components, with edge
+ * multiplicities, kept in topological order. An added edge that agrees with
+ * the order costs O(1); otherwise only the components between its endpoints
+ * in the order are searched and reordered (Pearce–Kelly), and merged into
+ * one component if the edge closed a cycle. A removed edge inside a
+ * component re-runs Tarjan's algorithm on that component alone.</p>
+ *
+ * <p>{@link #getTransitiveDependents} walks the condensation, so it is exact
+ * at any depth and runs in time linear in the size of its result. Queries
+ * share a read lock and run concurrently; updates take the write lock.</p>
  */
 public class DependencyGraph {
 	private static final Logger logger = LoggerFactory.getLogger(DependencyGraph.class);
 
-	/**
-	 * Maximum depth for transitive dependency traversal.  Prevents
-	 * pathological performance in deeply interconnected or circular
-	 * dependency graphs.
-	 */
-	private static final int MAX_TRANSITIVE_DEPTH = 5;
-
-	/** Forward edges: file → files it depends on. */
-	private final Map<URI, Set<URI>> dependsOn = new ConcurrentHashMap<>();
-
-	/** Reverse edges: file → files that depend on it. */
-	private final Map<URI, Set<URI>> dependedOnBy = new ConcurrentHashMap<>();
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int[] NO_IDS = new int[0];
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// --- Files, by id ---
+
+	/** Local id + 1 by {@link InternRegistry} URI id. */
+	private final IntCountMap localIds = new IntCountMap();
+	/** Canonical URIs, by local id; they keep the registry ids valid. */
+	private URI[] uris;
+	private int[] registryIds;
+	/** Forward edges: the first {@code dependsOnCount[id]} entries, unordered. */
+	private int[][] dependsOn;
+	private int[] dependsOnCount;
+	/** Reverse edges, laid out like {@link #dependsOn}. */
+	private int[][] dependedOnBy;
+	private int[] dependedOnByCount;
+	private int[] componentOf;
+	private int fileIdLimit;
+	private int[] freeFileIds;
+	private int freeFileIdCount;
+
+	// --- Components, by id ---
+
+	private int[][] members;
+	private int[] memberCount;
+	/** Condensed forward edges: component → components it depends on, with file edge counts. */
+	private IntCountMap[] componentDependencies;
+	/** Condensed reverse edges: component → components depending on it, with file edge counts. */
+	private IntCountMap[] componentDependents;
+	/** Topological position: a component comes before every component it depends on. */
+	private int[] order;
+	private int componentIdLimit;
+	private int[] freeComponentIds;
+	private int freeComponentIdCount;
+	private int componentCount;
+	private int nextOrder;
+
+	private int filesWithDependencies;
+	private int edgeCount;
+
+	public DependencyGraph() {
+		reset();
+	}
 
 	/**
 	 * Replaces the dependency set for {@code file}.  The old forward edges
@@ -69,37 +117,40 @@ public class DependencyGraph {
 	 * @param newDeps the set of source URIs that {@code file} depends on
 	 *                (imports, superclass references, interface references)
 	 */
-	public synchronized void updateDependencies(URI file, Set<URI> newDeps) {
-		Set<URI> oldDeps = dependsOn.getOrDefault(file, Collections.emptySet());
-
-		// Remove stale reverse edges
-		for (URI oldDep : oldDeps) {
-			if (!newDeps.contains(oldDep)) {
-				Set<URI> reverse = dependedOnBy.get(oldDep);
-				if (reverse != null) {
-					reverse.remove(file);
-					if (reverse.isEmpty()) {
-						dependedOnBy.remove(oldDep);
-					}
+	public void updateDependencies(URI file, Set<URI> newDeps) {
+		lock.writeLock().lock();
+		try {
+			int id = newDeps.isEmpty() ? idOf(file) : intern(file);
+			if (id < 0) {
+				return;
+			}
+			IntCountMap wanted = new IntCountMap(newDeps.size());
+			for (URI dep : newDeps) {
+				wanted.add(intern(dep), 1);
+			}
+			int[] current = Arrays.copyOf(dependsOn[id], dependsOnCount[id]);
+			IntCountMap kept = new IntCountMap(current.length);
+			IntCountMap toSplit = new IntCountMap();
+			for (int dep : current) {
+				if (wanted.contains(dep)) {
+					kept.add(dep, 1);
+				} else {
+					removeEdge(id, dep, toSplit);
 				}
 			}
-		}
-
-		// Add new reverse edges
-		for (URI newDep : newDeps) {
-			if (!oldDeps.contains(newDep)) {
-				dependedOnBy.computeIfAbsent(newDep, k -> ConcurrentHashMap.newKeySet())
-						.add(file);
+			splitComponents(toSplit);
+			for (int slot = 0; slot < wanted.slots(); slot++) {
+				int dep = wanted.keyAt(slot);
+				if (dep >= 0 && !kept.contains(dep)) {
+					addEdge(id, dep);
+				}
 			}
-		}
-
-		// Update forward index
-		if (newDeps.isEmpty()) {
-			dependsOn.remove(file);
-		} else {
-			Set<URI> newSet = ConcurrentHashMap.newKeySet();
-			newSet.addAll(newDeps);
-			dependsOn.put(file, newSet);
+			for (int dep : current) {
+				releaseIfIsolated(dep);
+			}
+			releaseIfIsolated(id);
+		} finally {
+			lock.writeLock().unlock();
 		}
 	}
 
@@ -109,48 +160,54 @@ public class DependencyGraph {
 	 * recompiled/revisited when the changed files are modified).
 	 *
 	 * <p>The returned set does <em>not</em> include the {@code changedFiles}
-	 * themselves — only their dependents.
-	 *
-	 * <p>Traversal is bounded by {@link #MAX_TRANSITIVE_DEPTH} to prevent
-	 * runaway expansion in circular dependency graphs.
+	 * themselves — only their dependents. Files in a dependency cycle with a
+	 * changed file are dependents of it.
 	 *
 	 * @param changedFiles the set of files that were directly modified
 	 * @return the set of transitively affected dependent files
 	 */
-	public synchronized Set<URI> getTransitiveDependents(Set<URI> changedFiles) {
-		Set<URI> visited = new HashSet<>(changedFiles);
-		Set<URI> result = new HashSet<>();
-		Queue<URI> queue = new ArrayDeque<>(changedFiles);
-
-		int depth = 0;
-		int currentLevelSize = queue.size();
-
-		while (!queue.isEmpty() && depth < MAX_TRANSITIVE_DEPTH) {
-			URI current = queue.poll();
-			currentLevelSize--;
-
-			Set<URI> dependents = dependedOnBy.get(current);
-			if (dependents != null) {
-				for (URI dependent : dependents) {
-					if (visited.add(dependent)) {
-						result.add(dependent);
-						queue.add(dependent);
+	public Set<URI> getTransitiveDependents(Set<URI> changedFiles) {
+		lock.readLock().lock();
+		try {
+			IntCountMap reached = new IntCountMap();
+			int[] queue = new int[INITIAL_CAPACITY];
+			int tail = 0;
+			for (URI changed : changedFiles) {
+				int id = idOf(changed);
+				if (id >= 0 && reached.add(componentOf[id], 1) == 1) {
+					queue = push(queue, tail++, componentOf[id]);
+				}
+			}
+			int fileCount = 0;
+			for (int head = 0; head < tail; head++) {
+				int component = queue[head];
+				fileCount += memberCount[component];
+				IntCountMap dependents = componentDependents[component];
+				for (int slot = 0; slot < dependents.slots(); slot++) {
+					int dependent = dependents.keyAt(slot);
+					if (dependent >= 0 && reached.add(dependent, 1) == 1) {
+						queue = push(queue, tail++, dependent);
 					}
 				}
 			}
-
-			if (currentLevelSize == 0) {
-				depth++;
-				currentLevelSize = queue.size();
+			Set<URI> result = new HashSet<>(Math.max(16, fileCount * 4 / 3 + 1));
+			for (int i = 0; i < tail; i++) {
+				int component = queue[i];
+				for (int m = 0; m < memberCount[component]; m++) {
+					URI file = uris[members[component][m]];
+					if (!changedFiles.contains(file)) {
+						result.add(file);
+					}
+				}
 			}
+			if (!result.isEmpty()) {
+				logger.debug("Transitive dependents of {} changed files: {} files in {} components",
+						changedFiles.size(), result.size(), tail);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
 		}
-
-		if (!result.isEmpty()) {
-			logger.debug("Transitive dependents of {} changed files: {} files (depth {})",
-					changedFiles.size(), result.size(), depth);
-		}
-
-		return result;
 	}
 
 	/**
@@ -166,40 +223,45 @@ public class DependencyGraph {
 	 * @param maxDepth  maximum traversal depth
 	 * @return the set of dependency URIs (excluding the seed files themselves)
 	 */
-	public synchronized Set<URI> getTransitiveDependencies(Set<URI> seedFiles, int maxDepth) {
-		Set<URI> visited = new HashSet<>(seedFiles);
-		Set<URI> result = new HashSet<>();
-		Queue<URI> queue = new ArrayDeque<>(seedFiles);
-
-		int depth = 0;
-		int currentLevelSize = queue.size();
-
-		while (!queue.isEmpty() && depth < maxDepth) {
-			URI current = queue.poll();
-			currentLevelSize--;
-
-			Set<URI> deps = dependsOn.get(current);
-			if (deps != null) {
-				for (URI dep : deps) {
-					if (visited.add(dep)) {
-						result.add(dep);
-						queue.add(dep);
-					}
+	public Set<URI> getTransitiveDependencies(Set<URI> seedFiles, int maxDepth) {
+		lock.readLock().lock();
+		try {
+			IntCountMap visited = new IntCountMap(seedFiles.size());
+			int[] queue = new int[INITIAL_CAPACITY];
+			int tail = 0;
+			for (URI seed : seedFiles) {
+				int id = idOf(seed);
+				if (id >= 0 && visited.add(id, 1) == 1) {
+					queue = push(queue, tail++, id);
 				}
 			}
-
-			if (currentLevelSize == 0) {
+			Set<URI> result = new HashSet<>();
+			int head = 0;
+			int depth = 0;
+			while (head < tail && depth < maxDepth) {
+				int levelEnd = tail;
+				for (; head < levelEnd; head++) {
+					int current = queue[head];
+					for (int i = 0; i < dependsOnCount[current]; i++) {
+						int dep = dependsOn[current][i];
+						if (visited.add(dep, 1) == 1) {
+							queue = push(queue, tail++, dep);
+							if (!seedFiles.contains(uris[dep])) {
+								result.add(uris[dep]);
+							}
+						}
+					}
+				}
 				depth++;
-				currentLevelSize = queue.size();
 			}
+			if (!result.isEmpty()) {
+				logger.debug("Forward transitive dependencies of {} seed files: {} files (depth {})",
+						seedFiles.size(), result.size(), depth);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
 		}
-
-		if (!result.isEmpty()) {
-			logger.debug("Forward transitive dependencies of {} seed files: {} files (depth {})",
-					seedFiles.size(), result.size(), depth);
-		}
-
-		return result;
 	}
 
 	/**
@@ -207,11 +269,16 @@ public class DependencyGraph {
 	 * or reference types defined in {@code file}.
 	 *
 	 * @param file the source file URI
-	 * @return an unmodifiable view of the direct dependents, or an empty set
+	 * @return a copy of the direct dependents, or an empty set
 	 */
 	public Set<URI> getDirectDependents(URI file) {
-		Set<URI> deps = dependedOnBy.get(file);
-		return deps != null ? new HashSet<>(deps) : Collections.emptySet();
+		lock.readLock().lock();
+		try {
+			int id = idOf(file);
+			return id >= 0 ? toUris(dependedOnBy[id], dependedOnByCount[id]) : Collections.emptySet();
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -219,58 +286,106 @@ public class DependencyGraph {
 	 * {@code file} imports or references.
 	 *
 	 * @param file the source file URI
-	 * @return an unmodifiable view of the dependencies, or an empty set
+	 * @return a copy of the dependencies, or an empty set
 	 */
 	public Set<URI> getDirectDependencies(URI file) {
-		Set<URI> deps = dependsOn.get(file);
-		return deps != null ? new HashSet<>(deps) : Collections.emptySet();
+		lock.readLock().lock();
+		try {
+			int id = idOf(file);
+			return id >= 0 ? toUris(dependsOn[id], dependsOnCount[id]) : Collections.emptySet();
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
-	 * Removes a file from the graph entirely — clears both its forward
-	 * edges and any reverse edges pointing to it.
-	 *
-	 * @param file the URI of the removed/deleted file
+	 * Returns the files in a dependency cycle with {@code file}, including
+	 * {@code file} itself, or an empty set if the graph does not know it.
 	 */
-	public synchronized void removeFile(URI file) {
-		// Remove forward edges (file → its dependencies)
-		Set<URI> oldDeps = dependsOn.remove(file);
-		removeReverseReferences(file, oldDeps);
-
-		// Remove reverse entries (other files → this file)
-		Set<URI> oldDependents = dependedOnBy.remove(file);
-		removeForwardReferences(file, oldDependents);
+	Set<URI> getStronglyConnectedComponent(URI file) {
+		lock.readLock().lock();
+		try {
+			int id = idOf(file);
+			if (id < 0) {
+				return Collections.emptySet();
+			}
+			int component = componentOf[id];
+			return toUris(members[component], memberCount[component]);
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
-	private void removeReverseReferences(URI file, Set<URI> dependencies) {
-		if (dependencies == null) {
-			return;
-		}
-		for (URI dependency : dependencies) {
-			Set<URI> reverse = dependedOnBy.get(dependency);
-			if (reverse == null) {
-				continue;
+	/**
+	 * Returns the strongly connected components, each one after every
+	 * component it depends on. Files without any edge are not in the graph
+	 * and not returned.
+	 */
+	public List<Set<URI>> getComponentsInDependencyOrder() {
+		lock.readLock().lock();
+		try {
+			Integer[] components = new Integer[componentCount];
+			int count = 0;
+			for (int component = 0; component < componentIdLimit; component++) {
+				if (members[component] != null) {
+					components[count++] = component;
+				}
 			}
-			reverse.remove(file);
-			if (reverse.isEmpty()) {
-				dependedOnBy.remove(dependency);
+			Arrays.sort(components, 0, count, (a, b) -> Integer.compare(order[b], order[a]));
+			List<Set<URI>> result = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				result.add(toUris(members[components[i]], memberCount[components[i]]));
 			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
 		}
 	}
 
-	private void removeForwardReferences(URI file, Set<URI> dependents) {
-		if (dependents == null) {
-			return;
+	/** Returns the number of strongly connected components. */
+	int getComponentCount() {
+		lock.readLock().lock();
+		try {
+			return componentCount;
+		} finally {
+			lock.readLock().unlock();
 		}
-		for (URI dependent : dependents) {
-			Set<URI> forwardDeps = dependsOn.get(dependent);
-			if (forwardDeps == null) {
-				continue;
+	}
+
+	/**
+	 * Removes a file from the graph entirely — clears both its forward
+	 * edges and any reverse edges pointing to it.
+	 *
+	 * @param file the URI of the removed/deleted file
+	 */
+	public void removeFile(URI file) {
+		lock.writeLock().lock();
+		try {
+			int id = idOf(file);
+			if (id < 0) {
+				return;
+			}
+			int[] dependencies = Arrays.copyOf(dependsOn[id], dependsOnCount[id]);
+			int[] dependents = Arrays.copyOf(dependedOnBy[id], dependedOnByCount[id]);
+			IntCountMap toSplit = new IntCountMap();
+			for (int dependency : dependencies) {
+				removeEdge(id, dependency, toSplit);
+			}
+			for (int dependent : dependents) {
+				if (dependent != id) {
+					removeEdge(dependent, id, toSplit);
+				}
 			}
-			forwardDeps.remove(file);
-			if (forwardDeps.isEmpty()) {
-				dependsOn.remove(dependent);
+			splitComponents(toSplit);
+			for (int dependency : dependencies) {
+				releaseIfIsolated(dependency);
 			}
+			for (int dependent : dependents) {
+				releaseIfIsolated(dependent);
+			}
+			releaseIfIsolated(id);
+		} finally {
+			lock.writeLock().unlock();
 		}
 	}
 
@@ -279,35 +394,537 @@ public class DependencyGraph {
 	 * is fully invalidated (e.g. classpath change) and will be rebuilt from
 	 * scratch.
 	 */
-	public synchronized void clear() {
-		dependsOn.clear();
-		dependedOnBy.clear();
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			reset();
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
-	 * Returns the total number of files tracked in the forward index.
+	 * Returns the number of files that have at least one dependency.
 	 * Useful for diagnostics and testing.
 	 */
 	public int size() {
-		return dependsOn.size();
+		lock.readLock().lock();
+		try {
+			return filesWithDependencies;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
-	 * Returns the total number of individual dependency edges (sum of all
-	 * forward edge set sizes). Used by the memory profiler for estimation.
+	 * Returns the total number of individual dependency edges. Used by the
+	 * memory profiler for estimation.
 	 */
 	public int getEdgeCount() {
-		int count = 0;
-		for (Set<URI> deps : dependsOn.values()) {
-			count += deps.size();
+		lock.readLock().lock();
+		try {
+			return edgeCount;
+		} finally {
+			lock.readLock().unlock();
 		}
-		return count;
 	}
 
 	/**
 	 * Returns {@code true} if the graph contains no dependency information.
 	 */
 	public boolean isEmpty() {
-		return dependsOn.isEmpty() && dependedOnBy.isEmpty();
+		return getEdgeCount() == 0;
+	}
+
+	// ----------------------------------------------------------------
+	// File graph
+	// ----------------------------------------------------------------
+
+	private void reset() {
+		localIds.clear();
+		uris = new URI[INITIAL_CAPACITY];
+		registryIds = new int[INITIAL_CAPACITY];
+		dependsOn = new int[INITIAL_CAPACITY][];
+		dependsOnCount = new int[INITIAL_CAPACITY];
+		dependedOnBy = new int[INITIAL_CAPACITY][];
+		dependedOnByCount = new int[INITIAL_CAPACITY];
+		componentOf = new int[INITIAL_CAPACITY];
+		fileIdLimit = 0;
+		freeFileIds = new int[INITIAL_CAPACITY];
+		freeFileIdCount = 0;
+		members = new int[INITIAL_CAPACITY][];
+		memberCount = new int[INITIAL_CAPACITY];
+		componentDependencies = new IntCountMap[INITIAL_CAPACITY];
+		componentDependents = new IntCountMap[INITIAL_CAPACITY];
+		order = new int[INITIAL_CAPACITY];
+		componentIdLimit = 0;
+		freeComponentIds = new int[INITIAL_CAPACITY];
+		freeComponentIdCount = 0;
+		componentCount = 0;
+		nextOrder = 0;
+		filesWithDependencies = 0;
+		edgeCount = 0;
+	}
+
+	private int idOf(URI file) {
+		return localIds.get(InternRegistry.findUriId(file)) - 1;
+	}
+
+	/** Returns the id of {@code file}, adding it as a component of its own if new. */
+	private int intern(URI file) {
+		URI canonical = InternRegistry.intern(file);
+		int registryId = InternRegistry.uriId(canonical);
+		int existing = localIds.get(registryId);
+		if (existing > 0) {
+			return existing - 1;
+		}
+		int id = freeFileIdCount > 0 ? freeFileIds[--freeFileIdCount] : fileIdLimit++;
+		if (id == uris.length) {
+			int capacity = id * 2;
+			uris = Arrays.copyOf(uris, capacity);
+			registryIds = Arrays.copyOf(registryIds, capacity);
+			dependsOn = Arrays.copyOf(dependsOn, capacity);
+			dependsOnCount = Arrays.copyOf(dependsOnCount, capacity);
+			dependedOnBy = Arrays.copyOf(dependedOnBy, capacity);
+			dependedOnByCount = Arrays.copyOf(dependedOnByCount, capacity);
+			componentOf = Arrays.copyOf(componentOf, capacity);
+		}
+		uris[id] = canonical;
+		registryIds[id] = registryId;
+		dependsOn[id] = NO_IDS;
+		dependedOnBy[id] = NO_IDS;
+		localIds.add(registryId, id + 1);
+		int component = newComponent(new int[] { id }, 1);
+		order[component] = nextOrder++;
+		return id;
+	}
+
+	/** Forgets a file once no edge touches it; its component is a singleton then. */
+	private void releaseIfIsolated(int id) {
+		if (uris[id] == null || dependsOnCount[id] > 0 || dependedOnByCount[id] > 0) {
+			return;
+		}
+		releaseComponent(componentOf[id]);
+		localIds.add(registryIds[id], -(id + 1));
+		uris[id] = null;
+		dependsOn[id] = NO_IDS;
+		dependedOnBy[id] = NO_IDS;
+		freeFileIds = push(freeFileIds, freeFileIdCount++, id);
+	}
+
+	/** Adds the edge {@code file → dependency} and updates the condensation. */
+	private void addEdge(int file, int dependency) {
+		dependsOn[file] = push(dependsOn[file], dependsOnCount[file]++, dependency);
+		dependedOnBy[dependency] = push(dependedOnBy[dependency], dependedOnByCount[dependency]++, file);
+		if (dependsOnCount[file] == 1) {
+			filesWithDependencies++;
+		}
+		edgeCount++;
+		int from = componentOf[file];
+		int to = componentOf[dependency];
+		if (from == to) {
+			return;
+		}
+		componentDependents[to].add(from, 1);
+		if (componentDependencies[from].add(to, 1) == 1 && order[from] > order[to]) {
+			restoreOrder(from, to);
+		}
+	}
+
+	/**
+	 * Removes the edge {@code file → dependency}. An edge inside a component
+	 * may split it; such components are collected in {@code toSplit}.
+	 */
+	private void removeEdge(int file, int dependency, IntCountMap toSplit) {
+		dependsOnCount[file] = removeValue(dependsOn[file], dependsOnCount[file], dependency);
+		dependedOnByCount[dependency] = removeValue(dependedOnBy[dependency], dependedOnByCount[dependency], file);
+		if (dependsOnCount[file] == 0) {
+			filesWithDependencies--;
+		}
+		edgeCount--;
+		int from = componentOf[file];
+		int to = componentOf[dependency];
+		if (from != to) {
+			componentDependencies[from].add(to, -1);
+			componentDependents[to].add(from, -1);
+		} else if (file != dependency && toSplit.get(from) == 0) {
+			toSplit.add(from, 1);
+		}
+	}
+
+	private Set<URI> toUris(int[] ids, int count) {
+		Set<URI> result = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			result.add(uris[ids[i]]);
+		}
+		return result;
+	}
+
+	// ----------------------------------------------------------------
+	// Components and condensation
+	// ----------------------------------------------------------------
+
+	private int newComponent(int[] files, int count) {
+		int component = freeComponentIdCount > 0 ? freeComponentIds[--freeComponentIdCount] : componentIdLimit++;
+		if (component == members.length) {
+			int capacity = component * 2;
+			members = Arrays.copyOf(members, capacity);
+			memberCount = Arrays.copyOf(memberCount, capacity);
+			componentDependencies = Arrays.copyOf(componentDependencies, capacity);
+			componentDependents = Arrays.copyOf(componentDependents, capacity);
+			order = Arrays.copyOf(order, capacity);
+		}
+		members[component] = files;
+		memberCount[component] = count;
+		componentDependencies[component] = new IntCountMap();
+		componentDependents[component] = new IntCountMap();
+		for (int i = 0; i < count; i++) {
+			componentOf[files[i]] = component;
+		}
+		componentCount++;
+		return component;
+	}
+
+	private void releaseComponent(int component) {
+		members[component] = null;
+		memberCount[component] = 0;
+		componentDependencies[component] = null;
+		componentDependents[component] = null;
+		componentCount--;
+		freeComponentIds = push(freeComponentIds, freeComponentIdCount++, component);
+	}
+
+	/** Removes the condensed edges between {@code component} and components not in {@code replaced}. */
+	private void detach(int component, IntCountMap replaced) {
+		IntCountMap dependencies = componentDependencies[component];
+		for (int slot = 0; slot < dependencies.slots(); slot++) {
+			int other = dependencies.keyAt(slot);
+			if (other >= 0 && !replaced.contains(other)) {
+				componentDependents[other].add(component, -dependencies.countAt(slot));
+			}
+		}
+		IntCountMap dependents = componentDependents[component];
+		for (int slot = 0; slot < dependents.slots(); slot++) {
+			int other = dependents.keyAt(slot);
+			if (other >= 0 && !replaced.contains(other)) {
+				componentDependencies[other].add(component, -dependents.countAt(slot));
+			}
+		}
+	}
+
+	/**
+	 * Adds the condensed edges of a new component from its files' edges.
+	 * Edges coming from the other components in {@code created} are left
+	 * to those components, so each is counted once.
+	 */
+	private void attach(int component, IntCountMap created) {
+		attach(component, 0, created);
+	}
+
+	/** Like {@link #attach(int, IntCountMap)}, for the files from {@code firstMember} on. */
+	private void attach(int component, int firstMember, IntCountMap created) {
+		for (int m = firstMember; m < memberCount[component]; m++) {
+			int file = members[component][m];
+			for (int i = 0; i < dependsOnCount[file]; i++) {
+				int other = componentOf[dependsOn[file][i]];
+				if (other != component) {
+					componentDependencies[component].add(other, 1);
+					componentDependents[other].add(component, 1);
+				}
+			}
+			for (int i = 0; i < dependedOnByCount[file]; i++) {
+				int other = componentOf[dependedOnBy[file][i]];
+				if (other != component && !created.contains(other)) {
+					componentDependents[component].add(other, 1);
+					componentDependencies[other].add(component, 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the topological order after adding the condensed edge
+	 * {@code from → to} with {@code order[from] > order[to]}, merging the
+	 * components on a cycle the edge closed.
+	 *
+	 * <p>Only components ordered between the two endpoints can be affected:
+	 * those reachable from {@code to} ({@code forward}) and those reaching
+	 * {@code from} ({@code backward}). They are reassigned their own order
+	 * positions, backward ones first; if the sets intersect, the edge closed
+	 * a cycle through exactly the intersection, which becomes one component
+	 * placed between them.</p>
+	 */
+	private void restoreOrder(int from, int to) {
+		int lower = order[to];
+		int upper = order[from];
+		IntCountMap forwardSet = new IntCountMap();
+		int[] forward = reach(to, componentDependencies, forwardSet, lower, upper);
+		IntCountMap backwardSet = new IntCountMap();
+		int[] backward = reach(from, componentDependents, backwardSet, lower, upper);
+
+		int[] positions = new int[forward.length + backward.length];
+		int positionCount = 0;
+		for (int component : backward) {
+			positions[positionCount++] = order[component];
+		}
+		for (int component : forward) {
+			if (!backwardSet.contains(component)) {
+				positions[positionCount++] = order[component];
+			}
+		}
+		Arrays.sort(positions, 0, positionCount);
+
+		boolean cycle = forwardSet.contains(from);
+		int[] before = cycle ? select(backward, forwardSet, false) : backward;
+		int[] after = cycle ? select(forward, backwardSet, false) : forward;
+		sortByOrder(before);
+		sortByOrder(after);
+		for (int i = 0; i < before.length; i++) {
+			order[before[i]] = positions[i];
+		}
+		for (int i = 0; i < after.length; i++) {
+			order[after[i]] = positions[positionCount - after.length + i];
+		}
+		if (cycle) {
+			int merged = merge(select(forward, backwardSet, true));
+			order[merged] = positions[before.length];
+		}
+	}
+
+	/**
+	 * Components reachable from {@code start} along {@code edges} through
+	 * components ordered within {@code [lower, upper]}, {@code start}
+	 * included.
+	 */
+	private int[] reach(int start, IntCountMap[] edges, IntCountMap visited, int lower, int upper) {
+		int[] found = new int[INITIAL_CAPACITY];
+		int count = 0;
+		visited.add(start, 1);
+		found = push(found, count++, start);
+		for (int next = 0; next < count; next++) {
+			IntCountMap adjacent = edges[found[next]];
+			for (int slot = 0; slot < adjacent.slots(); slot++) {
+				int other = adjacent.keyAt(slot);
+				if (other >= 0 && order[other] >= lower && order[other] <= upper && visited.add(other, 1) == 1) {
+					found = push(found, count++, other);
+				}
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/** Returns the components of {@code components} that are ({@code inSet}) or are not in {@code set}. */
+	private static int[] select(int[] components, IntCountMap set, boolean inSet) {
+		int[] result = new int[components.length];
+		int count = 0;
+		for (int component : components) {
+			if (set.contains(component) == inSet) {
+				result[count++] = component;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private void sortByOrder(int[] components) {
+		long[] keyed = new long[components.length];
+		for (int i = 0; i < components.length; i++) {
+			keyed[i] = ((long) order[components[i]] << 32) | components[i];
+		}
+		Arrays.sort(keyed);
+		for (int i = 0; i < components.length; i++) {
+			components[i] = (int) keyed[i];
+		}
+	}
+
+	/**
+	 * Replaces {@code components} by one component holding all their files.
+	 * The largest of them absorbs the others, so only the edges of the
+	 * absorbed files are revisited.
+	 */
+	private int merge(int[] components) {
+		IntCountMap replaced = new IntCountMap(components.length);
+		int merged = components[0];
+		int total = 0;
+		for (int component : components) {
+			replaced.add(component, 1);
+			total += memberCount[component];
+			if (memberCount[component] > memberCount[merged]) {
+				merged = component;
+			}
+		}
+		int firstAbsorbed = memberCount[merged];
+		int[] files = Arrays.copyOf(members[merged], Math.max(total, members[merged].length));
+		int count = firstAbsorbed;
+		for (int component : components) {
+			if (component == merged) {
+				continue;
+			}
+			detach(component, replaced);
+			componentDependencies[merged].add(component, -componentDependencies[merged].get(component));
+			componentDependents[merged].add(component, -componentDependents[merged].get(component));
+			for (int m = 0; m < memberCount[component]; m++) {
+				componentOf[members[component][m]] = merged;
+			}
+			System.arraycopy(members[component], 0, files, count, memberCount[component]);
+			count += memberCount[component];
+			releaseComponent(component);
+		}
+		members[merged] = files;
+		memberCount[merged] = total;
+		attach(merged, firstAbsorbed, replaced);
+		return merged;
+	}
+
+	/** Re-runs Tarjan's algorithm on each of {@code components} after edges inside them were removed. */
+	private void splitComponents(IntCountMap components) {
+		boolean split = false;
+		for (int slot = 0; slot < components.slots(); slot++) {
+			int component = components.keyAt(slot);
+			if (component >= 0 && members[component] != null) {
+				split |= split(component);
+			}
+		}
+		if (split) {
+			recomputeOrder();
+		}
+	}
+
+	/**
+	 * Splits a component into the strongly connected components of its
+	 * files, with an iterative Tarjan's algorithm over the edges inside it.
+	 *
+	 * @return whether the component was split
+	 */
+	private boolean split(int component) {
+		int size = memberCount[component];
+		int[] files = members[component];
+		IntCountMap local = new IntCountMap(size);
+		for (int i = 0; i < size; i++) {
+			local.add(files[i], i + 1);
+		}
+		int[] index = new int[size];
+		Arrays.fill(index, -1);
+		int[] low = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int stackSize = 0;
+		int[] calls = new int[size];
+		int[] cursor = new int[size];
+		int counter = 0;
+		List<int[]> parts = new ArrayList<>();
+		for (int root = 0; root < size; root++) {
+			if (index[root] >= 0) {
+				continue;
+			}
+			int depth = 0;
+			calls[depth++] = root;
+			index[root] = low[root] = counter++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth > 0) {
+				int v = calls[depth - 1];
+				int file = files[v];
+				if (cursor[v] < dependsOnCount[file]) {
+					int w = local.get(dependsOn[file][cursor[v]++]) - 1;
+					if (w < 0) {
+						continue;
+					}
+					if (index[w] < 0) {
+						index[w] = low[w] = counter++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						calls[depth++] = w;
+					} else if (onStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+				depth--;
+				if (depth > 0) {
+					int parent = calls[depth - 1];
+					low[parent] = Math.min(low[parent], low[v]);
+				}
+				if (low[v] == index[v]) {
+					int start = stackSize;
+					do {
+						onStack[stack[--start]] = false;
+					} while (stack[start] != v);
+					int[] part = new int[stackSize - start];
+					for (int i = start; i < stackSize; i++) {
+						part[i - start] = files[stack[i]];
+					}
+					stackSize = start;
+					parts.add(part);
+				}
+			}
+		}
+		if (parts.size() == 1) {
+			return false;
+		}
+		IntCountMap replaced = new IntCountMap();
+		replaced.add(component, 1);
+		detach(component, replaced);
+		releaseComponent(component);
+		int[] createdIds = new int[parts.size()];
+		IntCountMap created = new IntCountMap(parts.size());
+		for (int i = 0; i < parts.size(); i++) {
+			createdIds[i] = newComponent(parts.get(i), parts.get(i).length);
+			created.add(createdIds[i], 1);
+		}
+		for (int createdId : createdIds) {
+			attach(createdId, created);
+		}
+		return true;
+	}
+
+	/** Recomputes the topological order of the whole condensation (Kahn's algorithm). */
+	private void recomputeOrder() {
+		int[] pending = new int[componentIdLimit];
+		int[] queue = new int[componentCount];
+		int tail = 0;
+		for (int component = 0; component < componentIdLimit; component++) {
+			if (members[component] != null) {
+				pending[component] = componentDependents[component].size();
+				if (pending[component] == 0) {
+					queue[tail++] = component;
+				}
+			}
+		}
+		nextOrder = 0;
+		for (int head = 0; head < tail; head++) {
+			int component = queue[head];
+			order[component] = nextOrder++;
+			IntCountMap dependencies = componentDependencies[component];
+			for (int slot = 0; slot < dependencies.slots(); slot++) {
+				int dependency = dependencies.keyAt(slot);
+				if (dependency >= 0 && --pending[dependency] == 0) {
+					queue[tail++] = dependency;
+				}
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// Int array helpers
+	// ----------------------------------------------------------------
+
+	/** Stores {@code value} at {@code index}, growing the array if needed. */
+	private static int[] push(int[] array, int index, int value) {
+		if (index == array.length) {
+			array = Arrays.copyOf(array, Math.max(4, array.length * 2));
+		}
+		array[index] = value;
+		return array;
+	}
+
+	/** Removes one occurrence of {@code value} from the first {@code count} entries; returns the new count. */
+	private static int removeValue(int[] array, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (array[i] == value) {
+				array[i] = array[count - 1];
+				return count - 1;
+			}
+		}
+		return count;
 	}
 }
@@ -42,6 +42,7 @@ import org.eclipse.lsp4j.*;
 import com.tomaszrup.groovyls.compiler.ast.UnusedImportFinder;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.groovyls.util.InternRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,7 +96,7 @@ public class DiagnosticHandler {
 			Map<URI, List<org.codehaus.groovy.ast.ImportNode>> unusedImportsByFile = unusedImportFinder
 					.findUnusedImports(compilationUnit);
 			for (Map.Entry<URI, List<org.codehaus.groovy.ast.ImportNode>> entry : unusedImportsByFile.entrySet()) {
-				URI uri = entry.getKey();
+				URI uri = InternRegistry.intern(entry.getKey());
 				for (org.codehaus.groovy.ast.ImportNode importNode : entry.getValue()) {
 					Range range = GroovyLanguageServerUtils.astNodeToRange(importNode);
 					if (range != null) {
@@ -142,7 +143,8 @@ public class DiagnosticHandler {
 			logger.debug("Skipping diagnostic with null/empty source locator: {}", cause.getMessage());
 			return;
 		}
-		URI uri = GroovyLanguageServerUtils.sourceLocatorToUri(sourceLocator);
+		// Diagnostics maps are kept between compiles; key them by the canonical URI
+		URI uri = InternRegistry.intern(GroovyLanguageServerUtils.sourceLocatorToUri(sourceLocator));
 		if (uri == null) {
 			logger.debug("Skipping diagnostic with invalid source locator '{}': {}", sourceLocator, cause.getMessage());
 			return;
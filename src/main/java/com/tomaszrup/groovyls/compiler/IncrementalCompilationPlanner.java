@@ -0,0 +1,164 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a set of files to recompile into incremental compilation units.
+ *
+ * <p>Each unit holds a batch of target files plus their forward
+ * dependencies up to {@link #CONTEXT_DEPTH}, so references from the
+ * targets resolve against current sources. Targets are taken in URI order,
+ * which keeps files of one package — and usually their shared context —
+ * in the same unit. A unit is closed once its next target would push it
+ * past the {@link CompilationCostModel#batchSize() batch size} measured
+ * for the project.</p>
+ */
+public final class IncrementalCompilationPlanner {
+	/** Depth of forward dependencies compiled alongside each target. */
+	public static final int CONTEXT_DEPTH = 2;
+
+	private IncrementalCompilationPlanner() {
+	}
+
+	/**
+	 * Plans the units that recompile {@code targets}.
+	 *
+	 * @param graph     the scope's dependency graph
+	 * @param targets   files whose ASTs must be rebuilt
+	 * @param costModel the scope's measured compile cost
+	 */
+	public static Plan plan(DependencyGraph graph, Collection<URI> targets, CompilationCostModel costModel) {
+		List<URI> ordered = new ArrayList<>(targets);
+		ordered.sort(Comparator.comparing(URI::toString));
+		int batchSize = costModel.batchSize();
+
+		List<Unit> units = new ArrayList<>();
+		Set<URI> batch = new LinkedHashSet<>();
+		Set<URI> files = new HashSet<>();
+		for (URI target : ordered) {
+			Set<URI> context = graph.getTransitiveDependencies(Collections.singleton(target), CONTEXT_DEPTH);
+			if (!batch.isEmpty() && files.size() + added(files, target, context) > batchSize) {
+				units.add(new Unit(batch, files));
+				batch = new LinkedHashSet<>();
+				files = new HashSet<>();
+			}
+			batch.add(target);
+			files.add(target);
+			files.addAll(context);
+		}
+		if (!batch.isEmpty()) {
+			units.add(new Unit(batch, files));
+		}
+
+		int compiledFiles = 0;
+		for (Unit unit : units) {
+			compiledFiles += unit.getFiles().size();
+		}
+		return new Plan(units, compiledFiles, costModel.estimateIncrementalNanos(units.size(), compiledFiles));
+	}
+
+	private static int added(Set<URI> files, URI target, Set<URI> context) {
+		int added = files.contains(target) ? 0 : 1;
+		for (URI uri : context) {
+			if (!files.contains(uri)) {
+				added++;
+			}
+		}
+		return added;
+	}
+
+	/** One incremental compilation unit. */
+	public static final class Unit {
+		private final Set<URI> targets;
+		private final Set<URI> files;
+
+		Unit(Set<URI> targets, Set<URI> files) {
+			this.targets = Collections.unmodifiableSet(targets);
+			this.files = Collections.unmodifiableSet(files);
+		}
+
+		/** Files whose ASTs and diagnostics this unit produces. */
+		public Set<URI> getTargets() {
+			return targets;
+		}
+
+		/** All files compiled by this unit: the targets and their context. */
+		public Set<URI> getFiles() {
+			return files;
+		}
+	}
+
+	/** The units recompiling one set of targets, with their estimated cost. */
+	public static final class Plan {
+		private final List<Unit> units;
+		private final int compiledFileCount;
+		private final long estimatedNanos;
+
+		Plan(List<Unit> units, int compiledFileCount, long estimatedNanos) {
+			this.units = Collections.unmodifiableList(units);
+			this.compiledFileCount = compiledFileCount;
+			this.estimatedNanos = estimatedNanos;
+		}
+
+		public List<Unit> getUnits() {
+			return units;
+		}
+
+		/** Files compiled over all units; context shared by two units counts twice. */
+		public int getCompiledFileCount() {
+			return compiledFileCount;
+		}
+
+		public long getEstimatedNanos() {
+			return estimatedNanos;
+		}
+
+		/**
+		 * Returns a plan running this plan's units, then those of
+		 * {@code next}: their compiled files and estimated times add up.
+		 */
+		public Plan followedBy(Plan next) {
+			List<Unit> combined = new ArrayList<>(units);
+			combined.addAll(next.units);
+			return new Plan(combined, compiledFileCount + next.compiledFileCount,
+					estimatedNanos + next.estimatedNanos);
+		}
+
+		/**
+		 * Whether this plan is more work than recompiling a project of
+		 * {@code projectFiles} sources from scratch: it compiles more files,
+		 * or is estimated to take longer.
+		 */
+		public boolean isLargerThanProject(int projectFiles, CompilationCostModel costModel) {
+			return compiledFileCount > projectFiles
+					|| estimatedNanos > costModel.estimateFullNanos(projectFiles);
+		}
+	}
+}
@@ -106,7 +106,7 @@ public class SharedClassGraphCache {
 	 * scan configuration changes (e.g. adding/removing rejectPackages filters)
 	 * so that stale cached results are naturally orphaned.
 	 */
-	private static final String CACHE_KEY_VERSION = "v4";
+	private static final String CACHE_KEY_VERSION = "v5";
 
 	/**
 	 * Internal JDK implementation packages that are <b>always</b> rejected from
@@ -212,7 +212,7 @@ public class SharedClassGraphCache {
 	/**
 	 * Returns the merged array of all rejected packages (base + additional).
 	 */
-	private String[] getMergedRejectedPackages() {
+	String[] getMergedRejectedPackages() {
 		List<String> additional = this.additionalRejectedPackages.get();
 		String[] merged = new String[BASE_REJECTED_PACKAGES.length + additional.size()];
 		System.arraycopy(BASE_REJECTED_PACKAGES, 0, merged, 0, BASE_REJECTED_PACKAGES.length);
@@ -426,10 +426,11 @@ public class SharedClassGraphCache {
 		try {
 			String[] mergedRejected = getMergedRejectedPackages();
 			long scanStart = System.currentTimeMillis();
+			// JDK module classes are left out: they are indexed once per
+			// runtime by the JDK shard of ClasspathShardStore
 			scanResult = new ClassGraph()
 					.overrideClassLoaders(classLoader)
 					.enableClassInfo()
-					.enableSystemJarsAndModules()
 					.rejectPackages(mergedRejected)
 					.scan();
 			long scanElapsed = System.currentTimeMillis() - scanStart;
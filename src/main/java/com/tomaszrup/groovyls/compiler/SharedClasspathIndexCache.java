@@ -19,36 +19,39 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls.compiler;
 
-import java.io.File;
-import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import groovy.lang.GroovyClassLoader;
-import io.github.classgraph.ScanResult;
 
 /**
  * Process-wide cache of compact classpath indexes.
  *
- * <p>This cache is optimized for low RAM usage: it stores only lightweight
- * symbol metadata. It uses {@link SharedClassGraphCache} as a short-lived
- * scanner source, immediately releasing heavy {@link ScanResult} instances
- * after projection.</p>
+ * <p>A scope's index is composed from per-element shards held by
+ * {@link ClasspathShardStore}: each JAR or class directory is scanned once
+ * and shared by every scope that has it on its classpath, so a classpath
+ * that differs from an already indexed one by a few JARs costs only the
+ * scans of those JARs plus a merge. Composed indexes are cached per exact
+ * classpath contents.</p>
  */
 public class SharedClasspathIndexCache {
 	private static final Logger logger = LoggerFactory.getLogger(SharedClasspathIndexCache.class);
 
 	private static final int MAX_HELD_INDEXES = 8;
-	private static final double SUPERSET_OVERLAP_THRESHOLD = 0.75;
 
 	private static final SharedClasspathIndexCache INSTANCE = new SharedClasspathIndexCache();
 
@@ -69,245 +72,176 @@ public class SharedClasspathIndexCache {
 			return index;
 		}
 
+		/**
+		 * Returns the classpath elements to filter the index by, or
+		 * {@code null} if the whole index belongs to the scope — which is
+		 * always the case for composed indexes.
+		 */
 		public Set<String> getOwnClasspathElementPaths() {
 			return ownClasspathElementPaths;
 		}
 	}
 
 	private static final class CacheEntry {
-		final Set<String> classpathUrls;
+		final List<String> classpathElementPaths;
 		final ClasspathSymbolIndex index;
-		long lastAccessNanos;
 
-		CacheEntry(Set<String> classpathUrls, ClasspathSymbolIndex index) {
-			this.classpathUrls = classpathUrls;
+		CacheEntry(List<String> classpathElementPaths, ClasspathSymbolIndex index) {
+			this.classpathElementPaths = classpathElementPaths;
 			this.index = index;
-			this.lastAccessNanos = System.nanoTime();
 		}
 	}
 
-	private final SharedClassGraphCache scanCache;
+	private final ClasspathShardStore shardStore;
+	/** Composed indexes by the ids of their shards, in access order. */
 	private final Map<String, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
 
 	SharedClasspathIndexCache() {
-		this(SharedClassGraphCache.getInstance());
+		this(ClasspathShardStore.getInstance());
 	}
 
-	SharedClasspathIndexCache(SharedClassGraphCache scanCache) {
-		this.scanCache = scanCache;
+	SharedClasspathIndexCache(ClasspathShardStore shardStore) {
+		this.shardStore = shardStore;
 	}
 
-	public synchronized AcquireResult acquireWithResult(GroovyClassLoader classLoader) {
+	/**
+	 * Sets the executor that scans classpath shards in parallel; see
+	 * {@link ClasspathShardStore#setScanExecutor(Executor)}.
+	 */
+	public void setScanExecutor(Executor scanExecutor) {
+		shardStore.setScanExecutor(scanExecutor);
+	}
+
+	/**
+	 * Returns the index of {@code classLoader}'s classpath. The lock is not
+	 * held while shards are loaded or scanned, so scopes with other
+	 * classpaths and the memory statistics don't wait on a slow scan.
+	 */
+	public AcquireResult acquireWithResult(GroovyClassLoader classLoader) {
 		if (classLoader == null) {
 			return null;
 		}
 
-		String key = scanCache.computeClasspathKey(classLoader);
-		Set<String> requestedUrls = extractUrlSet(classLoader);
-
-		CacheEntry exact = cache.get(key);
-		if (exact != null) {
-			exact.lastAccessNanos = System.nanoTime();
-			return new AcquireResult(exact.index, null);
+		// The JDK comes first, as the boot class path does for class loading
+		List<ClasspathShardStore.ShardKey> keys = new ArrayList<>();
+		keys.add(shardStore.jdkKey());
+		List<String> elementPaths = new ArrayList<>();
+		for (URL url : classLoader.getURLs()) {
+			Path element = toPath(url);
+			ClasspathShardStore.ShardKey key = element != null ? shardStore.keyFor(element) : null;
+			if (key != null) {
+				keys.add(key);
+				elementPaths.add(key.path);
+			}
 		}
-
-		AcquireResult overlap = findOverlapHit(requestedUrls);
-		if (overlap != null) {
-			return overlap;
+		StringBuilder cacheKey = new StringBuilder();
+		for (ClasspathShardStore.ShardKey key : keys) {
+			cacheKey.append(key.id).append('\u0000');
 		}
 
-		SharedClassGraphCache.AcquireResult scanAcquire = scanCache.acquireWithResult(classLoader);
-		if (scanAcquire == null || scanAcquire.getScanResult() == null) {
-			return null;
+		synchronized (this) {
+			CacheEntry exact = cache.get(cacheKey.toString());
+			if (exact != null) {
+				return new AcquireResult(exact.index, null);
+			}
 		}
 
-		ScanResult scanResult = scanAcquire.getScanResult();
-		try {
-			ClasspathSymbolIndex index = ClasspathSymbolIndex.fromScanResult(scanResult);
-			CacheEntry newEntry = new CacheEntry(requestedUrls, index);
-			cache.put(key, newEntry);
-			evictLruIfNeeded();
-
-			Set<String> ownPaths = toCanonicalPathSet(scanAcquire.getOwnClasspathFiles());
-			return new AcquireResult(index, ownPaths);
-		} finally {
-			scanCache.release(scanResult);
+		long start = System.currentTimeMillis();
+		List<ClasspathSymbolIndex> shards = new ArrayList<>(shardStore.getShards(keys));
+		// An index missing a failed shard is used but not cached, so the scan is retried
+		boolean complete = !shards.removeIf(Objects::isNull);
+		ClasspathSymbolIndex index = ClasspathSymbolIndex.compose(shards);
+		if (complete) {
+			synchronized (this) {
+				cache.put(cacheKey.toString(), new CacheEntry(Collections.unmodifiableList(elementPaths), index));
+				evictLruIfNeeded();
+			}
 		}
+		logger.info("Composed classpath index of {} symbols from {} shards in {}ms",
+				index.getAllSymbols().size(), keys.size(), System.currentTimeMillis() - start);
+		return new AcquireResult(index, null);
 	}
 
-	private AcquireResult findOverlapHit(Set<String> requestedUrls) {
-		if (requestedUrls.isEmpty() || cache.isEmpty()) {
-			return null;
+	private void evictLruIfNeeded() {
+		Iterator<String> eldest = cache.keySet().iterator();
+		while (cache.size() > MAX_HELD_INDEXES && eldest.hasNext()) {
+			eldest.next();
+			eldest.remove();
 		}
+	}
 
-		CacheEntry bestCandidate = null;
-		double bestOverlap = 0.0;
-
-		for (CacheEntry candidate : cache.values()) {
-			Set<String> cachedUrls = candidate.classpathUrls;
-			if (cachedUrls == null || cachedUrls.isEmpty()) {
-				continue;
-			}
-			int matchCount = 0;
-			for (String url : requestedUrls) {
-				if (cachedUrls.contains(url)) {
-					matchCount++;
-				}
-			}
-			double overlap = (double) matchCount / requestedUrls.size();
-			if (overlap >= SUPERSET_OVERLAP_THRESHOLD && overlap > bestOverlap) {
-				bestCandidate = candidate;
-				bestOverlap = overlap;
-			}
-		}
+	/** Drops the composed indexes and in-memory shards; persisted shards are kept. */
+	public synchronized void clear() {
+		cache.clear();
+		shardStore.clear();
+	}
 
-		if (bestCandidate == null) {
-			return null;
+	/** Estimates the heap retained by the cached indexes and in-memory shards. */
+	public synchronized long estimateMemoryBytes() {
+		long total = shardStore.estimateMemoryBytes();
+		for (CacheEntry entry : cache.values()) {
+			total += entry.index.estimateMemoryBytes();
 		}
-
-		bestCandidate.lastAccessNanos = System.nanoTime();
-		logger.info("SharedClasspathIndexCache overlap hit: {}% overlap", (int) (bestOverlap * 100));
-		return new AcquireResult(bestCandidate.index, urlStringsToCanonicalPathSet(requestedUrls));
+		return total;
 	}
 
-	private void evictLruIfNeeded() {
-		while (cache.size() > MAX_HELD_INDEXES) {
-			String oldestKey = null;
-			long oldestAccess = Long.MAX_VALUE;
-			for (Map.Entry<String, CacheEntry> e : cache.entrySet()) {
-				if (e.getValue().lastAccessNanos < oldestAccess) {
-					oldestAccess = e.getValue().lastAccessNanos;
-					oldestKey = e.getKey();
-				}
-			}
-			if (oldestKey == null) {
-				break;
-			}
-			cache.remove(oldestKey);
-		}
+	/** Returns the number of cached indexes. */
+	public synchronized int getEntryCount() {
+		return cache.size();
 	}
 
-	public synchronized void clear() {
-		cache.clear();
+	/** Returns the number of per-element shards in memory. */
+	public int getShardCount() {
+		return shardStore.getShardCount();
 	}
 
 	/**
 	 * Evict cached classpath indexes that include classpath elements under the
-	 * given project root. Used after Java source moves/renames so stale symbols
-	 * from old package locations are not reused.
+	 * given project root, and the shards of those elements. Used after Java
+	 * source moves/renames so stale symbols from old package locations are not
+	 * reused.
 	 *
 	 * @param projectRoot project root path
 	 * @return number of removed cache entries
 	 */
 	public synchronized int invalidateEntriesUnderProject(Path projectRoot) {
-		if (projectRoot == null || cache.isEmpty()) {
+		if (projectRoot == null) {
 			return 0;
 		}
-		Path normalizedRoot = normalizePath(projectRoot);
+		Path normalizedRoot = ClassGraphDiskCache.normalizePath(projectRoot);
 		int removed = 0;
-		java.util.Iterator<Map.Entry<String, CacheEntry>> iterator = cache.entrySet().iterator();
+		Iterator<CacheEntry> iterator = cache.values().iterator();
 		while (iterator.hasNext()) {
-			Map.Entry<String, CacheEntry> entry = iterator.next();
-			if (containsPathUnderRoot(entry.getValue().classpathUrls, normalizedRoot)) {
+			if (containsPathUnderRoot(iterator.next().classpathElementPaths, normalizedRoot)) {
 				iterator.remove();
 				removed++;
 			}
 		}
-		if (removed > 0) {
-			logger.info("SharedClasspathIndexCache invalidated {} entries for project {}", removed, normalizedRoot);
+		int removedShards = shardStore.invalidateUnder(normalizedRoot);
+		if (removed > 0 || removedShards > 0) {
+			logger.info("SharedClasspathIndexCache invalidated {} entries and {} shards for project {}",
+					removed, removedShards, normalizedRoot);
 		}
 		return removed;
 	}
 
-	private static boolean containsPathUnderRoot(Set<String> urlStrings, Path projectRoot) {
-		if (urlStrings == null || urlStrings.isEmpty()) {
-			return false;
-		}
-		for (String url : urlStrings) {
-			Path candidate = toPath(url);
-			if (candidate != null && candidate.startsWith(projectRoot)) {
+	private static boolean containsPathUnderRoot(List<String> paths, Path projectRoot) {
+		for (String path : paths) {
+			if (Paths.get(path).startsWith(projectRoot)) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	private static Path toPath(String url) {
-		if (url == null || url.isEmpty()) {
+	private static Path toPath(URL url) {
+		if (!"file".equalsIgnoreCase(url.getProtocol())) {
 			return null;
 		}
 		try {
-			java.net.URI uri = new java.net.URI(url);
-			if ("file".equalsIgnoreCase(uri.getScheme())) {
-				return normalizePath(Paths.get(uri));
-			}
-		} catch (Exception ignored) {
-			// Ignore malformed/non-file URI strings and fall back to plain-path parsing.
-		}
-		try {
-			return normalizePath(Paths.get(url));
-		} catch (Exception ignored) {
-			// Ignore invalid path strings.
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException e) {
 			return null;
 		}
 	}
-
-	private static Path normalizePath(Path path) {
-		if (path == null) {
-			return null;
-		}
-		try {
-			return path.toRealPath();
-		} catch (IOException e) {
-			return path.toAbsolutePath().normalize();
-		}
-	}
-
-	private static Set<String> extractUrlSet(GroovyClassLoader classLoader) {
-		URL[] urls = classLoader.getURLs();
-		Set<String> urlSet = new HashSet<>(urls.length * 2);
-		for (URL url : urls) {
-			urlSet.add(url.toExternalForm());
-		}
-		return Collections.unmodifiableSet(urlSet);
-	}
-
-	private static Set<String> toCanonicalPathSet(Set<File> files) {
-		if (files == null || files.isEmpty()) {
-			return Collections.emptySet();
-		}
-		Set<String> result = new HashSet<>(files.size() * 2);
-		for (File file : files) {
-			if (file == null) {
-				continue;
-			}
-			try {
-				result.add(file.getCanonicalFile().getPath());
-			} catch (IOException e) {
-				result.add(file.getAbsolutePath());
-			}
-		}
-		return Collections.unmodifiableSet(result);
-	}
-
-	private static Set<String> urlStringsToCanonicalPathSet(Set<String> urls) {
-		if (urls == null || urls.isEmpty()) {
-			return Collections.emptySet();
-		}
-		Set<String> paths = new HashSet<>(urls.size() * 2);
-		for (String url : urls) {
-			try {
-				java.net.URI uri = new java.net.URI(url);
-				File file = new File(uri);
-				paths.add(file.getCanonicalFile().getPath());
-			} catch (Exception e) {
-				try {
-					paths.add(new File(url).getCanonicalFile().getPath());
-				} catch (Exception ignored) {
-					// Ignore entries that cannot be represented as local filesystem paths.
-				}
-			}
-		}
-		return Collections.unmodifiableSet(paths);
-	}
 }
@@ -0,0 +1,61 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Predicate;
+
+/**
+ * Modification stamps of the source files summarized by
+ * {@link WorkspaceReferenceIndex} and {@link WorkspaceSymbolIndex}. A
+ * persisted summary is reused only while its file still has the stamp it
+ * was indexed with; summaries stamped {@link #UNSTAMPED} are never
+ * persisted.
+ */
+final class SourceFileStamps {
+
+	/** Stamp of a summary that does not reflect the file on disk. */
+	static final long UNSTAMPED = -1;
+
+	private SourceFileStamps() {
+	}
+
+	/**
+	 * Returns the stamp for a summary of {@code uri}: its modification time
+	 * on disk, or {@link #UNSTAMPED} if it cannot be read or
+	 * {@code unsaved} reports that the summary was built from an editor
+	 * buffer with unsaved changes.
+	 */
+	static long stamp(URI uri, Predicate<URI> unsaved) {
+		return unsaved.test(uri) ? UNSTAMPED : lastModified(uri);
+	}
+
+	/** Returns the modification time of {@code uri}, or {@link #UNSTAMPED}. */
+	static long lastModified(URI uri) {
+		try {
+			return Files.getLastModifiedTime(Paths.get(uri)).toMillis();
+		} catch (IOException | RuntimeException e) {
+			return UNSTAMPED;
+		}
+	}
+}
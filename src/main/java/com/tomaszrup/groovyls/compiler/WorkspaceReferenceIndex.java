@@ -0,0 +1,560 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.PropertyNode;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
+import com.tomaszrup.groovyls.config.ClasspathCache;
+import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+
+/**
+ * Workspace-wide index of the usages of classes and their members, keyed
+ * by fully-qualified signature (see {@link #signatureOf(ASTNode)}) and
+ * spanning all project scopes.
+ *
+ * <p>Each scope contributes the usages found in its source files after
+ * every AST visit ({@link #scheduleContribution}); an incremental visit
+ * replaces the contributions of the re-visited files only. Find References
+ * and rename use the index to fan out to sibling scopes without compiling
+ * them.</p>
+ *
+ * <p>Usages are held as flat {@code int} arrays per signature, so the
+ * contributions of evicted scopes stay cheap to keep in memory. Each
+ * scope's contributions are also persisted under
+ * {@code ~/.groovyls/cache/references/}, so scopes that haven't been
+ * compiled since startup take part as well ({@link #loadScope}). Persisted
+ * files modified since they were indexed are ignored.</p>
+ *
+ * <p>Usages of JDK and Groovy classes are not indexed.</p>
+ */
+public class WorkspaceReferenceIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(WorkspaceReferenceIndex.class);
+
+	/** Bump when the persisted format changes. */
+	private static final int CACHE_VERSION = 1;
+	private static final Gson GSON = new Gson();
+	private static final String[] UNINDEXED_PACKAGE_PREFIXES = {
+			"java.", "javax.", "groovy.", "org.codehaus.groovy.", "org.apache.groovy."
+	};
+	/** Ints per usage: kind, start line, start column, end line, end column. */
+	private static final int USAGE_STRIDE = 5;
+
+	/** How a usage is spelled in the source, which decides how it is renamed. */
+	public enum UsageKind {
+		/** A class declaration ({@code class Name}). */
+		CLASS,
+		/** A method declaration ({@code name(...)}). */
+		METHOD,
+		/** A property declaration. */
+		PROPERTY,
+		/** A name whose whole range is the identifier (member access, variable). */
+		NAME,
+		/** Any other node; reported by Find References but not renamed. */
+		OTHER
+	}
+
+	public static final class Usage {
+		private final URI uri;
+		private final Range range;
+		private final UsageKind kind;
+
+		Usage(URI uri, Range range, UsageKind kind) {
+			this.uri = uri;
+			this.range = range;
+			this.kind = kind;
+		}
+
+		public URI getUri() {
+			return uri;
+		}
+
+		public Range getRange() {
+			return range;
+		}
+
+		public UsageKind getKind() {
+			return kind;
+		}
+
+		public Location toLocation() {
+			return new Location(uri.toString(), range);
+		}
+	}
+
+	/** The contribution of one source file. */
+	private static final class FileUsages {
+		final Path scopeRoot;
+		/** Modification time of the file when it was indexed, or -1. */
+		final long modified;
+		/** Contribution order; older contributions never replace newer ones. */
+		final long sequence;
+		final Map<String, int[]> usagesBySignature;
+
+		FileUsages(Path scopeRoot, long modified, long sequence, Map<String, int[]> usagesBySignature) {
+			this.scopeRoot = scopeRoot;
+			this.modified = modified;
+			this.sequence = sequence;
+			this.usagesBySignature = usagesBySignature;
+		}
+	}
+
+	// ---- Serialized model ----
+
+	static class PersistedScope {
+		int version;
+		String root;
+		List<PersistedFile> files;
+	}
+
+	static class PersistedFile {
+		String uri;
+		long modified;
+		Map<String, int[]> usages;
+	}
+
+	private final Path cacheDir;
+	private final Executor executor;
+	private final AtomicLong sequence = new AtomicLong();
+	/** Reports files whose editor buffer differs from disk; see {@link #setUnsavedCheck}. */
+	private volatile Predicate<URI> unsavedCheck = uri -> false;
+
+	// Guarded by this
+	private final Map<URI, FileUsages> usagesByURI = new HashMap<>();
+	private final Map<String, Set<URI>> urisBySignature = new HashMap<>();
+	private final Set<Path> loadedScopes = new HashSet<>();
+	private final Set<Path> dirtyScopes = new HashSet<>();
+
+	/**
+	 * @param cacheDir directory for the persisted summaries
+	 * @param executor runs contributions and loads in the background
+	 */
+	public WorkspaceReferenceIndex(Path cacheDir, Executor executor) {
+		this.cacheDir = cacheDir;
+		this.executor = executor;
+	}
+
+	/**
+	 * Directory for persisted summaries: {@code ~/.groovyls/cache/references/}.
+	 */
+	public static Path getDefaultCacheDir() {
+		return Paths.get(System.getProperty("user.home"), ".groovyls", "cache", "references");
+	}
+
+	/**
+	 * Sets the check for files opened with unsaved changes. Their summaries
+	 * are stamped {@link SourceFileStamps#UNSTAMPED} and never persisted,
+	 * as they would outlive the edits if those are discarded.
+	 */
+	public void setUnsavedCheck(Predicate<URI> unsavedCheck) {
+		this.unsavedCheck = unsavedCheck != null ? unsavedCheck : uri -> false;
+	}
+
+	// ---- Signatures ----
+
+	/**
+	 * Returns the fully-qualified signature of a class or member definition,
+	 * or {@code null} for definitions that are not indexed (local variables,
+	 * parameters, JDK and Groovy classes):
+	 * <ul>
+	 *   <li>class: {@code com.example.Dto}</li>
+	 *   <li>method: {@code com.example.Dto#rename(java.lang.String)}</li>
+	 *   <li>constructor: {@code com.example.Dto#<init>()}</li>
+	 *   <li>field or property: {@code com.example.Dto#name}</li>
+	 * </ul>
+	 */
+	public static String signatureOf(ASTNode definition) {
+		if (definition instanceof ClassNode) {
+			return indexedName((ClassNode) definition);
+		}
+		if (definition instanceof MethodNode) {
+			MethodNode method = (MethodNode) definition;
+			String owner = indexedName(method.getDeclaringClass());
+			if (owner == null) {
+				return null;
+			}
+			StringBuilder signature = new StringBuilder(owner).append('#')
+					.append(method instanceof ConstructorNode ? "<init>" : method.getName()).append('(');
+			Parameter[] parameters = method.getParameters();
+			for (int i = 0; i < parameters.length; i++) {
+				if (i > 0) {
+					signature.append(',');
+				}
+				signature.append(parameters[i].getType().redirect().getName());
+			}
+			return signature.append(')').toString();
+		}
+		if (definition instanceof PropertyNode) {
+			PropertyNode property = (PropertyNode) definition;
+			return memberSignature(property.getDeclaringClass(), property.getName());
+		}
+		if (definition instanceof FieldNode) {
+			FieldNode field = (FieldNode) definition;
+			return memberSignature(field.getOwner(), field.getName());
+		}
+		return null;
+	}
+
+	private static String memberSignature(ClassNode owner, String name) {
+		String ownerName = indexedName(owner);
+		return ownerName != null ? ownerName + "#" + name : null;
+	}
+
+	private static String indexedName(ClassNode classNode) {
+		if (classNode == null) {
+			return null;
+		}
+		if (ClassHelper.isPrimitiveType(classNode)) {
+			return null;
+		}
+		String name = classNode.redirect().getName();
+		for (String prefix : UNINDEXED_PACKAGE_PREFIXES) {
+			if (name.startsWith(prefix)) {
+				return null;
+			}
+		}
+		return name;
+	}
+
+	static UsageKind kindOf(ASTNode node) {
+		if (node instanceof ClassNode) {
+			return UsageKind.CLASS;
+		}
+		if (node instanceof MethodNode) {
+			return UsageKind.METHOD;
+		}
+		if (node instanceof PropertyNode) {
+			return UsageKind.PROPERTY;
+		}
+		if (node instanceof ConstantExpression || node instanceof VariableExpression) {
+			return UsageKind.NAME;
+		}
+		return UsageKind.OTHER;
+	}
+
+	// ---- Contributions ----
+
+	/**
+	 * Replaces the contributions of the files visited into {@code visitor}
+	 * in the background.
+	 *
+	 * @param scopeRoot the contributing scope
+	 * @param visitor   the scope's new AST snapshot
+	 * @param uris      the re-visited files, or empty after a full visit, in
+	 *                  which case files of the scope missing from the
+	 *                  snapshot are dropped
+	 */
+	public void scheduleContribution(Path scopeRoot, ASTNodeVisitor visitor, Set<URI> uris) {
+		if (scopeRoot == null || visitor == null) {
+			return;
+		}
+		long ticket = sequence.incrementAndGet();
+		Set<URI> visited = Set.copyOf(uris);
+		try {
+			executor.execute(() -> contribute(scopeRoot, visitor, visited, ticket));
+		} catch (RejectedExecutionException e) {
+			logger.debug("Reference index contribution for {} rejected: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	private void contribute(Path scopeRoot, ASTNodeVisitor visitor, Set<URI> uris, long ticket) {
+		boolean fullVisit = uris.isEmpty();
+		Set<URI> visitedURIs = visitor.getURIs();
+		Set<URI> toIndex = fullVisit ? visitedURIs : uris;
+		Map<URI, FileUsages> contributions = new HashMap<>();
+		for (URI uri : toIndex) {
+			Map<String, int[]> usages;
+			try {
+				usages = visitedURIs.contains(uri) ? summarize(uri, visitor) : Map.of();
+			} catch (RuntimeException | LinkageError e) {
+				logger.debug("Failed to index references of {}: {}", uri, e.toString());
+				continue;
+			}
+			contributions.put(uri, new FileUsages(scopeRoot, SourceFileStamps.stamp(uri, unsavedCheck), ticket, usages));
+		}
+		synchronized (this) {
+			contributions.forEach(this::apply);
+			if (fullVisit) {
+				List<URI> missing = new ArrayList<>();
+				usagesByURI.forEach((uri, file) -> {
+					if (file.scopeRoot.equals(scopeRoot) && file.sequence < ticket && !toIndex.contains(uri)) {
+						missing.add(uri);
+					}
+				});
+				missing.forEach(this::remove);
+			}
+			// Newer than anything persisted for the scope
+			loadedScopes.add(scopeRoot);
+			dirtyScopes.add(scopeRoot);
+		}
+		if (fullVisit) {
+			saveScope(scopeRoot);
+		}
+	}
+
+	private static Map<String, int[]> summarize(URI uri, ASTNodeVisitor visitor) {
+		Map<String, List<ASTNode>> referencesBySignature = new HashMap<>();
+		GroovyASTUtils.getReferencePartition(uri, visitor).forEach((definition, references) -> {
+			String signature = signatureOf(definition);
+			if (signature != null) {
+				referencesBySignature.computeIfAbsent(signature, k -> new ArrayList<>()).addAll(references);
+			}
+		});
+		Map<String, int[]> usages = new HashMap<>();
+		referencesBySignature.forEach((signature, references) -> {
+			int[] encoded = new int[references.size() * USAGE_STRIDE];
+			int length = 0;
+			for (ASTNode reference : references) {
+				Range range = GroovyLanguageServerUtils.astNodeToRange(reference);
+				if (range == null) {
+					continue;
+				}
+				encoded[length++] = kindOf(reference).ordinal();
+				encoded[length++] = range.getStart().getLine();
+				encoded[length++] = range.getStart().getCharacter();
+				encoded[length++] = range.getEnd().getLine();
+				encoded[length++] = range.getEnd().getCharacter();
+			}
+			if (length > 0) {
+				usages.put(signature, length == encoded.length ? encoded : Arrays.copyOf(encoded, length));
+			}
+		});
+		return usages;
+	}
+
+	private void apply(URI uri, FileUsages file) {
+		FileUsages existing = usagesByURI.get(uri);
+		if (existing != null && existing.sequence > file.sequence) {
+			return;
+		}
+		remove(uri);
+		usagesByURI.put(uri, file);
+		for (String signature : file.usagesBySignature.keySet()) {
+			urisBySignature.computeIfAbsent(signature, k -> new HashSet<>()).add(uri);
+		}
+	}
+
+	private void remove(URI uri) {
+		FileUsages existing = usagesByURI.remove(uri);
+		if (existing == null) {
+			return;
+		}
+		for (String signature : existing.usagesBySignature.keySet()) {
+			Set<URI> uris = urisBySignature.get(signature);
+			if (uris != null) {
+				uris.remove(uri);
+				if (uris.isEmpty()) {
+					urisBySignature.remove(signature);
+				}
+			}
+		}
+	}
+
+	// ---- Queries ----
+
+	/**
+	 * Returns the indexed usages of {@code signature}, ordered by file and
+	 * position. Files modified on disk since they were indexed are skipped,
+	 * as their recorded positions may no longer hold.
+	 *
+	 * @param excludedScope scope whose usages are skipped (typically the
+	 *                      requesting scope, whose own AST is more recent),
+	 *                      or {@code null}
+	 */
+	public synchronized List<Usage> findUsages(String signature, Path excludedScope) {
+		Set<URI> uris = urisBySignature.get(signature);
+		if (uris == null) {
+			return List.of();
+		}
+		List<Usage> result = new ArrayList<>();
+		for (URI uri : uris) {
+			FileUsages file = usagesByURI.get(uri);
+			if (file.scopeRoot.equals(excludedScope)
+					|| (file.modified != SourceFileStamps.UNSTAMPED
+							&& SourceFileStamps.lastModified(uri) != file.modified)) {
+				continue;
+			}
+			int[] encoded = file.usagesBySignature.get(signature);
+			for (int i = 0; i < encoded.length; i += USAGE_STRIDE) {
+				Range range = new Range(new Position(encoded[i + 1], encoded[i + 2]),
+						new Position(encoded[i + 3], encoded[i + 4]));
+				result.add(new Usage(uri, range, UsageKind.values()[encoded[i]]));
+			}
+		}
+		result.sort(Comparator.comparing((Usage usage) -> usage.getUri().toString())
+				.thenComparingInt(usage -> usage.getRange().getStart().getLine())
+				.thenComparingInt(usage -> usage.getRange().getStart().getCharacter()));
+		return result;
+	}
+
+	/** Number of files with indexed contributions. */
+	public synchronized int getIndexedFileCount() {
+		return usagesByURI.size();
+	}
+
+	// ---- Persistence ----
+
+	/** Loads the persisted summary of {@code scopeRoot} in the background. */
+	public void scheduleLoad(Path scopeRoot) {
+		if (scopeRoot == null) {
+			return;
+		}
+		try {
+			executor.execute(() -> loadScope(scopeRoot));
+		} catch (RejectedExecutionException e) {
+			logger.debug("Reference index load for {} rejected: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	/**
+	 * Loads the persisted summary of {@code scopeRoot} unless the scope has
+	 * already been loaded or contributed to. Files that changed on disk
+	 * since they were indexed, or that have been contributed since, are
+	 * skipped.
+	 */
+	public void loadScope(Path scopeRoot) {
+		synchronized (this) {
+			if (!loadedScopes.add(scopeRoot)) {
+				return;
+			}
+		}
+		Path cacheFile = getCacheFile(scopeRoot);
+		if (!Files.isRegularFile(cacheFile)) {
+			return;
+		}
+		PersistedScope persisted;
+		try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+			persisted = GSON.fromJson(reader, PersistedScope.class);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to read reference index for {}: {}", scopeRoot, e.getMessage());
+			return;
+		}
+		if (persisted == null || persisted.version != CACHE_VERSION || persisted.files == null
+				|| !scopeRoot.toString().equals(persisted.root)) {
+			return;
+		}
+		Map<URI, FileUsages> valid = new HashMap<>();
+		for (PersistedFile file : persisted.files) {
+			URI uri;
+			try {
+				uri = URI.create(file.uri);
+			} catch (IllegalArgumentException | NullPointerException e) {
+				continue;
+			}
+			if (file.usages != null && file.modified >= 0 && SourceFileStamps.lastModified(uri) == file.modified) {
+				// sequence 0: any contribution replaces persisted data
+				valid.put(uri, new FileUsages(scopeRoot, file.modified, 0, file.usages));
+			}
+		}
+		synchronized (this) {
+			valid.forEach((uri, file) -> {
+				if (!usagesByURI.containsKey(uri)) {
+					apply(uri, file);
+				}
+			});
+		}
+		logger.debug("Loaded reference index for {} ({} of {} files current)",
+				scopeRoot, valid.size(), persisted.files.size());
+	}
+
+	/** Persists every scope contributed to since it was last saved. */
+	public void saveAll() {
+		List<Path> dirty;
+		synchronized (this) {
+			dirty = new ArrayList<>(dirtyScopes);
+		}
+		dirty.forEach(this::saveScope);
+	}
+
+	/** Persists the contributions of {@code scopeRoot} atomically (write-to-temp then rename). */
+	public void saveScope(Path scopeRoot) {
+		PersistedScope persisted = new PersistedScope();
+		persisted.version = CACHE_VERSION;
+		persisted.root = scopeRoot.toString();
+		persisted.files = new ArrayList<>();
+		synchronized (this) {
+			dirtyScopes.remove(scopeRoot);
+			usagesByURI.forEach((uri, file) -> {
+				if (file.scopeRoot.equals(scopeRoot) && file.modified >= 0 && !file.usagesBySignature.isEmpty()) {
+					PersistedFile persistedFile = new PersistedFile();
+					persistedFile.uri = uri.toString();
+					persistedFile.modified = file.modified;
+					persistedFile.usages = file.usagesBySignature;
+					persisted.files.add(persistedFile);
+				}
+			});
+		}
+		Path cacheFile = getCacheFile(scopeRoot);
+		Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(cacheDir);
+			try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				GSON.toJson(persisted, writer);
+			}
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to persist reference index for {}: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	Path getCacheFile(Path scopeRoot) {
+		return cacheDir.resolve("references-" + ClasspathCache.sha256Hex(scopeRoot.toString()).substring(0, 16) + ".json");
+	}
+}
@@ -0,0 +1,733 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.PropertyNode;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.config.ClasspathCache;
+import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.groovyls.util.RequestCancellation;
+
+/**
+ * Workspace-wide index of class, method, field and property declarations,
+ * spanning all project scopes, for {@code workspace/symbol}.
+ *
+ * <p>Each scope contributes the declarations of its source files whenever
+ * a new AST snapshot is published ({@link #contribute}); an incremental
+ * visit replaces the declarations of the re-visited files only. Queries
+ * never compile anything, so scopes that are evicted or have no open file
+ * are searched as well. Each scope's declarations are also persisted under
+ * {@code ~/.groovyls/cache/symbols/}, so scopes that haven't been compiled
+ * since startup take part too ({@link #loadScope}). Persisted files
+ * modified since they were indexed are ignored.</p>
+ *
+ * <p>Symbols are addressed by {@code int} id. Candidates for a query are
+ * found through two posting lists:</p>
+ * <ul>
+ *   <li>trigrams of the lower-cased name, intersected for substring
+ *       matches ({@code symbolTest} → {@code WorkspaceSymbolTest});</li>
+ *   <li>the lower-cased first letter of each camel hump, for camel-case
+ *       matches ({@code WST} → {@code WorkspaceSymbolTest}).</li>
+ * </ul>
+ * <p>Removed symbols leave a hole in the id space; the postings are rebuilt
+ * once holes outnumber live symbols.</p>
+ */
+public class WorkspaceSymbolIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(WorkspaceSymbolIndex.class);
+
+	/** Bump when the persisted format changes. */
+	private static final int CACHE_VERSION = 1;
+	private static final Gson GSON = new Gson();
+	/** Queries shorter than this are answered by a scan instead of the trigram postings. */
+	private static final int TRIGRAM = 3;
+	/** Holes tolerated before the postings are rebuilt, regardless of the live count. */
+	private static final int MIN_HOLES_BEFORE_REBUILD = 1024;
+
+	public static final class Symbol {
+		private final String name;
+		private final SymbolKind kind;
+		private final String containerName;
+		private final URI uri;
+		/** Start line, start column, end line, end column. */
+		private final int[] range;
+
+		Symbol(String name, SymbolKind kind, String containerName, URI uri, int[] range) {
+			this.name = name;
+			this.kind = kind;
+			this.containerName = containerName;
+			this.uri = uri;
+			this.range = range;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public SymbolKind getKind() {
+			return kind;
+		}
+
+		public String getContainerName() {
+			return containerName;
+		}
+
+		public URI getUri() {
+			return uri;
+		}
+
+		public Range getRange() {
+			return new Range(new Position(range[0], range[1]), new Position(range[2], range[3]));
+		}
+
+		public WorkspaceSymbol toWorkspaceSymbol() {
+			return new WorkspaceSymbol(name, kind, Either.forLeft(new Location(uri.toString(), getRange())),
+					containerName);
+		}
+	}
+
+	/** The declarations of one source file. */
+	private static final class FileSymbols {
+		final Path scopeRoot;
+		/** Modification time of the file when it was indexed, or -1. */
+		final long modified;
+		final int[] ids;
+
+		FileSymbols(Path scopeRoot, long modified, int[] ids) {
+			this.scopeRoot = scopeRoot;
+			this.modified = modified;
+			this.ids = ids;
+		}
+	}
+
+	/** Growable, ascending list of symbol ids. */
+	private static final class IntList {
+		int[] values = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+
+	/** A matched symbol and its rank; lower is better. */
+	private static final class Match {
+		final Symbol symbol;
+		final int score;
+
+		Match(Symbol symbol, int score) {
+			this.symbol = symbol;
+			this.score = score;
+		}
+	}
+
+	private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt((Match m) -> m.score)
+			.thenComparingInt(m -> m.symbol.name.length())
+			.thenComparing(m -> m.symbol.name)
+			.thenComparing(m -> m.symbol.uri.toString())
+			.thenComparingInt(m -> m.symbol.range[0]);
+
+	// ---- Serialized model ----
+
+	static class PersistedScope {
+		int version;
+		String root;
+		List<PersistedFile> files;
+	}
+
+	static class PersistedFile {
+		String uri;
+		long modified;
+		List<PersistedSymbol> symbols;
+	}
+
+	static class PersistedSymbol {
+		String name;
+		int kind;
+		String container;
+		int[] range;
+	}
+
+	private final Path cacheDir;
+	private final Executor executor;
+	/** Reports files whose editor buffer differs from disk; see {@link #setUnsavedCheck}. */
+	private volatile Predicate<URI> unsavedCheck = uri -> false;
+
+	// Guarded by this
+	private Symbol[] symbols = new Symbol[256];
+	private int nextId;
+	private int holes;
+	private final Map<Long, IntList> idsByTrigram = new HashMap<>();
+	private final Map<Character, IntList> idsByHumpInitial = new HashMap<>();
+	private final Map<URI, FileSymbols> symbolsByURI = new HashMap<>();
+	private final Set<Path> loadedScopes = new HashSet<>();
+	private final Set<Path> dirtyScopes = new HashSet<>();
+
+	/**
+	 * @param cacheDir directory for the persisted declarations
+	 * @param executor runs loads and saves in the background
+	 */
+	public WorkspaceSymbolIndex(Path cacheDir, Executor executor) {
+		this.cacheDir = cacheDir;
+		this.executor = executor;
+	}
+
+	/**
+	 * Directory for persisted declarations: {@code ~/.groovyls/cache/symbols/}.
+	 */
+	public static Path getDefaultCacheDir() {
+		return Paths.get(System.getProperty("user.home"), ".groovyls", "cache", "symbols");
+	}
+
+	/**
+	 * Sets the check for files opened with unsaved changes. Their summaries
+	 * are stamped {@link SourceFileStamps#UNSTAMPED} and never persisted,
+	 * as they would outlive the edits if those are discarded.
+	 */
+	public void setUnsavedCheck(Predicate<URI> unsavedCheck) {
+		this.unsavedCheck = unsavedCheck != null ? unsavedCheck : uri -> false;
+	}
+
+	// ---- Contributions ----
+
+	/**
+	 * Replaces the declarations of the files visited into {@code visitor}.
+	 * Cheap enough to run on the compiling thread, so queries see a
+	 * snapshot's declarations as soon as it is published.
+	 *
+	 * @param scopeRoot the contributing scope
+	 * @param visitor   the scope's new AST snapshot
+	 * @param uris      the re-visited files, or empty after a full visit, in
+	 *                  which case files of the scope missing from the
+	 *                  snapshot are dropped
+	 */
+	public void contribute(Path scopeRoot, ASTNodeVisitor visitor, Set<URI> uris) {
+		if (scopeRoot == null || visitor == null) {
+			return;
+		}
+		boolean fullVisit = uris.isEmpty();
+		Set<URI> visitedURIs = visitor.getURIs();
+		Set<URI> toIndex = fullVisit ? visitedURIs : uris;
+		Map<URI, List<Symbol>> declarations = new HashMap<>();
+		for (URI uri : toIndex) {
+			try {
+				declarations.put(uri, visitedURIs.contains(uri) ? collect(uri, visitor) : List.of());
+			} catch (RuntimeException | LinkageError e) {
+				logger.debug("Failed to index symbols of {}: {}", uri, e.toString());
+			}
+		}
+		Map<URI, Long> modified = new HashMap<>();
+		declarations.keySet().forEach(uri -> modified.put(uri, SourceFileStamps.stamp(uri, unsavedCheck)));
+		synchronized (this) {
+			declarations.forEach((uri, fileSymbols) -> replace(uri, scopeRoot, modified.get(uri), fileSymbols));
+			if (fullVisit) {
+				List<URI> missing = new ArrayList<>();
+				symbolsByURI.forEach((uri, file) -> {
+					if (file.scopeRoot.equals(scopeRoot) && !toIndex.contains(uri)) {
+						missing.add(uri);
+					}
+				});
+				missing.forEach(this::remove);
+			}
+			// Newer than anything persisted for the scope
+			loadedScopes.add(scopeRoot);
+			dirtyScopes.add(scopeRoot);
+		}
+		if (fullVisit) {
+			scheduleSave(scopeRoot);
+		}
+	}
+
+	private static List<Symbol> collect(URI uri, ASTNodeVisitor visitor) {
+		List<Symbol> result = new ArrayList<>();
+		for (ASTNode node : visitor.getNodes(uri)) {
+			String name;
+			String containerName;
+			if (node instanceof ClassNode) {
+				name = ((ClassNode) node).getName();
+				containerName = null;
+			} else if (node instanceof MethodNode) {
+				MethodNode method = (MethodNode) node;
+				name = method.getName();
+				containerName = nameOf(method.getDeclaringClass());
+			} else if (node instanceof FieldNode) {
+				FieldNode field = (FieldNode) node;
+				name = field.getName();
+				containerName = nameOf(field.getOwner());
+			} else if (node instanceof PropertyNode) {
+				PropertyNode property = (PropertyNode) node;
+				name = property.getName();
+				containerName = nameOf(property.getDeclaringClass());
+			} else {
+				continue;
+			}
+			Range range = GroovyLanguageServerUtils.astNodeToRange(node);
+			if (name == null || range == null) {
+				continue;
+			}
+			result.add(new Symbol(name, GroovyLanguageServerUtils.astNodeToSymbolKind(node), containerName, uri,
+					new int[] { range.getStart().getLine(), range.getStart().getCharacter(),
+							range.getEnd().getLine(), range.getEnd().getCharacter() }));
+		}
+		return result;
+	}
+
+	private static String nameOf(ClassNode classNode) {
+		return classNode != null ? classNode.getName() : null;
+	}
+
+	private void replace(URI uri, Path scopeRoot, long modified, List<Symbol> fileSymbols) {
+		remove(uri);
+		int[] ids = new int[fileSymbols.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = add(fileSymbols.get(i));
+		}
+		symbolsByURI.put(uri, new FileSymbols(scopeRoot, modified, ids));
+	}
+
+	private int add(Symbol symbol) {
+		if (nextId == symbols.length) {
+			symbols = Arrays.copyOf(symbols, symbols.length * 2);
+		}
+		int id = nextId++;
+		symbols[id] = symbol;
+		String name = symbol.name;
+		Set<Long> trigrams = new HashSet<>();
+		for (int i = 0; i + TRIGRAM <= name.length(); i++) {
+			if (trigrams.add(trigramAt(name, i))) {
+				idsByTrigram.computeIfAbsent(trigramAt(name, i), k -> new IntList()).add(id);
+			}
+		}
+		Set<Character> initials = new HashSet<>();
+		for (int i = 0; i < name.length(); i++) {
+			if (isHumpStart(name, i)) {
+				char initial = Character.toLowerCase(name.charAt(i));
+				if (initials.add(initial)) {
+					idsByHumpInitial.computeIfAbsent(initial, k -> new IntList()).add(id);
+				}
+			}
+		}
+		return id;
+	}
+
+	private void remove(URI uri) {
+		FileSymbols existing = symbolsByURI.remove(uri);
+		if (existing == null) {
+			return;
+		}
+		// Postings are left in place and skipped at query time
+		for (int id : existing.ids) {
+			symbols[id] = null;
+		}
+		holes += existing.ids.length;
+		if (holes > MIN_HOLES_BEFORE_REBUILD && holes > nextId - holes) {
+			rebuild();
+		}
+	}
+
+	private void rebuild() {
+		Map<URI, FileSymbols> files = new HashMap<>(symbolsByURI);
+		Symbol[] previous = symbols;
+		symbols = new Symbol[Math.max(256, Integer.highestOneBit(Math.max(1, nextId - holes)) * 2)];
+		nextId = 0;
+		holes = 0;
+		idsByTrigram.clear();
+		idsByHumpInitial.clear();
+		files.forEach((uri, file) -> {
+			int[] ids = new int[file.ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = add(previous[file.ids[i]]);
+			}
+			symbolsByURI.put(uri, new FileSymbols(file.scopeRoot, file.modified, ids));
+		});
+	}
+
+	// ---- Queries ----
+
+	/**
+	 * Returns up to {@code limit} symbols matching {@code query}, best
+	 * matches first: exact name, then name prefix, then camel-case match
+	 * ({@code gFN} → {@code getFullName}), then substring. Matching is
+	 * case-insensitive; for classes the exact and prefix ranks apply to the
+	 * simple name. An empty query matches every symbol.
+	 */
+	public synchronized List<Symbol> search(String query, int limit) {
+		String q = query == null ? "" : query.trim();
+		PriorityQueue<Match> worstFirst = new PriorityQueue<>(BEST_FIRST.reversed());
+		int visited = 0;
+		for (int id : candidates(q)) {
+			RequestCancellation.checkCanceled(++visited);
+			Symbol symbol = symbols[id];
+			if (symbol == null) {
+				continue;
+			}
+			int score = score(symbol.name, q);
+			if (score < 0) {
+				continue;
+			}
+			Match match = new Match(symbol, score);
+			if (worstFirst.size() < limit) {
+				worstFirst.add(match);
+			} else if (limit > 0 && BEST_FIRST.compare(match, worstFirst.peek()) < 0) {
+				worstFirst.poll();
+				worstFirst.add(match);
+			}
+		}
+		List<Match> matches = new ArrayList<>(worstFirst);
+		matches.sort(BEST_FIRST);
+		List<Symbol> result = new ArrayList<>(matches.size());
+		for (Match match : matches) {
+			result.add(match.symbol);
+		}
+		return result;
+	}
+
+	/** Ascending ids that may match {@code query}; may include holes. */
+	private int[] candidates(String query) {
+		if (query.length() < TRIGRAM) {
+			int[] all = new int[nextId];
+			for (int i = 0; i < all.length; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		int[] substringCandidates = null;
+		for (int i = 0; i + TRIGRAM <= query.length(); i++) {
+			IntList postings = idsByTrigram.get(trigramAt(query, i));
+			if (postings == null) {
+				substringCandidates = new int[0];
+				break;
+			}
+			substringCandidates = substringCandidates == null
+					? Arrays.copyOf(postings.values, postings.size)
+					: intersect(substringCandidates, postings);
+		}
+		IntList camelCandidates = idsByHumpInitial.get(Character.toLowerCase(query.charAt(0)));
+		if (camelCandidates == null) {
+			return substringCandidates;
+		}
+		return union(substringCandidates, camelCandidates);
+	}
+
+	private static int[] union(int[] sorted, IntList postings) {
+		int[] result = new int[sorted.length + postings.size];
+		int length = 0;
+		int i = 0;
+		int j = 0;
+		while (i < sorted.length || j < postings.size) {
+			if (j == postings.size || (i < sorted.length && sorted[i] < postings.values[j])) {
+				result[length++] = sorted[i++];
+			} else if (i == sorted.length || postings.values[j] < sorted[i]) {
+				result[length++] = postings.values[j++];
+			} else {
+				result[length++] = sorted[i++];
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, length);
+	}
+
+	private static int[] intersect(int[] sorted, IntList postings) {
+		int[] result = new int[Math.min(sorted.length, postings.size)];
+		int length = 0;
+		int i = 0;
+		int j = 0;
+		while (i < sorted.length && j < postings.size) {
+			int a = sorted[i];
+			int b = postings.values[j];
+			if (a == b) {
+				result[length++] = a;
+				i++;
+				j++;
+			} else if (a < b) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, length);
+	}
+
+	/** Returns the rank of {@code name} for {@code query}, or -1 if it doesn't match. */
+	static int score(String name, String query) {
+		if (query.isEmpty()) {
+			return 0;
+		}
+		int simpleStart = name.lastIndexOf('.') + 1;
+		int simpleLength = name.length() - simpleStart;
+		if (simpleLength == query.length() && name.regionMatches(true, simpleStart, query, 0, query.length())) {
+			return 0;
+		}
+		if (name.regionMatches(true, simpleStart, query, 0, query.length())) {
+			return 1;
+		}
+		if (camelMatch(name, 0, query, 0)) {
+			return 2;
+		}
+		if (containsIgnoreCase(name, query)) {
+			return 3;
+		}
+		return -1;
+	}
+
+	/**
+	 * Matches {@code query[qi..]} against {@code name[ni..]}, where
+	 * {@code ni} is a hump start or continues a match: each query character
+	 * either continues the current hump or starts a later one.
+	 */
+	static boolean camelMatch(String name, int ni, String query, int qi) {
+		if (qi == query.length()) {
+			return true;
+		}
+		if (ni >= name.length()) {
+			return false;
+		}
+		if (Character.toLowerCase(name.charAt(ni)) == Character.toLowerCase(query.charAt(qi))
+				&& camelMatch(name, ni + 1, query, qi + 1)) {
+			return true;
+		}
+		// Otherwise resume at the next hump
+		for (int next = ni + 1; next < name.length(); next++) {
+			if (isHumpStart(name, next)) {
+				return camelMatch(name, next, query, qi);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A hump starts at the first character, at an upper-case letter after a
+	 * lower-case letter or digit, and after {@code .}, {@code _} or {@code $}.
+	 */
+	static boolean isHumpStart(String name, int i) {
+		if (i == 0) {
+			return true;
+		}
+		char c = name.charAt(i);
+		char previous = name.charAt(i - 1);
+		if (previous == '.' || previous == '_' || previous == '$') {
+			return c != '.' && c != '_' && c != '$';
+		}
+		return Character.isUpperCase(c) && !Character.isUpperCase(previous);
+	}
+
+	private static boolean containsIgnoreCase(String name, String query) {
+		for (int i = 0; i + query.length() <= name.length(); i++) {
+			if (name.regionMatches(true, i, query, 0, query.length())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long trigramAt(String value, int i) {
+		return ((long) Character.toLowerCase(value.charAt(i)) << 32)
+				| ((long) Character.toLowerCase(value.charAt(i + 1)) << 16)
+				| Character.toLowerCase(value.charAt(i + 2));
+	}
+
+	/** Number of indexed symbols. */
+	public synchronized int size() {
+		return nextId - holes;
+	}
+
+	// ---- Persistence ----
+
+	/** Loads the persisted declarations of {@code scopeRoot} in the background. */
+	public void scheduleLoad(Path scopeRoot) {
+		if (scopeRoot == null) {
+			return;
+		}
+		try {
+			executor.execute(() -> loadScope(scopeRoot));
+		} catch (RejectedExecutionException e) {
+			logger.debug("Symbol index load for {} rejected: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	/**
+	 * Loads the persisted declarations of {@code scopeRoot} unless the scope
+	 * has already been loaded or contributed to. Files that changed on disk
+	 * since they were indexed, or that have been contributed since, are
+	 * skipped.
+	 */
+	public void loadScope(Path scopeRoot) {
+		synchronized (this) {
+			if (!loadedScopes.add(scopeRoot)) {
+				return;
+			}
+		}
+		Path cacheFile = getCacheFile(scopeRoot);
+		if (!Files.isRegularFile(cacheFile)) {
+			return;
+		}
+		PersistedScope persisted;
+		try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+			persisted = GSON.fromJson(reader, PersistedScope.class);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to read symbol index for {}: {}", scopeRoot, e.getMessage());
+			return;
+		}
+		if (persisted == null || persisted.version != CACHE_VERSION || persisted.files == null
+				|| !scopeRoot.toString().equals(persisted.root)) {
+			return;
+		}
+		Map<URI, PersistedFile> valid = new HashMap<>();
+		for (PersistedFile file : persisted.files) {
+			URI uri;
+			try {
+				uri = URI.create(file.uri);
+			} catch (IllegalArgumentException | NullPointerException e) {
+				continue;
+			}
+			if (file.symbols != null && file.modified >= 0 && SourceFileStamps.lastModified(uri) == file.modified) {
+				valid.put(uri, file);
+			}
+		}
+		synchronized (this) {
+			valid.forEach((uri, file) -> {
+				if (!symbolsByURI.containsKey(uri)) {
+					replace(uri, scopeRoot, file.modified, fromPersisted(uri, file.symbols));
+				}
+			});
+		}
+		logger.debug("Loaded symbol index for {} ({} of {} files current)",
+				scopeRoot, valid.size(), persisted.files.size());
+	}
+
+	private static List<Symbol> fromPersisted(URI uri, List<PersistedSymbol> persisted) {
+		List<Symbol> result = new ArrayList<>(persisted.size());
+		for (PersistedSymbol symbol : persisted) {
+			if (symbol.name == null || symbol.range == null || symbol.range.length != 4) {
+				continue;
+			}
+			SymbolKind kind;
+			try {
+				kind = SymbolKind.forValue(symbol.kind);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			result.add(new Symbol(symbol.name, kind, symbol.container, uri, symbol.range));
+		}
+		return result;
+	}
+
+	/** Persists every scope contributed to since it was last saved. */
+	public void saveAll() {
+		List<Path> dirty;
+		synchronized (this) {
+			dirty = new ArrayList<>(dirtyScopes);
+		}
+		dirty.forEach(this::saveScope);
+	}
+
+	private void scheduleSave(Path scopeRoot) {
+		try {
+			executor.execute(() -> saveScope(scopeRoot));
+		} catch (RejectedExecutionException e) {
+			logger.debug("Symbol index save for {} rejected: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	/** Persists the declarations of {@code scopeRoot} atomically (write-to-temp then rename). */
+	public void saveScope(Path scopeRoot) {
+		PersistedScope persisted = new PersistedScope();
+		persisted.version = CACHE_VERSION;
+		persisted.root = scopeRoot.toString();
+		persisted.files = new ArrayList<>();
+		synchronized (this) {
+			dirtyScopes.remove(scopeRoot);
+			symbolsByURI.forEach((uri, file) -> {
+				if (!file.scopeRoot.equals(scopeRoot) || file.modified < 0 || file.ids.length == 0) {
+					return;
+				}
+				PersistedFile persistedFile = new PersistedFile();
+				persistedFile.uri = uri.toString();
+				persistedFile.modified = file.modified;
+				persistedFile.symbols = new ArrayList<>(file.ids.length);
+				for (int id : file.ids) {
+					Symbol symbol = symbols[id];
+					PersistedSymbol persistedSymbol = new PersistedSymbol();
+					persistedSymbol.name = symbol.name;
+					persistedSymbol.kind = symbol.kind.getValue();
+					persistedSymbol.container = symbol.containerName;
+					persistedSymbol.range = symbol.range;
+					persistedFile.symbols.add(persistedSymbol);
+				}
+				persisted.files.add(persistedFile);
+			});
+		}
+		Path cacheFile = getCacheFile(scopeRoot);
+		Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(cacheDir);
+			try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				GSON.toJson(persisted, writer);
+			}
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Failed to persist symbol index for {}: {}", scopeRoot, e.getMessage());
+		}
+	}
+
+	Path getCacheFile(Path scopeRoot) {
+		return cacheDir.resolve("symbols-" + ClasspathCache.sha256Hex(scopeRoot.toString()).substring(0, 16) + ".json");
+	}
+}
@@ -24,6 +24,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,13 +32,8 @@ import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassNode;
-import org.codehaus.groovy.ast.ConstructorNode;
-import org.eclipse.lsp4j.Position;
-import org.eclipse.lsp4j.Range;
 
-import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
-import com.tomaszrup.lsp.utils.Positions;
-import com.tomaszrup.lsp.utils.Ranges;
+import com.tomaszrup.groovyls.util.HamtMap;
 
 /**
  * Manages AST node indices and provides lookup, snapshot, and dependency
@@ -75,6 +71,19 @@ class ASTNodeIndex {
 		return visitor.classNodesByName.get(name);
 	}
 
+	List<ClassNode> getClassNodesBySimpleName(String simpleName) {
+		Map<String, List<ClassNode>> bySimpleName = visitor.classNodesBySimpleName;
+		if (bySimpleName == null) {
+			Map<String, List<ClassNode>> built = new HashMap<>();
+			visitor.classNodesByName.forEach((name, classNode) -> built
+					.computeIfAbsent(classNode.getNameWithoutPackage(), k -> new ArrayList<>(1)).add(classNode));
+			bySimpleName = built;
+			visitor.classNodesBySimpleName = bySimpleName;
+		}
+		List<ClassNode> classNodes = bySimpleName.get(simpleName);
+		return classNodes != null ? Collections.unmodifiableList(classNodes) : Collections.emptyList();
+	}
+
 	List<ASTNode> getNodes() {
 		List<ASTNode> result = new ArrayList<>();
 		for (List<ASTNode> nodes : visitor.nodesByURI.values()) {
@@ -92,63 +101,24 @@ class ASTNodeIndex {
 	}
 
 	ASTNode getNodeAtLineAndColumn(URI uri, int line, int column) {
-		Position position = new Position(line, column);
-		List<ASTNode> nodes = visitor.nodesByURI.get(uri);
-		if (nodes == null) {
-			return null;
-		}
-
-		ASTNode best = null;
-		Range bestRange = null;
-
-		for (ASTNode node : nodes) {
-			Range range = toContainedRange(node, position);
-			if (range != null && isBetterNodeCandidate(best, bestRange, node, range)) {
-				best = node;
-				bestRange = range;
+		NodePositionIndex positionIndex = visitor.positionIndexByURI.get(uri);
+		if (positionIndex == null) {
+			List<ASTNode> nodes = visitor.nodesByURI.get(uri);
+			if (nodes == null) {
+				return null;
 			}
+			// Not indexed (should not happen for visited URIs); build a
+			// throwaway index rather than mutating a published snapshot
+			positionIndex = NodePositionIndex.build(nodes, visitor);
 		}
-
-		return best;
-	}
-
-	private Range toContainedRange(ASTNode node, Position position) {
-		if (node.getLineNumber() == -1) {
-			return null;
-		}
-		Range range = GroovyLanguageServerUtils.astNodeToRange(node);
-		if (range == null || !Ranges.contains(range, position)) {
-			return null;
-		}
-		return range;
-	}
-
-	private boolean isBetterNodeCandidate(ASTNode best, Range bestRange, ASTNode candidate, Range candidateRange) {
-		if (best == null || bestRange == null) {
-			return true;
-		}
-		int startCmp = Positions.COMPARATOR.compare(candidateRange.getStart(), bestRange.getStart());
-		if (startCmp > 0) {
-			return true;
-		}
-		if (startCmp < 0) {
-			return false;
-		}
-		int endCmp = Positions.COMPARATOR.compare(candidateRange.getEnd(), bestRange.getEnd());
-		if (endCmp < 0) {
-			return true;
-		}
-		return endCmp == 0
-				&& contains(best, candidate)
-				&& !(best instanceof ClassNode && candidate instanceof ConstructorNode);
+		return positionIndex.getNodeAt(line, column);
 	}
 
 	ASTNode getParent(ASTNode child) {
 		if (child == null) {
 			return null;
 		}
-		ASTNodeVisitor.ASTNodeLookupData data = visitor.lookup.get(
-				new ASTNodeVisitor.ASTLookupKey(child));
+		ASTNodeVisitor.ASTNodeLookupData data = visitor.lookup.get(child);
 		if (data == null) {
 			return null;
 		}
@@ -167,8 +137,7 @@ class ASTNodeIndex {
 	}
 
 	URI getURI(ASTNode node) {
-		ASTNodeVisitor.ASTNodeLookupData data = visitor.lookup.get(
-				new ASTNodeVisitor.ASTLookupKey(node));
+		ASTNodeVisitor.ASTNodeLookupData data = visitor.lookup.get(node);
 		if (data == null) {
 			return null;
 		}
@@ -197,10 +166,26 @@ class ASTNodeIndex {
 			return;
 		}
 
-		// Restore nodes
+		// Restore nodes and their lookup entries, replacing the new ones
 		List<ASTNode> prevNodes = previous.nodesByURI.get(uri);
 		if (prevNodes != null) {
+			List<ASTNode> currentNodes = visitor.nodesByURI.get(uri);
+			if (currentNodes != null) {
+				currentNodes.forEach(visitor.lookup::remove);
+			}
+			for (ASTNode node : prevNodes) {
+				ASTNodeVisitor.ASTNodeLookupData data = previous.lookup.get(node);
+				if (data != null) {
+					visitor.lookup.put(node, data);
+				}
+			}
 			visitor.nodesByURI.put(uri, prevNodes);
+			NodePositionIndex prevPositionIndex = previous.positionIndexByURI.get(uri);
+			if (prevPositionIndex != null) {
+				visitor.positionIndexByURI.put(uri, prevPositionIndex);
+			} else {
+				visitor.positionIndexByURI.remove(uri);
+			}
 		}
 
 		// Restore class nodes
@@ -214,6 +199,7 @@ class ASTNodeIndex {
 				}
 			}
 			visitor.classNodesByURI.put(uri, prevClassNodes);
+			visitor.classNodesBySimpleName = null;
 			// Restore class names from previous
 			for (ClassNode cn : prevClassNodes) {
 				visitor.classNodesByName.put(cn.getName(), cn);
@@ -225,16 +211,22 @@ class ASTNodeIndex {
 		if (prevDeps != null) {
 			visitor.dependenciesByURI.put(uri, prevDeps);
 		}
+		Set<String> prevMemberReferences = previous.memberReferencesByURI.get(uri);
+		if (prevMemberReferences != null) {
+			visitor.memberReferencesByURI.put(uri, prevMemberReferences);
+		}
 
-		// Restore lookup entries for the URI
-		// First remove any new lookup entries for this URI
-		visitor.lookup.entrySet().removeIf(entry -> uri.equals(entry.getValue().getUri()));
-		// Then copy from previous
-		for (Map.Entry<ASTNodeVisitor.ASTLookupKey, ASTNodeVisitor.ASTNodeLookupData> entry
-				: previous.lookup.entrySet()) {
-			if (uri.equals(entry.getValue().getUri())) {
-				visitor.lookup.put(entry.getKey(), entry.getValue());
-			}
+		// The restored nodes replace the ones the references were resolved to
+		invalidateReferencePartitions(Collections.singleton(uri));
+	}
+
+	/**
+	 * Adds the data of every file visited by {@code other}, replacing this
+	 * visitor's data for those files.
+	 */
+	void merge(ASTNodeVisitor other) {
+		for (URI uri : other.nodesByURI.keySet()) {
+			restoreFromPrevious(uri, other);
 		}
 	}
 
@@ -242,68 +234,47 @@ class ASTNodeIndex {
 	 * Creates a new {@code ASTNodeVisitor} that is a copy-on-write snapshot
 	 * of this visitor's data. Data for URIs in {@code excludedURIs} is omitted
 	 * from the copy. The original visitor is not mutated.
+	 *
+	 * <p>All indices are forked in O(1) and share their structure with the
+	 * source, so the cost is proportional to the excluded files only.</p>
 	 */
 	static ASTNodeVisitor createSnapshotExcluding(ASTNodeVisitor source, Collection<URI> excludedURIs) {
 		ASTNodeVisitor copy = new ASTNodeVisitor();
-		Set<URI> excluded = asExcludedSet(excludedURIs);
-		copyUriScopedState(source, copy, excluded);
-		copyClassNameIndex(source, copy, excluded);
-		copyLookupIndex(source, copy, excluded);
-		return copy;
-	}
-
-	private static Set<URI> asExcludedSet(Collection<URI> excludedURIs) {
-		return excludedURIs instanceof Set
-				? (Set<URI>) excludedURIs
-				: new HashSet<>(excludedURIs);
-	}
-
-	private static void copyUriScopedState(ASTNodeVisitor source, ASTNodeVisitor copy, Set<URI> excluded) {
-		for (Map.Entry<URI, List<ASTNode>> entry : source.nodesByURI.entrySet()) {
-			if (!excluded.contains(entry.getKey())) {
-				copy.nodesByURI.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
-			}
+		copy.nodesByURI = source.nodesByURI.fork();
+		copy.classNodesByURI = source.classNodesByURI.fork();
+		copy.classNodesByName = source.classNodesByName.fork();
+		copy.lookup = source.lookup.fork();
+		copy.dependenciesByURI = source.dependenciesByURI.fork();
+		copy.memberReferencesByURI = source.memberReferencesByURI.fork();
+		copy.positionIndexByURI = source.positionIndexByURI.fork();
+		synchronized (source.referencePartitionLock) {
+			copy.referencePartitionsByURI = source.referencePartitionsByURI.fork();
 		}
-		for (Map.Entry<URI, List<ClassNode>> entry : source.classNodesByURI.entrySet()) {
-			if (!excluded.contains(entry.getKey())) {
-				copy.classNodesByURI.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
-			}
-		}
-		for (Map.Entry<URI, Set<String>> entry : source.dependenciesByURI.entrySet()) {
-			if (!excluded.contains(entry.getKey())) {
-				copy.dependenciesByURI.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
-			}
+		for (URI uri : excludedURIs) {
+			copy.removeURI(uri);
 		}
+		return copy;
 	}
 
-	private static void copyClassNameIndex(ASTNodeVisitor source, ASTNodeVisitor copy, Set<URI> excluded) {
-		Set<String> excludedClassNames = collectExcludedClassNames(source, excluded);
-		for (Map.Entry<String, ClassNode> entry : source.classNodesByName.entrySet()) {
-			if (!excludedClassNames.contains(entry.getKey())) {
-				copy.classNodesByName.put(entry.getKey(), entry.getValue());
-			}
-		}
-	}
+	// ── Reference partitions ─────────────────────────────────────────────────
 
-	private static Set<String> collectExcludedClassNames(ASTNodeVisitor source, Set<URI> excluded) {
-		Set<String> excludedClassNames = new HashSet<>();
-		for (URI uri : excluded) {
-			List<ClassNode> classNodes = source.classNodesByURI.get(uri);
-			if (classNodes != null) {
-				for (ClassNode cn : classNodes) {
-					excludedClassNames.add(cn.getName());
-				}
-			}
-		}
-		return excludedClassNames;
-	}
-
-	private static void copyLookupIndex(ASTNodeVisitor source, ASTNodeVisitor copy, Set<URI> excluded) {
-		for (Map.Entry<ASTNodeVisitor.ASTLookupKey, ASTNodeVisitor.ASTNodeLookupData> entry
-				: source.lookup.entrySet()) {
-			if (!excluded.contains(entry.getValue().getUri())) {
-				copy.lookup.put(entry.getKey(), entry.getValue());
+	/**
+	 * Drops the reference partitions of {@code uris} and of every file that
+	 * references a definition declared in them. Costs O(built partitions).
+	 */
+	void invalidateReferencePartitions(Collection<URI> uris) {
+		synchronized (visitor.referencePartitionLock) {
+			HamtMap<URI, ReferencePartition> partitions = visitor.referencePartitionsByURI;
+			if (partitions.isEmpty()) {
+				return;
 			}
+			List<URI> stale = new ArrayList<>();
+			partitions.forEach((uri, partition) -> {
+				if (uris.contains(uri) || partition.referencesAny(uris)) {
+					stale.add(uri);
+				}
+			});
+			stale.forEach(partitions::remove);
 		}
 	}
 
@@ -24,14 +24,13 @@ import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.concurrent.atomic.AtomicReference;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotatedNode;
@@ -40,6 +39,7 @@ import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.ConstructorNode;
 import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.GenericsType;
 import org.codehaus.groovy.ast.ImportNode;
 import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
@@ -98,34 +98,19 @@ import org.codehaus.groovy.classgen.BytecodeExpression;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.SourceUnit;
 
-public class ASTNodeVisitor extends ClassCodeVisitorSupport {
-
-	static class ASTLookupKey {
-		public ASTLookupKey(ASTNode node) {
-			this.node = node;
-		}
-
-		private ASTNode node;
-
-		@Override
-		public boolean equals(Object o) {
-			// some ASTNode subclasses, like ClassNode, override equals() with
-			// comparisons that are not strict. we need strict identity.
-			if (this == o) return true;
-			if (!(o instanceof ASTLookupKey)) return false;
-			ASTLookupKey other = (ASTLookupKey) o;
-			return node == other.node;
-		}
+import com.tomaszrup.groovyls.util.HamtMap;
+import com.tomaszrup.groovyls.util.InternRegistry;
 
-		@Override
-		public int hashCode() {
-			// Use identity hash to match the identity semantics of equals()
-			return System.identityHashCode(node);
-		}
-	}
+public class ASTNodeVisitor extends ClassCodeVisitorSupport {
+	/**
+	 * Member reference recorded for a member named by an expression, such
+	 * as {@code obj."$name"()}: the file may reference any member.
+	 */
+	public static final String ANY_MEMBER = "*";
 
 	static class ASTNodeLookupData {
 		private ASTNode parent;
+		/** Canonical {@link InternRegistry} URI of the node's file. */
 		private URI uri;
 
 		public ASTNode getParent() {
@@ -146,6 +131,11 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 	}
 
 	private SourceUnit sourceUnit;
+	/** Canonical {@link InternRegistry} URI of {@link #sourceUnit}. */
+	private URI sourceURI;
+	/** Dependencies and member references of {@link #sourceUnit}, collected while it is visited. */
+	private Set<String> sourceDependencies;
+	private Set<String> sourceMemberReferences;
 
 	@Override
 	protected SourceUnit getSourceUnit() {
@@ -153,47 +143,126 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 	}
 
 	Deque<ASTNode> stack = new ArrayDeque<>();
-	Map<URI, List<ASTNode>> nodesByURI = new HashMap<>();
-	Map<URI, List<ClassNode>> classNodesByURI = new HashMap<>();
-	Map<String, ClassNode> classNodesByName = new HashMap<>();
-	Map<ASTLookupKey, ASTNodeLookupData> lookup = new HashMap<>();
+
+	// All indices below are HAMT-backed so that createSnapshotExcluding()
+	// can fork them in O(1) and only pay for the URIs it removes/re-visits.
+	HamtMap<URI, List<ASTNode>> nodesByURI = new HamtMap<>();
+	HamtMap<URI, List<ClassNode>> classNodesByURI = new HamtMap<>();
+	HamtMap<String, ClassNode> classNodesByName = new HamtMap<>();
+
+	/**
+	 * Class nodes by simple name, derived from {@link #classNodesByName} on
+	 * the first lookup and dropped whenever a class is added or removed, so
+	 * it is built at most once per published snapshot.
+	 */
+	volatile Map<String, List<ClassNode>> classNodesBySimpleName;
+
+	/**
+	 * Parent/URI of every visited node. Keys are compared by identity,
+	 * because some ASTNode subclasses, like ClassNode, override equals()
+	 * with comparisons that are not strict.
+	 */
+	HamtMap<ASTNode, ASTNodeLookupData> lookup = HamtMap.withIdentityKeys();
 
 	/**
 	 * Tracks fully-qualified class names referenced by each source file
-	 * (via imports, superclass, and interface declarations). Used to build
-	 * the inter-file dependency graph for incremental compilation.
+	 * (via imports, superclass and interface declarations, member types and
+	 * type references in code, including same-package ones). Used to build
+	 * the inter-file dependency graph for incremental compilation. Collected
+	 * in a {@link HashSet} while a file is visited, then stored as a
+	 * {@link ClassNameSet} of interned class names.
+	 */
+	HamtMap<URI, Set<String>> dependenciesByURI = new HamtMap<>();
+
+	/**
+	 * Names of the members — methods, properties, fields, named arguments —
+	 * each source file references, whatever class declares them. When a
+	 * class changes, only its dependents that reference a changed member
+	 * need to be recompiled. Collected in a {@link HashSet} while a file is
+	 * visited, then frozen into an immutable set owned by the file. Member
+	 * names are not interned, so they are freed with the file's entry.
 	 */
-	Map<URI, Set<String>> dependenciesByURI = new HashMap<>();
+	HamtMap<URI, Set<String>> memberReferencesByURI = new HamtMap<>();
+
+	/**
+	 * Per-file position index for {@link #getNodeAtLineAndColumn}. Built
+	 * when a source unit has been visited and shared unchanged between
+	 * snapshots, so only re-visited URIs are re-indexed.
+	 */
+	HamtMap<URI, NodePositionIndex> positionIndexByURI = new HamtMap<>();
 
 	private final ASTNodeIndex index = new ASTNodeIndex(this);
 
 	/**
-	 * Lazily-built reverse index: definition node → list of referencing nodes.
-	 * Wrapped in a {@link SoftReference} so the GC can reclaim it under memory
-	 * pressure — it will be transparently rebuilt on the next
-	 * {@link #getReferenceIndex()} access.  Automatically invalidated when the
-	 * visitor is replaced (copy-on-write).
+	 * Definition &rarr; references index, partitioned by the URI of the
+	 * referencing nodes. Partitions are built lazily (see
+	 * {@code GroovyASTUtils.getReferences}) and shared between snapshots like
+	 * the indices above. A partition is dropped when its file, or a file
+	 * declaring one of the definitions it references, is removed or
+	 * re-visited, so after an incremental compile only the contributions of
+	 * the affected files are rebuilt. Guarded by
+	 * {@link #referencePartitionLock}, because partitions are published
+	 * concurrently by request threads.
+	 */
+	HamtMap<URI, ReferencePartition> referencePartitionsByURI = new HamtMap<>();
+	final Object referencePartitionLock = new Object();
+
+	/**
+	 * Names of the classes removed by {@link #removeURI} before a re-visit.
+	 * A class name that is not among them is new to the snapshot and may
+	 * resolve references that the existing partitions recorded as
+	 * unresolved.
 	 */
-	private final AtomicReference<SoftReference<Map<ASTNode, List<ASTNode>>>> referenceIndexRef = new AtomicReference<>();
+	private Set<String> removedClassNames = new HashSet<>();
 
 	/**
-	 * Returns the lazily-built reference index, or {@code null} if it hasn't
-	 * been built yet <em>or</em> the GC reclaimed it.  Callers should use
-	 * {@link #setReferenceIndex(Map)} to store a freshly built index when
-	 * this returns {@code null}.
+	 * Returns the reference partition of {@code uri}: every definition
+	 * referenced from the file, mapped to the referencing nodes of that
+	 * file. Returns {@code null} if the partition hasn't been built for this
+	 * snapshot yet, was invalidated by a re-visit, or was reclaimed by the
+	 * GC; callers then build it and store it with
+	 * {@link #setReferencePartition}.
 	 */
-	public Map<ASTNode, List<ASTNode>> getReferenceIndex() {
-		SoftReference<Map<ASTNode, List<ASTNode>>> ref = referenceIndexRef.get();
-		return ref != null ? ref.get() : null;
+	public Map<ASTNode, List<ASTNode>> getReferencePartition(URI uri) {
+		ReferencePartition partition;
+		synchronized (referencePartitionLock) {
+			partition = referencePartitionsByURI.get(uri);
+		}
+		return partition != null ? partition.getReferences() : null;
 	}
 
 	/**
-	 * Stores a pre-built reference index. The index maps each definition
-	 * node to the list of AST nodes that reference it.  The map is wrapped
-	 * in a {@link SoftReference} to allow GC reclamation under memory pressure.
+	 * Stores the reference partition of {@code uri}. The map is held through
+	 * a {@link SoftReference} to allow GC reclamation under memory pressure.
+	 *
+	 * @param definitionURIs the URIs declaring the definitions referenced
+	 *                       from the partition
 	 */
-	public void setReferenceIndex(Map<ASTNode, List<ASTNode>> index) {
-		this.referenceIndexRef.set((index != null) ? new SoftReference<>(index) : null);
+	public void setReferencePartition(URI uri, Map<ASTNode, List<ASTNode>> references,
+			Set<URI> definitionURIs) {
+		ReferencePartition partition = new ReferencePartition(references, definitionURIs);
+		synchronized (referencePartitionLock) {
+			if (nodesByURI.containsKey(uri)) {
+				referencePartitionsByURI.put(uri, partition);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of definitions in the reference partitions that
+	 * are currently built (and not reclaimed by the GC).
+	 */
+	public int getReferenceIndexSize() {
+		int[] size = new int[1];
+		synchronized (referencePartitionLock) {
+			referencePartitionsByURI.forEach((uri, partition) -> {
+				Map<ASTNode, List<ASTNode>> references = partition.getReferences();
+				if (references != null) {
+					size[0] += references.size();
+				}
+			});
+		}
+		return size[0];
 	}
 
 	/**
@@ -201,7 +270,17 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 	 * lazily rebuilt on the next {@code getReferences()} call.
 	 */
 	public void clearReferenceIndex() {
-		this.referenceIndexRef.set(null);
+		synchronized (referencePartitionLock) {
+			referencePartitionsByURI.clear();
+		}
+	}
+
+	/**
+	 * Drops the reference partitions of {@code uris} and of every file that
+	 * references a definition declared in them.
+	 */
+	void invalidateReferencePartitions(Collection<URI> uris) {
+		index.invalidateReferencePartitions(uris);
 	}
 
 	private void pushASTNode(ASTNode node) {
@@ -211,15 +290,14 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 			isSynthetic = annotatedNode.isSynthetic();
 		}
 		if (!isSynthetic) {
-			URI uri = sourceUnit.getSource().getURI();
-			nodesByURI.get(uri).add(node);
+			nodesByURI.get(sourceURI).add(node);
 
 			ASTNodeLookupData data = new ASTNodeLookupData();
-			data.setUri(uri);
+			data.setUri(sourceURI);
 			if (!stack.isEmpty()) {
 				data.setParent(stack.peekLast());
 			}
-			lookup.put(new ASTLookupKey(node), data);
+			lookup.put(node, data);
 		}
 
 		stack.addLast(node);
@@ -241,6 +319,11 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		return index.getClassNodeByName(name);
 	}
 
+	/** Returns the class nodes whose name without package is {@code simpleName}. */
+	public List<ClassNode> getClassNodesBySimpleName(String simpleName) {
+		return index.getClassNodesBySimpleName(simpleName);
+	}
+
 	public List<ASTNode> getNodes() {
 		return index.getNodes();
 	}
@@ -249,6 +332,11 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		return index.getNodes(uri);
 	}
 
+	/** Returns the URIs of the visited source files. */
+	public Set<URI> getURIs() {
+		return Collections.unmodifiableSet(nodesByURI.keySet());
+	}
+
 	public ASTNode getNodeAtLineAndColumn(URI uri, int line, int column) {
 		return index.getNodeAtLineAndColumn(uri, line, column);
 	}
@@ -269,25 +357,19 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		nodesByURI.clear();
 		classNodesByURI.clear();
 		classNodesByName.clear();
+		classNodesBySimpleName = null;
 		lookup.clear();
 		dependenciesByURI.clear();
+		memberReferencesByURI.clear();
+		positionIndexByURI.clear();
 		clearReferenceIndex();
+		removedClassNames.clear();
 		unit.iterator().forEachRemaining(this::visitSourceUnit);
 	}
 
 	public void visitCompilationUnit(CompilationUnit unit, Collection<URI> uris) {
-		uris.forEach(uri -> {
-			// clear all old nodes so that they may be replaced
-			List<ASTNode> nodes = nodesByURI.remove(uri);
-			if (nodes != null) {
-				nodes.forEach(node -> lookup.remove(new ASTLookupKey(node)));
-			}
-			List<ClassNode> oldClassNodes = classNodesByURI.remove(uri);
-			if (oldClassNodes != null) {
-				oldClassNodes.forEach(cn -> classNodesByName.remove(cn.getName()));
-			}
-			dependenciesByURI.remove(uri);
-		});
+		// clear all old nodes so that they may be replaced
+		uris.forEach(this::removeURI);
 		unit.iterator().forEachRemaining(currentSourceUnit -> {
 			URI uri = currentSourceUnit.getSource().getURI();
 			if (!uris.contains(uri)) {
@@ -295,6 +377,30 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 			}
 			visitSourceUnit(currentSourceUnit);
 		});
+		removedClassNames = new HashSet<>();
+	}
+
+	/**
+	 * Removes every index entry contributed by {@code uri}. Costs
+	 * O(nodes in the file), independent of the size of the project.
+	 */
+	void removeURI(URI uri) {
+		List<ASTNode> nodes = nodesByURI.remove(uri);
+		if (nodes != null) {
+			nodes.forEach(lookup::remove);
+		}
+		List<ClassNode> oldClassNodes = classNodesByURI.remove(uri);
+		if (oldClassNodes != null) {
+			oldClassNodes.forEach(cn -> {
+				classNodesByName.remove(cn.getName());
+				removedClassNames.add(cn.getName());
+			});
+			classNodesBySimpleName = null;
+		}
+		dependenciesByURI.remove(uri);
+		memberReferencesByURI.remove(uri);
+		positionIndexByURI.remove(uri);
+		invalidateReferencePartitions(Collections.singleton(uri));
 	}
 
 	public int getNodeCount(URI uri) {
@@ -305,23 +411,45 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		index.restoreFromPrevious(uri, previous);
 	}
 
+	/**
+	 * Adds the files visited by {@code other}, e.g. another partition of the
+	 * same project, replacing this visitor's data for those files.
+	 */
+	public void merge(ASTNodeVisitor other) {
+		index.merge(other);
+	}
+
 	public ASTNodeVisitor createSnapshotExcluding(Collection<URI> excludedURIs) {
 		return ASTNodeIndex.createSnapshotExcluding(this, excludedURIs);
 	}
 
 	public void visitSourceUnit(SourceUnit unit) {
 		sourceUnit = unit;
-		URI uri = sourceUnit.getSource().getURI();
+		sourceURI = InternRegistry.intern(unit.getSource().getURI());
+		URI uri = sourceURI;
 		nodesByURI.put(uri, new ArrayList<>());
 		classNodesByURI.put(uri, new ArrayList<>());
-		dependenciesByURI.put(uri, new HashSet<>());
+		sourceDependencies = new HashSet<>();
+		sourceMemberReferences = new HashSet<>();
+		dependenciesByURI.put(uri, sourceDependencies);
+		memberReferencesByURI.put(uri, sourceMemberReferences);
 		stack.clear();
 		ModuleNode moduleNode = unit.getAST();
 		if (moduleNode != null) {
 			visitModule(moduleNode);
 		}
 		sourceUnit = null;
+		sourceURI = null;
+		sourceDependencies = null;
+		sourceMemberReferences = null;
 		stack.clear();
+		// Freeze the per-file collections; snapshots share them as-is
+		List<ASTNode> nodes = Collections.unmodifiableList(nodesByURI.get(uri));
+		nodesByURI.put(uri, nodes);
+		classNodesByURI.put(uri, Collections.unmodifiableList(classNodesByURI.get(uri)));
+		dependenciesByURI.put(uri, ClassNameSet.copyOf(dependenciesByURI.get(uri)));
+		memberReferencesByURI.put(uri, Set.copyOf(memberReferencesByURI.get(uri)));
+		positionIndexByURI.put(uri, NodePositionIndex.build(nodes, this));
 	}
 
 	public void visitModule(ModuleNode node) {
@@ -337,9 +465,14 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitClass(ClassNode node) {
-		URI uri = sourceUnit.getSource().getURI();
+		URI uri = sourceURI;
 		classNodesByURI.get(uri).add(node);
-		classNodesByName.put(node.getName(), node);
+		classNodesBySimpleName = null;
+		if (classNodesByName.put(node.getName(), node) == null
+				&& !removedClassNames.contains(node.getName())) {
+			// a new class may resolve references of files that weren't re-visited
+			clearReferenceIndex();
+		}
 		Set<String> deps = dependenciesByURI.get(uri);
 		pushASTNode(node);
 		try {
@@ -369,9 +502,49 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		index.addDependency(deps, className);
 	}
 
+	/**
+	 * Records a dependency of the current file on {@code type}, its
+	 * component type and its type arguments.
+	 */
+	private void addTypeDependency(ClassNode type) {
+		if (type == null || sourceDependencies == null) {
+			return;
+		}
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		addDependency(sourceDependencies, type.getName());
+		GenericsType[] genericsTypes = type.getGenericsTypes();
+		if (genericsTypes == null) {
+			return;
+		}
+		for (GenericsType genericsType : genericsTypes) {
+			if (genericsType.isPlaceholder()) {
+				continue;
+			}
+			if (!genericsType.isWildcard()) {
+				addTypeDependency(genericsType.getType());
+			}
+			if (genericsType.getUpperBounds() != null) {
+				for (ClassNode bound : genericsType.getUpperBounds()) {
+					addTypeDependency(bound);
+				}
+			}
+			addTypeDependency(genericsType.getLowerBound());
+		}
+	}
+
+	/** Records a reference of the current file to a member named {@code name}. */
+	private void addMemberReference(String name) {
+		if (sourceMemberReferences != null) {
+			sourceMemberReferences.add(name != null ? name : ANY_MEMBER);
+		}
+	}
+
 	@Override
 	public void visitAnnotations(AnnotatedNode node) {
 		for (AnnotationNode annotation : node.getAnnotations()) {
+			addTypeDependency(annotation.getClassNode());
 			pushASTNode(annotation);
 			try {
 				for (java.util.Map.Entry<String, org.codehaus.groovy.ast.expr.Expression> entry : annotation.getMembers().entrySet()) {
@@ -388,8 +561,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		if (node == null) {
 			return;
 		}
-		URI uri = sourceUnit.getSource().getURI();
-		Set<String> deps = dependenciesByURI.get(uri);
+		Set<String> deps = dependenciesByURI.get(sourceURI);
 
 		processDirectImports(node.getImports(), deps);
 		processStarImports(node.getStarImports(), deps);
@@ -401,6 +573,9 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		for (ImportNode importNode : imports) {
 			visitImportNode(importNode);
 			addDependency(deps, importNode.getClassName());
+			if (importNode.isStatic() && importNode.getFieldName() != null) {
+				addMemberReference(importNode.getFieldName());
+			}
 		}
 	}
 
@@ -440,6 +615,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitMethod(MethodNode node) {
+		addTypeDependency(node.getReturnType());
 		pushASTNode(node);
 		try {
 			super.visitMethod(node);
@@ -452,12 +628,14 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 	}
 
 	protected void visitParameter(Parameter node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		popASTNode();
 	}
 
 	@Override
 	public void visitField(FieldNode node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		try {
 			super.visitField(node);
@@ -468,6 +646,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitProperty(PropertyNode node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		try {
 			super.visitProperty(node);
@@ -640,6 +819,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitMethodCallExpression(MethodCallExpression node) {
+		addMemberReference(node.getMethodAsString());
 		pushASTNode(node);
 		try {
 			super.visitMethodCallExpression(node);
@@ -650,6 +830,8 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitStaticMethodCallExpression(StaticMethodCallExpression node) {
+		addTypeDependency(node.getOwnerType());
+		addMemberReference(node.getMethod());
 		pushASTNode(node);
 		try {
 			super.visitStaticMethodCallExpression(node);
@@ -660,6 +842,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitConstructorCallExpression(ConstructorCallExpression node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		try {
 			super.visitConstructorCallExpression(node);
@@ -790,6 +973,10 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitMapEntryExpression(MapEntryExpression node) {
+		if (node.getKeyExpression() instanceof ConstantExpression) {
+			// named arguments of constructors and methods are property names
+			addMemberReference(node.getKeyExpression().getText());
+		}
 		pushASTNode(node);
 		try {
 			super.visitMapEntryExpression(node);
@@ -830,6 +1017,8 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitMethodPointerExpression(MethodPointerExpression node) {
+		addMemberReference(node.getMethodName() instanceof ConstantExpression
+				? node.getMethodName().getText() : null);
 		pushASTNode(node);
 		try {
 			super.visitMethodPointerExpression(node);
@@ -870,6 +1059,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitCastExpression(CastExpression node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		try {
 			super.visitCastExpression(node);
@@ -890,6 +1080,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitClassExpression(ClassExpression node) {
+		addTypeDependency(node.getType());
 		pushASTNode(node);
 		try {
 			super.visitClassExpression(node);
@@ -900,6 +1091,8 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitVariableExpression(VariableExpression node) {
+		addTypeDependency(node.getOriginType());
+		addMemberReference(node.getName());
 		pushASTNode(node);
 		try {
 			super.visitVariableExpression(node);
@@ -910,6 +1103,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitPropertyExpression(PropertyExpression node) {
+		addMemberReference(node.getPropertyAsString());
 		pushASTNode(node);
 		try {
 			super.visitPropertyExpression(node);
@@ -920,6 +1114,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitAttributeExpression(AttributeExpression node) {
+		addMemberReference(node.getPropertyAsString());
 		pushASTNode(node);
 		try {
 			super.visitAttributeExpression(node);
@@ -950,6 +1145,7 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 
 	@Override
 	public void visitCatchStatement(CatchStatement node) {
+		addTypeDependency(node.getExceptionType());
 		pushASTNode(node);
 		try {
 			super.visitCatchStatement(node);
@@ -984,6 +1180,15 @@ public class ASTNodeVisitor extends ClassCodeVisitorSupport {
 		return index.getDependenciesByURI();
 	}
 
+	/**
+	 * Returns the names of the members referenced from {@code uri}, possibly
+	 * including {@link #ANY_MEMBER}, or {@code null} if the file was not
+	 * visited.
+	 */
+	public Set<String> getMemberReferences(URI uri) {
+		return memberReferencesByURI.get(uri);
+	}
+
 	public Set<URI> resolveSourceDependencies(URI fileURI) {
 		return index.resolveSourceDependencies(fileURI);
 	}
@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.ast;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.tomaszrup.groovyls.util.InternRegistry;
+
+/**
+ * Immutable set of class names stored as a sorted array of
+ * {@link InternRegistry} canonical names: one reference per name instead of
+ * a hash set entry and a string per file. {@link #contains} is a binary
+ * search. Holding the canonical names keeps them interned while any file
+ * references them.
+ */
+final class ClassNameSet extends AbstractSet<String> {
+	private static final ClassNameSet EMPTY = new ClassNameSet(new String[0]);
+
+	private final String[] names;
+
+	private ClassNameSet(String[] names) {
+		this.names = names;
+	}
+
+	static ClassNameSet copyOf(Collection<String> classNames) {
+		if (classNames.isEmpty()) {
+			return EMPTY;
+		}
+		String[] names = new String[classNames.size()];
+		int count = 0;
+		for (String className : classNames) {
+			names[count++] = InternRegistry.internClassName(className);
+		}
+		Arrays.sort(names);
+		int unique = 0;
+		for (int i = 0; i < count; i++) {
+			if (unique == 0 || !names[unique - 1].equals(names[i])) {
+				names[unique++] = names[i];
+			}
+		}
+		return new ClassNameSet(unique == names.length ? names : Arrays.copyOf(names, unique));
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof String && Arrays.binarySearch(names, o) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return names.length;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < names.length;
+			}
+
+			@Override
+			public String next() {
+				if (next >= names.length) {
+					throw new NoSuchElementException();
+				}
+				return names[next++];
+			}
+		};
+	}
+}
@@ -0,0 +1,223 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.ast;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+
+/**
+ * Immutable position index over the AST nodes of a single source file,
+ * answering "innermost node at line/column" queries in O(log n) without
+ * allocating.
+ *
+ * <p>Node ranges are packed into {@code long} keys ({@code line << 32 +
+ * column}) and sorted by start ascending, end descending. Among all ranges
+ * containing a position, the one with the latest start and, on ties, the
+ * earliest end is therefore the <em>rightmost</em> entry whose start is
+ * {@code <=} the position and whose end is {@code >=} it. A max-end segment
+ * tree over the sorted entries finds that entry with a single descent.</p>
+ *
+ * <p>Nodes with identical ranges are collapsed into one entry at build
+ * time, keeping the node that the former linear scan would have picked:
+ * a later node replaces an earlier one only if it is a descendant of it,
+ * except that a constructor never replaces its own class.</p>
+ *
+ * <p>Instances are built once per URI when {@link ASTNodeVisitor} finishes
+ * visiting a source unit, and shared unchanged between copy-on-write
+ * visitor snapshots.</p>
+ */
+final class NodePositionIndex {
+	private static final NodePositionIndex EMPTY = new NodePositionIndex(
+			new long[0], new long[0], new ASTNode[0], new long[0], 0);
+
+	private final long[] starts;
+	private final long[] ends;
+	private final ASTNode[] nodes;
+	/** Segment tree of max end; leaves start at {@code leafOffset}. */
+	private final long[] maxEnd;
+	private final int leafOffset;
+
+	private NodePositionIndex(long[] starts, long[] ends, ASTNode[] nodes, long[] maxEnd, int leafOffset) {
+		this.starts = starts;
+		this.ends = ends;
+		this.nodes = nodes;
+		this.maxEnd = maxEnd;
+		this.leafOffset = leafOffset;
+	}
+
+	/**
+	 * Builds the index for the nodes of one source file.
+	 *
+	 * @param nodes   the file's nodes in visit order
+	 * @param visitor the visitor owning {@code nodes}, used for the
+	 *                ancestor check when ranges are identical
+	 */
+	static NodePositionIndex build(List<ASTNode> nodes, ASTNodeVisitor visitor) {
+		if (nodes == null || nodes.isEmpty()) {
+			return EMPTY;
+		}
+		int count = 0;
+		long[] rawStarts = new long[nodes.size()];
+		long[] rawEnds = new long[nodes.size()];
+		Integer[] order = new Integer[nodes.size()];
+		for (int i = 0; i < nodes.size(); i++) {
+			ASTNode node = nodes.get(i);
+			if (node.getLineNumber() == -1) {
+				continue;
+			}
+			Range range = GroovyLanguageServerUtils.astNodeToRange(node);
+			if (range == null) {
+				continue;
+			}
+			rawStarts[i] = pack(range.getStart());
+			rawEnds[i] = pack(range.getEnd());
+			order[count++] = i;
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		// Stable sort keeps visit order within identical ranges
+		Arrays.sort(order, 0, count, (a, b) -> {
+			int cmp = Long.compare(rawStarts[a], rawStarts[b]);
+			return cmp != 0 ? cmp : Long.compare(rawEnds[b], rawEnds[a]);
+		});
+
+		long[] starts = new long[count];
+		long[] ends = new long[count];
+		ASTNode[] sorted = new ASTNode[count];
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			int idx = order[i];
+			ASTNode node = nodes.get(idx);
+			if (size > 0 && starts[size - 1] == rawStarts[idx] && ends[size - 1] == rawEnds[idx]) {
+				ASTNode best = sorted[size - 1];
+				if (isAncestor(visitor, best, node, nodes.size())
+						&& !(best instanceof ClassNode && node instanceof ConstructorNode)) {
+					sorted[size - 1] = node;
+				}
+				continue;
+			}
+			starts[size] = rawStarts[idx];
+			ends[size] = rawEnds[idx];
+			sorted[size] = node;
+			size++;
+		}
+
+		int leafOffset = 1;
+		while (leafOffset < size) {
+			leafOffset <<= 1;
+		}
+		long[] maxEnd = new long[leafOffset * 2];
+		Arrays.fill(maxEnd, Long.MIN_VALUE);
+		System.arraycopy(ends, 0, maxEnd, leafOffset, size);
+		for (int p = leafOffset - 1; p > 0; p--) {
+			maxEnd[p] = Math.max(maxEnd[2 * p], maxEnd[2 * p + 1]);
+		}
+		return new NodePositionIndex(
+				Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+				Arrays.copyOf(sorted, size), maxEnd, leafOffset);
+	}
+
+	/**
+	 * Same as {@link ASTNodeVisitor#contains(ASTNode, ASTNode)}, but gives
+	 * up after {@code maxSteps} parents: a node that is visited twice (e.g.
+	 * a shared expression) can end up as its own ancestor in the lookup.
+	 */
+	static boolean isAncestor(ASTNodeVisitor visitor, ASTNode ancestor, ASTNode descendant, int maxSteps) {
+		ASTNode current = visitor.getParent(descendant);
+		for (int steps = 0; current != null && steps < maxSteps; steps++) {
+			if (current.equals(ancestor)) {
+				return true;
+			}
+			current = visitor.getParent(current);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the innermost node whose range contains the given 0-based
+	 * LSP position, or {@code null} if none does.
+	 */
+	ASTNode getNodeAt(int line, int column) {
+		if (nodes.length == 0) {
+			return null;
+		}
+		long position = pack(line, column);
+		int last = upperBound(position) - 1;
+		if (last < 0) {
+			return null;
+		}
+		int found = rightmostCovering(1, 0, leafOffset - 1, last, position);
+		return found >= 0 ? nodes[found] : null;
+	}
+
+	int size() {
+		return nodes.length;
+	}
+
+	/** Index of the first entry whose start is greater than {@code position}. */
+	private int upperBound(long position) {
+		int low = 0;
+		int high = starts.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= position) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the largest index {@code <= last} within the tree node
+	 * {@code p} (covering {@code [lo, hi]}) whose end is {@code >= position},
+	 * or {@code -1}.
+	 */
+	private int rightmostCovering(int p, int lo, int hi, int last, long position) {
+		if (lo > last || maxEnd[p] < position) {
+			return -1;
+		}
+		if (lo == hi) {
+			return lo;
+		}
+		int mid = (lo + hi) >>> 1;
+		int found = rightmostCovering(2 * p + 1, mid + 1, hi, last, position);
+		return found >= 0 ? found : rightmostCovering(2 * p, lo, mid, last, position);
+	}
+
+	private static long pack(Position position) {
+		return pack(position.getLine(), position.getCharacter());
+	}
+
+	/** Packs a position so that {@code long} order matches {@code Positions.COMPARATOR}. */
+	private static long pack(int line, int column) {
+		return ((long) line << 32) + column;
+	}
+}
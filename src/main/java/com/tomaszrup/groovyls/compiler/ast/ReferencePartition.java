@@ -0,0 +1,69 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.ast;
+
+import java.lang.ref.SoftReference;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ASTNode;
+
+/**
+ * The contribution of one source file to the definition → references
+ * index: every definition referenced from the file, mapped to the
+ * referencing nodes of that file.
+ *
+ * <p>The map is held through a {@link SoftReference} so the GC can reclaim
+ * it under memory pressure; it is then rebuilt on the next lookup. The
+ * URIs of the referenced definitions are kept strongly, because they
+ * decide when the partition becomes stale.</p>
+ */
+final class ReferencePartition {
+	private final SoftReference<Map<ASTNode, List<ASTNode>>> references;
+	private final Set<URI> definitionURIs;
+
+	ReferencePartition(Map<ASTNode, List<ASTNode>> references, Set<URI> definitionURIs) {
+		this.references = new SoftReference<>(references);
+		this.definitionURIs = definitionURIs;
+	}
+
+	/** Returns the partition's index, or {@code null} if the GC reclaimed it. */
+	Map<ASTNode, List<ASTNode>> getReferences() {
+		return references.get();
+	}
+
+	/**
+	 * Returns {@code true} if a definition referenced from this partition
+	 * lives in one of {@code uris}. Those definitions are replaced by new
+	 * node objects when the files are re-visited, so the partition must be
+	 * rebuilt.
+	 */
+	boolean referencesAny(Collection<URI> uris) {
+		for (URI uri : uris) {
+			if (definitionURIs.contains(uri)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,139 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.groovy.parser.antlr4.Antlr4ParserPlugin;
+import org.apache.groovy.parser.antlr4.AstBuilder;
+import org.apache.groovy.parser.antlr4.GroovyParser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ParserPlugin;
+import org.codehaus.groovy.control.ParserPluginFactory;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.runtime.IOGroovyMethods;
+import org.codehaus.groovy.syntax.Reduction;
+
+import groovyjarjarantlr4.v4.runtime.tree.ParseTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates Groovy parser plugins that build the AST of a source from its
+ * parse tree in a {@link ParseTreeCache}, and cache the trees they parse.
+ * Sources that fail to parse or convert are not cached, so their errors are
+ * reported again on every compile.
+ */
+public class CachingParserPluginFactory extends ParserPluginFactory {
+	private static final Logger logger = LoggerFactory.getLogger(CachingParserPluginFactory.class);
+
+	private final ParseTreeCache cache;
+
+	public CachingParserPluginFactory(ParseTreeCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public ParserPlugin createParserPlugin() {
+		return new CachingParserPlugin(cache);
+	}
+
+	private static final class CachingParserPlugin extends Antlr4ParserPlugin {
+		private final ParseTreeCache cache;
+
+		CachingParserPlugin(ParseTreeCache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public ModuleNode buildAST(SourceUnit sourceUnit, ClassLoader classLoader, Reduction cst) {
+			String source = readSource(sourceUnit);
+			CompilerConfiguration config = sourceUnit.getConfiguration();
+			String key = source != null ? ParseTreeCache.keyOf(source, config) : null;
+			if (key == null) {
+				return super.buildAST(sourceUnit, classLoader, cst);
+			}
+			GroovyParser.CompilationUnitContext cached = cache.take(key);
+			if (cached != null) {
+				try {
+					ModuleNode module = new CachedTreeAstBuilder(sourceUnit, config, cached).buildAST();
+					cache.put(key, cached, source.length());
+					return module;
+				} catch (RuntimeException e) {
+					// Not expected, as the tree was built once; parse afresh
+					logger.debug("Could not build the AST of {} from its cached parse tree: {}",
+							sourceUnit.getName(), e.getMessage());
+				}
+			}
+			int errorCount = sourceUnit.getErrorCollector().getErrorCount();
+			CapturingAstBuilder builder = new CapturingAstBuilder(sourceUnit, config);
+			ModuleNode module = builder.buildAST();
+			// A tree the parser recovered errors in would not report them again
+			if (builder.tree != null && sourceUnit.getErrorCollector().getErrorCount() == errorCount) {
+				cache.put(key, builder.tree, source.length());
+			}
+			return module;
+		}
+
+		private static String readSource(SourceUnit sourceUnit) {
+			try (Reader reader = sourceUnit.getSource().getReader()) {
+				return IOGroovyMethods.getText(reader);
+			} catch (IOException | RuntimeException e) {
+				return null;
+			}
+		}
+	}
+
+	/** Parses the source as usual and keeps its parse tree. */
+	private static final class CapturingAstBuilder extends AstBuilder {
+		private GroovyParser.CompilationUnitContext tree;
+
+		CapturingAstBuilder(SourceUnit sourceUnit, CompilerConfiguration config) {
+			super(sourceUnit, config.isGroovydocEnabled(), config.isRuntimeGroovydocEnabled());
+		}
+
+		@Override
+		public Object visit(ParseTree node) {
+			// The parse tree is the root passed to the first visit
+			if (tree == null && node instanceof GroovyParser.CompilationUnitContext) {
+				tree = (GroovyParser.CompilationUnitContext) node;
+			}
+			return super.visit(node);
+		}
+	}
+
+	/** Builds the AST from a cached parse tree instead of parsing the source. */
+	private static final class CachedTreeAstBuilder extends AstBuilder {
+		private final GroovyParser.CompilationUnitContext tree;
+
+		CachedTreeAstBuilder(SourceUnit sourceUnit, CompilerConfiguration config,
+				GroovyParser.CompilationUnitContext tree) {
+			super(sourceUnit, config.isGroovydocEnabled(), config.isRuntimeGroovydocEnabled());
+			this.tree = tree;
+		}
+
+		@Override
+		public ModuleNode buildAST() {
+			return (ModuleNode) visit(tree);
+		}
+	}
+}
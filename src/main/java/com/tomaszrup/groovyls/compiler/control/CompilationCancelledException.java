@@ -0,0 +1,39 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.ProcessingUnit;
+
+/**
+ * Thrown out of {@link GroovyLSCompilationUnit#compile} when its
+ * cancellation check reports that the compilation was superseded.
+ *
+ * <p>Extends {@link CompilationFailedException} so that Groovy's phase
+ * operations propagate it unchanged instead of wrapping it into a
+ * {@code GroovyBugError}.</p>
+ */
+public class CompilationCancelledException extends CompilationFailedException {
+	private static final long serialVersionUID = 1L;
+
+	public CompilationCancelledException(int phase, ProcessingUnit unit) {
+		super(phase, unit);
+	}
+}
@@ -23,26 +23,186 @@ package com.tomaszrup.groovyls.compiler.control;
 import groovy.lang.GroovyClassLoader;
 import org.codehaus.groovy.ast.CompileUnit;
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.tools.GroovyClass;
 
+import java.io.File;
 import java.security.CodeSource;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
+/**
+ * A compilation unit for language features, which compiles in memory: it
+ * has no target directory and never runs the output phase, so compiling
+ * writes nothing to the file system.
+ */
 public class GroovyLSCompilationUnit extends CompilationUnit {
 
+	private volatile BooleanSupplier cancellationCheck;
+	private volatile Executor parseExecutor;
+	private volatile int parseHelpers;
+	/** Last phase the running {@link #compile} goes through, or 0 outside of it. */
+	private int compilingThroughPhase;
+
 	public GroovyLSCompilationUnit(CompilerConfiguration config) {
 		this(config, null, null);
 	}
 
 	public GroovyLSCompilationUnit(CompilerConfiguration config, CodeSource security, GroovyClassLoader loader) {
-		super(config, security, loader);
+		super(withoutTargetDirectory(config), security, loader);
 		this.errorCollector = new LanguageServerErrorCollector(config);
+		// Groovy reports progress after every source unit during conversion.
+		// Aborting there is safe, as conversion has no transforms and
+		// compile() discards the converted modules. The end-of-phase reports
+		// are not used: they come before the sources are marked as done, so
+		// an abort there would run the phase's transforms again next time.
+		setProgressCallback((context, phase) -> {
+			if (phase == Phases.CONVERSION && context != this) {
+				checkCancelled();
+			}
+		});
+	}
+
+	/**
+	 * Returns {@code config}, or a copy without the target directory if one
+	 * is set (e.g. by the {@code groovy.target.directory} property). The
+	 * given configuration may be shared and is not modified.
+	 */
+	private static CompilerConfiguration withoutTargetDirectory(CompilerConfiguration config) {
+		CompilerConfiguration effective = config != null ? config : CompilerConfiguration.DEFAULT;
+		if (effective.getTargetDirectory() == null) {
+			return config;
+		}
+		CompilerConfiguration copy = new CompilerConfiguration(effective);
+		copy.setTargetDirectory((File) null);
+		return copy;
+	}
+
+	/**
+	 * Checks for cancellation before the next phase of the running compile
+	 * starts, once the previous phase is complete and its sources are
+	 * marked, so an aborted unit resumes without repeating any transform.
+	 * Groovy also restarts from the first phase in the middle of a phase
+	 * when sources were queued; that restart is not a cancellation point.
+	 *
+	 * <p>Also builds the AST of every source before conversion starts, on
+	 * the compiling thread and the helpers of the parse executor, checking
+	 * for cancellation before each source. Groovy would otherwise build them
+	 * at the start of conversion, either without a cancellation check or,
+	 * with {@code parallelParse}, on the common fork-join pool, outside the
+	 * compilation permits.</p>
+	 */
+	@Override
+	public void gotoPhase(int phase) throws CompilationFailedException {
+		if (phaseComplete && phase <= compilingThroughPhase) {
+			checkCancelled();
+		}
+		if (phase == Phases.CONVERSION) {
+			buildMissingASTs();
+		}
+		super.gotoPhase(phase);
+	}
+
+	/**
+	 * Builds the ASTs that are not cached, spreading the sources over the
+	 * compiling thread and up to {@code parseHelpers} tasks of the parse
+	 * executor. The compiling thread parses too, so this completes even if
+	 * the executor never gets to the helpers.
+	 */
+	private void buildMissingASTs() {
+		List<SourceUnit> missing = new ArrayList<>();
+		for (SourceUnit source : sources.values()) {
+			if (source.getAST() == null) {
+				missing.add(source);
+			}
+		}
+		ParallelParse parse = new ParallelParse(missing);
+		Executor executor = parseExecutor;
+		int helpers = executor != null ? Math.min(parseHelpers, missing.size() - 1) : 0;
+		for (int i = 0; i < helpers; i++) {
+			try {
+				executor.execute(parse::drain);
+			} catch (RejectedExecutionException e) {
+				break;
+			}
+		}
+		parse.drain();
+		parse.finish();
+	}
+
+	/**
+	 * Compiles through {@code throughPhase}, but at most through
+	 * {@link Phases#CLASS_GENERATION}: generated classes stay in
+	 * {@link #getClasses()} and are never written out.
+	 */
+	@Override
+	public void compile(int throughPhase) throws CompilationFailedException {
+		compilingThroughPhase = Math.min(throughPhase, Phases.CLASS_GENERATION);
+		try {
+			checkCancelled();
+			super.compile(compilingThroughPhase);
+		} catch (CompilationCancelledException e) {
+			if (phase == Phases.CONVERSION) {
+				// Conversion restarts with every source on the next compile,
+				// which would add the converted modules a second time
+				ast = new CompileUnit(classLoader, ast.getCodeSource(), configuration);
+			}
+			throw e;
+		} finally {
+			compilingThroughPhase = 0;
+		}
+	}
+
+	/**
+	 * Sets the check that aborts a running {@link #compile} with a
+	 * {@link CompilationCancelledException} once it returns {@code true};
+	 * {@code null} makes compilation run to completion again.
+	 *
+	 * <p>The check runs before each phase, before building each source's
+	 * AST (also on parse helpers, see {@link #setParseExecutor}) and
+	 * between converted sources, never after a phase's operations
+	 * changed the AST. An aborted unit can therefore be compiled again:
+	 * Groovy restarts from the first phase and skips the source units that
+	 * already completed a phase. An abort during conversion discards the
+	 * modules converted so far, as the next compile converts every source
+	 * again; their parsed ASTs are kept.</p>
+	 */
+	public void setCancellationCheck(BooleanSupplier cancellationCheck) {
+		this.cancellationCheck = cancellationCheck;
+	}
+
+	/**
+	 * Throws if the cancellation check installed via
+	 * {@link #setCancellationCheck} reports that this compilation is no
+	 * longer wanted.
+	 */
+	public void checkCancelled() throws CompilationCancelledException {
+		BooleanSupplier check = cancellationCheck;
+		if (check != null && check.getAsBoolean()) {
+			throw new CompilationCancelledException(phase, this);
+		}
+	}
+
+	/**
+	 * Sets the executor whose tasks help the compiling thread build the
+	 * ASTs of uncached sources, on up to {@code helpers} tasks; {@code null}
+	 * builds them on the compiling thread only. The helpers run while the
+	 * compiling thread holds its compilation permit and are waited for
+	 * before conversion starts.
+	 */
+	public void setParseExecutor(Executor executor, int helpers) {
+		this.parseHelpers = helpers;
+		this.parseExecutor = executor;
 	}
 
 	public void setErrorCollector(LanguageServerErrorCollector errorCollector) {
@@ -74,4 +234,79 @@ public class GroovyLSCompilationUnit extends CompilationUnit {
 	public void removeSource(SourceUnit sourceUnit) {
 		removeSources(Collections.singletonList(sourceUnit));
 	}
+
+	/** Hands out the sources of one {@link #buildMissingASTs} run to the threads building them. */
+	private final class ParallelParse {
+		private final List<SourceUnit> sources;
+		private int next;
+		private int running;
+		private boolean finished;
+		private RuntimeException runtimeFailure;
+		private Error errorFailure;
+
+		ParallelParse(List<SourceUnit> sources) {
+			this.sources = sources;
+		}
+
+		/** Builds sources until none are left, one failed or the run finished. */
+		void drain() {
+			SourceUnit source;
+			while ((source = take()) != null) {
+				RuntimeException runtimeException = null;
+				Error error = null;
+				try {
+					checkCancelled();
+					source.buildAST();
+				} catch (RuntimeException e) {
+					runtimeException = e;
+				} catch (Error e) {
+					error = e;
+				} finally {
+					done(runtimeException, error);
+				}
+			}
+		}
+
+		/**
+		 * Waits for the helpers still building a source and rethrows the
+		 * first failure. Helpers that start later find nothing to do.
+		 */
+		synchronized void finish() {
+			finished = true;
+			boolean interrupted = false;
+			while (running > 0) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (errorFailure != null) {
+				throw errorFailure;
+			}
+			if (runtimeFailure != null) {
+				throw runtimeFailure;
+			}
+		}
+
+		private synchronized SourceUnit take() {
+			if (finished || runtimeFailure != null || errorFailure != null || next >= sources.size()) {
+				return null;
+			}
+			running++;
+			return sources.get(next++);
+		}
+
+		private synchronized void done(RuntimeException runtimeException, Error error) {
+			running--;
+			if (runtimeFailure == null && errorFailure == null) {
+				runtimeFailure = runtimeException;
+				errorFailure = error;
+			}
+			notifyAll();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.groovy.parser.antlr4.GroovyParser;
+import org.codehaus.groovy.control.CompilerConfiguration;
+
+import groovy.lang.GroovySystem;
+import groovyjarjarantlr4.v4.runtime.tree.ParseTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide cache of Groovy parse trees, keyed by the SHA-256 of the
+ * source text, the Groovy version and the parser settings. When a full
+ * recompile needs a new compilation unit (after a classpath change, for
+ * example), the AST of each unchanged file is built from its cached parse
+ * tree instead of lexing and parsing the file again.
+ *
+ * <p>The AST itself cannot be cached, as the phases after conversion modify
+ * it; building it from the parse tree is a small part of the cost of
+ * parsing. Entries are weighed by their source length and evicted least
+ * recently used first. A tree is lent out exclusively: {@link #take}
+ * removes it and {@link #put} returns it once its AST is built, because
+ * the AST builder keeps node metadata on the tree.</p>
+ */
+public class ParseTreeCache {
+	private static final Logger logger = LoggerFactory.getLogger(ParseTreeCache.class);
+
+	/**
+	 * Estimated heap bytes of a parse tree, with its tokens, per source
+	 * character; about 115 were measured for typical class sources.
+	 */
+	static final int BYTES_PER_SOURCE_CHAR = 120;
+
+	/** Share of the maximum heap the default instance may use. */
+	private static final int HEAP_SHARE_DIVISOR = 16;
+
+	private static final long MAX_DEFAULT_WEIGHT = 256L * 1024 * 1024;
+
+	private static final ParseTreeCache INSTANCE = new ParseTreeCache(
+			Math.min(MAX_DEFAULT_WEIGHT, Runtime.getRuntime().maxMemory() / HEAP_SHARE_DIVISOR));
+
+	private final long maxWeight;
+	private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private long weight;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maxWeight the estimated heap bytes the cached trees may use
+	 */
+	public ParseTreeCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+	}
+
+	public static ParseTreeCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the cache key of {@code source} parsed with {@code config}, or
+	 * {@code null} if it cannot be computed.
+	 */
+	static String keyOf(String source, CompilerConfiguration config) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+		String hash = Base64.getEncoder().withoutPadding()
+				.encodeToString(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+		return GroovySystem.getVersion()
+				+ (config.isGroovydocEnabled() ? ":doc" : ":")
+				+ (config.isRuntimeGroovydocEnabled() ? ":rtdoc" : ":")
+				+ (config.isPreviewFeatures() ? ":preview:" : "::")
+				+ hash;
+	}
+
+	/**
+	 * Removes and returns the tree cached under {@code key}, or returns
+	 * {@code null} on a miss.
+	 */
+	synchronized GroovyParser.CompilationUnitContext take(String key) {
+		Entry entry = entries.remove(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		weight -= entry.weight;
+		return entry.tree;
+	}
+
+	/**
+	 * Caches the tree of a source of {@code sourceLength} characters, after
+	 * its AST was built. Evicts the least recently used trees above the
+	 * maximum weight.
+	 */
+	void put(String key, GroovyParser.CompilationUnitContext tree, int sourceLength) {
+		long entryWeight = (long) sourceLength * BYTES_PER_SOURCE_CHAR;
+		if (entryWeight > maxWeight) {
+			return;
+		}
+		// Drop the metadata of the last AST build, which references its nodes
+		clearMetaData(tree);
+		synchronized (this) {
+			Entry previous = entries.put(key, new Entry(tree, entryWeight));
+			if (previous != null) {
+				weight -= previous.weight;
+			}
+			weight += entryWeight;
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (weight > maxWeight && eldest.hasNext()) {
+				weight -= eldest.next().weight;
+				eldest.remove();
+			}
+		}
+	}
+
+	/** Drops all cached trees, e.g. under memory pressure. */
+	public void clear() {
+		int cleared;
+		synchronized (this) {
+			cleared = entries.size();
+			entries.clear();
+			weight = 0;
+		}
+		if (cleared > 0) {
+			logger.info("Cleared {} cached parse trees", cleared);
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** Returns the estimated heap bytes of the cached trees. */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	private static void clearMetaData(ParseTree tree) {
+		Deque<ParseTree> pending = new ArrayDeque<>();
+		pending.push(tree);
+		while (!pending.isEmpty()) {
+			ParseTree node = pending.pop();
+			if (node instanceof GroovyParser.GroovyParserRuleContext) {
+				((GroovyParser.GroovyParserRuleContext) node).setMetaDataMap(null);
+			}
+			for (int i = 0; i < node.getChildCount(); i++) {
+				pending.push(node.getChild(i));
+			}
+		}
+	}
+
+	private static final class Entry {
+		final GroovyParser.CompilationUnitContext tree;
+		final long weight;
+
+		Entry(GroovyParser.CompilationUnitContext tree, long weight) {
+			this.tree = tree;
+			this.weight = weight;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.ClassNodeResolver;
+import org.codehaus.groovy.control.CompilationUnit;
+
+/**
+ * Resolves the classes of already compiled partitions of a project to their
+ * resolved {@link ClassNode}s, so that a partition references them as
+ * compiled stubs instead of recompiling their sources. Other names resolve
+ * as usual, against the class loader.
+ *
+ * <p>The map is shared by all partitions of one compilation and filled as
+ * partitions complete; a partition only starts once the partitions it
+ * depends on are in it.</p>
+ */
+public class PartitionClassNodeResolver extends ClassNodeResolver {
+	private final Map<String, ClassNode> compiledClasses;
+
+	/**
+	 * @param compiledClasses the classes of the completed partitions, by
+	 *                        name; read concurrently
+	 */
+	public PartitionClassNodeResolver(Map<String, ClassNode> compiledClasses) {
+		this.compiledClasses = compiledClasses;
+	}
+
+	@Override
+	public LookupResult resolveName(String name, CompilationUnit compilationUnit) {
+		ClassNode compiled = compiledClasses.get(name);
+		if (compiled != null) {
+			return new LookupResult(null, compiled);
+		}
+		return super.resolveName(name, compilationUnit);
+	}
+}
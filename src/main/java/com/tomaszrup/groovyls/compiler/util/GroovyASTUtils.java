@@ -20,6 +20,7 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls.compiler.util;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -55,6 +56,7 @@ import org.eclipse.lsp4j.Range;
 
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 
 public class GroovyASTUtils {
     private static final String JAVA_LANG_OBJECT = "java.lang.Object";
@@ -164,33 +166,55 @@ public class GroovyASTUtils {
             return Collections.emptyList();
         }
 
-        // Use the lazily-built reference index (O(1) lookup) instead of
-        // scanning all AST nodes on every "Find References" request.
-        Map<ASTNode, List<ASTNode>> index = ast.getReferenceIndex();
-        if (index == null) {
-            index = buildReferenceIndex(ast);
-            ast.setReferenceIndex(index);
+        // The reference index is partitioned by the URI of the referencing
+        // nodes. Partitions are built lazily and survive incremental compiles
+        // unless their file or a file they reference was re-visited.
+        List<ASTNode> references = new ArrayList<>();
+        for (URI uri : ast.getURIs()) {
+            List<ASTNode> refs = getReferencePartition(uri, ast).get(definitionNode);
+            if (refs != null) {
+                references.addAll(refs);
+            }
         }
-        List<ASTNode> refs = index.get(definitionNode);
-        return refs != null ? refs : Collections.emptyList();
+        return references;
+    }
+
+    /**
+     * Returns the reference partition of {@code uri}, building it if this
+     * snapshot doesn't have it yet: each definition referenced from the
+     * file, mapped to its referencing nodes in the file.
+     */
+    public static Map<ASTNode, List<ASTNode>> getReferencePartition(URI uri, ASTNodeVisitor ast) {
+        Map<ASTNode, List<ASTNode>> partition = ast.getReferencePartition(uri);
+        return partition != null ? partition : buildReferencePartition(uri, ast);
     }
 
     /**
-     * Builds a reverse index mapping each definition node to its list of
-     * referencing AST nodes. Called once per AST snapshot and cached.
+     * Builds the reference partition of {@code uri}: each definition
+     * referenced from the file, mapped to its referencing nodes in the file.
+     * Stored on the snapshot only when complete, so a cancelled build leaves
+     * no partial partition.
      */
-    private static Map<ASTNode, List<ASTNode>> buildReferenceIndex(ASTNodeVisitor ast) {
-        Map<ASTNode, List<ASTNode>> index = new HashMap<>();
-        for (ASTNode otherNode : ast.getNodes()) {
+    private static Map<ASTNode, List<ASTNode>> buildReferencePartition(URI uri, ASTNodeVisitor ast) {
+        Map<ASTNode, List<ASTNode>> partition = new HashMap<>();
+        Set<URI> definitionURIs = new HashSet<>();
+        int visited = 0;
+        for (ASTNode otherNode : ast.getNodes(uri)) {
+            RequestCancellation.checkCanceled(++visited);
             if (otherNode.getLineNumber() == -1 || otherNode.getColumnNumber() == -1) {
                 continue;
             }
             ASTNode def = getDefinition(otherNode, false, ast);
             if (def != null) {
-                index.computeIfAbsent(def, k -> new ArrayList<>()).add(otherNode);
+                partition.computeIfAbsent(def, k -> new ArrayList<>()).add(otherNode);
+                URI definitionURI = ast.getURI(def);
+                if (definitionURI != null) {
+                    definitionURIs.add(definitionURI);
+                }
             }
         }
-        return index;
+        ast.setReferencePartition(uri, partition, definitionURIs);
+        return partition;
     }
 
     private static ClassNode tryToResolveOriginalClassNode(ClassNode node, boolean strict, ASTNodeVisitor ast) {
@@ -597,7 +597,13 @@ public class ClasspathCache {
 
     // ---- Hashing helpers ----
 
-    static String sha256Hex(byte[] data) {
+    /** Returns the lower-case hex SHA-256 of the UTF-8 encoding of {@code value}. */
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns the lower-case hex SHA-256 of {@code data}. */
+    public static String sha256Hex(byte[] data) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
             byte[] digest = md.digest(data);
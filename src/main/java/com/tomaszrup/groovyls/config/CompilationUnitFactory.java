@@ -44,20 +44,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import groovy.lang.GroovyClassLoader;
+import com.tomaszrup.groovyls.compiler.control.CachingParserPluginFactory;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.ParseTreeCache;
 import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
+import com.tomaszrup.groovyls.util.InternRegistry;
 
 public class CompilationUnitFactory implements ICompilationUnitFactory {
 	private static final Logger logger = LoggerFactory.getLogger(CompilationUnitFactory.class);
 	private static final String FILE_EXTENSION_GROOVY = ".groovy";
 
 	/**
-	 * Maximum number of source files to include in a full compilation unit.
-	 * When a project has more .groovy files than this, only open files and
-	 * files in the same packages as open files are compiled, plus files up
-	 * to this limit. This bounds peak AST memory and prevents OOM in very
-	 * large projects.
+	 * Default maximum number of source files to include in a full
+	 * compilation unit. When a project has more .groovy files than this,
+	 * {@link #create} only adds open files and files in the same packages
+	 * as open files, plus files up to this limit, and the project is
+	 * compiled in partitions instead (see {@link #getPartitionedSources}).
+	 * This bounds peak AST memory and prevents OOM in very large projects.
 	 */
 	private static final int MAX_FULL_COMPILATION_FILES = 500;
 
@@ -96,6 +100,8 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 
 	private List<Path> excludedSubRoots = new ArrayList<>();
 
+	private int maxFullCompilationFiles = MAX_FULL_COMPILATION_FILES;
+
 	/**
 	 * Cached result of resolving {@link #additionalClasspathList} entries
 	 * against the filesystem (existence checks, directory expansion, etc.).
@@ -130,6 +136,16 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 		this.javaStubGenerator = projectRoot != null ? new JavaSourceStubGenerator(projectRoot) : null;
 	}
 
+	@Override
+	public int getMaxFullCompilationFiles() {
+		return maxFullCompilationFiles;
+	}
+
+	/** Overrides the {@linkplain #MAX_FULL_COMPILATION_FILES default} full unit limit. */
+	public void setMaxFullCompilationFiles(int maxFullCompilationFiles) {
+		this.maxFullCompilationFiles = maxFullCompilationFiles;
+	}
+
 	public void setExcludedSubRoots(List<Path> excludedSubRoots) {
 		this.excludedSubRoots = excludedSubRoots != null ? excludedSubRoots : new ArrayList<>();
 		logger.debug("Set excludedSubRoots: {}", this.excludedSubRoots);
@@ -409,12 +425,35 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 		}
 	}
 
+	@Override
+	public Set<URI> getPartitionedSources(Path workspaceRoot, FileContentsTracker fileContentsTracker) {
+		if (workspaceRoot == null) {
+			return null;
+		}
+		Set<Path> groovyFiles = getOrBuildFileCache(workspaceRoot);
+		if (groovyFiles.size() <= maxFullCompilationFiles) {
+			return null;
+		}
+		Set<URI> sources = new HashSet<>();
+		for (Path filePath : groovyFiles) {
+			sources.add(InternRegistry.intern(filePath.toUri()));
+		}
+		Path normalizedDir = workspaceRoot.normalize();
+		for (URI uri : fileContentsTracker.getOpenURIs()) {
+			if (isOpenSourceInDirectory(uri, workspaceRoot, normalizedDir)) {
+				sources.add(uri);
+			}
+		}
+		return sources;
+	}
+
 	protected CompilerConfiguration getConfiguration() {
 		CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
 
 		Map<String, Boolean> optimizationOptions = new HashMap<>();
 		optimizationOptions.put(CompilerConfiguration.GROOVYDOC, true);
 		compilerConfiguration.setOptimizationOptions(optimizationOptions);
+		compilerConfiguration.setPluginFactory(new CachingParserPluginFactory(ParseTreeCache.getInstance()));
 
 		List<String> classpathList = new ArrayList<>();
 		getClasspathList(classpathList);
@@ -595,7 +634,7 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 
 		// Collect open file packages to prioritize related files when the
 		// project exceeds MAX_FULL_COMPILATION_FILES
-		boolean needsLimiting = groovyFiles.size() > MAX_FULL_COMPILATION_FILES;
+		boolean needsLimiting = groovyFiles.size() > maxFullCompilationFiles;
 		Set<String> openPackageDirs = collectOpenPackageDirs(fileContentsTracker, needsLimiting, dirPath,
 				groovyFiles.size());
 
@@ -615,8 +654,8 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 		if (!needsLimiting) {
 			return openPackageDirs;
 		}
-		logger.warn("Project {} has {} .groovy files (limit {}). Prioritizing open file packages to reduce memory usage.",
-				dirPath, groovyFileCount, MAX_FULL_COMPILATION_FILES);
+		logger.debug("Project {} has {} .groovy files (limit {}). Full unit limited to open file packages; "
+				+ "the project compiles in partitions.", dirPath, groovyFileCount, maxFullCompilationFiles);
 		fileContentsTracker.getOpenURIs().forEach(uri -> {
 			Path openPath = toFilePath(uri);
 			if (openPath != null && openPath.getParent() != null) {
@@ -651,9 +690,9 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 			GroovyLSCompilationUnit compilationUnit, int alreadyAddedCount) {
 		int addedCount = 0;
 		for (Path filePath : groovyFiles) {
-			if (needsLimiting && alreadyAddedCount + addedCount >= MAX_FULL_COMPILATION_FILES) {
-				logger.warn("Reached file limit of {}. {} files excluded from compilation.",
-						MAX_FULL_COMPILATION_FILES, groovyFiles.size() - (alreadyAddedCount + addedCount));
+			if (needsLimiting && alreadyAddedCount + addedCount >= maxFullCompilationFiles) {
+				logger.debug("Reached file limit of {}. {} files excluded from the full unit.",
+						maxFullCompilationFiles, groovyFiles.size() - (alreadyAddedCount + addedCount));
 				break;
 			}
 			if (shouldAddInRemainingPass(filePath, fileContentsTracker, changedUris, needsLimiting, openPackageDirs)
@@ -688,20 +727,7 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 			GroovyLSCompilationUnit compilationUnit, FileContentsTracker fileContentsTracker,
 			Set<URI> changedUris) {
 		fileContentsTracker.getOpenURIs().forEach(uri -> {
-			Path openPath = toFilePath(uri);
-			if (openPath == null || !openPath.normalize().startsWith(normalizedDir)) {
-				return;
-			}
-			if (isInsideExcludedDirectory(openPath, dirPath)) {
-				logger.debug("  Excluded open file (dir): {}", openPath);
-				return;
-			}
-			if (isInsideExcludedSubRoot(openPath)) {
-				logger.debug("  Excluded open file (subproject): {}", openPath);
-				return;
-			}
-			if (isInsideSeparateProject(openPath, normalizedDir)) {
-				logger.debug("  Excluded open file (separate project): {}", openPath);
+			if (!isOpenSourceInDirectory(uri, dirPath, normalizedDir)) {
 				return;
 			}
 			if (changedUris != null && !changedUris.contains(uri)) {
@@ -711,6 +737,26 @@ public class CompilationUnitFactory implements ICompilationUnitFactory {
 		});
 	}
 
+	private boolean isOpenSourceInDirectory(URI uri, Path dirPath, Path normalizedDir) {
+		Path openPath = toFilePath(uri);
+		if (openPath == null || !openPath.normalize().startsWith(normalizedDir)) {
+			return false;
+		}
+		if (isInsideExcludedDirectory(openPath, dirPath)) {
+			logger.debug("  Excluded open file (dir): {}", openPath);
+			return false;
+		}
+		if (isInsideExcludedSubRoot(openPath)) {
+			logger.debug("  Excluded open file (subproject): {}", openPath);
+			return false;
+		}
+		if (isInsideSeparateProject(openPath, normalizedDir)) {
+			logger.debug("  Excluded open file (separate project): {}", openPath);
+			return false;
+		}
+		return true;
+	}
+
 	private Path toFilePath(URI uri) {
 		try {
 			if (uri == null || uri.getScheme() == null || !"file".equalsIgnoreCase(uri.getScheme())) {
@@ -129,4 +129,25 @@ public interface ICompilationUnitFactory {
 		// Default: not supported — caller should fall back to full compilation
 		return null;
 	}
+
+	/**
+	 * Returns all source files of the project when it has more than
+	 * {@link #getMaxFullCompilationFiles()} of them, in which case
+	 * {@link #create} covers only part of the project and the caller should
+	 * compile it in partitions of units from {@link #createIncremental}.
+	 *
+	 * @return the project's source files, or {@code null} when
+	 *         {@link #create} covers the whole project
+	 */
+	default Set<URI> getPartitionedSources(Path workspaceRoot, FileContentsTracker fileContentsTracker) {
+		return null;
+	}
+
+	/**
+	 * Maximum number of source files in one full compilation unit, which
+	 * also bounds the size of a partition.
+	 */
+	default int getMaxFullCompilationFiles() {
+		return Integer.MAX_VALUE;
+	}
 }
\ No newline at end of file
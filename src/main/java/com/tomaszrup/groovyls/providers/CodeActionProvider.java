@@ -73,13 +73,6 @@ public class CodeActionProvider {
         this.javaSourceLocator = javaSourceLocator;
     }
 
-    private List<ClasspathSymbolIndex.Symbol> getFilteredClasses() {
-        if (classpathSymbolIndex == null) {
-            return Collections.emptyList();
-        }
-        return classpathSymbolIndex.getSymbols(classpathSymbolClasspathElements);
-    }
-
     public CompletableFuture<List<Either<Command, CodeAction>>> provideCodeActions(CodeActionParams params) {
         URI uri = URI.create(params.getTextDocument().getUri());
         List<Either<Command, CodeAction>> codeActions = new ArrayList<>();
@@ -202,12 +195,11 @@ public class CodeActionProvider {
             return;
         }
 
-        for (ClasspathSymbolIndex.Symbol classSymbol : getFilteredClasses()) {
-            if (classSymbol.getSimpleName().equals(unresolvedClassName)) {
-                String fullyQualifiedName = classSymbol.getName();
-                if (shouldAddImportCandidate(fullyQualifiedName, currentPackage, seenFqcns)) {
-                    candidatePriorities.put(fullyQualifiedName, IMPORT_PRIORITY_CLASSPATH);
-                }
+        for (ClasspathSymbolIndex.Symbol classSymbol : classpathSymbolIndex.getSymbolsBySimpleName(
+                unresolvedClassName, classpathSymbolClasspathElements)) {
+            String fullyQualifiedName = classSymbol.getName();
+            if (shouldAddImportCandidate(fullyQualifiedName, currentPackage, seenFqcns)) {
+                candidatePriorities.put(fullyQualifiedName, IMPORT_PRIORITY_CLASSPATH);
             }
         }
     }
@@ -218,8 +210,7 @@ public class CodeActionProvider {
             return;
         }
 
-        ast.getClassNodes().stream()
-                .filter(classNode -> classNode.getNameWithoutPackage().equals(unresolvedClassName))
+        ast.getClassNodesBySimpleName(unresolvedClassName).stream()
                 .filter(classNode -> classNode.getPackageName() != null && !classNode.getPackageName().isEmpty())
                 .forEach(classNode -> {
                     String fullyQualifiedName = classNode.getName();
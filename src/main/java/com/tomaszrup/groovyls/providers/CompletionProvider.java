@@ -25,9 +25,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.codehaus.groovy.ast.ASTNode;
@@ -67,6 +70,7 @@ import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
 import com.tomaszrup.groovyls.compiler.util.GroovydocUtils;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
 import com.tomaszrup.groovyls.util.GroovyNodeToStringUtils;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 
 public class CompletionProvider {
 	private ASTNodeVisitor ast;
@@ -78,29 +82,37 @@ public class CompletionProvider {
 	 * always included.
 	 */
 	private java.util.Set<String> classpathSymbolClasspathElements;
+	/**
+	 * Types used recently in this session, ranked first by type completion.
+	 * May be {@code null}.
+	 */
+	private TypeUsageHistory typeUsageHistory;
 	private int maxItemCount = 1000;
 	private boolean isIncomplete = false;
 
+	/**
+	 * Prefix of the {@code sortText} of ranked type items: they sort in rank
+	 * order, after unranked items (which sort by label).
+	 */
+	private static final String TYPE_SORT_PREFIX = "~";
+	/** Candidates visited between checks for request cancellation. */
+	private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
 	public CompletionProvider(ASTNodeVisitor ast, ClasspathSymbolIndex classpathSymbolIndex) {
 		this(ast, classpathSymbolIndex, null);
 	}
 
 	public CompletionProvider(ASTNodeVisitor ast, ClasspathSymbolIndex classpathSymbolIndex,
 			java.util.Set<String> classpathSymbolClasspathElements) {
+		this(ast, classpathSymbolIndex, classpathSymbolClasspathElements, null);
+	}
+
+	public CompletionProvider(ASTNodeVisitor ast, ClasspathSymbolIndex classpathSymbolIndex,
+			java.util.Set<String> classpathSymbolClasspathElements, TypeUsageHistory typeUsageHistory) {
 		this.ast = ast;
 		this.classpathSymbolIndex = classpathSymbolIndex;
 		this.classpathSymbolClasspathElements = classpathSymbolClasspathElements;
-	}
-
-	/**
-	 * Returns the list of all classes from the scan result, filtered by
-	 * the scope's classpath files if this is a shared superset scan.
-	 */
-	private List<ClasspathSymbolIndex.Symbol> getFilteredClasses() {
-		if (classpathSymbolIndex == null) {
-			return Collections.emptyList();
-		}
-		return classpathSymbolIndex.getSymbols(classpathSymbolClasspathElements);
+		this.typeUsageHistory = typeUsageHistory;
 	}
 
 	public CompletableFuture<Either<List<CompletionItem>, CompletionList>> provideCompletion(
@@ -211,7 +223,6 @@ public class CompletionProvider {
 		if (classpathSymbolIndex == null) {
 			return;
 		}
-		List<ClasspathSymbolIndex.Symbol> classes = getFilteredClasses();
 		Set<String> packages = classpathSymbolIndex.getPackageNames();
 
 		List<CompletionItem> packageItems = packages.stream().filter(packageName -> packageName.startsWith(importText))
@@ -224,15 +235,22 @@ public class CompletionProvider {
 		}).collect(Collectors.toList());
 		items.addAll(packageItems);
 
-		List<CompletionItem> classItems = classes.stream().filter(classSymbol -> {
-			String packageName = classSymbol.getPackageName();
-			if (!isImportablePackage(packageName, enclosingPackageName)) {
-				return false;
+		RequestCancellation.checkCanceled();
+		// Classes whose name or simple name starts with the text are two
+		// ranges of the index's sorted orders; the rest isn't visited
+		Map<String, ClasspathSymbolIndex.Symbol> matchingClasses = new LinkedHashMap<>();
+		Predicate<ClasspathSymbolIndex.Symbol> collector = classSymbol -> {
+			if (matchesImportPrefix(importText, classSymbol.getName(), classSymbol.getSimpleName())) {
+				matchingClasses.putIfAbsent(classSymbol.getName(), classSymbol);
 			}
-			String className = classSymbol.getName();
-			String classNameWithoutPackage = classSymbol.getSimpleName();
-			boolean nameMatches = matchesImportPrefix(importText, className, classNameWithoutPackage);
-			return nameMatches && !importNames.contains(className);
+			return true;
+		};
+		classpathSymbolIndex.forEachTypeWithNamePrefix(importText, classpathSymbolClasspathElements, collector);
+		classpathSymbolIndex.forEachTypeMatching(importText, classpathSymbolClasspathElements, collector);
+		List<CompletionItem> classItems = matchingClasses.values().stream().filter(classSymbol -> {
+			String packageName = classSymbol.getPackageName();
+			return isImportablePackage(packageName, enclosingPackageName)
+					&& !importNames.contains(classSymbol.getName());
 		}).map(classSymbol -> {
 			CompletionItem item = new CompletionItem();
 			item.setLabel(classSymbol.getName());
@@ -437,71 +455,77 @@ public class CompletionProvider {
 		ModuleNode enclosingModule = (ModuleNode) GroovyASTUtils.getEnclosingNodeOfType(offsetNode, ModuleNode.class,
 				ast);
 		String enclosingPackageName = enclosingModule != null ? enclosingModule.getPackageName() : null;
-		List<String> importNames = enclosingModule != null
-				? enclosingModule.getImports().stream().map(ImportNode::getClassName)
-						.collect(Collectors.toList())
-				: Collections.emptyList();
+		Set<String> importNames = new HashSet<>();
+		Set<String> importedPackageNames = new HashSet<>();
+		if (enclosingModule != null) {
+			for (ImportNode importNode : enclosingModule.getImports()) {
+				importNames.add(importNode.getClassName());
+				importedPackageNames.add(importNode.getType().getPackageName());
+			}
+			for (ImportNode importNode : enclosingModule.getStarImports()) {
+				importedPackageNames.add(trimTrailingDot(importNode.getPackageName()));
+			}
+		}
 
-		List<CompletionItem> localClassItems = ast.getClassNodes().stream().filter(classNode ->
-				shouldIncludeTypeByName(classNode.getNameWithoutPackage(), classNode.getName(), namePrefix,
-						existingNames))
-				.map(classNode -> {
-			String className = classNode.getName();
-			String packageName = classNode.getPackageName();
-			CompletionItem item = new CompletionItem();
-			item.setLabel(classNode.getNameWithoutPackage());
-			item.setKind(GroovyLanguageServerUtils.astNodeToCompletionItemKind(classNode));
-			item.setDetail(packageName);
-			// Documentation deferred to completionItem/resolve
-			if (packageName != null && !packageName.equals(enclosingPackageName) && !importNames.contains(className)) {
-				List<TextEdit> additionalTextEdits = new ArrayList<>();
-				TextEdit addImportEdit = createAddImportTextEdit(className, addImportRange);
-				additionalTextEdits.add(addImportEdit);
-				item.setAdditionalTextEdits(additionalTextEdits);
+		TypeCompletionRanker ranker = new TypeCompletionRanker(namePrefix, enclosingPackageName, importNames,
+				importedPackageNames, typeUsageHistory, maxItemCount - items.size());
+		for (ClassNode classNode : ast.getClassNodes()) {
+			String simpleName = classNode.getNameWithoutPackage();
+			if (ClasspathSymbolIndex.matchesTypeName(simpleName, namePrefix)
+					&& existingNames.add(classNode.getName())) {
+				ranker.offer(simpleName, classNode.getName(), classNode.getPackageName(),
+						GroovyLanguageServerUtils.astNodeToCompletionItemKind(classNode), true, false);
 			}
-			return item;
-		}).collect(Collectors.toList());
-		items.addAll(localClassItems);
+		}
 
-		if (classpathSymbolIndex == null) {
-			return;
+		if (classpathSymbolIndex != null) {
+			RequestCancellation.checkCanceled();
+			// Only symbols matching the prefix are visited, not the whole classpath
+			int[] visited = new int[1];
+			classpathSymbolIndex.forEachTypeMatching(namePrefix, classpathSymbolClasspathElements, classSymbol -> {
+				if (++visited[0] % CANCELLATION_CHECK_INTERVAL == 0) {
+					RequestCancellation.checkCanceled();
+				}
+				if (existingNames.add(classSymbol.getName())) {
+					ranker.offer(classSymbol.getSimpleName(), classSymbol.getName(), classSymbol.getPackageName(),
+							classSymbolToCompletionItemKind(classSymbol), false,
+							classSymbol.getClasspathElementPath() == null);
+				}
+				return true;
+			});
 		}
-		List<ClasspathSymbolIndex.Symbol> classes = getFilteredClasses();
 
-		List<CompletionItem> classItems = classes.stream().filter(classSymbol ->
-				shouldIncludeTypeByName(classSymbol.getSimpleName(), classSymbol.getName(), namePrefix, existingNames))
-				.map(classSymbol -> {
-			String className = classSymbol.getName();
-			String packageName = classSymbol.getPackageName();
+		int rank = 0;
+		for (TypeCompletionRanker.Candidate candidate : ranker.getRanked()) {
+			String packageName = candidate.packageName;
 			CompletionItem item = new CompletionItem();
-			item.setLabel(classSymbol.getSimpleName());
+			item.setLabel(candidate.simpleName);
+			item.setKind(candidate.kind);
 			item.setDetail(packageName);
-			item.setKind(classSymbolToCompletionItemKind(classSymbol));
-			if (packageName != null && !packageName.equals(enclosingPackageName) && !importNames.contains(className)) {
+			item.setSortText(String.format("%s%05d", TYPE_SORT_PREFIX, rank++));
+			// Documentation deferred to completionItem/resolve
+			if (packageName != null && !packageName.isEmpty() && !packageName.equals(enclosingPackageName)
+					&& !importNames.contains(candidate.className)) {
 				List<TextEdit> additionalTextEdits = new ArrayList<>();
-				TextEdit addImportEdit = createAddImportTextEdit(className, addImportRange);
+				TextEdit addImportEdit = createAddImportTextEdit(candidate.className, addImportRange);
 				additionalTextEdits.add(addImportEdit);
 				item.setAdditionalTextEdits(additionalTextEdits);
 			}
-			return item;
-		}).collect(Collectors.toList());
-		items.addAll(classItems);
-	}
-
-	private boolean shouldIncludeTypeByName(String simpleName, String fullName, String namePrefix,
-			Set<String> existingNames) {
-		if (isIncomplete) {
-			return false;
+			items.add(item);
 		}
-		if (existingNames.size() >= maxItemCount) {
+		if (ranker.isTruncated()) {
 			isIncomplete = true;
-			return false;
 		}
-		if (!simpleName.startsWith(namePrefix) || existingNames.contains(fullName)) {
-			return false;
+		if (typeUsageHistory != null) {
+			typeUsageHistory.recordUses(importNames);
+		}
+	}
+
+	private static String trimTrailingDot(String packageName) {
+		if (packageName != null && packageName.endsWith(".")) {
+			return packageName.substring(0, packageName.length() - 1);
 		}
-		existingNames.add(fullName);
-		return true;
+		return packageName;
 	}
 
 	private String getMemberName(String memberName, Range range, Position position) {
@@ -37,6 +37,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 
 public class ImplementationProvider {
     private ASTNodeVisitor ast;
@@ -80,6 +81,7 @@ public class ImplementationProvider {
     private List<Location> findClassImplementations(ClassNode targetClass) {
         List<Location> locations = new ArrayList<>();
         for (ClassNode classNode : ast.getClassNodes()) {
+            RequestCancellation.checkCanceled();
             if (classNode.equals(targetClass)) {
                 continue;
             }
@@ -102,6 +104,7 @@ public class ImplementationProvider {
         int targetParameterCount = targetMethod.getParameters().length;
 
         for (ClassNode classNode : ast.getClassNodes()) {
+            RequestCancellation.checkCanceled();
             if (!isMethodOwnerCandidate(classNode, declaringClass)) {
                 continue;
             }
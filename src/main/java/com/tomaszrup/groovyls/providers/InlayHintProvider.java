@@ -47,6 +47,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 
 /**
  * Provides inlay hints for Groovy source files. Inlay hints are inline
@@ -86,7 +87,9 @@ public class InlayHintProvider {
 
         List<InlayHint> hints = new ArrayList<>();
 
+        int visited = 0;
         for (ASTNode node : nodes) {
+            RequestCancellation.checkCanceled(++visited);
             if (isNodeVisible(node, visibleRange)) {
                 addHintsForNode(node, hints);
             }
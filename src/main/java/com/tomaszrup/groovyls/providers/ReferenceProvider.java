@@ -21,9 +21,13 @@
 package com.tomaszrup.groovyls.providers;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -32,15 +36,30 @@ import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
 import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
 
 public class ReferenceProvider {
 	private ASTNodeVisitor ast;
+	private WorkspaceReferenceIndex workspaceIndex;
+	private Path scopeRoot;
 
 	public ReferenceProvider(ASTNodeVisitor ast) {
+		this(ast, null, null);
+	}
+
+	/**
+	 * @param workspaceIndex index of the usages in other scopes, or
+	 *                       {@code null} to search {@code ast} only
+	 * @param scopeRoot      root of the scope that owns {@code ast}; its
+	 *                       entries in the workspace index are skipped
+	 */
+	public ReferenceProvider(ASTNodeVisitor ast, WorkspaceReferenceIndex workspaceIndex, Path scopeRoot) {
 		this.ast = ast;
+		this.workspaceIndex = workspaceIndex;
+		this.scopeRoot = scopeRoot;
 	}
 
 	public CompletableFuture<List<Location>> provideReferences(TextDocumentIdentifier textDocument,
@@ -60,8 +79,30 @@ public class ReferenceProvider {
 		List<Location> locations = references.stream().map(node -> {
 			URI uri = ast.getURI(node);
 			return GroovyLanguageServerUtils.astNodeToLocation(node, uri);
-		}).filter(Objects::nonNull).collect(Collectors.toList());
+		}).filter(Objects::nonNull).collect(Collectors.toCollection(ArrayList::new));
+
+		// Usages in sibling scopes, without compiling them
+		Set<Location> seen = new HashSet<>(locations);
+		for (WorkspaceReferenceIndex.Usage usage : findUsagesInOtherScopes(offsetNode)) {
+			Location location = usage.toLocation();
+			if (seen.add(location)) {
+				locations.add(location);
+			}
+		}
 
 		return CompletableFuture.completedFuture(locations);
 	}
+
+	private List<WorkspaceReferenceIndex.Usage> findUsagesInOtherScopes(ASTNode offsetNode) {
+		if (workspaceIndex == null) {
+			return Collections.emptyList();
+		}
+		// Not strict: a class of a sibling project is a classpath class here
+		String signature = WorkspaceReferenceIndex.signatureOf(
+				GroovyASTUtils.getDefinition(offsetNode, false, ast));
+		if (signature == null) {
+			return Collections.emptyList();
+		}
+		return workspaceIndex.findUsages(signature, scopeRoot);
+	}
 }
\ No newline at end of file
@@ -21,6 +21,7 @@
 package com.tomaszrup.groovyls.providers;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +53,7 @@ import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Either3;
 
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.util.GroovyASTUtils;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
@@ -61,10 +63,25 @@ import com.tomaszrup.lsp.utils.Ranges;
 public class RenameProvider {
 	private ASTNodeVisitor ast;
 	private FileContentsTracker files;
+	private WorkspaceReferenceIndex workspaceIndex;
+	private Path scopeRoot;
 
 	public RenameProvider(ASTNodeVisitor ast, FileContentsTracker files) {
+		this(ast, files, null, null);
+	}
+
+	/**
+	 * @param workspaceIndex index of the usages in other scopes, or
+	 *                       {@code null} to rename within {@code ast} only
+	 * @param scopeRoot      root of the scope that owns {@code ast}; its
+	 *                       entries in the workspace index are skipped
+	 */
+	public RenameProvider(ASTNodeVisitor ast, FileContentsTracker files,
+			WorkspaceReferenceIndex workspaceIndex, Path scopeRoot) {
 		this.ast = ast;
 		this.files = files;
+		this.workspaceIndex = workspaceIndex;
+		this.scopeRoot = scopeRoot;
 	}
 
 	public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> providePrepareRename(
@@ -178,6 +195,7 @@ public class RenameProvider {
 
 		List<ASTNode> references = GroovyASTUtils.getReferences(offsetNode, ast);
 		references.forEach(node -> applyRenameForReference(node, documentURI, newName, textEditChanges, documentChanges));
+		applyRenameInOtherScopes(offsetNode, newName, textEditChanges);
 
 		for (Map.Entry<String, List<TextEdit>> entry : textEditChanges.entrySet()) {
 			String uri = entry.getKey();
@@ -265,21 +283,80 @@ public class RenameProvider {
 		addTextEdit(textEditChanges, uri.toString(), textEdit);
 	}
 
+	/**
+	 * Renames the usages recorded in the workspace index for sibling
+	 * scopes, which are not compiled for this. Files are not renamed for
+	 * class declarations found this way.
+	 */
+	private void applyRenameInOtherScopes(ASTNode offsetNode, String newName,
+			Map<String, List<TextEdit>> textEditChanges) {
+		if (workspaceIndex == null) {
+			return;
+		}
+		// Not strict: a class of a sibling project is a classpath class here
+		ASTNode definition = GroovyASTUtils.getDefinition(offsetNode, false, ast);
+		String signature = WorkspaceReferenceIndex.signatureOf(definition);
+		String oldName = signature != null ? getRenamableNodeName(definition) : null;
+		if (oldName == null) {
+			return;
+		}
+		for (WorkspaceReferenceIndex.Usage usage : workspaceIndex.findUsages(signature, scopeRoot)) {
+			String contents = files.getContents(usage.getUri());
+			Range range = usage.getRange();
+			String text = contents != null ? Ranges.getSubstring(contents, range, 1) : null;
+			if (text == null) {
+				continue;
+			}
+			Position start = range.getStart();
+			Position end = range.getEnd();
+			end.setLine(start.getLine());
+			end.setCharacter(start.getCharacter() + text.length());
+
+			TextEdit textEdit = createTextEditForUsage(usage.getKind(), oldName, newName, text, range);
+			if (textEdit != null) {
+				addTextEdit(textEditChanges, usage.getUri().toString(), textEdit);
+			}
+		}
+	}
+
+	private TextEdit createTextEditForUsage(WorkspaceReferenceIndex.UsageKind kind, String oldName, String newName,
+			String text, Range range) {
+		switch (kind) {
+			case CLASS:
+				return createTextEditToRenameClass(oldName, newName, text, range);
+			case METHOD:
+				return createTextEditToRenameMethod(oldName, newName, text, range);
+			case PROPERTY:
+				return createTextEditToRenameProperty(oldName, newName, text, range);
+			case NAME:
+				if (!text.equals(oldName)) {
+					// the file changed since it was indexed
+					return null;
+				}
+				TextEdit textEdit = new TextEdit();
+				textEdit.setNewText(newName);
+				textEdit.setRange(range);
+				return textEdit;
+			default:
+				return null;
+		}
+	}
+
 	private TextEdit createTextEditForNode(ASTNode node, String newName, String contents, Range range, URI uri,
 			List<Either<TextDocumentEdit, ResourceOperation>> documentChanges) {
 		if (node instanceof ClassNode) {
 			ClassNode classNode = (ClassNode) node;
-			TextEdit textEdit = createTextEditToRenameClassNode(classNode, newName, contents, range);
+			TextEdit textEdit = createTextEditToRenameClass(getRenamableNodeName(classNode), newName, contents, range);
 			if (textEdit != null && ast.getParent(classNode) == null) {
 				addRenameFileOperation(uri, newName, documentChanges);
 			}
 			return textEdit;
 		}
 		if (node instanceof MethodNode) {
-			return createTextEditToRenameMethodNode((MethodNode) node, newName, contents, range);
+			return createTextEditToRenameMethod(((MethodNode) node).getName(), newName, contents, range);
 		}
 		if (node instanceof PropertyNode) {
-			return createTextEditToRenamePropertyNode((PropertyNode) node, newName, contents, range);
+			return createTextEditToRenameProperty(((PropertyNode) node).getName(), newName, contents, range);
 		}
 		if (node instanceof ConstantExpression || node instanceof VariableExpression) {
 			TextEdit textEdit = new TextEdit();
@@ -319,16 +396,9 @@ public class RenameProvider {
 		return Ranges.getSubstring(contents, range, 1);
 	}
 
-	private TextEdit createTextEditToRenameClassNode(ClassNode classNode, String newName, String text, Range range) {
+	private TextEdit createTextEditToRenameClass(String className, String newName, String text, Range range) {
 		// the AST doesn't give us access to the name location, so we
 		// need to find it manually
-		String className = classNode.getNameWithoutPackage();
-		int dollarIndex = className.indexOf('$');
-		if (dollarIndex != -1) {
-			// it's an inner class, so remove the outer name prefix
-			className = className.substring(dollarIndex + 1);
-		}
-
 		Pattern classPattern = Pattern.compile("(class\\s+)" + Pattern.quote(className) + "\\b");
 		Matcher classMatcher = classPattern.matcher(text);
 		if (!classMatcher.find()) {
@@ -348,10 +418,10 @@ public class RenameProvider {
 		return textEdit;
 	}
 
-	private TextEdit createTextEditToRenameMethodNode(MethodNode methodNode, String newName, String text, Range range) {
+	private TextEdit createTextEditToRenameMethod(String methodName, String newName, String text, Range range) {
 		// the AST doesn't give us access to the name location, so we
 		// need to find it manually
-		Pattern methodPattern = Pattern.compile("\\b" + Pattern.quote(methodNode.getName()) + "\\b(?=\\s*\\()");
+		Pattern methodPattern = Pattern.compile("\\b" + Pattern.quote(methodName) + "\\b(?=\\s*\\()");
 		Matcher methodMatcher = methodPattern.matcher(text);
 		if (!methodMatcher.find()) {
 			// couldn't find the name!
@@ -369,11 +439,11 @@ public class RenameProvider {
 		return textEdit;
 	}
 
-	private TextEdit createTextEditToRenamePropertyNode(PropertyNode propNode, String newName, String text,
+	private TextEdit createTextEditToRenameProperty(String propertyName, String newName, String text,
 			Range range) {
 		// the AST doesn't give us access to the name location, so we
 		// need to find it manually
-		Pattern propPattern = Pattern.compile("\\b" + Pattern.quote(propNode.getName()) + "\\b");
+		Pattern propPattern = Pattern.compile("\\b" + Pattern.quote(propertyName) + "\\b");
 		Matcher propMatcher = propPattern.matcher(text);
 		if (!propMatcher.find()) {
 			// couldn't find the name!
@@ -56,6 +56,7 @@ import org.eclipse.lsp4j.TextDocumentIdentifier;
 
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
+import com.tomaszrup.groovyls.util.RequestCancellation;
 
 /**
  * Provides semantic tokens for Groovy source files, enabling semantic-aware
@@ -153,7 +154,9 @@ public class SemanticTokensProvider {
 		List<ASTNode> nodes = ast.getNodes(uri);
 		List<SemanticToken> tokens = new ArrayList<>();
 
+		int visited = 0;
 		for (ASTNode node : nodes) {
+			RequestCancellation.checkCanceled(++visited);
 			addTokensForNode(node, tokens);
 		}
 
@@ -200,7 +203,9 @@ public class SemanticTokensProvider {
 		List<ASTNode> nodes = ast.getNodes(uri);
 		List<SemanticToken> tokens = new ArrayList<>();
 
+		int visited = 0;
 		for (ASTNode node : nodes) {
+			RequestCancellation.checkCanceled(++visited);
 			int nodeStartLine = node.getLineNumber() - 1;     // convert to 0-based
 			int nodeEndLine = node.getLastLineNumber() - 1;   // convert to 0-based
 
@@ -0,0 +1,193 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.providers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.eclipse.lsp4j.CompletionItemKind;
+
+/**
+ * Keeps the best {@code limit} type completion candidates, ranked by
+ * relevance rather than by the order the classpath index visits them.
+ *
+ * <p>Candidates are held in a min-heap of at most {@code limit} entries:
+ * a candidate better than the worst one kept replaces it, so the whole
+ * classpath can be considered in O(n log limit) time and memory bounded
+ * by the result size.</p>
+ *
+ * <p>The score combines, in decreasing weight: match quality, recency of
+ * use in this session, whether the type is already imported or lives in
+ * the document's package, how close its package is to the document's
+ * (imported packages, shared package prefix), whether it is a project
+ * source, and its origin (JDK API, dependency or JDK internals).</p>
+ */
+final class TypeCompletionRanker {
+	static final int EXACT_MATCH = 600;
+	static final int PREFIX_MATCH = 400;
+	static final int CAMEL_MATCH = 200;
+	static final int IMPORTED_CLASS = 150;
+	static final int SAME_PACKAGE = 120;
+	static final int IMPORTED_PACKAGE = 80;
+	static final int PROJECT_SOURCE = 60;
+	static final int SHARED_PACKAGE_SEGMENT = 10;
+	static final int MAX_SHARED_PACKAGE_SEGMENTS = 4;
+	static final int JDK_API = 20;
+	static final int JDK_INTERNAL = -200;
+	/** Weight of a use in the latest batch; older uses decay linearly. */
+	static final int MAX_RECENCY = 250;
+
+	static final class Candidate {
+		final String simpleName;
+		final String className;
+		final String packageName;
+		final CompletionItemKind kind;
+		final int score;
+
+		Candidate(String simpleName, String className, String packageName, CompletionItemKind kind, int score) {
+			this.simpleName = simpleName;
+			this.className = className;
+			this.packageName = packageName;
+			this.kind = kind;
+			this.score = score;
+		}
+	}
+
+	/** Best first: higher score, then shorter simple name, then name. */
+	static final Comparator<Candidate> BEST_FIRST = Comparator.<Candidate>comparingInt(c -> -c.score)
+			.thenComparingInt(c -> c.simpleName.length())
+			.thenComparing(c -> c.className);
+
+	private final String namePrefix;
+	private final String enclosingPackageName;
+	private final Set<String> importedClassNames;
+	private final Set<String> importedPackageNames;
+	private final TypeUsageHistory usageHistory;
+	private final int limit;
+	private final PriorityQueue<Candidate> heap;
+	private boolean truncated;
+
+	TypeCompletionRanker(String namePrefix, String enclosingPackageName, Set<String> importedClassNames,
+			Set<String> importedPackageNames, TypeUsageHistory usageHistory, int limit) {
+		this.namePrefix = namePrefix;
+		this.enclosingPackageName = enclosingPackageName;
+		this.importedClassNames = importedClassNames;
+		this.importedPackageNames = importedPackageNames;
+		this.usageHistory = usageHistory;
+		this.limit = Math.max(0, limit);
+		this.heap = new PriorityQueue<>(Math.max(1, Math.min(this.limit, 1024)), BEST_FIRST.reversed());
+	}
+
+	/**
+	 * Considers a type whose simple name already matched the prefix.
+	 *
+	 * @param jdk whether the type comes from the JDK rather than from a
+	 *            dependency or the project
+	 */
+	void offer(String simpleName, String className, String packageName, CompletionItemKind kind,
+			boolean projectSource, boolean jdk) {
+		Candidate candidate = new Candidate(simpleName, className, packageName, kind,
+				score(simpleName, className, packageName, projectSource, jdk));
+		if (heap.size() < limit) {
+			heap.add(candidate);
+			return;
+		}
+		truncated = true;
+		if (limit > 0 && BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(candidate);
+		}
+	}
+
+	/** Returns {@code true} if candidates were dropped to respect the limit. */
+	boolean isTruncated() {
+		return truncated;
+	}
+
+	/** Returns the kept candidates, best first. */
+	List<Candidate> getRanked() {
+		List<Candidate> ranked = new ArrayList<>(heap);
+		ranked.sort(BEST_FIRST);
+		return ranked;
+	}
+
+	int score(String simpleName, String className, String packageName, boolean projectSource, boolean jdk) {
+		int score = matchScore(simpleName);
+		if (usageHistory != null) {
+			score += usageHistory.recency(className) * MAX_RECENCY / TypeUsageHistory.RECENCY_WINDOW;
+		}
+		if (importedClassNames.contains(className)) {
+			score += IMPORTED_CLASS;
+		}
+		String pkg = packageName != null ? packageName : "";
+		String enclosing = enclosingPackageName != null ? enclosingPackageName : "";
+		if (pkg.equals(enclosing)) {
+			score += SAME_PACKAGE;
+		} else {
+			if (importedPackageNames.contains(pkg)) {
+				score += IMPORTED_PACKAGE;
+			}
+			score += Math.min(sharedSegments(pkg, enclosing), MAX_SHARED_PACKAGE_SEGMENTS) * SHARED_PACKAGE_SEGMENT;
+		}
+		if (projectSource) {
+			score += PROJECT_SOURCE;
+		} else if (jdk) {
+			score += isJdkInternal(pkg) ? JDK_INTERNAL : JDK_API;
+		}
+		return score;
+	}
+
+	private int matchScore(String simpleName) {
+		if (simpleName.equals(namePrefix)) {
+			return EXACT_MATCH;
+		}
+		return simpleName.startsWith(namePrefix) ? PREFIX_MATCH : CAMEL_MATCH;
+	}
+
+	/** Number of leading package segments {@code a} and {@code b} share. */
+	static int sharedSegments(String a, String b) {
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0;
+		}
+		int segments = 0;
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < length && a.charAt(i) == b.charAt(i)) {
+			if (a.charAt(i) == '.') {
+				segments++;
+			}
+			i++;
+		}
+		boolean endOfA = i == a.length() || a.charAt(i) == '.';
+		boolean endOfB = i == b.length() || b.charAt(i) == '.';
+		if (i == length && endOfA && endOfB) {
+			segments++;
+		}
+		return segments;
+	}
+
+	private static boolean isJdkInternal(String packageName) {
+		return packageName.startsWith("sun.") || packageName.startsWith("com.sun.")
+				|| packageName.startsWith("jdk.");
+	}
+}
@@ -0,0 +1,75 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.providers;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which types were used recently in this session, so type
+ * completion can rank them first.
+ *
+ * <p>A "use" is recorded for every type imported by a document the user
+ * requests completion in; an accepted completion that added an import is
+ * therefore recorded on the next request. Time is counted in recorded
+ * batches, not wall-clock time.</p>
+ */
+public final class TypeUsageHistory {
+	/** Types remembered before the least recently used one is forgotten. */
+	private static final int MAX_ENTRIES = 1024;
+	/** Batches after which a use no longer counts as recent. */
+	static final int RECENCY_WINDOW = 256;
+
+	private final Map<String, Long> lastUseByClassName = new LinkedHashMap<String, Long>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	private long clock;
+
+	/** Records a use of each of the given fully-qualified class names. */
+	public synchronized void recordUses(Collection<String> classNames) {
+		if (classNames.isEmpty()) {
+			return;
+		}
+		clock++;
+		for (String className : classNames) {
+			if (className != null) {
+				lastUseByClassName.put(className, clock);
+			}
+		}
+	}
+
+	/**
+	 * Returns how recently {@code className} was used: {@link #RECENCY_WINDOW}
+	 * for the latest batch, decreasing to {@code 0} for types used longer ago
+	 * or never.
+	 */
+	synchronized int recency(String className) {
+		Long lastUse = lastUseByClassName.get(className);
+		if (lastUse == null) {
+			return 0;
+		}
+		long age = clock - lastUse;
+		return age >= RECENCY_WINDOW ? 0 : (int) (RECENCY_WINDOW - age);
+	}
+}
@@ -34,8 +34,10 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 
 import com.tomaszrup.lsp.utils.Positions;
 
@@ -48,6 +50,13 @@ import com.tomaszrup.lsp.utils.Positions;
  * </p>
  *
  * <p>
+ * Open documents are held as {@link TextDocument} piece tables so that
+ * incremental {@code didChange} events are applied without copying the
+ * whole file; {@link #getContents(URI)} returns a snapshot that is cached
+ * per document version.
+ * </p>
+ *
+ * <p>
  * For files that are <b>not open</b> in the editor, a TTL-based cache
  * avoids repeated blocking {@link Files#readString} calls on the LSP thread.
  * The default TTL is {@value #CLOSED_FILE_CACHE_TTL_MS} ms.
@@ -58,7 +67,8 @@ public class FileContentsTracker {
 	/** TTL for closed-file cache entries, in milliseconds. */
 	static final long CLOSED_FILE_CACHE_TTL_MS = 5_000;
 
-	private final ConcurrentHashMap<URI, String> openFiles = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<URI, TextDocument> openFiles = new ConcurrentHashMap<>();
+	/** Canonical {@link InternRegistry} URIs, shared with the compilers' per-file maps. */
 	private final Set<URI> changedFiles = ConcurrentHashMap.newKeySet();
 
 	/** The URI of the most recently opened file (for prioritising compilation). */
@@ -110,7 +120,7 @@ public class FileContentsTracker {
 	}
 
 	public void forceChanged(URI uri) {
-		changedFiles.add(uri);
+		changedFiles.add(InternRegistry.intern(uri));
 	}
 
 	/**
@@ -144,13 +154,29 @@ public class FileContentsTracker {
 		return openFiles.containsKey(uri);
 	}
 
+	/**
+	 * Returns {@code true} if {@code uri} is open and its buffer differs
+	 * from the file on disk (or the file cannot be read).
+	 */
+	public boolean hasUnsavedChanges(URI uri) {
+		TextDocument document = openFiles.get(uri);
+		if (document == null) {
+			return false;
+		}
+		try {
+			return !document.getText().equals(Files.readString(Paths.get(uri)));
+		} catch (IOException | RuntimeException e) {
+			return true;
+		}
+	}
+
 	public void didOpen(DidOpenTextDocumentParams params) {
-		URI uri = URI.create(params.getTextDocument().getUri());
+		URI uri = InternRegistry.intern(URI.create(params.getTextDocument().getUri()));
 		String newText = params.getTextDocument().getText();
 		String previousContent = resolvePreviousContent(uri);
 		boolean contentChanged = previousContent == null || !previousContent.equals(newText);
 
-		openFiles.put(uri, newText);
+		openFiles.put(uri, new TextDocument(newText, params.getTextDocument().getVersion()));
 		closedFileCache.remove(uri);
 		if (contentChanged) {
 			changedFiles.add(uri);
@@ -166,34 +192,49 @@ public class FileContentsTracker {
 		return lastOpenedURI.get();
 	}
 
+	/**
+	 * Returns the client version of an open document, or {@code null} if the
+	 * document is not open.
+	 */
+	public Integer getVersion(URI uri) {
+		TextDocument document = openFiles.get(uri);
+		return document != null ? document.getVersion() : null;
+	}
+
 	/**
 	 * Applies incremental or full-content changes atomically using
 	 * {@link ConcurrentHashMap#compute} to avoid races between concurrent
 	 * reads and writes to the same document.
 	 */
 	public void didChange(DidChangeTextDocumentParams params) {
-		URI uri = URI.create(params.getTextDocument().getUri());
-		openFiles.compute(uri, (key, currentText) -> {
-			if (currentText == null) {
+		URI uri = InternRegistry.intern(URI.create(params.getTextDocument().getUri()));
+		VersionedTextDocumentIdentifier identifier = params.getTextDocument();
+		openFiles.compute(uri, (key, document) -> {
+			if (document == null) {
 				// Should not happen (didOpen not called), but handle gracefully
+				String currentText = null;
 				for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
 					currentText = change.getText();
 				}
-				return currentText;
+				document = new TextDocument(currentText, 0);
+			} else {
+				// Apply all content changes in order (incremental sync may send multiple)
+				for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
+					applyContentChange(document, change);
+				}
 			}
-			// Apply all content changes in order (incremental sync may send multiple)
-			for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
-				currentText = applyContentChange(currentText, change);
+			if (identifier.getVersion() != null) {
+				document.setVersion(identifier.getVersion());
 			}
-			return currentText;
+			return document;
 		});
 		changedFiles.add(uri);
 	}
 
 	private String resolvePreviousContent(URI uri) {
-		String previousContent = openFiles.get(uri);
-		if (previousContent != null) {
-			return previousContent;
+		TextDocument previousDocument = openFiles.get(uri);
+		if (previousDocument != null) {
+			return previousDocument.getText();
 		}
 
 		CachedContent cached = closedFileCache.get(uri);
@@ -208,33 +249,27 @@ public class FileContentsTracker {
 		}
 	}
 
-	private static String applyContentChange(String currentText, TextDocumentContentChangeEvent change) {
+	private static void applyContentChange(TextDocument document, TextDocumentContentChangeEvent change) {
 		Range range = change.getRange();
 		if (range == null) {
-			return change.getText();
+			document.setText(change.getText());
+			return;
 		}
 
-		int offsetStart = Positions.getOffset(currentText, range.getStart());
-		int offsetEnd = Positions.getOffset(currentText, range.getEnd());
-		if (offsetStart < 0 || offsetEnd < 0 || offsetStart > currentText.length()
-				|| offsetEnd > currentText.length()) {
-			return change.getText();
-		}
-
-		StringBuilder builder = new StringBuilder();
-		builder.append(currentText, 0, offsetStart);
-		builder.append(change.getText());
-		builder.append(currentText, offsetEnd, currentText.length());
-		return builder.toString();
+		// Positions past the end of a line or of the document are clamped,
+		// so a slightly stale range still edits only the text it covers
+		int offsetStart = document.getClampedOffset(range.getStart());
+		int offsetEnd = document.getClampedOffset(range.getEnd());
+		document.replace(Math.min(offsetStart, offsetEnd), Math.max(offsetStart, offsetEnd), change.getText());
 	}
 
 	public void didClose(DidCloseTextDocumentParams params) {
 		URI uri = URI.create(params.getTextDocument().getUri());
-		String lastContent = openFiles.remove(uri);
+		TextDocument lastDocument = openFiles.remove(uri);
 		// Pre-populate the closed-file cache so that immediate subsequent
 		// getContents() calls don't need to hit disk.
-		if (lastContent != null) {
-			closedFileCache.put(uri, new CachedContent(lastContent));
+		if (lastDocument != null) {
+			closedFileCache.put(uri, new CachedContent(lastDocument.getText()));
 		}
 		// Closing a file is NOT a content change — the disk version has not
 		// been modified. Avoids unnecessary recompilation of the scope.
@@ -244,16 +279,17 @@ public class FileContentsTracker {
 	 * Returns the contents for the given URI.
 	 *
 	 * <ol>
-	 * <li>If the file is open in the editor, returns the in-memory text.</li>
+	 * <li>If the file is open in the editor, returns the in-memory text
+	 * (a snapshot cached until the next edit).</li>
 	 * <li>Otherwise checks the closed-file TTL cache.</li>
 	 * <li>On cache miss / expiry, reads from disk and caches the result.</li>
 	 * </ol>
 	 */
 	public String getContents(URI uri) {
 		// 1. Open files — always authoritative
-		String contents = openFiles.get(uri);
-		if (contents != null) {
-			return contents;
+		TextDocument document = openFiles.get(uri);
+		if (document != null) {
+			return document.getText();
 		}
 
 		// 2. Closed-file cache — avoid repeated blocking I/O
@@ -274,8 +310,36 @@ public class FileContentsTracker {
 		}
 	}
 
+	/**
+	 * Converts {@code position} to an offset in {@code contents}, which was
+	 * returned by {@link #getContents(URI)} for {@code uri}. While an open
+	 * document still holds that snapshot, its line-start index is used
+	 * instead of scanning the text.
+	 *
+	 * @return the offset, or {@code -1} if the position is outside the
+	 *         contents (see {@link Positions#getOffset(String, Position)})
+	 */
+	public int getOffset(URI uri, String contents, Position position) {
+		TextDocument document = openFiles.get(uri);
+		if (document != null) {
+			// Snapshot and line index must belong to the same version
+			synchronized (document) {
+				if (document.getText() == contents) {
+					return document.getOffset(position);
+				}
+			}
+		}
+		return Positions.getOffset(contents, position);
+	}
+
 	public void setContents(URI uri, String contents) {
-		openFiles.put(uri, contents);
+		openFiles.compute(uri, (key, document) -> {
+			if (document == null) {
+				return new TextDocument(contents, 0);
+			}
+			document.setText(contents);
+			return document;
+		});
 	}
 
 	// --- Closed-file cache invalidation ---
@@ -307,16 +371,16 @@ public class FileContentsTracker {
 
 	/**
 	 * Estimates the total heap memory consumed by open file buffers and
-	 * the closed-file cache. Each open file stores its full text content
-	 * as a String (2 bytes per char + ~40 bytes object overhead).
+	 * the closed-file cache. Open files are estimated from their piece-table
+	 * buffers, cached files at 2 bytes per char + ~40 bytes object overhead.
 	 *
 	 * @return estimated bytes consumed
 	 */
 	public long estimateMemoryBytes() {
 		long total = 0;
-		for (String content : openFiles.values()) {
-			if (content != null) {
-				total += 40 + (long) content.length() * 2;
+		for (TextDocument document : openFiles.values()) {
+			if (document != null) {
+				total += document.estimateMemoryBytes();
 			}
 		}
 		for (CachedContent cached : closedFileCache.values()) {
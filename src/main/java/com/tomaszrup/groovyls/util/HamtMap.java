@@ -0,0 +1,510 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Hash map backed by a hash array mapped trie whose {@link #fork()} is
+ * O(1): the fork and the original share the whole trie, and each side
+ * copies only the nodes on the path of a key it later modifies.
+ *
+ * <p>Every map owns an edit token. Trie nodes remember the token of the map
+ * that created them and are mutated in place only by that map, so a burst
+ * of writes on one map (e.g. visiting a source file) copies each touched
+ * node at most once. {@link #fork()} gives both maps fresh tokens, which
+ * freezes every existing node.</p>
+ *
+ * <p>Like {@link java.util.HashMap}, instances are not safe for concurrent
+ * writes; a map that is no longer written to may be read from any number
+ * of threads, and writes to a fork are never visible through the map it
+ * was forked from. Null keys are not supported; null values are.</p>
+ *
+ * <p>With {@link #withIdentityKeys()}, keys are compared by reference and
+ * hashed with {@link System#identityHashCode(Object)}, which avoids
+ * wrapping keys whose {@code equals} is not strict (such as Groovy's
+ * {@code ClassNode}).</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class HamtMap<K, V> extends AbstractMap<K, V> {
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	/** Upper bound for trie depth: 7 bitmap levels plus one collision level. */
+	private static final int MAX_DEPTH = 8;
+
+	private final boolean identityKeys;
+	private Object edit = new Object();
+	private Node root;
+	private int size;
+	/** Value displaced by the last put/remove; set by the trie nodes. */
+	private Object previous;
+
+	private HamtMap(boolean identityKeys, Node root, int size) {
+		this.identityKeys = identityKeys;
+		this.root = root;
+		this.size = size;
+	}
+
+	/** Creates an empty map using {@code equals}/{@code hashCode} for keys. */
+	public HamtMap() {
+		this(false, null, 0);
+	}
+
+	/** Creates an empty map comparing keys by reference. */
+	public static <K, V> HamtMap<K, V> withIdentityKeys() {
+		return new HamtMap<>(true, null, 0);
+	}
+
+	/**
+	 * Returns a map with the same contents that shares this map's trie.
+	 * Subsequent writes to either map are not visible through the other.
+	 */
+	public HamtMap<K, V> fork() {
+		edit = new Object();
+		return new HamtMap<>(identityKeys, root, size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (key == null || root == null) {
+			return null;
+		}
+		Object value = root.find(this, 0, hash(key), key, Node.NOT_FOUND);
+		return value == Node.NOT_FOUND ? null : (V) value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key != null && root != null
+				&& root.find(this, 0, hash(key), key, Node.NOT_FOUND) != Node.NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Objects.requireNonNull(key, "key");
+		previous = null;
+		int hash = hash(key);
+		if (root == null) {
+			root = BitmapNode.EMPTY;
+		}
+		root = root.put(this, 0, hash, key, value);
+		V result = (V) previous;
+		previous = null;
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		if (key == null || root == null) {
+			return null;
+		}
+		previous = null;
+		root = root.remove(this, 0, hash(key), key);
+		V result = (V) previous;
+		previous = null;
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (root != null) {
+			root.forEach((BiConsumer<Object, Object>) action);
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	// --- internals ---
+
+	private int hash(Object key) {
+		if (identityKeys) {
+			return System.identityHashCode(key);
+		}
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private boolean same(Object a, Object b) {
+		return identityKeys ? a == b : a.equals(b);
+	}
+
+	private static int bitFor(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private abstract static class Node {
+		static final Object NOT_FOUND = new Object();
+
+		/** Edit token of the map that created this node. */
+		final Object edit;
+
+		Node(Object edit) {
+			this.edit = edit;
+		}
+
+		abstract Object find(HamtMap<?, ?> map, int shift, int hash, Object key, Object notFound);
+
+		abstract Node put(HamtMap<?, ?> map, int shift, int hash, Object key, Object value);
+
+		/** Returns the updated node, or {@code null} if it became empty. */
+		abstract Node remove(HamtMap<?, ?> map, int shift, int hash, Object key);
+
+		abstract void forEach(BiConsumer<Object, Object> action);
+
+		/** Flat {@code [key, value, ...]} array; a {@code null} key marks a child node. */
+		abstract Object[] slots();
+	}
+
+	/**
+	 * Interior trie node: a 32-bit bitmap of occupied branches and a packed
+	 * array with one key/value pair (or {@code null}/child pair) per set bit.
+	 */
+	private static final class BitmapNode extends Node {
+		static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+		int bitmap;
+		Object[] array;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			super(edit);
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		@Override
+		Object find(HamtMap<?, ?> map, int shift, int hash, Object key, Object notFound) {
+			int bit = bitFor(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return notFound;
+			}
+			int idx = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object k = array[idx];
+			if (k == null) {
+				return ((Node) array[idx + 1]).find(map, shift + BITS, hash, key, notFound);
+			}
+			return map.same(key, k) ? array[idx + 1] : notFound;
+		}
+
+		@Override
+		Node put(HamtMap<?, ?> map, int shift, int hash, Object key, Object value) {
+			int bit = bitFor(hash, shift);
+			int idx = 2 * Integer.bitCount(bitmap & (bit - 1));
+			if ((bitmap & bit) != 0) {
+				Object k = array[idx];
+				Object v = array[idx + 1];
+				if (k == null) {
+					Node child = (Node) v;
+					Node updated = child.put(map, shift + BITS, hash, key, value);
+					return updated == child ? this : withSlot(map, idx + 1, updated);
+				}
+				if (map.same(key, k)) {
+					map.previous = v;
+					return v == value ? this : withSlot(map, idx + 1, value);
+				}
+				map.size++;
+				Node child = createNode(map, shift + BITS, k, v, hash, key, value);
+				BitmapNode target = editable(map);
+				target.array[idx] = null;
+				target.array[idx + 1] = child;
+				return target;
+			}
+			map.size++;
+			Object[] grown = new Object[array.length + 2];
+			System.arraycopy(array, 0, grown, 0, idx);
+			grown[idx] = key;
+			grown[idx + 1] = value;
+			System.arraycopy(array, idx, grown, idx + 2, array.length - idx);
+			if (edit == map.edit) {
+				bitmap |= bit;
+				array = grown;
+				return this;
+			}
+			return new BitmapNode(map.edit, bitmap | bit, grown);
+		}
+
+		@Override
+		Node remove(HamtMap<?, ?> map, int shift, int hash, Object key) {
+			int bit = bitFor(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int idx = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object k = array[idx];
+			if (k == null) {
+				Node child = (Node) array[idx + 1];
+				Node updated = child.remove(map, shift + BITS, hash, key);
+				if (updated == child) {
+					return this;
+				}
+				if (updated != null) {
+					return withSlot(map, idx + 1, updated);
+				}
+				return without(map, bit, idx);
+			}
+			if (!map.same(key, k)) {
+				return this;
+			}
+			map.previous = array[idx + 1];
+			map.size--;
+			return without(map, bit, idx);
+		}
+
+		@Override
+		void forEach(BiConsumer<Object, Object> action) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (array[i] == null) {
+					((Node) array[i + 1]).forEach(action);
+				} else {
+					action.accept(array[i], array[i + 1]);
+				}
+			}
+		}
+
+		@Override
+		Object[] slots() {
+			return array;
+		}
+
+		private BitmapNode editable(HamtMap<?, ?> map) {
+			if (edit == map.edit) {
+				return this;
+			}
+			return new BitmapNode(map.edit, bitmap, array.clone());
+		}
+
+		private BitmapNode withSlot(HamtMap<?, ?> map, int i, Object slot) {
+			BitmapNode target = editable(map);
+			target.array[i] = slot;
+			return target;
+		}
+
+		private BitmapNode without(HamtMap<?, ?> map, int bit, int idx) {
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] shrunk = new Object[array.length - 2];
+			System.arraycopy(array, 0, shrunk, 0, idx);
+			System.arraycopy(array, idx + 2, shrunk, idx, array.length - idx - 2);
+			if (edit == map.edit) {
+				bitmap ^= bit;
+				array = shrunk;
+				return this;
+			}
+			return new BitmapNode(map.edit, bitmap ^ bit, shrunk);
+		}
+
+		/** Creates the smallest subtree holding two entries with distinct keys. */
+		private static Node createNode(HamtMap<?, ?> map, int shift,
+				Object k1, Object v1, int h2, Object k2, Object v2) {
+			int h1 = map.hash(k1);
+			if (h1 == h2) {
+				return new CollisionNode(map.edit, h1, new Object[] { k1, v1, k2, v2 });
+			}
+			int b1 = (h1 >>> shift) & MASK;
+			int b2 = (h2 >>> shift) & MASK;
+			if (b1 == b2) {
+				return new BitmapNode(map.edit, 1 << b1,
+						new Object[] { null, createNode(map, shift + BITS, k1, v1, h2, k2, v2) });
+			}
+			Object[] pair = b1 < b2
+					? new Object[] { k1, v1, k2, v2 }
+					: new Object[] { k2, v2, k1, v1 };
+			return new BitmapNode(map.edit, (1 << b1) | (1 << b2), pair);
+		}
+	}
+
+	/** Leaf holding entries whose full 32-bit hashes are equal. */
+	private static final class CollisionNode extends Node {
+		final int hash;
+		final Object[] array;
+
+		CollisionNode(Object edit, int hash, Object[] array) {
+			super(edit);
+			this.hash = hash;
+			this.array = array;
+		}
+
+		@Override
+		Object find(HamtMap<?, ?> map, int shift, int hash, Object key, Object notFound) {
+			int idx = indexOf(map, key);
+			return idx >= 0 ? array[idx + 1] : notFound;
+		}
+
+		@Override
+		Node put(HamtMap<?, ?> map, int shift, int hash, Object key, Object value) {
+			if (hash != this.hash) {
+				BitmapNode parent = new BitmapNode(map.edit, bitFor(this.hash, shift), new Object[] { null, this });
+				return parent.put(map, shift, hash, key, value);
+			}
+			int idx = indexOf(map, key);
+			if (idx >= 0) {
+				map.previous = array[idx + 1];
+				if (array[idx + 1] == value) {
+					return this;
+				}
+				Object[] copy = array.clone();
+				copy[idx + 1] = value;
+				return new CollisionNode(map.edit, hash, copy);
+			}
+			map.size++;
+			Object[] grown = new Object[array.length + 2];
+			System.arraycopy(array, 0, grown, 0, array.length);
+			grown[array.length] = key;
+			grown[array.length + 1] = value;
+			return new CollisionNode(map.edit, hash, grown);
+		}
+
+		@Override
+		Node remove(HamtMap<?, ?> map, int shift, int hash, Object key) {
+			int idx = indexOf(map, key);
+			if (idx < 0) {
+				return this;
+			}
+			map.previous = array[idx + 1];
+			map.size--;
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] shrunk = new Object[array.length - 2];
+			System.arraycopy(array, 0, shrunk, 0, idx);
+			System.arraycopy(array, idx + 2, shrunk, idx, array.length - idx - 2);
+			return new CollisionNode(map.edit, hash, shrunk);
+		}
+
+		@Override
+		void forEach(BiConsumer<Object, Object> action) {
+			for (int i = 0; i < array.length; i += 2) {
+				action.accept(array[i], array[i + 1]);
+			}
+		}
+
+		@Override
+		Object[] slots() {
+			return array;
+		}
+
+		private int indexOf(HamtMap<?, ?> map, Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (map.same(key, array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/** Depth-first iterator over the trie using an explicit slot stack. */
+	private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+		private final Object[][] stack = new Object[MAX_DEPTH][];
+		private final int[] positions = new int[MAX_DEPTH];
+		private int depth = -1;
+		private Map.Entry<K, V> next;
+
+		EntryIterator() {
+			if (root != null) {
+				push(root);
+			}
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<K, V> result = next;
+			advance();
+			return result;
+		}
+
+		private void push(Node node) {
+			depth++;
+			stack[depth] = node.slots();
+			positions[depth] = 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			next = null;
+			while (depth >= 0) {
+				Object[] slots = stack[depth];
+				int pos = positions[depth];
+				if (pos >= slots.length) {
+					depth--;
+					continue;
+				}
+				positions[depth] = pos + 2;
+				if (slots[pos] == null) {
+					push((Node) slots[pos + 1]);
+				} else {
+					next = new AbstractMap.SimpleImmutableEntry<>((K) slots[pos], (V) slots[pos + 1]);
+					return;
+				}
+			}
+		}
+	}
+}
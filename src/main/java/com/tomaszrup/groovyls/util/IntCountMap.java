@@ -0,0 +1,187 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative {@code int} keys to {@code int}
+ * counts, without boxing. A key is present while its count is non-zero:
+ * {@link #add} inserts a key on its first non-zero count and removes it
+ * when the count drops back to zero. With counts of one it doubles as an
+ * int set.
+ *
+ * <p>Keys are iterated by slot, without allocating:</p>
+ * <pre>
+ * for (int slot = 0; slot &lt; map.slots(); slot++) {
+ *     int key = map.keyAt(slot);
+ *     if (key &gt;= 0) { ... }
+ * }
+ * </pre>
+ *
+ * <p>Like {@link java.util.HashMap}, instances are not safe for concurrent
+ * writes; concurrent reads are safe.</p>
+ */
+public final class IntCountMap {
+	private static final int FREE = -1;
+	private static final int MIN_CAPACITY = 4;
+
+	private int[] keys;
+	private int[] counts;
+	private int size;
+
+	public IntCountMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/** Creates a map that holds {@code expectedSize} keys without growing. */
+	public IntCountMap(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 < expectedSize * 4) {
+			capacity <<= 1;
+		}
+		keys = new int[capacity];
+		counts = new int[capacity];
+		Arrays.fill(keys, FREE);
+	}
+
+	/**
+	 * Adds {@code delta} to the count of {@code key}.
+	 *
+	 * @return the new count; zero means the key is no longer present
+	 * @throws IllegalArgumentException if {@code key} is negative
+	 */
+	public int add(int key, int delta) {
+		if (key < 0) {
+			throw new IllegalArgumentException("Negative key: " + key);
+		}
+		int mask = keys.length - 1;
+		int slot = home(key, mask);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				int count = counts[slot] + delta;
+				if (count == 0) {
+					removeAt(slot);
+				} else {
+					counts[slot] = count;
+				}
+				return count;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (delta == 0) {
+			return 0;
+		}
+		keys[slot] = key;
+		counts[slot] = delta;
+		if (++size * 4 > keys.length * 3) {
+			grow();
+		}
+		return delta;
+	}
+
+	/** Returns the count of {@code key}, or zero if it is absent. */
+	public int get(int key) {
+		if (key < 0) {
+			return 0;
+		}
+		int mask = keys.length - 1;
+		for (int slot = home(key, mask); keys[slot] != FREE; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return counts[slot];
+			}
+		}
+		return 0;
+	}
+
+	public boolean contains(int key) {
+		return get(key) != 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Number of slots, for iteration with {@link #keyAt}. */
+	public int slots() {
+		return keys.length;
+	}
+
+	/** Returns the key in {@code slot}, or a negative value if it is free. */
+	public int keyAt(int slot) {
+		return keys[slot];
+	}
+
+	/** Returns the count in {@code slot}; only meaningful if it holds a key. */
+	public int countAt(int slot) {
+		return counts[slot];
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		Arrays.fill(counts, 0);
+		size = 0;
+	}
+
+	private static int home(int key, int mask) {
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/** Backward-shift deletion: keeps every probe chain unbroken without tombstones. */
+	private void removeAt(int slot) {
+		int mask = keys.length - 1;
+		int hole = slot;
+		for (int i = (slot + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+			int home = home(keys[i], mask);
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				counts[hole] = counts[i];
+				hole = i;
+			}
+		}
+		keys[hole] = FREE;
+		counts[hole] = 0;
+		size--;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		Arrays.fill(keys, FREE);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int slot = home(oldKeys[i], mask);
+				while (keys[slot] != FREE) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,252 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide interning of source URIs and fully-qualified class names.
+ *
+ * <p>Every distinct value gets one canonical instance and a compact,
+ * dense {@code int} id. Structures shared by all project scopes — the AST
+ * indexes, dependency graphs, diagnostics and document trackers — store the
+ * canonical instances or the ids instead of their own copies, so a file
+ * seen by several scopes and compiles costs one {@link URI}, and map
+ * lookups between them succeed on the identity check in
+ * {@link URI#equals}.</p>
+ *
+ * <p>The registry holds its values weakly, both by value and by id: once
+ * no structure references a canonical instance any more, e.g. after its
+ * scope was evicted, the entry is dropped. An id is therefore only valid
+ * while its canonical instance is reachable, and code that keeps an id
+ * must also keep {@link #intern intern(value)}. Ids are never reused, so a
+ * retired id is rejected rather than naming another value.</p>
+ *
+ * <p>Lookups are lock-free; interning a new value takes a short lock.</p>
+ */
+public final class InternRegistry {
+	private static final Table<URI> URIS = new Table<>();
+	private static final Table<String> CLASS_NAMES = new Table<>();
+
+	private InternRegistry() {
+	}
+
+	/** Returns the canonical instance of {@code uri}. */
+	public static URI intern(URI uri) {
+		return uri != null ? URIS.intern(uri) : null;
+	}
+
+	/**
+	 * Returns the id of {@code uri}, interning it if needed. The id stays
+	 * valid while the canonical instance is reachable.
+	 */
+	public static int uriId(URI uri) {
+		return URIS.id(uri);
+	}
+
+	/** Returns the id of {@code uri}, or {@code -1} if it is not interned. */
+	public static int findUriId(URI uri) {
+		return URIS.find(uri);
+	}
+
+	/**
+	 * Returns the canonical URI with the given id.
+	 *
+	 * @throws IllegalArgumentException if no live URI has that id
+	 */
+	public static URI uri(int id) {
+		return URIS.get(id);
+	}
+
+	/** Returns the canonical instance of {@code className}. */
+	public static String internClassName(String className) {
+		return className != null ? CLASS_NAMES.intern(className) : null;
+	}
+
+	/**
+	 * Returns the id of {@code className}, interning it if needed. The id
+	 * stays valid while the canonical instance is reachable.
+	 */
+	public static int classNameId(String className) {
+		return CLASS_NAMES.id(className);
+	}
+
+	/** Returns the id of {@code className}, or {@code -1} if it is not interned. */
+	public static int findClassNameId(String className) {
+		return CLASS_NAMES.find(className);
+	}
+
+	/**
+	 * Returns the canonical class name with the given id.
+	 *
+	 * @throws IllegalArgumentException if no live class name has that id
+	 */
+	public static String className(int id) {
+		return CLASS_NAMES.get(id);
+	}
+
+	/** Number of interned URIs that are still reachable. */
+	public static int uriCount() {
+		return URIS.size();
+	}
+
+	/** Number of interned class names that are still reachable. */
+	public static int classNameCount() {
+		return CLASS_NAMES.size();
+	}
+
+	/**
+	 * Weakly held canonical value with its id. Entries are their own keys
+	 * in {@link Table#entries}: they hash like their value and equal any
+	 * entry or {@link Probe} with an equal, live value.
+	 */
+	private static final class Entry<T> extends WeakReference<T> {
+		final int id;
+		private final int hash;
+
+		Entry(T value, int id, ReferenceQueue<? super T> queue) {
+			super(value, queue);
+			this.id = id;
+			this.hash = value.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o == this || sameValue(get(), o);
+		}
+	}
+
+	/** Strongly held lookup key for {@link Table#entries}. */
+	private static final class Probe {
+		private final Object value;
+
+		Probe(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o == this || sameValue(value, o);
+		}
+	}
+
+	private static boolean sameValue(Object value, Object key) {
+		Object other = key instanceof Entry ? ((Entry<?>) key).get()
+				: key instanceof Probe ? ((Probe) key).value : null;
+		return value != null && value.equals(other);
+	}
+
+	/**
+	 * Value &rarr; entry map plus an id-indexed array of entries, both
+	 * holding the values weakly. The array is republished through a volatile
+	 * write after each insertion, and an id can only be obtained from the map
+	 * after that write, so readers of {@link #get} always see the entry.
+	 * Collected entries are purged from both on the next insertion.
+	 */
+	private static final class Table<T> {
+		private final ConcurrentHashMap<Object, Entry<T>> entries = new ConcurrentHashMap<>();
+		private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+		private volatile Object[] byId = new Object[1024];
+		/** Guarded by {@code this}. */
+		private int nextId;
+
+		T intern(T value) {
+			while (true) {
+				T canonical = entry(value).get();
+				if (canonical != null) {
+					return canonical;
+				}
+			}
+		}
+
+		int id(T value) {
+			return entry(value).id;
+		}
+
+		/** Returns an entry for {@code value} that was live when it was looked up. */
+		private Entry<T> entry(T value) {
+			Entry<T> entry = entries.get(new Probe(value));
+			if (entry != null && entry.get() != null) {
+				return entry;
+			}
+			synchronized (this) {
+				purgeCollected();
+				entry = entries.get(new Probe(value));
+				if (entry != null && entry.get() != null) {
+					return entry;
+				}
+				Object[] current = byId;
+				if (nextId == current.length) {
+					current = Arrays.copyOf(current, nextId * 2);
+				}
+				entry = new Entry<>(value, nextId++, collected);
+				current[entry.id] = entry;
+				byId = current;
+				entries.put(entry, entry);
+				return entry;
+			}
+		}
+
+		/** Guarded by {@code this}. */
+		private void purgeCollected() {
+			Object reference;
+			while ((reference = collected.poll()) != null) {
+				Entry<?> entry = (Entry<?>) reference;
+				entries.remove(entry);
+				byId[entry.id] = null;
+			}
+		}
+
+		int find(T value) {
+			Entry<T> entry = value != null ? entries.get(new Probe(value)) : null;
+			return entry != null && entry.get() != null ? entry.id : -1;
+		}
+
+		@SuppressWarnings("unchecked")
+		T get(int id) {
+			Object[] current = byId;
+			Object entry = id >= 0 && id < current.length ? current[id] : null;
+			T value = entry != null ? ((Entry<T>) entry).get() : null;
+			if (value == null) {
+				throw new IllegalArgumentException("Unknown id: " + id);
+			}
+			return value;
+		}
+
+		synchronized int size() {
+			purgeCollected();
+			return entries.size();
+		}
+	}
+}
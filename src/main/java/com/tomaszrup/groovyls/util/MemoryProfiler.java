@@ -22,6 +22,7 @@ package com.tomaszrup.groovyls.util;
 import com.tomaszrup.groovyls.JavadocResolver;
 import com.tomaszrup.groovyls.ProjectScope;
 import com.tomaszrup.groovyls.compiler.SharedClassGraphCache;
+import com.tomaszrup.groovyls.compiler.SharedClasspathIndexCache;
 import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
 import com.tomaszrup.groovyls.config.CompilationUnitFactory;
@@ -103,8 +104,8 @@ public final class MemoryProfiler {
 	/**
 	 * Estimated bytes per AST node in the ASTNodeVisitor lookup map.
 	 * Each node has: the ASTNode object itself (~200 bytes avg for various
-	 * subclasses), ASTLookupKey wrapper (16 bytes), ASTNodeLookupData
-	 * (parent ref + URI ref = 32 bytes), HashMap entry (32 bytes),
+	 * subclasses), ASTNodeLookupData (parent ref + URI ref = 32 bytes),
+	 * its key/value slots in the lookup trie (~16 bytes amortized),
 	 * plus the node's internal fields (type ClassNode refs, Token, etc.).
 	 * Conservative: ~800 bytes per node.
 	 */
@@ -131,8 +132,8 @@ public final class MemoryProfiler {
 	/** Per-classpath-entry cost in the classloader (URL + JAR file handle). */
 	private static final long BYTES_PER_CLASSPATH_ENTRY = 1024;
 
-	/** Estimated bytes per dependency graph edge (URI + set entry). */
-	private static final long BYTES_PER_DEP_EDGE = 192;
+	/** Estimated bytes per dependency graph edge (two int ids plus condensed edge counts). */
+	private static final long BYTES_PER_DEP_EDGE = 32;
 
 	/** Estimated bytes per diagnostic entry. */
 	private static final long BYTES_PER_DIAGNOSTIC = 384;
@@ -279,6 +280,11 @@ public final class MemoryProfiler {
 
 		appendGlobalPackageBreakdown(sb, classGraphCache.getTopPackagesByMemory(5));
 
+		SharedClasspathIndexCache classpathIndexCache = SharedClasspathIndexCache.getInstance();
+		double classpathIndexMB = bytesToMb(classpathIndexCache.estimateMemoryBytes());
+		sb.append(String.format("  SharedClasspathIndexCache: %.1f MB (%d indexes, %d shards)%n",
+				classpathIndexMB, classpathIndexCache.getEntryCount(), classpathIndexCache.getShardCount()));
+
 		double sourceJarMB = bytesToMb(SharedSourceJarIndex.getInstance().estimateMemoryBytes());
 		double javadocMB = bytesToMb(JavadocResolver.estimateCacheMemoryBytes());
 		sb.append(String.format("  SharedSourceJarIndex: %.1f MB | JavadocResolver: %.1f MB%n",
@@ -289,7 +295,7 @@ public final class MemoryProfiler {
 			sb.append(String.format("  JavaSourceLocator (all scopes): %.1f MB%n", jslTotalMB));
 		}
 
-		double globalTotalMB = classGraphMB + sourceJarMB + javadocMB + jslTotalMB;
+		double globalTotalMB = classGraphMB + classpathIndexMB + sourceJarMB + javadocMB + jslTotalMB;
 		return new GlobalSectionTotals(globalTotalMB);
 	}
 
@@ -446,11 +452,8 @@ public final class MemoryProfiler {
 		long bytes = totalNodes * BYTES_PER_AST_NODE
 				+ totalClassNodes * BYTES_PER_CLASS_NODE;
 
-		// Reference index (soft, may be null or reclaimed)
-		Map<?, ?> refIndex = visitor.getReferenceIndex();
-		if (refIndex != null) {
-			bytes += refIndex.size() * BYTES_PER_AST_NODE;
-		}
+		// Reference index (soft partitions, may be unbuilt or reclaimed)
+		bytes += visitor.getReferenceIndexSize() * BYTES_PER_AST_NODE;
 
 		return bytes / (1024.0 * 1024.0);
 	}
@@ -497,9 +500,9 @@ public final class MemoryProfiler {
 		if (graph == null) {
 			return 0.0;
 		}
-		// DependencyGraph uses ConcurrentHashMaps for forward and reverse edges.
-		// We estimate based on the size of the forward map (each entry has
-		// URI key + Set<URI> value).
+		// DependencyGraph keeps forward and reverse edges as int id arrays,
+		// plus per-component edge counts; the URIs themselves are shared
+		// with the AST caches, so the edge count dominates.
 		int edgeCount = graph.getEdgeCount();
 		long bytes = edgeCount * BYTES_PER_DEP_EDGE;
 		return bytes / (1024.0 * 1024.0);
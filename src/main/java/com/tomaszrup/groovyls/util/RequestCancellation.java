@@ -0,0 +1,112 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+
+/**
+ * Thread-bound {@link CancelChecker} of the LSP request currently being
+ * computed on this thread.
+ *
+ * <p>The request executor installs the checker around the provider call,
+ * so long-running provider loops can bail out with
+ * {@link #checkCanceled()} without every provider and facade signature
+ * having to carry a {@code CancelChecker} parameter. Outside of a request
+ * (tests, background compilation) the check is a no-op.</p>
+ */
+public final class RequestCancellation {
+	/** Iterations between two checks in {@link #checkCanceled(int)}; a power of two. */
+	public static final int CHECK_INTERVAL = 256;
+
+	private static final ThreadLocal<CancelChecker> CURRENT = new ThreadLocal<>();
+
+	private RequestCancellation() {
+	}
+
+	/**
+	 * Runs {@code work} with {@code checker} installed for the current
+	 * thread, restoring the previous checker afterwards.
+	 */
+	public static <T> T callWith(CancelChecker checker, Supplier<T> work) {
+		CancelChecker previous = CURRENT.get();
+		CURRENT.set(checker);
+		try {
+			return work.get();
+		} finally {
+			if (previous != null) {
+				CURRENT.set(previous);
+			} else {
+				CURRENT.remove();
+			}
+		}
+	}
+
+	/**
+	 * Throws if the request running on this thread was cancelled by the
+	 * client or superseded by a newer one.
+	 *
+	 * @throws CancellationException   if the client cancelled the request
+	 * @throws ResponseErrorException  with {@code ContentModified} if the
+	 *                                 request was superseded
+	 */
+	public static void checkCanceled() {
+		CancelChecker checker = CURRENT.get();
+		if (checker != null) {
+			checker.checkCanceled();
+		}
+	}
+
+	/**
+	 * Same as {@link #checkCanceled()}, but only every
+	 * {@value #CHECK_INTERVAL} iterations, for per-node loops where the
+	 * supersession check (a document version lookup) would otherwise show
+	 * up in profiles.
+	 *
+	 * @param iteration the loop's running iteration count
+	 */
+	public static void checkCanceled(int iteration) {
+		if ((iteration & (CHECK_INTERVAL - 1)) == 0) {
+			checkCanceled();
+		}
+	}
+
+	/**
+	 * Returns {@code true} for the exceptions raised by
+	 * {@link #checkCanceled()}, which must be propagated instead of being
+	 * turned into fallback results.
+	 */
+	public static boolean isCancellation(Throwable throwable) {
+		if (throwable instanceof CancellationException) {
+			return true;
+		}
+		if (throwable instanceof ResponseErrorException) {
+			int code = ((ResponseErrorException) throwable).getResponseError().getCode();
+			return code == ResponseErrorCode.ContentModified.getValue()
+					|| code == ResponseErrorCode.RequestCancelled.getValue()
+					|| code == ResponseErrorCode.ServerCancelled.getValue();
+		}
+		return false;
+	}
+}
@@ -0,0 +1,372 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+//
+// Author: Tomasz Rup
+// No warranty of merchantability or fitness of any kind.
+// Use this software at your own risk.
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Mutable text buffer for an open document, backed by a piece table with a
+ * cached line-start index.
+ *
+ * <p>Edits ({@link #replace(int, int, String)}) append the inserted text to
+ * an add-only buffer and splice a piece descriptor into the piece list, so
+ * a keystroke costs O(pieces + lines) instead of copying the whole document.
+ * Consecutive typing at the end of the last insertion extends the existing
+ * piece rather than creating a new one. When the piece list grows beyond
+ * {@link #MAX_PIECES}, the document is compacted into a fresh original
+ * buffer.</p>
+ *
+ * <p>{@link #getText()} materializes a {@link String} snapshot and caches
+ * it until the next edit, so any number of consumers reading the same
+ * document version share a single allocation.</p>
+ *
+ * <p>Line breaks follow the same rules as
+ * {@link com.tomaszrup.lsp.utils.Positions#getOffset(String, Position)}:
+ * lines are separated by {@code '\n'}, and a line's addressable length
+ * ends at its first {@code '\r'} or {@code '\n'}.</p>
+ *
+ * <p>All methods are {@code synchronized}; instances are safe to share
+ * between the LSP thread applying edits and compilation threads reading
+ * snapshots.</p>
+ */
+public final class TextDocument {
+
+	/** Piece count above which the document is compacted. */
+	static final int MAX_PIECES = 256;
+
+	private String original;
+	private final StringBuilder added = new StringBuilder();
+	private final List<Piece> pieces = new ArrayList<>();
+	private int length;
+
+	private int[] lineStarts = new int[16];
+	private int lineCount;
+
+	private int version;
+	private String snapshot;
+
+	/** A contiguous slice of either the original or the add buffer. */
+	private static final class Piece {
+		final boolean inAdded;
+		final int start;
+		int length;
+
+		Piece(boolean inAdded, int start, int length) {
+			this.inAdded = inAdded;
+			this.start = start;
+			this.length = length;
+		}
+	}
+
+	public TextDocument(String text, int version) {
+		this.version = version;
+		reset(text != null ? text : "");
+	}
+
+	/** The client-assigned version of this document (LSP {@code version}). */
+	public synchronized int getVersion() {
+		return version;
+	}
+
+	public synchronized void setVersion(int version) {
+		this.version = version;
+	}
+
+	public synchronized int length() {
+		return length;
+	}
+
+	/**
+	 * Returns the document text. The snapshot is cached until the next edit,
+	 * so repeated calls for the same version do not allocate.
+	 */
+	public synchronized String getText() {
+		if (snapshot == null) {
+			snapshot = materialize();
+		}
+		return snapshot;
+	}
+
+	/** Replaces the whole document text. */
+	public synchronized void setText(String text) {
+		reset(text != null ? text : "");
+	}
+
+	/**
+	 * Converts an LSP position to a character offset using the cached
+	 * line-start index.
+	 *
+	 * @return the offset, or {@code -1} if the position is outside the
+	 *         document (same contract as
+	 *         {@link com.tomaszrup.lsp.utils.Positions#getOffset(String, Position)})
+	 */
+	public synchronized int getOffset(Position position) {
+		if (position == null || position.getLine() < 0 || position.getCharacter() < 0) {
+			return -1;
+		}
+		int line = position.getLine();
+		if (line >= lineCount) {
+			return -1;
+		}
+		int lineStart = lineStarts[line];
+		int lineEnd = indexOfCarriageReturn(lineStart,
+				line + 1 < lineCount ? lineStarts[line + 1] - 1 : length);
+		int character = position.getCharacter();
+		if (character > lineEnd - lineStart) {
+			return -1;
+		}
+		return lineStart + character;
+	}
+
+	/**
+	 * Converts an LSP position to a character offset, clamping it to the
+	 * document as the LSP specification requires: a character past the end
+	 * of its line defaults back to the line length, and a line past the
+	 * last line to the end of the document.
+	 */
+	public synchronized int getClampedOffset(Position position) {
+		if (position == null || position.getLine() < 0) {
+			return 0;
+		}
+		int line = position.getLine();
+		if (line >= lineCount) {
+			return length;
+		}
+		int lineStart = lineStarts[line];
+		int lineEnd = indexOfCarriageReturn(lineStart,
+				line + 1 < lineCount ? lineStarts[line + 1] - 1 : length);
+		int character = Math.max(0, position.getCharacter());
+		return lineStart + Math.min(character, lineEnd - lineStart);
+	}
+
+	/**
+	 * Replaces the characters in {@code [start, end)} with {@code text}.
+	 *
+	 * @throws IndexOutOfBoundsException if the range is not within the document
+	 */
+	public synchronized void replace(int start, int end, String text) {
+		if (start < 0 || end < start || end > length) {
+			throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") for length " + length);
+		}
+		String insert = text != null ? text : "";
+		if (start == end && insert.isEmpty()) {
+			return;
+		}
+		updateLineStarts(start, end, insert);
+
+		int index = splitAt(start);
+		if (end > start) {
+			int endIndex = splitAt(end);
+			pieces.subList(index, endIndex).clear();
+		}
+		if (!insert.isEmpty()) {
+			Piece previous = index > 0 ? pieces.get(index - 1) : null;
+			if (previous != null && previous.inAdded && previous.start + previous.length == added.length()) {
+				previous.length += insert.length();
+			} else {
+				pieces.add(index, new Piece(true, added.length(), insert.length()));
+			}
+			added.append(insert);
+		}
+		length += insert.length() - (end - start);
+		snapshot = null;
+
+		if (pieces.size() > MAX_PIECES) {
+			reset(materialize());
+		}
+	}
+
+	/**
+	 * Estimates the heap consumed by this document's buffers (2 bytes per
+	 * char plus a fixed per-object overhead).
+	 */
+	public synchronized long estimateMemoryBytes() {
+		long total = 40 + (long) original.length() * 2;
+		total += 40 + (long) added.capacity() * 2;
+		total += 16 + (long) lineStarts.length * 4;
+		total += (long) pieces.size() * 24;
+		if (snapshot != null && snapshot != original) {
+			total += 40 + (long) snapshot.length() * 2;
+		}
+		return total;
+	}
+
+	// --- internals ---
+
+	private void reset(String text) {
+		original = text;
+		added.setLength(0);
+		added.trimToSize();
+		pieces.clear();
+		if (!text.isEmpty()) {
+			pieces.add(new Piece(false, 0, text.length()));
+		}
+		length = text.length();
+		snapshot = text;
+		rebuildLineStarts(text);
+	}
+
+	private String materialize() {
+		StringBuilder sb = new StringBuilder(length);
+		for (Piece piece : pieces) {
+			if (piece.inAdded) {
+				sb.append(added, piece.start, piece.start + piece.length);
+			} else {
+				sb.append(original, piece.start, piece.start + piece.length);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the offset of the first {@code '\r'} in {@code [from, to)},
+	 * or {@code to} if there is none.
+	 */
+	private int indexOfCarriageReturn(int from, int to) {
+		if (from >= to) {
+			return to;
+		}
+		if (snapshot != null) {
+			for (int i = from; i < to; i++) {
+				if (snapshot.charAt(i) == '\r') {
+					return i;
+				}
+			}
+			return to;
+		}
+		int pos = 0;
+		for (Piece piece : pieces) {
+			int pieceEnd = pos + piece.length;
+			if (pieceEnd > from) {
+				CharSequence buffer = piece.inAdded ? added : original;
+				for (int i = Math.max(from, pos); i < Math.min(to, pieceEnd); i++) {
+					if (buffer.charAt(piece.start + i - pos) == '\r') {
+						return i;
+					}
+				}
+				if (pieceEnd >= to) {
+					return to;
+				}
+			}
+			pos = pieceEnd;
+		}
+		return to;
+	}
+
+	/**
+	 * Ensures a piece boundary exists at {@code offset} and returns the index
+	 * of the first piece starting at or after it.
+	 */
+	private int splitAt(int offset) {
+		int pos = 0;
+		for (int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			if (offset == pos) {
+				return i;
+			}
+			if (offset < pos + piece.length) {
+				int leftLength = offset - pos;
+				Piece right = new Piece(piece.inAdded, piece.start + leftLength, piece.length - leftLength);
+				piece.length = leftLength;
+				pieces.add(i + 1, right);
+				return i + 1;
+			}
+			pos += piece.length;
+		}
+		return pieces.size();
+	}
+
+	private void rebuildLineStarts(String text) {
+		lineCount = 0;
+		appendLineStart(0);
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				appendLineStart(i + 1);
+			}
+		}
+	}
+
+	private void appendLineStart(int offset) {
+		ensureLineCapacity(lineCount + 1);
+		lineStarts[lineCount++] = offset;
+	}
+
+	private void ensureLineCapacity(int capacity) {
+		if (capacity > lineStarts.length) {
+			int[] grown = new int[Math.max(capacity, lineStarts.length * 2)];
+			System.arraycopy(lineStarts, 0, grown, 0, lineCount);
+			lineStarts = grown;
+		}
+	}
+
+	/** Returns the index of the line containing {@code offset}. */
+	private int lineIndexOf(int offset) {
+		int low = 0;
+		int high = lineCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (lineStarts[mid] <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Incrementally updates the line-start index for a replacement of
+	 * {@code [start, end)} by {@code text}: line starts inside the removed
+	 * range are dropped, those introduced by {@code text} are inserted and
+	 * all following ones are shifted by the length delta.
+	 */
+	private void updateLineStarts(int start, int end, String text) {
+		int first = lineIndexOf(start) + 1;
+		int last = first;
+		while (last < lineCount && lineStarts[last] <= end) {
+			last++;
+		}
+		int inserted = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				inserted++;
+			}
+		}
+		int newCount = lineCount - (last - first) + inserted;
+		ensureLineCapacity(newCount);
+		System.arraycopy(lineStarts, last, lineStarts, first + inserted, lineCount - last);
+		int k = first;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lineStarts[k++] = start + i + 1;
+			}
+		}
+		lineCount = newCount;
+		int delta = text.length() - (end - start);
+		if (delta != 0) {
+			for (int i = first + inserted; i < lineCount; i++) {
+				lineStarts[i] += delta;
+			}
+		}
+	}
+}
@@ -36,12 +36,17 @@ import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
 import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.MessageActionItem;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.eclipse.lsp4j.services.LanguageClient;
 import groovy.lang.GroovyClassLoader;
 import org.junit.jupiter.api.AfterEach;
@@ -50,6 +55,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.tomaszrup.groovyls.config.CompilationUnitFactory;
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
 import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
 import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
 import com.tomaszrup.groovyls.util.FileContentsTracker;
@@ -337,6 +343,76 @@ class CompilationServiceTests {
 				"Did not expect Groovy 5 syntax diagnostic for Groovy 5 project");
 	}
 
+	// --- Partitioned compilation ---
+
+	@Test
+	void testProjectAboveFullUnitLimitCompilesInPartitions() throws IOException {
+		Files.createDirectories(srcDir.resolve("lib"));
+		Files.createDirectories(srcDir.resolve("app"));
+		Path lib = srcDir.resolve("lib/Lib.groovy");
+		Files.writeString(lib, "package lib\nclass Lib {\n  String name() { 'lib' }\n}\n");
+		Files.writeString(srcDir.resolve("lib/Other.groovy"), "package lib\nclass Other {}\n");
+		Path app = srcDir.resolve("app/App.groovy");
+		Files.writeString(app, "package app\nimport lib.Lib\nclass App {\n  String run() { new Lib().name() }\n}\n");
+		Path broken = srcDir.resolve("app/Broken.groovy");
+		Files.writeString(broken, "package app\nclass Broken {\n  Missing missing\n}\n");
+
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		factory.setMaxFullCompilationFiles(2);
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		CapturingLanguageClient client = new CapturingLanguageClient();
+		compilationService.setLanguageClient(client);
+		compilationService.setPartitionExecutor(executor);
+
+		compilationService.ensureScopeCompiled(scope);
+
+		ASTNodeVisitor visitor = scope.getAstVisitor();
+		Assertions.assertNotNull(visitor);
+		for (String className : List.of("lib.Lib", "lib.Other", "app.App", "app.Broken")) {
+			Assertions.assertNotNull(visitor.getClassNodeByName(className), className);
+		}
+		Assertions.assertTrue(scope.getDependencyGraph().getDirectDependencies(app.toUri()).contains(lib.toUri()));
+
+		List<String> appDiagnostics = client.publishedDiagnostics.stream()
+				.filter(params -> URI.create(params.getUri()).equals(app.toUri()))
+				.flatMap(params -> params.getDiagnostics().stream())
+				.map(Diagnostic::getMessage)
+				.toList();
+		Assertions.assertTrue(appDiagnostics.isEmpty(), "lib.Lib should resolve across partitions: " + appDiagnostics);
+		boolean brokenReported = client.publishedDiagnostics.stream()
+				.filter(params -> URI.create(params.getUri()).equals(broken.toUri()))
+				.flatMap(params -> params.getDiagnostics().stream())
+				.anyMatch(d -> d.getMessage().contains("Missing"));
+		Assertions.assertTrue(brokenReported, "Expected the unresolved class in Broken.groovy to be reported");
+	}
+
+	@Test
+	void testPartitionsYieldTheirPermitBetweenPhases() throws IOException {
+		for (int i = 0; i < 4; i++) {
+			Files.writeString(srcDir.resolve("P" + i + ".groovy"), "class P" + i + " {}\n");
+		}
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		factory.setMaxFullCompilationFiles(2);
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		List<WorkPriority> yieldChecks = Collections.synchronizedList(new ArrayList<>());
+		compilationService.setCompilationPermits(new PriorityPermits(2) {
+			@Override
+			public boolean yieldToHigherPriority(WorkPriority priority) {
+				yieldChecks.add(priority);
+				return super.yieldToHigherPriority(priority);
+			}
+		});
+		compilationService.setPartitionExecutor(executor);
+
+		WorkPriority.BACKFILL.wrap(() -> compilationService.ensureScopeCompiled(scope)).run();
+
+		Assertions.assertNotNull(scope.getAstVisitor().getClassNodeByName("P3"));
+		Assertions.assertFalse(yieldChecks.isEmpty(), "Partition compiles should offer their permit between phases");
+		Assertions.assertTrue(yieldChecks.stream().allMatch(WorkPriority.BACKFILL::equals));
+	}
+
 	// --- visitAST ---
 
 	@Test
@@ -370,6 +446,62 @@ class CompilationServiceTests {
 		Assertions.assertEquals(testUri, scope.getPreviousContext());
 	}
 
+	@Test
+	void testCompileAndVisitASTAbortsWhenSupersededByNewerEdit() throws IOException {
+		Path file = srcDir.resolve("Typing.groovy");
+		Files.writeString(file, "class Typing {}");
+		URI uri = file.toUri();
+		boolean[] editDuringCompile = { false };
+		CompilationUnitFactory factory = new CompilationUnitFactory() {
+			@Override
+			public GroovyLSCompilationUnit create(Path workspaceRoot, FileContentsTracker tracker,
+					Set<URI> additionalInvalidations) {
+				if (editDuringCompile[0]) {
+					editDuringCompile[0] = false;
+					changeDocument(uri, 3, "class Typing { int b }");
+				}
+				return super.create(workspaceRoot, tracker, additionalInvalidations);
+			}
+		};
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		openDocument(uri, "class Typing {}");
+		compilationService.ensureScopeCompiled(scope);
+		fileContentsTracker.resetChangedFiles();
+		com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor lastGood = scope.getAstVisitor();
+		Assertions.assertNotNull(lastGood);
+
+		changeDocument(uri, 2, "class Typing { int a }");
+		editDuringCompile[0] = true;
+		compilationService.compileAndVisitAST(scope, uri);
+
+		Assertions.assertEquals(1, compilationService.getSupersededCompilationCount());
+		Assertions.assertSame(lastGood, scope.getAstVisitor(), "Last good AST should stay published");
+		Assertions.assertTrue(fileContentsTracker.getChangedURIs().contains(uri),
+				"Changes should stay pending for the next compilation");
+
+		compilationService.compileAndVisitAST(scope, uri);
+
+		Assertions.assertEquals(1, compilationService.getSupersededCompilationCount());
+		Assertions.assertNotSame(lastGood, scope.getAstVisitor());
+		Assertions.assertFalse(fileContentsTracker.getChangedURIs().contains(uri));
+	}
+
+	private void openDocument(URI uri, String text) {
+		DidOpenTextDocumentParams params = new DidOpenTextDocumentParams();
+		params.setTextDocument(new TextDocumentItem(uri.toString(), "groovy", 1, text));
+		fileContentsTracker.didOpen(params);
+	}
+
+	private void changeDocument(URI uri, int version, String text) {
+		DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+		params.setTextDocument(new VersionedTextDocumentIdentifier(uri.toString(), version));
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+		change.setText(text);
+		params.setContentChanges(Collections.singletonList(change));
+		fileContentsTracker.didChange(params);
+	}
+
 	@Test
 	void testEnsureCompiledForContextReturnsNullWhenNoScope() {
 		ProjectScopeManager manager = new ProjectScopeManager(new CompilationUnitFactory(), fileContentsTracker) {
@@ -545,6 +677,141 @@ class CompilationServiceTests {
 		Assertions.assertTrue(scope.isCompiled());
 	}
 
+	@Test
+	void testApiChangeRecompilesOnlyDependentsIncrementally() throws IOException {
+		Path aFile = srcDir.resolve("A.groovy");
+		Path bFile = srcDir.resolve("B.groovy");
+		Path cFile = srcDir.resolve("C.groovy");
+		Files.writeString(aFile, "class A { int x }");
+		Files.writeString(bFile, "class B { int read(A a) { a.x } }");
+		Files.writeString(cFile, "class C { String name }");
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(srcDir.resolve("D" + i + ".groovy"), "class D" + i + " { C c }");
+		}
+		URI aUri = aFile.toUri();
+
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		compilationService.ensureScopeCompiled(scope);
+		org.codehaus.groovy.ast.ClassNode oldB = scope.getAstVisitor().getClassNodes(bFile.toUri()).get(0);
+		org.codehaus.groovy.ast.ClassNode oldC = scope.getAstVisitor().getClassNodes(cFile.toUri()).get(0);
+
+		fileContentsTracker.setContents(aUri, "class A { long x }");
+		fileContentsTracker.forceChanged(aUri);
+		compilationService.compileAndVisitAST(scope, aUri);
+
+		Assertions.assertTrue(scope.getCompilationCostModel().isMeasured(), "changes compiled incrementally");
+		Assertions.assertEquals("long", scope.getAstVisitor().getClassNodeByName("A").getField("x").getType().getName());
+		Assertions.assertNotSame(oldB, scope.getAstVisitor().getClassNodes(bFile.toUri()).get(0),
+				"dependent of the changed API is recompiled");
+		Assertions.assertSame(oldC, scope.getAstVisitor().getClassNodes(cFile.toUri()).get(0),
+				"unrelated file keeps its AST");
+	}
+
+	@Test
+	void testApiChangeRecompilesOnlyDependentsThatSeeIt() throws IOException {
+		Path aFile = srcDir.resolve("A.groovy");
+		Path userFile = srcDir.resolve("User.groovy");
+		Path otherUserFile = srcDir.resolve("OtherUser.groovy");
+		Path subFile = srcDir.resolve("Sub.groovy");
+		Files.writeString(aFile, "class A { int x; int twice() { x * 2 } }");
+		Files.writeString(userFile, "class User { int read(A a) { a.x } }");
+		Files.writeString(otherUserFile, "class OtherUser { int read(A a) { a.twice() } }");
+		Files.writeString(subFile, "class Sub extends A { }");
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(srcDir.resolve("D" + i + ".groovy"), "class D" + i + " { }");
+		}
+		URI aUri = aFile.toUri();
+
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		compilationService.ensureScopeCompiled(scope);
+		Assertions.assertEquals(Set.of(userFile.toUri(), otherUserFile.toUri(), subFile.toUri()),
+				scope.getDependencyGraph().getDirectDependents(aUri));
+		org.codehaus.groovy.ast.ClassNode oldUser = scope.getAstVisitor().getClassNodes(userFile.toUri()).get(0);
+		org.codehaus.groovy.ast.ClassNode oldOther = scope.getAstVisitor().getClassNodes(otherUserFile.toUri()).get(0);
+		org.codehaus.groovy.ast.ClassNode oldSub = scope.getAstVisitor().getClassNodes(subFile.toUri()).get(0);
+
+		fileContentsTracker.setContents(aUri, "class A { int x; long twice() { x * 2L } }");
+		fileContentsTracker.forceChanged(aUri);
+		compilationService.compileAndVisitAST(scope, aUri);
+
+		Assertions.assertTrue(scope.getCompilationCostModel().isMeasured(), "changes compiled incrementally");
+		Assertions.assertSame(oldUser, scope.getAstVisitor().getClassNodes(userFile.toUri()).get(0),
+				"dependent not referencing the changed member keeps its AST");
+		Assertions.assertNotSame(oldOther, scope.getAstVisitor().getClassNodes(otherUserFile.toUri()).get(0),
+				"dependent calling the changed method is recompiled");
+		Assertions.assertNotSame(oldSub, scope.getAstVisitor().getClassNodes(subFile.toUri()).get(0),
+				"subclass is recompiled");
+	}
+
+	@Test
+	void testApiChangeRecompilesIndirectSubclasses() throws IOException {
+		Path aFile = srcDir.resolve("A.groovy");
+		Path bFile = srcDir.resolve("B.groovy");
+		Path cFile = srcDir.resolve("C.groovy");
+		Files.writeString(aFile, "class A { int twice(int x) { x * 2 } }");
+		Files.writeString(bFile, "class B extends A { }");
+		Files.writeString(cFile, "class C extends B { }");
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(srcDir.resolve("D" + i + ".groovy"), "class D" + i + " { }");
+		}
+		URI aUri = aFile.toUri();
+
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		compilationService.ensureScopeCompiled(scope);
+		Assertions.assertEquals(Set.of(bFile.toUri()), scope.getDependencyGraph().getDirectDependents(aUri));
+		org.codehaus.groovy.ast.ClassNode oldC = scope.getAstVisitor().getClassNodes(cFile.toUri()).get(0);
+
+		fileContentsTracker.setContents(aUri, "class A { long twice(int x) { x * 2L } }");
+		fileContentsTracker.forceChanged(aUri);
+		compilationService.compileAndVisitAST(scope, aUri);
+
+		Assertions.assertTrue(scope.getCompilationCostModel().isMeasured(), "changes compiled incrementally");
+		org.codehaus.groovy.ast.ClassNode newC = scope.getAstVisitor().getClassNodes(cFile.toUri()).get(0);
+		Assertions.assertNotSame(oldC, newC, "subclass of an unchanged subclass is recompiled");
+		Assertions.assertEquals("long",
+				newC.getSuperClass().getSuperClass().getMethods("twice").get(0).getReturnType().getName());
+	}
+
+	@Test
+	void testApiChangeRecompilesUsersOfInheritedMembers() throws IOException {
+		Path aFile = srcDir.resolve("A.groovy");
+		Path bFile = srcDir.resolve("B.groovy");
+		Path userFile = srcDir.resolve("User.groovy");
+		Path otherUserFile = srcDir.resolve("OtherUser.groovy");
+		Files.writeString(aFile, "class A { int twice(int x) { x * 2 } }");
+		Files.writeString(bFile, "class B extends A { }");
+		Files.writeString(userFile, "class User { def read(B b) { b.twice(1) } }");
+		Files.writeString(otherUserFile, "class OtherUser { def read(B b) { b.toString() } }");
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(srcDir.resolve("D" + i + ".groovy"), "class D" + i + " { }");
+		}
+		URI aUri = aFile.toUri();
+
+		CompilationUnitFactory factory = new CompilationUnitFactory();
+		ProjectScope scope = new ProjectScope(tempDir, factory);
+		scope.setClasspathResolved(true);
+		compilationService.ensureScopeCompiled(scope);
+		Assertions.assertEquals(Set.of(bFile.toUri()), scope.getDependencyGraph().getDirectDependents(aUri));
+		org.codehaus.groovy.ast.ClassNode oldUser = scope.getAstVisitor().getClassNodes(userFile.toUri()).get(0);
+		org.codehaus.groovy.ast.ClassNode oldOther = scope.getAstVisitor().getClassNodes(otherUserFile.toUri()).get(0);
+
+		fileContentsTracker.setContents(aUri, "class A { long twice(int x) { x * 2L } }");
+		fileContentsTracker.forceChanged(aUri);
+		compilationService.compileAndVisitAST(scope, aUri);
+
+		Assertions.assertTrue(scope.getCompilationCostModel().isMeasured(), "changes compiled incrementally");
+		Assertions.assertNotSame(oldUser, scope.getAstVisitor().getClassNodes(userFile.toUri()).get(0),
+				"file calling the changed method through the subclass is recompiled");
+		Assertions.assertSame(oldOther, scope.getAstVisitor().getClassNodes(otherUserFile.toUri()).get(0),
+				"dependent of the subclass not referencing the changed member keeps its AST");
+	}
+
 	@Test
 	void testCaptureClassSignaturesReturnsEntriesForCompiledClasses() throws Exception {
 		Path sigFile = srcDir.resolve("SigExample.groovy");
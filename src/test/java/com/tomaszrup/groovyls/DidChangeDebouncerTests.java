@@ -0,0 +1,312 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tomaszrup.groovyls.config.CompilationUnitFactory;
+
+/**
+ * Tests for {@link DidChangeDebouncer}: per-scope isolation, burst
+ * coalescing, and latency-driven delay adaptation. Timers run on a
+ * {@link ManualScheduler} whose clock only moves when a test advances it.
+ */
+class DidChangeDebouncerTests {
+
+	private ManualScheduler scheduler;
+	private final List<String> fired = new ArrayList<>();
+
+	@BeforeEach
+	void setup() {
+		scheduler = new ManualScheduler();
+	}
+
+	private static ProjectScope scope(String name) {
+		return new ProjectScope(Paths.get("/tmp/debounce-tests", name), new CompilationUnitFactory());
+	}
+
+	private static URI uri(String name) {
+		return Paths.get("/tmp/debounce-tests", name).toUri();
+	}
+
+	/** A debouncer that runs the compilation callback as soon as a timer fires. */
+	private DidChangeDebouncer debouncer(DidChangeDebouncer.CompilationCallback callback) {
+		return new DidChangeDebouncer(scheduler, Runnable::run, callback, scheduler::nanoTime);
+	}
+
+	@Test
+	void testEditInOtherScopeDoesNotCancelPendingCompile() {
+		ProjectScope scopeA = scope("a");
+		ProjectScope scopeB = scope("b");
+		DidChangeDebouncer debouncer = debouncer(
+				(scope, contextURI, changed) -> fired.add(scope.getProjectRoot().getFileName().toString()));
+
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		debouncer.schedule(scopeB, uri("b/B.groovy"));
+		scheduler.advance(DidChangeDebouncer.MAX_DELAY_MS);
+
+		Assertions.assertTrue(fired.contains("a"), "Scope A compile must not be cancelled by edit in B");
+		Assertions.assertTrue(fired.contains("b"));
+	}
+
+	@Test
+	void testBurstInOneScopeIsCoalescedIntoSingleCompile() {
+		ProjectScope scopeA = scope("a");
+		List<Set<URI>> batches = new ArrayList<>();
+		List<URI> contexts = new ArrayList<>();
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> {
+			batches.add(changed);
+			contexts.add(contextURI);
+		});
+
+		debouncer.schedule(scopeA, uri("a/One.groovy"));
+		scheduler.advance(DidChangeDebouncer.MIN_DELAY_MS - 1);
+		debouncer.schedule(scopeA, uri("a/Two.groovy"));
+		debouncer.schedule(scopeA, uri("a/One.groovy"));
+		Assertions.assertTrue(batches.isEmpty(), "Each edit re-arms the timer");
+
+		scheduler.advance(2 * DidChangeDebouncer.MAX_DELAY_MS);
+		Assertions.assertEquals(1, batches.size(), "Burst should produce exactly one compile");
+		Assertions.assertEquals(Set.of(uri("a/One.groovy"), uri("a/Two.groovy")), batches.get(0));
+		Assertions.assertEquals(uri("a/One.groovy"), contexts.get(0), "Context should be the last edited URI");
+	}
+
+	@Test
+	void testCompileRunsOnCompilerAsVisibleDocumentWork() {
+		ProjectScope scopeA = scope("a");
+		List<Runnable> compiles = new ArrayList<>();
+		DidChangeDebouncer debouncer = new DidChangeDebouncer(scheduler, compiles::add,
+				(scope, contextURI, changed) -> fired.add("a"), scheduler::nanoTime);
+
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		scheduler.advance(DidChangeDebouncer.MAX_DELAY_MS);
+
+		Assertions.assertTrue(fired.isEmpty(), "The timer only hands the compile over");
+		Assertions.assertEquals(1, compiles.size());
+		Assertions.assertEquals(WorkPriority.VISIBLE_DOCUMENT,
+				((WorkPriority.Tagged) compiles.get(0)).getPriority());
+		compiles.get(0).run();
+		Assertions.assertEquals(List.of("a"), fired);
+	}
+
+	@Test
+	void testDelayStartsAtInitialValue() {
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> { });
+		Assertions.assertEquals(DidChangeDebouncer.INITIAL_DELAY_MS,
+				debouncer.getCurrentDelayMs(scope("a"), uri("a/A.groovy")));
+	}
+
+	@Test
+	void testSlowCompilesIncreaseDelayForThatScopeOnly() {
+		ProjectScope slow = scope("slow");
+		ProjectScope fast = scope("fast");
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> {
+			scheduler.elapse(scope == slow ? 1200 : 10);
+			fired.add(scope.getProjectRoot().getFileName().toString());
+		});
+
+		debouncer.schedule(slow, uri("slow/S.groovy"));
+		debouncer.schedule(fast, uri("fast/F.groovy"));
+		scheduler.advance(DidChangeDebouncer.MAX_DELAY_MS);
+		Assertions.assertEquals(2, fired.size());
+
+		long slowDelay = debouncer.getCurrentDelayMs(slow, uri("slow/S.groovy"));
+		long fastDelay = debouncer.getCurrentDelayMs(fast, uri("fast/F.groovy"));
+		Assertions.assertEquals(600, slowDelay, "Half of the 1200ms compile");
+		Assertions.assertEquals(DidChangeDebouncer.MIN_DELAY_MS, fastDelay);
+	}
+
+	@Test
+	void testForgetCancelsPendingCompile() {
+		ProjectScope scopeA = scope("a");
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> fired.add("a"));
+
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		Assertions.assertTrue(debouncer.hasPending(scopeA));
+		debouncer.forget(scopeA);
+		Assertions.assertFalse(debouncer.hasPending(scopeA));
+
+		scheduler.advance(DidChangeDebouncer.MAX_DELAY_MS);
+		Assertions.assertTrue(fired.isEmpty(), "Forgotten scope should not compile");
+	}
+
+	@Test
+	void testReleaseDropsStateButStillFiresPendingCompile() {
+		ProjectScope scopeA = scope("a");
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> fired.add("a"));
+
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		debouncer.release(scopeA);
+
+		Assertions.assertFalse(debouncer.hasPending(scopeA), "Released scope should have no state");
+		Assertions.assertEquals(DidChangeDebouncer.INITIAL_DELAY_MS,
+				debouncer.getCurrentDelayMs(scopeA, uri("a/A.groovy")));
+		scheduler.advance(DidChangeDebouncer.MAX_DELAY_MS);
+		Assertions.assertEquals(List.of("a"), fired, "Armed timer should still fire");
+	}
+
+	@Test
+	void testForgetURIDropsTypingHistory() {
+		ProjectScope scopeA = scope("a");
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> { });
+
+		// Two edits in quick succession record a short typing gap
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		scheduler.elapse(50);
+		debouncer.schedule(scopeA, uri("a/A.groovy"));
+		Assertions.assertEquals(DidChangeDebouncer.MIN_DELAY_MS,
+				debouncer.getCurrentDelayMs(scopeA, uri("a/A.groovy")));
+
+		debouncer.forgetURI(uri("a/A.groovy"));
+
+		Assertions.assertEquals(DidChangeDebouncer.INITIAL_DELAY_MS,
+				debouncer.getCurrentDelayMs(scopeA, uri("a/A.groovy")));
+		debouncer.cancelAll();
+	}
+
+	@Test
+	void testNullScopeIsIgnored() {
+		DidChangeDebouncer debouncer = debouncer((scope, contextURI, changed) -> fired.add("null"));
+		Assertions.assertDoesNotThrow(() -> debouncer.schedule(null, uri("x/X.groovy")));
+		Assertions.assertFalse(debouncer.hasPending(null));
+	}
+
+	/**
+	 * Runs delayed tasks on the test thread when the test advances its
+	 * clock. Only {@link #schedule(Runnable, long, TimeUnit)} is supported.
+	 */
+	private static final class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+		private final List<Timer> timers = new ArrayList<>();
+		private long nowNanos;
+		private boolean shutdown;
+
+		long nanoTime() {
+			return nowNanos;
+		}
+
+		/** Moves the clock without running any timer, as a slow task would. */
+		void elapse(long millis) {
+			nowNanos += TimeUnit.MILLISECONDS.toNanos(millis);
+		}
+
+		/** Moves the clock, running every timer that comes due on the way in due order. */
+		void advance(long millis) {
+			long target = nowNanos + TimeUnit.MILLISECONDS.toNanos(millis);
+			while (true) {
+				timers.removeIf(Timer::isDone);
+				Timer next = timers.isEmpty() ? null : Collections.min(timers);
+				if (next == null || next.dueNanos > target) {
+					break;
+				}
+				timers.remove(next);
+				nowNanos = Math.max(nowNanos, next.dueNanos);
+				next.run();
+			}
+			nowNanos = Math.max(nowNanos, target);
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			Timer timer = new Timer(command, nowNanos + unit.toNanos(delay));
+			timers.add(timer);
+			return timer;
+		}
+
+		@Override
+		public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+				TimeUnit unit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+				TimeUnit unit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			schedule(command, 0, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void shutdown() {
+			shutdown = true;
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			shutdown = true;
+			return Collections.emptyList();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return shutdown;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return shutdown;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return shutdown;
+		}
+
+		private final class Timer extends FutureTask<Void> implements ScheduledFuture<Void> {
+			final long dueNanos;
+
+			Timer(Runnable command, long dueNanos) {
+				super(command, null);
+				this.dueNanos = dueNanos;
+			}
+
+			@Override
+			public long getDelay(TimeUnit unit) {
+				return unit.convert(dueNanos - nowNanos, TimeUnit.NANOSECONDS);
+			}
+
+			@Override
+			public int compareTo(Delayed other) {
+				return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+			}
+		}
+	}
+}
@@ -20,7 +20,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -61,16 +60,26 @@ class ExecutorPoolsTests {
 		Assertions.assertNotNull(pools.getSchedulingPool(), "Scheduling pool should be non-null");
 		Assertions.assertNotNull(pools.getImportPool(), "Import pool should be non-null");
 		Assertions.assertNotNull(pools.getBackgroundCompilationPool(), "Background compilation pool should be non-null");
+		Assertions.assertNotNull(pools.getRequestPool(), "Request pool should be non-null");
 	}
 
 	@Test
 	void testCompilationPermitsAreNotNull() {
-		Semaphore permits = pools.getCompilationPermits();
+		PriorityPermits permits = pools.getCompilationPermits();
 		Assertions.assertNotNull(permits, "Compilation permits semaphore should be non-null");
 		Assertions.assertTrue(permits.availablePermits() > 0,
 				"Should have at least 1 compilation permit");
 	}
 
+	@Test
+	void testPoolsRunTasksWithTheirDefaultPriority() throws Exception {
+		Assertions.assertEquals(WorkPriority.INTERACTIVE,
+				pools.getRequestPool().submit(WorkPriority::current).get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(WorkPriority.BACKGROUND_SCOPE,
+				pools.getBackgroundCompilationPool().submit(WorkPriority::current).get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(1, pools.getQueueWaitStats().getCount(WorkPriority.INTERACTIVE));
+	}
+
 	// ------------------------------------------------------------------
 	// MDC propagation — execute(Runnable)
 	// ------------------------------------------------------------------
@@ -254,7 +263,7 @@ class ExecutorPoolsTests {
 
 	@Test
 	void testCompilationPermitsAcquireAndRelease() throws Exception {
-		Semaphore permits = pools.getCompilationPermits();
+		PriorityPermits permits = pools.getCompilationPermits();
 		int initial = permits.availablePermits();
 
 		permits.acquire();
@@ -36,6 +36,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.tomaszrup.groovyls.config.CompilationUnitFactory;
 
@@ -44,6 +45,9 @@ class GroovyServicesCodeActionTests {
 	private static final String PATH_WORKSPACE = "./build/test_workspace/";
 	private static final String PATH_SRC = "./src/main/groovy";
 
+	@TempDir
+	Path indexCacheDir;
+
 	private GroovyServices services;
 	private Path workspaceRoot;
 	private Path srcRoot;
@@ -56,7 +60,7 @@ class GroovyServicesCodeActionTests {
 			srcRoot.toFile().mkdirs();
 		}
 
-		services = new GroovyServices(new CompilationUnitFactory());
+		services = new GroovyServices(new CompilationUnitFactory(), indexCacheDir);
 		services.setWorkspaceRoot(workspaceRoot);
 		services.connect(new TestLanguageClient());
 	}
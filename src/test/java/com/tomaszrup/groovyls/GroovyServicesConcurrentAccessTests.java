@@ -25,6 +25,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -42,11 +43,14 @@ import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.tomaszrup.groovyls.config.CompilationUnitFactory;
 
@@ -60,6 +64,9 @@ class GroovyServicesConcurrentAccessTests {
 	private static final String PATH_WORKSPACE = "./build/test_workspace/";
 	private static final String PATH_SRC = "./src/main/groovy";
 
+	@TempDir
+	Path indexCacheDir;
+
 	private GroovyServices services;
 	private Path workspaceRoot;
 	private Path srcRoot;
@@ -72,7 +79,7 @@ class GroovyServicesConcurrentAccessTests {
 			srcRoot.toFile().mkdirs();
 		}
 
-		services = new GroovyServices(new CompilationUnitFactory());
+		services = new GroovyServices(new CompilationUnitFactory(), indexCacheDir);
 		services.setWorkspaceRoot(workspaceRoot);
 		services.connect(new TestLanguageClient());
 	}
@@ -142,6 +149,17 @@ class GroovyServicesConcurrentAccessTests {
 	// Concurrent reads with a concurrent write (didChange)
 	// ------------------------------------------------------------------
 
+	/**
+	 * A read racing with an edit may legitimately be answered with
+	 * {@code ContentModified}: its position refers to the old text.
+	 */
+	private static boolean isContentModified(Exception e) {
+		Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+		return cause instanceof ResponseErrorException
+				&& ((ResponseErrorException) cause).getResponseError().getCode()
+						== ResponseErrorCode.ContentModified.getValue();
+	}
+
 	@Test
 	void testConcurrentReadWriteDoesNotCorrupt() throws Exception {
 		Path filePath = srcRoot.resolve("ConcurrentRWTarget.groovy");
@@ -169,7 +187,9 @@ class GroovyServicesConcurrentAccessTests {
 								new Position(1, 5));
 						services.hover(params).get(10, TimeUnit.SECONDS);
 					} catch (Exception e) {
-						errors.incrementAndGet();
+						if (!isContentModified(e)) {
+							errors.incrementAndGet();
+						}
 					}
 				}
 			}));
@@ -201,7 +221,9 @@ class GroovyServicesConcurrentAccessTests {
 							new Position(1, 10));
 					services.completion(params).get(10, TimeUnit.SECONDS);
 				} catch (Exception e) {
-					errors.incrementAndGet();
+					if (!isContentModified(e)) {
+						errors.incrementAndGet();
+					}
 				}
 			}
 		}));
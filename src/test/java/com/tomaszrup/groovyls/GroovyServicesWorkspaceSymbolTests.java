@@ -23,11 +23,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
@@ -36,6 +39,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.tomaszrup.groovyls.config.CompilationUnitFactory;
 
@@ -44,6 +48,9 @@ class GroovyServicesWorkspaceSymbolTests {
 	private static final String PATH_WORKSPACE = "./build/test_workspace/";
 	private static final String PATH_SRC = "./src/main/groovy";
 
+	@TempDir
+	Path indexCacheDir;
+
 	private GroovyServices services;
 	private Path workspaceRoot;
 	private Path srcRoot;
@@ -56,7 +63,7 @@ class GroovyServicesWorkspaceSymbolTests {
 			srcRoot.toFile().mkdirs();
 		}
 
-		services = new GroovyServices(new CompilationUnitFactory());
+		services = new GroovyServices(new CompilationUnitFactory(), indexCacheDir);
 		services.setWorkspaceRoot(workspaceRoot);
 		services.connect(new TestLanguageClient());
 	}
@@ -231,7 +238,7 @@ class GroovyServicesWorkspaceSymbolTests {
 	}
 
 	@Test
-	void testWorkspaceSymbolWithMultipleScopesUsesOpenProjectScopesOnly() throws Exception {
+	void testWorkspaceSymbolWithMultipleScopesIncludesIndexedScopeWithoutOpenFiles() throws Exception {
 		Path projectA = workspaceRoot.resolve("ws-scope-a");
 		Path projectB = workspaceRoot.resolve("ws-scope-b");
 		Path projectASrc = projectA.resolve("src/main/groovy");
@@ -241,15 +248,20 @@ class GroovyServicesWorkspaceSymbolTests {
 
 		services.registerDiscoveredProjects(Arrays.asList(projectA, projectB));
 
+		// Project B is compiled once, then its only file is closed
+		Path fileB = projectBSrc.resolve("OnlyB.groovy");
+		String uriB = fileB.toUri().toString();
+		String contentB = "class OnlyB { void fromB() {} }";
+		Files.writeString(fileB, contentB);
+		services.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uriB, LANGUAGE_GROOVY, 1, contentB)));
+		Assertions.assertFalse(services.symbol(new WorkspaceSymbolParams("OnlyB")).get().getRight().isEmpty());
+		services.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uriB)));
+
 		Path fileA = projectASrc.resolve("OnlyA.groovy");
 		String uriA = fileA.toUri().toString();
 		String contentA = "class OnlyA { void fromA() {} }";
 		services.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uriA, LANGUAGE_GROOVY, 1, contentA)));
 
-		Path fileB = projectBSrc.resolve("OnlyB.groovy");
-		String contentB = "class OnlyB { void fromB() {} }";
-		Files.writeString(fileB, contentB);
-
 		Either<List<? extends org.eclipse.lsp4j.SymbolInformation>, List<? extends WorkspaceSymbol>> resultA = services
 				.symbol(new WorkspaceSymbolParams("OnlyA")).get();
 		Assertions.assertTrue(resultA.isRight());
@@ -259,13 +271,49 @@ class GroovyServicesWorkspaceSymbolTests {
 		Either<List<? extends org.eclipse.lsp4j.SymbolInformation>, List<? extends WorkspaceSymbol>> resultB = services
 				.symbol(new WorkspaceSymbolParams("OnlyB")).get();
 		Assertions.assertTrue(resultB.isRight());
-		Assertions.assertTrue(resultB.getRight().isEmpty(),
-				"Should not return symbols from sibling project B when no file from project B is open");
+		Assertions.assertTrue(resultB.getRight().stream().anyMatch(s -> s.getName().equals("OnlyB")),
+				"Should return symbols from indexed project B although none of its files is open");
 
 		deleteDirectoryRecursively(projectA);
 		deleteDirectoryRecursively(projectB);
 	}
 
+	@Test
+	void testWorkspaceSymbolIncludesPersistedScopeAfterRestart() throws Exception {
+		Path projectB = workspaceRoot.resolve("ws-scope-b");
+		Path projectBSrc = projectB.resolve("src/main/groovy");
+		Files.createDirectories(projectBSrc);
+		services.registerDiscoveredProjects(Arrays.asList(projectB));
+
+		Path fileB = projectBSrc.resolve("OnlyB.groovy");
+		String uriB = fileB.toUri().toString();
+		String contentB = "class OnlyB { void fromB() {} }";
+		Files.writeString(fileB, contentB);
+		services.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uriB, LANGUAGE_GROOVY, 1, contentB)));
+		Assertions.assertFalse(services.symbol(new WorkspaceSymbolParams("OnlyB")).get().getRight().isEmpty());
+		services.shutdown();
+
+		// A new session that never compiles project B
+		services = new GroovyServices(new CompilationUnitFactory(), indexCacheDir);
+		services.setWorkspaceRoot(workspaceRoot);
+		services.connect(new TestLanguageClient());
+		services.registerDiscoveredProjects(Arrays.asList(projectB));
+		services.onImportComplete();
+
+		List<? extends WorkspaceSymbol> symbols = Collections.emptyList();
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (symbols.isEmpty() && System.currentTimeMillis() < deadline) {
+			symbols = services.symbol(new WorkspaceSymbolParams("OnlyB")).get().getRight();
+			if (symbols.isEmpty()) {
+				Thread.sleep(50);
+			}
+		}
+		Assertions.assertTrue(symbols.stream().anyMatch(s -> s.getName().equals("OnlyB")),
+				"Should return symbols persisted for project B by the previous session");
+
+		deleteDirectoryRecursively(projectB);
+	}
+
 	private void deleteDirectoryRecursively(Path root) throws Exception {
 		if (root == null || !Files.exists(root)) {
 			return;
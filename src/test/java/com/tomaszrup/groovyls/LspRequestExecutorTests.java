@@ -0,0 +1,193 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tomaszrup.groovyls.util.RequestCancellation;
+
+/**
+ * Tests for {@link LspRequestExecutor}: off-thread execution, client
+ * cancellation, supersession by document edits, and rejection when the
+ * pool is saturated.
+ */
+class LspRequestExecutorTests {
+
+	private static final URI URI_A = URI.create("file:///A.groovy");
+
+	private ExecutorService pool;
+	private final Map<URI, Integer> versions = new ConcurrentHashMap<>();
+	private LspRequestExecutor executor;
+
+	@BeforeEach
+	void setup() {
+		pool = Executors.newFixedThreadPool(2);
+		versions.put(URI_A, 1);
+		executor = new LspRequestExecutor(pool, versions::get);
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	private static int errorCode(Throwable throwable) {
+		Assertions.assertTrue(throwable instanceof ResponseErrorException, "Unexpected: " + throwable);
+		return ((ResponseErrorException) throwable).getResponseError().getCode();
+	}
+
+	private static Throwable failureOf(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+		Assertions.fail("Expected the request to fail");
+		return null;
+	}
+
+	// --- Execution ---
+
+	@Test
+	void testRunsHandlerOffCallerThread() throws Exception {
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Thread> result = executor.submit("hover",
+				() -> CompletableFuture.completedFuture(Thread.currentThread()));
+		Assertions.assertNotSame(caller, result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testHandlerFailureIsPropagated() throws Exception {
+		CompletableFuture<String> result = executor.submit("hover", () -> {
+			throw new IllegalStateException("boom");
+		});
+		Assertions.assertTrue(failureOf(result) instanceof IllegalStateException);
+		Assertions.assertEquals(0, executor.getDiscardedCount());
+	}
+
+	// --- Cancellation ---
+
+	@Test
+	void testClientCancellationIsVisibleToProviderLoops() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		AtomicBoolean stoppedEarly = new AtomicBoolean();
+		CompletableFuture<String> result = executor.submit("references", () -> {
+			started.countDown();
+			try {
+				cancelled.await(5, TimeUnit.SECONDS);
+				RequestCancellation.checkCanceled();
+			} catch (CancellationException e) {
+				stoppedEarly.set(true);
+				throw e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return CompletableFuture.completedFuture("done");
+		});
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		result.cancel(true);
+		cancelled.countDown();
+
+		pool.shutdown();
+		Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(stoppedEarly.get(), "Provider should observe the cancellation");
+		Assertions.assertEquals(1, executor.getDiscardedCount());
+	}
+
+	@Test
+	void testCheckCanceledIsNoOpOutsideRequest() {
+		Assertions.assertDoesNotThrow(() -> RequestCancellation.checkCanceled());
+	}
+
+	// --- Supersession ---
+
+	@Test
+	void testConcurrentRequestsOnSameDocumentAllComplete() throws Exception {
+		CompletableFuture<String> first = executor.submitVersioned("hover", URI_A,
+				() -> CompletableFuture.completedFuture("a"));
+		CompletableFuture<String> second = executor.submitVersioned("hover", URI_A,
+				() -> CompletableFuture.completedFuture("b"));
+		Assertions.assertEquals("a", first.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals("b", second.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testDocumentEditSupersedesRequest() throws Exception {
+		CompletableFuture<String> result = executor.submitVersioned("semanticTokensFull", URI_A, () -> {
+			versions.put(URI_A, 2);
+			return CompletableFuture.completedFuture("stale");
+		});
+		Assertions.assertEquals(ResponseErrorCode.ContentModified.getValue(), errorCode(failureOf(result)));
+		Assertions.assertEquals(1, executor.getDiscardedCount());
+	}
+
+	@Test
+	void testDocumentEditDoesNotSupersedePlainSubmit() throws Exception {
+		CompletableFuture<String> result = executor.submit("definition", () -> {
+			versions.put(URI_A, 2);
+			return CompletableFuture.completedFuture("edit");
+		});
+		Assertions.assertEquals("edit", result.get(5, TimeUnit.SECONDS));
+	}
+
+	// --- Saturation ---
+
+	@Test
+	void testSaturatedPoolRejectsWithServerCancelled() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor tiny = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(1));
+		try {
+			LspRequestExecutor saturated = new LspRequestExecutor(tiny, versions::get);
+			for (int i = 0; i < 2; i++) {
+				saturated.submit("references", () -> {
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return CompletableFuture.completedFuture("ok");
+				});
+			}
+			CompletableFuture<String> rejected = saturated.submit("references",
+					() -> CompletableFuture.completedFuture("never"));
+			Assertions.assertEquals(ResponseErrorCode.ServerCancelled.getValue(), errorCode(failureOf(rejected)));
+		} finally {
+			release.countDown();
+			tiny.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import com.tomaszrup.groovyls.util.MdcProjectContext;
+
+/**
+ * Tests for {@link PriorityExecutorService}: dequeue order by class,
+ * default and tagged classes, queue capacity, MDC propagation and queue
+ * wait statistics.
+ */
+class PriorityExecutorServiceTests {
+
+	private final QueueWaitStats stats = new QueueWaitStats();
+	private PriorityExecutorService pool;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (pool != null) {
+			pool.shutdownNow();
+			pool.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		MDC.clear();
+	}
+
+	/** Occupies the single worker of {@link #pool} until the returned latch is released. */
+	private CountDownLatch blockWorker() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		pool.execute(() -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		return release;
+	}
+
+	// --- Ordering ---
+
+	@Test
+	void testQueuedTasksRunMostUrgentClassFirst() throws Exception {
+		pool = new PriorityExecutorService(1, "test-priority", WorkPriority.BACKGROUND_SCOPE, 16, stats);
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch release = blockWorker();
+
+		pool.submit(WorkPriority.BACKFILL.wrap(() -> order.add("backfill")));
+		pool.submit(() -> order.add("scope"));
+		pool.submit(WorkPriority.VISIBLE_DOCUMENT.wrap(() -> order.add("visible")));
+		Future<?> last = pool.submit(WorkPriority.INTERACTIVE.wrap(() -> order.add("interactive")));
+		pool.submit(WorkPriority.INTERACTIVE.wrap(() -> order.add("interactive-2")));
+
+		release.countDown();
+		pool.shutdown();
+		Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(last.isDone());
+		Assertions.assertEquals(List.of("interactive", "interactive-2", "visible", "scope", "backfill"), order);
+	}
+
+	@Test
+	void testTaskRunsWithItsClassAsCurrent() throws Exception {
+		pool = new PriorityExecutorService(1, "test-priority", WorkPriority.BACKGROUND_SCOPE, 16, stats);
+		Future<WorkPriority> untagged = pool.submit(WorkPriority::current);
+		Assertions.assertEquals(WorkPriority.BACKGROUND_SCOPE, untagged.get(5, TimeUnit.SECONDS));
+
+		WorkPriority[] seen = new WorkPriority[1];
+		pool.submit(WorkPriority.BACKFILL.wrap(() -> seen[0] = WorkPriority.current())).get(5, TimeUnit.SECONDS);
+		Assertions.assertEquals(WorkPriority.BACKFILL, seen[0]);
+		Assertions.assertEquals(WorkPriority.VISIBLE_DOCUMENT, WorkPriority.current(),
+				"Threads outside the pools default to VISIBLE_DOCUMENT");
+	}
+
+	// --- Capacity ---
+
+	@Test
+	void testFullQueueRejectsTasks() throws Exception {
+		pool = new PriorityExecutorService(1, "test-priority", WorkPriority.INTERACTIVE, 1, stats);
+		CountDownLatch release = blockWorker();
+		try {
+			pool.execute(() -> { });
+			Assertions.assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	// --- MDC and statistics ---
+
+	@Test
+	void testMdcContextIsPropagated() throws Exception {
+		pool = new PriorityExecutorService(1, "test-priority", WorkPriority.BACKGROUND_SCOPE, 16, stats);
+		MDC.put(MdcProjectContext.MDC_KEY, "priority-project");
+		Future<String> captured = pool.submit(() -> MDC.get(MdcProjectContext.MDC_KEY));
+		Assertions.assertEquals("priority-project", captured.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testQueueWaitIsRecordedPerClass() throws Exception {
+		pool = new PriorityExecutorService(1, "test-priority", WorkPriority.BACKGROUND_SCOPE, 16, stats);
+		CountDownLatch release = blockWorker();
+		Future<?> backfill = pool.submit(WorkPriority.BACKFILL.wrap(() -> { }));
+		Thread.sleep(20);
+		release.countDown();
+		backfill.get(5, TimeUnit.SECONDS);
+
+		Assertions.assertEquals(1, stats.getCount(WorkPriority.BACKFILL));
+		Assertions.assertEquals(1, stats.getCount(WorkPriority.BACKGROUND_SCOPE), "the blocking task");
+		Assertions.assertTrue(stats.getMaxMillis(WorkPriority.BACKFILL) >= 20);
+		Assertions.assertEquals(0, stats.getCount(WorkPriority.INTERACTIVE));
+		Assertions.assertEquals(0, stats.getPercentileMillis(WorkPriority.INTERACTIVE, 99));
+	}
+}
@@ -0,0 +1,204 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PriorityPermits}: admission order by class, yielding
+ * between phases, interruption and wait statistics.
+ */
+class PriorityPermitsTests {
+
+	/** Starts a thread that acquires a permit, records its name and releases it. */
+	private static Thread startWaiter(PriorityPermits permits, WorkPriority priority, String name,
+			List<String> admitted) {
+		Thread thread = new Thread(() -> {
+			try {
+				permits.acquire(priority);
+				admitted.add(name);
+				permits.release();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, name);
+		thread.start();
+		return thread;
+	}
+
+	/** Waits until {@code threads} are blocked waiting for a permit. */
+	private static void awaitQueued(Thread... threads) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		for (Thread thread : threads) {
+			while (thread.getState() != Thread.State.WAITING) {
+				Assertions.assertTrue(System.nanoTime() < deadline, thread.getName() + " never queued");
+				Thread.sleep(1);
+			}
+		}
+	}
+
+	// --- Admission order ---
+
+	@Test
+	void testAcquireWithoutContentionDoesNotBlock() throws Exception {
+		PriorityPermits permits = new PriorityPermits(2);
+		permits.acquire(WorkPriority.BACKFILL);
+		permits.acquire(WorkPriority.INTERACTIVE);
+		Assertions.assertEquals(0, permits.availablePermits());
+		permits.release();
+		permits.release();
+		Assertions.assertEquals(2, permits.availablePermits());
+	}
+
+	@Test
+	void testMoreUrgentWaitersAreAdmittedFirst() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		List<String> admitted = new CopyOnWriteArrayList<>();
+		permits.acquire(WorkPriority.BACKFILL);
+
+		Thread backfill = startWaiter(permits, WorkPriority.BACKFILL, "backfill", admitted);
+		awaitQueued(backfill);
+		Thread scope = startWaiter(permits, WorkPriority.BACKGROUND_SCOPE, "scope", admitted);
+		awaitQueued(scope);
+		Thread interactive = startWaiter(permits, WorkPriority.INTERACTIVE, "interactive", admitted);
+		awaitQueued(interactive);
+
+		permits.release();
+		for (Thread thread : new Thread[] { backfill, scope, interactive }) {
+			thread.join(5000);
+		}
+		Assertions.assertEquals(List.of("interactive", "scope", "backfill"), admitted);
+	}
+
+	@Test
+	void testSameClassIsFifo() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		List<String> admitted = new CopyOnWriteArrayList<>();
+		permits.acquire(WorkPriority.INTERACTIVE);
+
+		Thread first = startWaiter(permits, WorkPriority.BACKGROUND_SCOPE, "first", admitted);
+		awaitQueued(first);
+		Thread second = startWaiter(permits, WorkPriority.BACKGROUND_SCOPE, "second", admitted);
+		awaitQueued(second);
+
+		permits.release();
+		first.join(5000);
+		second.join(5000);
+		Assertions.assertEquals(List.of("first", "second"), admitted);
+	}
+
+	// --- Yielding ---
+
+	@Test
+	void testYieldIsNoOpWithoutMoreUrgentWaiters() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		permits.acquire(WorkPriority.BACKGROUND_SCOPE);
+		Assertions.assertFalse(permits.yieldToHigherPriority(WorkPriority.BACKGROUND_SCOPE));
+		Assertions.assertEquals(0, permits.availablePermits());
+		permits.release();
+	}
+
+	@Test
+	void testYieldHandsPermitToInteractiveWork() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		List<String> admitted = new CopyOnWriteArrayList<>();
+		permits.acquire(WorkPriority.BACKFILL);
+
+		Thread interactive = startWaiter(permits, WorkPriority.INTERACTIVE, "interactive", admitted);
+		awaitQueued(interactive);
+		Assertions.assertTrue(permits.hasWaitersAbove(WorkPriority.BACKFILL));
+
+		Assertions.assertTrue(permits.yieldToHigherPriority(WorkPriority.BACKFILL));
+		admitted.add("backfill resumed");
+		interactive.join(5000);
+
+		Assertions.assertEquals(List.of("interactive", "backfill resumed"), admitted);
+		Assertions.assertEquals(0, permits.availablePermits(), "Yielding holder should hold a permit again");
+		permits.release();
+	}
+
+	@Test
+	void testYieldedHoldersAreCapped() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1, 0);
+		List<String> admitted = new CopyOnWriteArrayList<>();
+		permits.acquire(WorkPriority.BACKFILL);
+
+		Thread interactive = startWaiter(permits, WorkPriority.INTERACTIVE, "interactive", admitted);
+		awaitQueued(interactive);
+
+		Assertions.assertFalse(permits.yieldToHigherPriority(WorkPriority.BACKFILL),
+				"No holder may be parked, as it would keep its AST alive");
+		admitted.add("backfill done");
+		permits.release();
+		interactive.join(5000);
+
+		Assertions.assertEquals(List.of("backfill done", "interactive"), admitted);
+		Assertions.assertEquals(1, permits.availablePermits());
+	}
+
+	// --- Interruption ---
+
+	@Test
+	void testInterruptedWaiterLeavesQueue() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		permits.acquire(WorkPriority.BACKFILL);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		Thread waiter = new Thread(() -> {
+			try {
+				permits.acquire(WorkPriority.INTERACTIVE);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		});
+		waiter.start();
+		awaitQueued(waiter);
+		waiter.interrupt();
+
+		Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		Assertions.assertFalse(permits.hasWaitersAbove(WorkPriority.BACKFILL));
+		permits.release();
+		Assertions.assertEquals(1, permits.availablePermits());
+	}
+
+	// --- Statistics ---
+
+	@Test
+	void testWaitTimesAreRecordedPerClass() throws Exception {
+		PriorityPermits permits = new PriorityPermits(1);
+		permits.acquire(WorkPriority.BACKFILL);
+		Thread interactive = startWaiter(permits, WorkPriority.INTERACTIVE, "interactive",
+				new CopyOnWriteArrayList<>());
+		awaitQueued(interactive);
+		Thread.sleep(20);
+		permits.release();
+		interactive.join(5000);
+
+		QueueWaitStats stats = permits.getWaitStats();
+		Assertions.assertEquals(1, stats.getCount(WorkPriority.BACKFILL));
+		Assertions.assertEquals(1, stats.getCount(WorkPriority.INTERACTIVE));
+		Assertions.assertEquals(0, stats.getCount(WorkPriority.BACKGROUND_SCOPE));
+		Assertions.assertTrue(stats.getMaxMillis(WorkPriority.INTERACTIVE) >= 20);
+		Assertions.assertTrue(stats.getPercentileMillis(WorkPriority.INTERACTIVE, 99) >= 16,
+				"p99 upper bound should cover the recorded wait");
+		Assertions.assertTrue(stats.summary().contains("interactive n=1"), stats.summary());
+	}
+}
@@ -0,0 +1,168 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Tests for {@link ClassFileHeaderIndexer}.
+ */
+class ClassFileHeaderIndexerTests {
+	private static final String[] REJECTED = SharedClassGraphCache.getInstance().getMergedRejectedPackages();
+
+	// --- Equivalence with ClassGraph ---
+
+	@Test
+	void testMatchesClassGraphForEveryJarOnClasspath() throws Exception {
+		int jars = 0;
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if (!entry.endsWith(".jar")) {
+				continue;
+			}
+			Path jar = Paths.get(entry).toRealPath();
+			ClasspathSymbolIndex expected;
+			try (ScanResult scanResult = new ClassGraph()
+					.overrideClasspath(jar.toString())
+					.enableClassInfo()
+					.rejectPackages(REJECTED)
+					.scan()) {
+				expected = ClasspathSymbolIndex.fromScanResult(scanResult, jar.toString());
+			}
+			ClasspathSymbolIndex actual = new ClassFileHeaderIndexer(REJECTED).index(jar, jar.toString());
+
+			Assertions.assertEquals(describe(expected), describe(actual), jar.toString());
+			Assertions.assertEquals(expected.getPackageNames(), actual.getPackageNames(), jar.toString());
+			jars++;
+		}
+		Assertions.assertTrue(jars > 5, "groovy, lsp4j, gson...: " + jars);
+	}
+
+	@Test
+	void testIndexesClassDirectory() throws Exception {
+		Path classesDir = Files.createTempDirectory("gls-indexer-classes-");
+		copyClassFile(Gson.class, classesDir);
+		copyClassFile(com.google.gson.JsonDeserializer.class, classesDir);
+		copyClassFile(com.google.gson.annotations.SerializedName.class, classesDir);
+		copyClassFile(com.google.gson.LongSerializationPolicy.class, classesDir);
+		Files.write(classesDir.resolve("Broken.class"), new byte[] { 1, 2, 3 });
+
+		ClasspathSymbolIndex index = new ClassFileHeaderIndexer(REJECTED).index(classesDir, "/classes");
+
+		Assertions.assertEquals(List.of(
+				"com.google.gson.Gson CLASS Gson",
+				"com.google.gson.JsonDeserializer INTERFACE JsonDeserializer",
+				"com.google.gson.LongSerializationPolicy ENUM LongSerializationPolicy",
+				"com.google.gson.annotations.SerializedName ANNOTATION SerializedName"), describe(index));
+		Assertions.assertEquals("/classes", index.getAllSymbols().get(0).getClasspathElementPath());
+	}
+
+	// --- Zip handling ---
+
+	@Test
+	void testReadsStoredAndDeflatedEntriesAndSkipsMisplacedClasses() throws Exception {
+		Path jar = Files.createTempFile("gls-indexer-", ".jar");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+			out.setComment("trailing comment");
+			putStored(out, "com/google/gson/Gson.class", classBytes(Gson.class));
+			out.putNextEntry(new ZipEntry("com/google/gson/JsonElement.class"));
+			out.write(classBytes(com.google.gson.JsonElement.class));
+			out.putNextEntry(new ZipEntry("wrong/place/JsonArray.class"));
+			out.write(classBytes(com.google.gson.JsonArray.class));
+			out.putNextEntry(new ZipEntry("META-INF/versions/11/com/google/gson/JsonNull.class"));
+			out.write(classBytes(com.google.gson.JsonNull.class));
+		}
+
+		ClasspathSymbolIndex index = new ClassFileHeaderIndexer(REJECTED).index(jar, jar.toString());
+
+		Assertions.assertEquals(List.of("com.google.gson.Gson CLASS Gson", "com.google.gson.JsonElement CLASS JsonElement"),
+				describe(index));
+	}
+
+	@Test
+	void testRejectedPackagesAreLeftOut() throws Exception {
+		Path jar = Paths.get(Gson.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+		ClasspathSymbolIndex index = new ClassFileHeaderIndexer(new String[] { "com.google.gson.internal." })
+				.index(jar, jar.toString());
+
+		Assertions.assertFalse(index.getSymbolsBySimpleName("Gson", null).isEmpty());
+		Assertions.assertTrue(index.getAllSymbols().stream()
+				.noneMatch(symbol -> symbol.getPackageName().startsWith("com.google.gson.internal")));
+		Assertions.assertFalse(index.getPackageNames().contains("com.google.gson.internal"));
+	}
+
+	@Test
+	void testCorruptJarFails() throws Exception {
+		Path jar = Files.createTempFile("gls-indexer-corrupt-", ".jar");
+		Files.write(jar, new byte[] { 'P', 'K', 3, 4, 0, 0, 0 });
+
+		Assertions.assertThrows(IOException.class, () -> new ClassFileHeaderIndexer(REJECTED).index(jar, "x"));
+	}
+
+	// --- Helpers ---
+
+	private static List<String> describe(ClasspathSymbolIndex index) {
+		List<String> described = new ArrayList<>();
+		for (ClasspathSymbolIndex.Symbol symbol : index.getAllSymbols()) {
+			described.add(symbol.getName() + " " + symbol.getKind() + " " + symbol.getSimpleName());
+		}
+		return described;
+	}
+
+	private static byte[] classBytes(Class<?> type) throws IOException {
+		try (InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static void copyClassFile(Class<?> type, Path classesDir) throws IOException {
+		Path target = classesDir.resolve(type.getName().replace('.', '/') + ".class");
+		Files.createDirectories(target.getParent());
+		try (OutputStream out = Files.newOutputStream(target)) {
+			out.write(classBytes(type));
+		}
+	}
+
+	private static void putStored(ZipOutputStream out, String name, byte[] bytes) throws IOException {
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(bytes.length);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		entry.setCrc(crc.getValue());
+		out.putNextEntry(entry);
+		out.write(bytes);
+	}
+}
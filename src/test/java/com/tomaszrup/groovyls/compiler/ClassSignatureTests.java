@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Modifier;
+import java.util.Set;
 
 /**
  * Unit tests for {@link ClassSignature}: factory method, equals/hashCode
@@ -422,6 +423,74 @@ class ClassSignatureTests {
 		Assertions.assertNotEquals(sig1, sig2);
 	}
 
+	// ------------------------------------------------------------------
+	// changedMemberNames()
+	// ------------------------------------------------------------------
+
+	@Test
+	void testChangedMemberNamesOfAddedMethod() {
+		ClassNode before = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		addSampleMembers(before);
+		ClassNode after = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		addSampleMembers(after);
+		after.addMethod(new MethodNode("helper", Modifier.PRIVATE, ClassHelper.VOID_TYPE,
+				Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, new BlockStatement()));
+
+		Set<String> names = ClassSignature.changedMemberNames(ClassSignature.of(before), ClassSignature.of(after));
+
+		Assertions.assertEquals(Set.of("helper", "getHelper", "setHelper", "isHelper"), names);
+	}
+
+	@Test
+	void testChangedMemberNamesOfGetterIncludePropertyName() {
+		ClassNode before = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		addSampleMembers(before);
+		ClassNode after = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		after.addMethod(new MethodNode("getValue", Modifier.PUBLIC, ClassHelper.int_TYPE,
+				Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, new BlockStatement()));
+		after.addField(new FieldNode("id", Modifier.PRIVATE, ClassHelper.int_TYPE, after, null));
+
+		Set<String> names = ClassSignature.changedMemberNames(ClassSignature.of(before), ClassSignature.of(after));
+
+		Assertions.assertTrue(names.containsAll(Set.of("getValue", "value")), names.toString());
+		Assertions.assertFalse(names.contains("id"));
+	}
+
+	@Test
+	void testChangedMemberNamesOfFieldIncludeAccessors() {
+		ClassNode before = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		addSampleMembers(before);
+		ClassNode after = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		after.addMethod(new MethodNode("getValue", Modifier.PUBLIC, ClassHelper.STRING_TYPE,
+				Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, new BlockStatement()));
+		after.addField(new FieldNode("id", Modifier.PRIVATE, ClassHelper.long_TYPE, after, null));
+
+		Set<String> names = ClassSignature.changedMemberNames(ClassSignature.of(before), ClassSignature.of(after));
+
+		Assertions.assertEquals(Set.of("id", "getId", "setId", "isId"), names);
+	}
+
+	@Test
+	void testChangedMemberNamesIsNullForHierarchyChange() {
+		ClassNode base = new ClassNode("com.example.Base", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		ClassNode before = new ClassNode("com.example.Svc", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		ClassNode after = new ClassNode("com.example.Svc", Modifier.PUBLIC, base);
+
+		Assertions.assertNull(ClassSignature.changedMemberNames(ClassSignature.of(before), ClassSignature.of(after)));
+		Assertions.assertNull(ClassSignature.changedMemberNames(null, ClassSignature.of(after)));
+		Assertions.assertNull(ClassSignature.changedMemberNames(ClassSignature.of(before), null));
+	}
+
+	@Test
+	void testChangedMemberNamesIsNullForOperatorMethod() {
+		ClassNode before = new ClassNode("com.example.Money", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		ClassNode after = new ClassNode("com.example.Money", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE);
+		after.addMethod(new MethodNode("plus", Modifier.PUBLIC, after,
+				new Parameter[] { new Parameter(after, "other") }, ClassNode.EMPTY_ARRAY, new BlockStatement()));
+
+		Assertions.assertNull(ClassSignature.changedMemberNames(ClassSignature.of(before), ClassSignature.of(after)));
+	}
+
 	// ------------------------------------------------------------------
 	// toString()
 	// ------------------------------------------------------------------
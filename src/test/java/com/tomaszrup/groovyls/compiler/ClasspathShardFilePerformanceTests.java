@@ -0,0 +1,128 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Compares cold loads of {@link ClasspathShardFile} shards with the
+ * ClassGraph JSON cache format they replaced. Timings are logged; the bounds
+ * are generous, and the class runs only in the {@code memoryTest} task, so
+ * that slow or busy machines don't fail the build.
+ */
+class ClasspathShardFilePerformanceTests {
+	private static final Logger logger = LoggerFactory.getLogger(ClasspathShardFilePerformanceTests.class);
+	private static final String[] REJECTED = SharedClassGraphCache.getInstance().getMergedRejectedPackages();
+
+	private Path dir;
+
+	@BeforeEach
+	void setup() throws Exception {
+		dir = Files.createTempDirectory("gls-shard-perf-");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	/**
+	 * Loads the index of the same JARs from the ClassGraph JSON cache format
+	 * ({@code ScanResult.fromJSON} and projection) and from shard files. Each
+	 * path is timed several times and the best run is kept, to discount JIT
+	 * warm-up.
+	 */
+	@Test
+	void testBinaryShardsColdLoadAgainstClassGraphJson() throws Exception {
+		List<Path> jars = List.of(jarOf(Gson.class).toRealPath(), jarOf(ClassGraph.class).toRealPath(),
+				jarOf(org.eclipse.lsp4j.Position.class).toRealPath());
+
+		Path jsonFile = dir.resolve("scan.json");
+		try (ScanResult scanResult = new ClassGraph()
+				.overrideClasspath(jars)
+				.enableClassInfo()
+				.rejectPackages(REJECTED)
+				.scan()) {
+			Files.writeString(jsonFile, scanResult.toJSON(), StandardCharsets.UTF_8);
+		}
+		List<Path> shardFiles = new ArrayList<>();
+		for (Path jar : jars) {
+			Path shardFile = dir.resolve(jar.getFileName() + ".idx");
+			ClasspathShardFile.write(shardFile, jar.toString(),
+					new ClassFileHeaderIndexer(REJECTED).index(jar, jar.toString()));
+			shardFiles.add(shardFile);
+		}
+
+		long bestJsonNanos = Long.MAX_VALUE;
+		long bestBinaryNanos = Long.MAX_VALUE;
+		int jsonSymbols = 0;
+		int binarySymbols = 0;
+		for (int run = 0; run < 5; run++) {
+			long start = System.nanoTime();
+			try (ScanResult scanResult = ScanResult.fromJSON(Files.readString(jsonFile, StandardCharsets.UTF_8))) {
+				jsonSymbols = ClasspathSymbolIndex.fromScanResult(scanResult).getAllSymbols().size();
+			}
+			bestJsonNanos = Math.min(bestJsonNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			List<ClasspathSymbolIndex> shards = new ArrayList<>();
+			for (int i = 0; i < jars.size(); i++) {
+				shards.add(ClasspathShardFile.read(shardFiles.get(i), jars.get(i).toString()));
+			}
+			binarySymbols = ClasspathSymbolIndex.compose(shards).getAllSymbols().size();
+			bestBinaryNanos = Math.min(bestBinaryNanos, System.nanoTime() - start);
+		}
+
+		long shardBytes = 0;
+		for (Path shardFile : shardFiles) {
+			shardBytes += Files.size(shardFile);
+		}
+		logger.info("Cold load of {} symbols: ClassGraph JSON {} ms ({} KB), binary shards {} ms ({} KB)",
+				binarySymbols, bestJsonNanos / 1_000_000, Files.size(jsonFile) / 1024,
+				bestBinaryNanos / 1_000_000, shardBytes / 1024);
+		Assertions.assertEquals(jsonSymbols, binarySymbols);
+		Assertions.assertTrue(shardBytes < Files.size(jsonFile));
+		Assertions.assertTrue(bestBinaryNanos < 2 * bestJsonNanos,
+				"binary " + bestBinaryNanos + "ns, JSON " + bestJsonNanos + "ns, expected binary not to be slower");
+		Assertions.assertTrue(bestBinaryNanos < 5_000_000_000L,
+				"Loading binary shards took " + bestBinaryNanos / 1_000_000 + "ms, expected < 5s");
+	}
+
+	private static Path jarOf(Class<?> type) throws Exception {
+		return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+}
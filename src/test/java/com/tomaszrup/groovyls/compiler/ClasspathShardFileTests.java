@@ -0,0 +1,172 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+/**
+ * Tests for {@link ClasspathShardFile}. The cold-load comparison against the
+ * ClassGraph JSON cache format is in {@link ClasspathShardFilePerformanceTests}.
+ */
+class ClasspathShardFileTests {
+	private static final String[] REJECTED = SharedClassGraphCache.getInstance().getMergedRejectedPackages();
+	private static final String KEY = "file\n/some/library.jar\n42\n1700000000000\n";
+
+	private Path dir;
+
+	@BeforeEach
+	void setup() throws Exception {
+		dir = Files.createTempDirectory("gls-shard-file-");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	// --- Round trip ---
+
+	@Test
+	void testRoundTripPreservesIndex() throws Exception {
+		Path jar = jarOf(Gson.class).toRealPath();
+		ClasspathSymbolIndex index = new ClassFileHeaderIndexer(REJECTED).index(jar, jar.toString());
+		Path file = dir.resolve("gson.idx");
+		ClasspathShardFile.write(file, KEY, index);
+
+		ClasspathSymbolIndex restored = ClasspathShardFile.read(file, KEY);
+		Assertions.assertNotNull(restored);
+		Assertions.assertEquals(names(index), names(restored));
+		Assertions.assertEquals(index.getPackageNames(), restored.getPackageNames());
+		for (String query : List.of("", "G", "Json", "JE", "TA")) {
+			Assertions.assertEquals(matching(index, query), matching(restored, query), query);
+		}
+		ClasspathSymbolIndex.Symbol gson = restored.getSymbolsBySimpleName("Gson", null).get(0);
+		Assertions.assertEquals("com.google.gson", gson.getPackageName());
+		Assertions.assertEquals(jar.toString(), gson.getClasspathElementPath());
+		Assertions.assertEquals(ClasspathSymbolIndex.SymbolKind.CLASS, gson.getKind());
+	}
+
+	@Test
+	void testRoundTripPreservesNonAsciiNames() throws Exception {
+		ClasspathSymbolIndex.Builder builder = new ClasspathSymbolIndex.Builder("/libs/über.jar");
+		builder.add("päck.Grüße", "päck", ClasspathSymbolIndex.SymbolKind.CLASS);
+		builder.add("päck.Grüße$𝐀", "päck", ClasspathSymbolIndex.SymbolKind.ENUM);
+		builder.add("päck.Grüße$𝐁", "päck", ClasspathSymbolIndex.SymbolKind.INTERFACE);
+		ClasspathSymbolIndex index = builder.build();
+		Path file = dir.resolve("unicode.idx");
+		ClasspathShardFile.write(file, KEY, index);
+
+		ClasspathSymbolIndex restored = ClasspathShardFile.read(file, KEY);
+		Assertions.assertEquals(names(index), names(restored));
+		Assertions.assertEquals("/libs/über.jar",
+				restored.getAllSymbols().get(0).getClasspathElementPath());
+	}
+
+	@Test
+	void testEmptyIndexRoundTrips() throws Exception {
+		Path file = dir.resolve("empty.idx");
+		ClasspathShardFile.write(file, KEY, ClasspathSymbolIndex.empty());
+		Assertions.assertTrue(ClasspathShardFile.read(file, KEY).getAllSymbols().isEmpty());
+	}
+
+	// --- Validation ---
+
+	@Test
+	void testOtherKeyIsNotLoaded() throws Exception {
+		Path file = writeGsonShard();
+		Assertions.assertNull(ClasspathShardFile.read(file, KEY + "other"));
+	}
+
+	@Test
+	void testOtherFormatVersionIsNotLoaded() throws Exception {
+		Path file = writeGsonShard();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[7] = (byte) (ClasspathShardFile.FORMAT_VERSION + 1);
+		Files.write(file, bytes);
+		Assertions.assertNull(ClasspathShardFile.read(file, KEY));
+	}
+
+	@Test
+	void testCorruptPayloadFailsChecksum() throws Exception {
+		Path file = writeGsonShard();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length / 2] ^= 0x5A;
+		Files.write(file, bytes);
+		Assertions.assertThrows(IOException.class, () -> ClasspathShardFile.read(file, KEY));
+	}
+
+	@Test
+	void testTruncatedFileIsRejected() throws Exception {
+		Path file = writeGsonShard();
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		Assertions.assertThrows(IOException.class, () -> ClasspathShardFile.read(file, KEY));
+		Files.write(file, Arrays.copyOf(bytes, 8));
+		Assertions.assertThrows(IOException.class, () -> ClasspathShardFile.read(file, KEY));
+	}
+
+	@Test
+	void testOtherFileIsRejected() throws Exception {
+		Path file = dir.resolve("other.idx");
+		Files.write(file, "{\"classes\":[]}".getBytes(StandardCharsets.UTF_8));
+		Assertions.assertThrows(IOException.class, () -> ClasspathShardFile.read(file, KEY));
+	}
+
+	// --- Helpers ---
+
+	private Path writeGsonShard() throws Exception {
+		Path jar = jarOf(Gson.class).toRealPath();
+		Path file = dir.resolve("gson.idx");
+		ClasspathShardFile.write(file, KEY, new ClassFileHeaderIndexer(REJECTED).index(jar, jar.toString()));
+		return file;
+	}
+
+	private static Path jarOf(Class<?> type) throws Exception {
+		return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	private static List<String> names(ClasspathSymbolIndex index) {
+		List<String> names = new ArrayList<>();
+		for (ClasspathSymbolIndex.Symbol symbol : index.getAllSymbols()) {
+			names.add(symbol.getName());
+		}
+		return names;
+	}
+
+	private static List<String> matching(ClasspathSymbolIndex index, String query) {
+		List<String> names = new ArrayList<>();
+		index.forEachTypeMatching(query, null, symbol -> names.add(symbol.getName()));
+		return names;
+	}
+}
@@ -0,0 +1,283 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+import groovy.lang.GroovyClassLoader;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Tests for {@link ClasspathShardStore} and the shard-composed indexes of
+ * {@link SharedClasspathIndexCache}.
+ */
+class ClasspathShardStoreTests {
+	private Path cacheDir;
+	private ClasspathShardStore store;
+
+	@BeforeEach
+	void setup() throws Exception {
+		cacheDir = Files.createTempDirectory("gls-shards-");
+		store = new ClasspathShardStore(cacheDir, SharedClassGraphCache.getInstance());
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		store.clear();
+		try (Stream<Path> paths = Files.walk(cacheDir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	// --- Composition ---
+
+	@Test
+	void testComposedIndexMatchesScanOfWholeClasspath() throws Exception {
+		List<Path> jars = List.of(jarOf(Gson.class), jarOf(ClassGraph.class), jarOf(org.eclipse.lsp4j.Position.class));
+		List<ClasspathShardStore.ShardKey> keys = new ArrayList<>();
+		for (Path jar : jars) {
+			keys.add(store.keyFor(jar));
+		}
+		ClasspathSymbolIndex composed = ClasspathSymbolIndex.compose(store.getShards(keys));
+
+		ClasspathSymbolIndex scanned;
+		try (ScanResult scanResult = new ClassGraph()
+				.overrideClasspath(jars)
+				.enableClassInfo()
+				.rejectPackages(SharedClassGraphCache.getInstance().getMergedRejectedPackages())
+				.scan()) {
+			scanned = ClasspathSymbolIndex.fromScanResult(scanResult);
+		}
+
+		Assertions.assertEquals(names(scanned.getAllSymbols()), names(composed.getAllSymbols()));
+		Assertions.assertEquals(scanned.getPackageNames(), composed.getPackageNames());
+		for (String query : List.of("", "G", "Json", "ClassI", "JE", "TDI", "Pos")) {
+			Assertions.assertEquals(matching(scanned, query), matching(composed, query), query);
+		}
+		Assertions.assertEquals(jars.get(0).toRealPath().toString(),
+				composed.getSymbolsBySimpleName("Gson", null).get(0).getClasspathElementPath());
+	}
+
+	// --- Incremental scans ---
+
+	@Test
+	void testAddingJarScansOnlyThatJar() throws Exception {
+		SharedClasspathIndexCache cache = new SharedClasspathIndexCache(store);
+		Path gson = jarOf(Gson.class);
+		Path classGraph = jarOf(ClassGraph.class);
+		Path lsp4j = jarOf(org.eclipse.lsp4j.Position.class);
+
+		ClasspathSymbolIndex first = cache.acquireWithResult(classLoader(gson, classGraph)).getIndex();
+		Assertions.assertEquals(3, store.getScanCount(), "JDK plus two JARs");
+		Assertions.assertSame(first, cache.acquireWithResult(classLoader(gson, classGraph)).getIndex());
+
+		SharedClasspathIndexCache.AcquireResult second = cache.acquireWithResult(classLoader(gson, classGraph, lsp4j));
+		Assertions.assertEquals(4, store.getScanCount(), "only the added JAR is scanned");
+		Assertions.assertNull(second.getOwnClasspathElementPaths());
+		Assertions.assertFalse(second.getIndex().getSymbolsBySimpleName("Position", null).isEmpty());
+		Assertions.assertTrue(first.getSymbolsBySimpleName("Position", null).isEmpty());
+		Assertions.assertFalse(second.getIndex().getSymbolsBySimpleName("String", null).isEmpty(), "JDK shard");
+	}
+
+	@Test
+	void testJarShardsPersistAcrossRestarts() throws Exception {
+		ClasspathShardStore.ShardKey key = store.keyFor(jarOf(Gson.class));
+		List<String> expected = names(store.getShards(List.of(key)).get(0).getAllSymbols());
+		Assertions.assertTrue(Files.isRegularFile(store.getCacheFile(key)));
+
+		ClasspathShardStore restarted = new ClasspathShardStore(cacheDir, SharedClassGraphCache.getInstance());
+		ClasspathShardStore.ShardKey restartedKey = restarted.keyFor(jarOf(Gson.class));
+		Assertions.assertEquals(expected, names(restarted.getShards(List.of(restartedKey)).get(0).getAllSymbols()));
+		Assertions.assertEquals(0, restarted.getScanCount());
+	}
+
+	@Test
+	void testJdkShardIsPersistedAndSharedByReference() throws Exception {
+		ClasspathShardStore.ShardKey key = store.jdkKey();
+		Assertions.assertTrue(key.persistent);
+		ClasspathSymbolIndex jdk = store.getShards(List.of(key)).get(0);
+		Assertions.assertFalse(jdk.getSymbolsBySimpleName("String", null).isEmpty());
+		Assertions.assertTrue(Files.isRegularFile(store.getCacheFile(key)));
+		Assertions.assertSame(jdk, store.getShards(List.of(store.jdkKey())).get(0));
+
+		ClasspathShardStore restarted = new ClasspathShardStore(cacheDir, SharedClassGraphCache.getInstance());
+		ClasspathSymbolIndex reloaded = restarted.getShards(List.of(restarted.jdkKey())).get(0);
+		Assertions.assertEquals(names(jdk.getAllSymbols()), names(reloaded.getAllSymbols()));
+		Assertions.assertEquals(0, restarted.getScanCount());
+	}
+
+	@Test
+	void testJdkShardKeyTracksRejectedPackages() {
+		SharedClassGraphCache settings = new SharedClassGraphCache();
+		ClasspathShardStore configured = new ClasspathShardStore(cacheDir, settings);
+		String before = configured.jdkKey().id;
+		settings.setAdditionalRejectedPackages(List.of("javax.swing"));
+		Assertions.assertNotEquals(before, configured.jdkKey().id);
+	}
+
+	@Test
+	void testModifiedJarGetsNewShard() throws Exception {
+		Path jar = cacheDir.resolve("copy.jar");
+		Files.copy(jarOf(Gson.class), jar);
+		ClasspathShardStore.ShardKey before = store.keyFor(jar);
+		store.getShards(List.of(before));
+
+		Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 60_000));
+		ClasspathShardStore.ShardKey after = store.keyFor(jar);
+		Assertions.assertNotEquals(before.id, after.id);
+		store.getShards(List.of(after));
+		Assertions.assertEquals(2, store.getScanCount());
+	}
+
+	@Test
+	void testDirectoryShardTracksClassFiles() throws Exception {
+		Path classesDir = Files.createDirectories(cacheDir.resolve("classes"));
+		copyClassFile(Gson.class, classesDir);
+		ClasspathShardStore.ShardKey before = store.keyFor(classesDir);
+		Assertions.assertFalse(before.persistent);
+		Assertions.assertEquals(List.of("com.google.gson.Gson"),
+				names(store.getShards(List.of(before)).get(0).getAllSymbols()));
+
+		copyClassFile(com.google.gson.JsonElement.class, classesDir);
+		ClasspathShardStore.ShardKey after = store.keyFor(classesDir);
+		Assertions.assertNotEquals(before.id, after.id);
+		Assertions.assertEquals(List.of("com.google.gson.Gson", "com.google.gson.JsonElement"),
+				names(store.getShards(List.of(after)).get(0).getAllSymbols()));
+		Assertions.assertFalse(Files.exists(store.getCacheFile(after)), "directory shards are not persisted");
+	}
+
+	@Test
+	void testMissingElementHasNoKey() {
+		Assertions.assertNull(store.keyFor(cacheDir.resolve("missing.jar")));
+	}
+
+	// --- Concurrency ---
+
+	@Test
+	void testConcurrentCallersShareOneScan() throws Exception {
+		ClasspathShardStore.ShardKey key = store.keyFor(jarOf(Gson.class));
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<ClasspathSymbolIndex>>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(callers.submit(() -> store.getShards(List.of(key))));
+			}
+			ClasspathSymbolIndex first = results.get(0).get(30, TimeUnit.SECONDS).get(0);
+			Assertions.assertNotNull(first);
+			for (Future<List<ClasspathSymbolIndex>> result : results) {
+				Assertions.assertSame(first, result.get(30, TimeUnit.SECONDS).get(0));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+		Assertions.assertEquals(1, store.getScanCount());
+	}
+
+	@Test
+	void testStatisticsDoNotWaitOnScans() throws Exception {
+		CountDownLatch scanStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		store.setScanExecutor(task -> {
+			scanStarted.countDown();
+			awaitQuietly(release);
+			task.run();
+		});
+		List<ClasspathShardStore.ShardKey> keys = List.of(store.keyFor(jarOf(Gson.class)),
+				store.keyFor(jarOf(ClassGraph.class)));
+		CompletableFuture<List<ClasspathSymbolIndex>> shards = CompletableFuture.supplyAsync(() -> store.getShards(keys));
+		try {
+			Assertions.assertTrue(scanStarted.await(10, TimeUnit.SECONDS));
+			Assertions.assertEquals(0, (int) CompletableFuture.supplyAsync(store::getShardCount)
+					.get(5, TimeUnit.SECONDS));
+			Assertions.assertEquals(0L, (long) CompletableFuture.supplyAsync(store::estimateMemoryBytes)
+					.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+		Assertions.assertEquals(2, shards.get(30, TimeUnit.SECONDS).size());
+		Assertions.assertEquals(2, store.getScanCount());
+	}
+
+	// --- Helpers ---
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Path jarOf(Class<?> type) throws Exception {
+		return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	private static GroovyClassLoader classLoader(Path... elements) {
+		GroovyClassLoader classLoader = new GroovyClassLoader(ClassLoader.getSystemClassLoader().getParent(),
+				new CompilerConfiguration(), true);
+		for (Path element : elements) {
+			classLoader.addClasspath(element.toString());
+		}
+		return classLoader;
+	}
+
+	private static void copyClassFile(Class<?> type, Path classesDir) throws Exception {
+		String resource = type.getName().replace('.', '/') + ".class";
+		Path target = classesDir.resolve(resource);
+		Files.createDirectories(target.getParent());
+		try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+			Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static List<String> names(List<ClasspathSymbolIndex.Symbol> symbols) {
+		List<String> names = new ArrayList<>();
+		for (ClasspathSymbolIndex.Symbol symbol : symbols) {
+			names.add(symbol.getName());
+		}
+		return names;
+	}
+
+	private static List<String> matching(ClasspathSymbolIndex index, String query) {
+		List<String> names = new ArrayList<>();
+		index.forEachTypeMatching(query, null, symbol -> names.add(symbol.getName()));
+		return names;
+	}
+}
@@ -0,0 +1,93 @@
+package com.tomaszrup.groovyls.compiler;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the retained heap of {@link ClasspathSymbolIndex} on the test
+ * classpath against the object-per-symbol layout it replaced.
+ *
+ * <p>Heap measurements depend on the collector, so this class is excluded
+ * from the default {@code test} task and runs with {@code memoryTest}.</p>
+ */
+class ClasspathSymbolIndexPerformanceTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClasspathSymbolIndexPerformanceTests.class);
+
+    /** One object holding four strings per symbol, as before the columns. */
+    private static final class ObjectPerSymbol {
+        final String name;
+        final String simpleName;
+        final String packageName;
+        final String classpathElementPath;
+
+        ObjectPerSymbol(String name, String simpleName, String packageName, String classpathElementPath) {
+            this.name = name;
+            this.simpleName = simpleName;
+            this.packageName = packageName;
+            this.classpathElementPath = classpathElementPath;
+        }
+    }
+
+    @Test
+    void testColumnarIndexRetainsLessHeapThanObjectPerSymbol() throws IOException {
+        long baseline = usedHeapAfterGc();
+        ClasspathSymbolIndex index;
+        try (ScanResult scan = new ClassGraph().enableClassInfo().ignoreClassVisibility().scan()) {
+            index = ClasspathSymbolIndex.fromScanResult(scan);
+        }
+        long columnarBytes = usedHeapAfterGc() - baseline;
+        int symbolCount = index.getAllSymbols().size();
+        index = null;
+
+        baseline = usedHeapAfterGc();
+        List<ObjectPerSymbol> objects;
+        try (ScanResult scan = new ClassGraph().enableClassInfo().ignoreClassVisibility().scan()) {
+            objects = new ArrayList<>(scan.getAllClasses().size());
+            for (ClassInfo classInfo : scan.getAllClasses()) {
+                objects.add(new ObjectPerSymbol(classInfo.getName(), classInfo.getSimpleName(),
+                        classInfo.getPackageName(), canonicalElementPath(classInfo)));
+            }
+        }
+        long objectPerSymbolBytes = usedHeapAfterGc() - baseline;
+        Assertions.assertEquals(symbolCount, objects.size());
+
+        logger.info("Classpath symbol index of {} symbols: columnar {} KB, object-per-symbol {} KB",
+                symbolCount, columnarBytes / 1024, objectPerSymbolBytes / 1024);
+        Assertions.assertTrue(columnarBytes * 2 < objectPerSymbolBytes,
+                "columnar " + columnarBytes + " B vs object-per-symbol " + objectPerSymbolBytes + " B");
+    }
+
+    private static String canonicalElementPath(ClassInfo classInfo) throws IOException {
+        File element;
+        try {
+            element = classInfo.getClasspathElementFile();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return element == null ? null : element.getCanonicalFile().getPath();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
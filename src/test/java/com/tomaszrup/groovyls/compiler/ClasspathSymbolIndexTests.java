@@ -1,14 +1,18 @@
 package com.tomaszrup.groovyls.compiler;
 
 import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
 import io.github.classgraph.ScanResult;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 class ClasspathSymbolIndexTests {
@@ -32,7 +36,39 @@ class ClasspathSymbolIndexTests {
     }
 
     @Test
-    void testGetSymbolsFiltersByClasspathElementsAndKeepsModuleSymbols() throws Exception {
+    void testColumnarStorageOnRealClasspath() {
+        try (ScanResult scan = new ClassGraph().enableClassInfo().ignoreClassVisibility().scan()) {
+            ClasspathSymbolIndex index = ClasspathSymbolIndex.fromScanResult(scan);
+            List<ClasspathSymbolIndex.Symbol> symbols = index.getAllSymbols();
+            Assertions.assertEquals(scan.getAllClasses().size(), symbols.size());
+            Assertions.assertTrue(symbols.size() > 5000, "groovy, lsp4j, junit...: " + symbols.size());
+
+            ClassInfo classInfo = scan.getClassInfo("groovy.lang.GroovyObject");
+            ClasspathSymbolIndex.Symbol groovyObject = index.getSymbolsBySimpleName("GroovyObject", null).get(0);
+            Assertions.assertEquals(classInfo.getName(), groovyObject.getName());
+            Assertions.assertEquals(classInfo.getPackageName(), groovyObject.getPackageName());
+            Assertions.assertEquals(ClasspathSymbolIndex.SymbolKind.INTERFACE, groovyObject.getKind());
+
+            Map<String, String> paths = new HashMap<>();
+            Map<String, String> packages = new HashMap<>();
+            String previousName = "";
+            for (ClasspathSymbolIndex.Symbol symbol : symbols) {
+                Assertions.assertTrue(previousName.compareTo(symbol.getName()) <= 0, "stored in name order");
+                previousName = symbol.getName();
+                Assertions.assertTrue(symbol.getName().endsWith(symbol.getSimpleName()));
+                String path = symbol.getClasspathElementPath();
+                if (path != null) {
+                    Assertions.assertSame(paths.computeIfAbsent(path, p -> path), path, "interned element path");
+                }
+                String packageName = symbol.getPackageName();
+                Assertions.assertSame(packages.computeIfAbsent(packageName, p -> packageName), packageName,
+                        "interned package");
+            }
+        }
+    }
+
+    @Test
+    void testVisitsFilterByClasspathElementsAndKeepModuleSymbols() throws Exception {
         Constructor<ClasspathSymbolIndex.Symbol> symbolCtor = ClasspathSymbolIndex.Symbol.class
                 .getDeclaredConstructor(String.class, String.class, String.class,
                         ClasspathSymbolIndex.SymbolKind.class, String.class);
@@ -50,11 +86,207 @@ class ClasspathSymbolIndexTests {
                 Arrays.asList(cpSymbol, moduleSymbol),
                 new LinkedHashSet<>(Arrays.asList("com.example", "java.lang")));
 
-        List<ClasspathSymbolIndex.Symbol> filtered = index.getSymbols(Set.of("C:/libs/a.jar"));
-        Assertions.assertEquals(2, filtered.size());
+        Assertions.assertEquals(List.of("com.example.A", "java.lang.String"),
+                visibleNames(index, Set.of("C:/libs/a.jar")));
+        Assertions.assertEquals(List.of("java.lang.String"), visibleNames(index, Set.of("C:/libs/other.jar")));
+    }
+
+    @Test
+    void testForEachTypeMatchingVisitsPrefixMatchesInNameOrder() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("java.util.HashSet", null),
+                symbol("javax.servlet.http.HttpServletRequest", "C:/libs/servlet.jar"),
+                symbol("java.util.HashMap", null),
+                symbol("org.example.Helper", "C:/libs/example.jar"));
+
+        Assertions.assertEquals(List.of("HashMap", "HashSet"), simpleNames(index, "Hash", null));
+        Assertions.assertEquals(List.of("HashMap", "HashSet", "Helper", "HttpServletRequest"),
+                simpleNames(index, "", null));
+        Assertions.assertTrue(simpleNames(index, "hash", null).isEmpty(), "matching is case-sensitive");
+    }
+
+    @Test
+    void testForEachTypeMatchingFindsCamelHumpAbbreviations() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("java.util.HashSet", null),
+                symbol("javax.servlet.http.HttpServletRequest", "C:/libs/servlet.jar"),
+                symbol("javax.servlet.http.HttpServletResponse", "C:/libs/servlet.jar"),
+                symbol("javax.servlet.http.HttpSession", "C:/libs/servlet.jar"),
+                symbol("com.sun.net.httpserver.HTTPServer", null));
+
+        Assertions.assertEquals(List.of("HttpServletRequest", "HttpServletResponse"),
+                simpleNames(index, "HSR", null));
+        Assertions.assertEquals(List.of("HttpServletRequest"), simpleNames(index, "HttSeReq", null));
+        // Prefix matches first, then abbreviations in initials order
+        Assertions.assertEquals(List.of("HTTPServer", "HashSet", "HttpSession", "HttpServletRequest",
+                "HttpServletResponse"), simpleNames(index, "HS", null));
+        Assertions.assertTrue(simpleNames(index, "HSQ", null).isEmpty());
+    }
+
+    @Test
+    void testForEachTypeMatchingHonorsScopeVisibilityAndStops() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("com.example.Alpha", "C:/libs/a.jar"),
+                symbol("com.other.Alpine", "C:/libs/other.jar"),
+                symbol("java.lang.AbstractMethodError", null));
+
+        Assertions.assertEquals(List.of("AbstractMethodError", "Alpha"),
+                simpleNames(index, "A", Set.of("C:/libs/a.jar")));
+        Assertions.assertEquals(List.of("AbstractMethodError", "Alpha"),
+                simpleNames(index, "A", Set.of("C:/libs/a.jar")), "cached visibility gives the same answer");
+
+        List<String> visited = new ArrayList<>();
+        index.forEachTypeMatching("Al", null, symbol -> {
+            visited.add(symbol.getSimpleName());
+            return false;
+        });
+        Assertions.assertEquals(List.of("Alpha"), visited);
+    }
+
+    @Test
+    void testGetSymbolsBySimpleNameReturnsExactMatchesVisibleToScope() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("org.b.List", "C:/libs/b.jar"),
+                symbol("java.util.List", null),
+                symbol("java.util.ListIterator", null),
+                symbol("org.a.List", "C:/libs/a.jar"));
+
+        Assertions.assertEquals(List.of("java.util.List", "org.a.List", "org.b.List"),
+                names(index.getSymbolsBySimpleName("List", null)));
+        Assertions.assertEquals(List.of("java.util.List", "org.a.List"),
+                names(index.getSymbolsBySimpleName("List", Set.of("C:/libs/a.jar"))));
+        Assertions.assertTrue(index.getSymbolsBySimpleName("Lis", null).isEmpty());
+        Assertions.assertTrue(index.getSymbolsBySimpleName("Missing", null).isEmpty());
+    }
+
+    @Test
+    void testForEachTypeWithNamePrefixVisitsNameRange() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("org.b.Beta", "C:/libs/b.jar"),
+                symbol("java.util.List", null),
+                symbol("org.a.Alpha", "C:/libs/a.jar"),
+                symbol("org.a.Another", "C:/libs/a.jar"));
+
+        List<String> visited = new ArrayList<>();
+        index.forEachTypeWithNamePrefix("org.", Set.of("C:/libs/a.jar"), symbol -> visited.add(symbol.getName()));
+        Assertions.assertEquals(List.of("org.a.Alpha", "org.a.Another"), visited);
+
+        visited.clear();
+        index.forEachTypeWithNamePrefix("org", null, symbol -> {
+            visited.add(symbol.getName());
+            return visited.size() < 2;
+        });
+        Assertions.assertEquals(List.of("org.a.Alpha", "org.a.Another"), visited);
+    }
+
+    @Test
+    void testComposeMatchesSingleIndexAndEarliestShardWins() throws Exception {
+        ClasspathSymbolIndex jdk = indexOf(
+                symbol("java.util.List", null),
+                symbol("java.util.HashMap", null));
+        ClasspathSymbolIndex a = indexOf(
+                symbol("org.a.HttpServletRequest", "C:/libs/a.jar"),
+                symbol("org.a.List", "C:/libs/a.jar"),
+                symbol("org.shared.Helper", "C:/libs/a.jar"));
+        ClasspathSymbolIndex b = indexOf(
+                symbol("org.b.HttpSession", "C:/libs/b.jar"),
+                symbol("org.b.HashSet", "C:/libs/b.jar"),
+                symbol("org.shared.Helper", "C:/libs/b.jar"));
+        ClasspathSymbolIndex expected = indexOf(
+                symbol("java.util.List", null),
+                symbol("java.util.HashMap", null),
+                symbol("org.a.HttpServletRequest", "C:/libs/a.jar"),
+                symbol("org.a.List", "C:/libs/a.jar"),
+                symbol("org.shared.Helper", "C:/libs/a.jar"),
+                symbol("org.b.HttpSession", "C:/libs/b.jar"),
+                symbol("org.b.HashSet", "C:/libs/b.jar"));
+
+        ClasspathSymbolIndex composed = ClasspathSymbolIndex.compose(List.of(jdk, a, b));
+
+        Assertions.assertEquals(names(expected.getAllSymbols()), names(composed.getAllSymbols()));
+        Assertions.assertEquals(Set.of("java.util", "org.a", "org.shared", "org.b"), composed.getPackageNames());
+        Assertions.assertEquals("C:/libs/a.jar",
+                composed.getSymbolsBySimpleName("Helper", null).get(0).getClasspathElementPath());
+        Assertions.assertEquals(1, composed.getSymbolsBySimpleName("Helper", null).size());
+        for (String query : List.of("", "H", "Ha", "HS", "HSR", "L", "Missing")) {
+            Assertions.assertEquals(simpleNames(expected, query, null), simpleNames(composed, query, null), query);
+        }
+        Assertions.assertEquals(List.of("HashMap", "HashSet", "HttpSession", "List"),
+                simpleNames(composed, "", Set.of("C:/libs/b.jar")), "shadowed Helper is not b's");
+        Assertions.assertSame(a, ClasspathSymbolIndex.compose(List.of(a)));
+        Assertions.assertTrue(ClasspathSymbolIndex.compose(List.of()).getAllSymbols().isEmpty());
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        ClasspathSymbolIndex index = indexOf(
+                symbol("org.b.HttpSession", "C:/libs/b.jar"),
+                symbol("java.util.List", null),
+                symbol("org.a.HttpServletRequest", "C:/libs/a.jar"));
+
+        ClasspathSymbolIndex restored = ClasspathSymbolIndex.fromSnapshot(index.toSnapshot());
+        Assertions.assertEquals(names(index.getAllSymbols()), names(restored.getAllSymbols()));
+        Assertions.assertEquals(index.getPackageNames(), restored.getPackageNames());
+        Assertions.assertEquals(simpleNames(index, "HS", null), simpleNames(restored, "HS", null));
+        Assertions.assertEquals(List.of("org.a.HttpServletRequest"),
+                visibleNames(restored, Set.of("C:/libs/a.jar")).subList(1, 2));
+
+        ClasspathSymbolIndex.Snapshot corrupt = index.toSnapshot();
+        corrupt.bySimpleName[0] = corrupt.bySimpleName[1];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ClasspathSymbolIndex.fromSnapshot(corrupt));
+        ClasspathSymbolIndex.Snapshot truncated = index.toSnapshot();
+        truncated.kinds = new byte[1];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ClasspathSymbolIndex.fromSnapshot(truncated));
+    }
+
+    @Test
+    void testHumpInitials() {
+        Assertions.assertEquals("HSR", ClasspathSymbolIndex.humpInitials("HttpServletRequest"));
+        Assertions.assertEquals("HS", ClasspathSymbolIndex.humpInitials("HTTPServer"));
+        Assertions.assertEquals("MR", ClasspathSymbolIndex.humpInitials("MAX_RESULTS"));
+        Assertions.assertTrue(ClasspathSymbolIndex.matchesTypeName("HttpServletRequest", "HSeR"));
+        Assertions.assertFalse(ClasspathSymbolIndex.matchesTypeName("HttpServletRequest", "HR"),
+                "humps are matched in sequence");
+    }
+
+    private static ClasspathSymbolIndex.Symbol symbol(String name, String classpathElementPath) throws Exception {
+        Constructor<ClasspathSymbolIndex.Symbol> symbolCtor = ClasspathSymbolIndex.Symbol.class
+                .getDeclaredConstructor(String.class, String.class, String.class,
+                        ClasspathSymbolIndex.SymbolKind.class, String.class);
+        symbolCtor.setAccessible(true);
+        int dot = name.lastIndexOf('.');
+        return symbolCtor.newInstance(name, name.substring(dot + 1), name.substring(0, dot),
+                ClasspathSymbolIndex.SymbolKind.CLASS, classpathElementPath);
+    }
+
+    private static ClasspathSymbolIndex indexOf(ClasspathSymbolIndex.Symbol... symbols) throws Exception {
+        Constructor<ClasspathSymbolIndex> indexCtor = ClasspathSymbolIndex.class
+                .getDeclaredConstructor(List.class, Set.class);
+        indexCtor.setAccessible(true);
+        Set<String> packages = new LinkedHashSet<>();
+        for (ClasspathSymbolIndex.Symbol symbol : symbols) {
+            packages.add(symbol.getPackageName());
+        }
+        return indexCtor.newInstance(Arrays.asList(symbols), packages);
+    }
+
+    private static List<String> names(List<ClasspathSymbolIndex.Symbol> symbols) {
+        List<String> names = new ArrayList<>();
+        for (ClasspathSymbolIndex.Symbol symbol : symbols) {
+            names.add(symbol.getName());
+        }
+        return names;
+    }
+
+    private static List<String> visibleNames(ClasspathSymbolIndex index, Set<String> elements) {
+        List<String> names = new ArrayList<>();
+        index.forEachTypeWithNamePrefix("", elements, symbol -> names.add(symbol.getName()));
+        return names;
+    }
 
-        List<ClasspathSymbolIndex.Symbol> noMatch = index.getSymbols(Set.of("C:/libs/other.jar"));
-        Assertions.assertEquals(1, noMatch.size());
-        Assertions.assertEquals("java.lang.String", noMatch.get(0).getName());
+    private static List<String> simpleNames(ClasspathSymbolIndex index, String query, Set<String> elements) {
+        List<String> names = new ArrayList<>();
+        index.forEachTypeMatching(query, elements, symbol -> names.add(symbol.getSimpleName()));
+        return names;
     }
 }
@@ -0,0 +1,88 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompilationCostModel}.
+ */
+class CompilationCostModelTests {
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void testPriorsBeforeAnyMeasurement() {
+		CompilationCostModel model = new CompilationCostModel();
+		Assertions.assertFalse(model.isMeasured());
+		Assertions.assertEquals(CompilationCostModel.DEFAULT_FILE_NANOS, model.fileNanos());
+		Assertions.assertEquals(CompilationCostModel.DEFAULT_UNIT_OVERHEAD_NANOS, model.unitOverheadNanos());
+		Assertions.assertEquals(47, model.batchSize());
+	}
+
+	@Test
+	void testFitsOverheadAndPerFileCost() {
+		CompilationCostModel model = new CompilationCostModel();
+		for (int files = 1; files <= 40; files++) {
+			model.recordIncremental(files, 100 * MS + files * 5 * MS);
+		}
+		Assertions.assertTrue(model.isMeasured());
+		Assertions.assertEquals(5 * MS, model.fileNanos(), MS / 10);
+		Assertions.assertEquals(100 * MS, model.unitOverheadNanos(), MS);
+		Assertions.assertEquals(180, model.batchSize(), 1);
+		Assertions.assertEquals(2 * 100 * MS + 30 * 5 * MS, model.estimateIncrementalNanos(2, 30), 2 * MS);
+	}
+
+	@Test
+	void testConstantUnitSizeFallsBackToRatio() {
+		CompilationCostModel model = new CompilationCostModel();
+		model.recordIncremental(4, 400 * MS);
+		model.recordIncremental(4, 400 * MS);
+		Assertions.assertEquals(CompilationCostModel.DEFAULT_UNIT_OVERHEAD_NANOS, model.unitOverheadNanos());
+		Assertions.assertEquals(350 * MS / 4, model.fileNanos());
+	}
+
+	@Test
+	void testFastFilesGiveLargeBatches() {
+		CompilationCostModel slow = new CompilationCostModel();
+		CompilationCostModel fast = new CompilationCostModel();
+		for (int files = 1; files <= 10; files++) {
+			slow.recordIncremental(files, files * 200 * MS);
+			fast.recordIncremental(files, files * MS);
+		}
+		Assertions.assertEquals(CompilationCostModel.MIN_BATCH_FILES, slow.batchSize());
+		Assertions.assertTrue(fast.batchSize() >= 900, "batch size " + fast.batchSize());
+	}
+
+	@Test
+	void testFullCompileRateSeedsIncrementalEstimates() {
+		CompilationCostModel model = new CompilationCostModel();
+		model.recordFull(100, 1000 * MS);
+		Assertions.assertEquals(1000 * MS, model.estimateFullNanos(100));
+		Assertions.assertEquals(990 * MS, model.estimateIncrementalNanos(3, 99));
+		Assertions.assertEquals(100, model.batchSize());
+	}
+
+	@Test
+	void testIgnoresEmptySamples() {
+		CompilationCostModel model = new CompilationCostModel();
+		model.recordIncremental(0, 10 * MS);
+		model.recordIncremental(3, 0);
+		model.recordFull(0, 10 * MS);
+		Assertions.assertFalse(model.isMeasured());
+		Assertions.assertEquals(CompilationCostModel.DEFAULT_FILE_NANOS, model.fileNanos());
+	}
+}
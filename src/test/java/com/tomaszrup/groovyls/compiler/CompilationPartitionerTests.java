@@ -0,0 +1,227 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompilationPartitioner}.
+ */
+class CompilationPartitionerTests {
+	private Map<URI, String> contents;
+
+	@BeforeEach
+	void setup() {
+		contents = new HashMap<>();
+	}
+
+	@Test
+	void testImportedPackageCompilesFirst() {
+		URI a1 = source("app", "A1", "import lib.L1");
+		URI a2 = source("app", "A2");
+		URI l1 = source("lib", "L1");
+		URI l2 = source("lib", "L2");
+
+		List<CompilationPartitioner.Partition> partitions = partition(2);
+
+		Assertions.assertEquals(2, partitions.size());
+		Assertions.assertEquals(Set.of(l1, l2), partitions.get(0).getFiles());
+		Assertions.assertEquals(Set.of(a1, a2), partitions.get(1).getFiles());
+		Assertions.assertTrue(partitions.get(0).getDependencies().isEmpty());
+		Assertions.assertEquals(Set.of(0), partitions.get(1).getDependencies());
+	}
+
+	@Test
+	void testImportsResolveNestedAndStaticNames() {
+		source("app", "A1", "import static lib.L1.Nested.CONSTANT", "import lib.*");
+		URI l1 = source("lib", "L1");
+
+		List<CompilationPartitioner.Partition> partitions = partition(1);
+
+		Assertions.assertEquals(2, partitions.size());
+		Assertions.assertEquals(Set.of(l1), partitions.get(0).getFiles());
+		Assertions.assertEquals(Set.of(0), partitions.get(1).getDependencies());
+	}
+
+	@Test
+	void testGraphEdgesOrderPartitions() {
+		URI a1 = source("app", "A1");
+		URI l1 = source("lib", "L1");
+		DependencyGraph graph = new DependencyGraph();
+		// e.g. a fully qualified reference without an import
+		graph.updateDependencies(l1, Set.of(a1));
+
+		List<CompilationPartitioner.Partition> partitions = CompilationPartitioner.partition(
+				contents.keySet(), graph, contents::get, 1);
+
+		Assertions.assertEquals(Set.of(a1), partitions.get(0).getFiles());
+		Assertions.assertEquals(Set.of(l1), partitions.get(1).getFiles());
+		Assertions.assertEquals(Set.of(0), partitions.get(1).getDependencies());
+	}
+
+	@Test
+	void testPackagesInCycleShareOnePartition() {
+		URI a1 = source("app", "A1", "import lib.L1");
+		URI l1 = source("lib", "L1", "import app.A1");
+		URI u1 = source("util", "U1");
+
+		List<CompilationPartitioner.Partition> partitions = partition(1);
+
+		Assertions.assertEquals(2, partitions.size());
+		Set<Set<URI>> files = new HashSet<>();
+		for (CompilationPartitioner.Partition partition : partitions) {
+			files.add(partition.getFiles());
+			Assertions.assertTrue(partition.getDependencies().isEmpty());
+		}
+		Assertions.assertEquals(Set.of(Set.of(a1, l1), Set.of(u1)), files);
+	}
+
+	@Test
+	void testSamePackageInAnotherSourceRootSharesOnePartition() {
+		URI main = source("app", "A1");
+		URI test = URI.create("file:///project/test/app/A1Spec.groovy");
+		// no import: A1 is in the same package
+		contents.put(test, "package app\nclass A1Spec { A1 subject }\n");
+		URI u1 = source("util", "U1");
+
+		List<CompilationPartitioner.Partition> partitions = partition(1);
+
+		Assertions.assertEquals(2, partitions.size());
+		Set<Set<URI>> files = new HashSet<>();
+		for (CompilationPartitioner.Partition partition : partitions) {
+			files.add(partition.getFiles());
+		}
+		Assertions.assertEquals(Set.of(Set.of(main, test), Set.of(u1)), files);
+	}
+
+	@Test
+	void testIndependentPackagesArePackedTogether() {
+		source("a", "A1");
+		source("b", "B1");
+		source("c", "C1", "import a.A1");
+
+		List<CompilationPartitioner.Partition> partitions = partition(2);
+
+		Assertions.assertEquals(2, partitions.size());
+		Assertions.assertEquals(2, partitions.get(0).getFiles().size());
+		Assertions.assertEquals(1, partitions.get(1).getFiles().size());
+	}
+
+	@Test
+	void testHeaderIgnoresCommentsAndStopsAtDeclarations() {
+		URI file = URI.create("file:///project/src/app/A1.groovy");
+		contents.put(file, "/*\n * import not.Imported\n */\n// header\npackage app;\n\n"
+				+ "import lib.L1 as Alias // alias\n@Grab('x')\nclass A1 {}\nimport after.Declaration\n");
+
+		CompilationPartitioner.Header header = CompilationPartitioner.readHeader(file, contents::get);
+
+		Assertions.assertEquals("app", header.packageName);
+		Assertions.assertEquals(List.of("lib.L1"), header.imports);
+	}
+
+	@Test
+	void testRunCompletesDependenciesFirst() {
+		for (int i = 0; i < 8; i++) {
+			source("leaf" + i, "L" + i);
+			source("mid" + i, "M" + i, "import leaf" + i + ".L" + i);
+		}
+		StringBuilder top = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			top.append("import mid").append(i).append(".M").append(i).append('\n');
+		}
+		source("top", "T", top.toString());
+		List<CompilationPartitioner.Partition> partitions = partition(1);
+		Assertions.assertEquals(17, partitions.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Set<Integer> completed = Collections.synchronizedSet(new HashSet<>());
+			List<String> violations = Collections.synchronizedList(new ArrayList<>());
+			CompilationPartitioner.run(partitions, executor, 3, partition -> {
+				for (int dependency : partition.getDependencies()) {
+					if (!completed.contains(dependency)) {
+						violations.add(partition.getIndex() + " before " + dependency);
+					}
+				}
+				completed.add(partition.getIndex());
+			});
+			Assertions.assertEquals(17, completed.size());
+			Assertions.assertTrue(violations.isEmpty(), violations.toString());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testRunWithoutExecutorUsesCallingThread() {
+		source("a", "A1");
+		source("b", "B1", "import a.A1");
+		Thread caller = Thread.currentThread();
+		AtomicInteger runs = new AtomicInteger();
+
+		CompilationPartitioner.run(partition(1), null, 4, partition -> {
+			Assertions.assertSame(caller, Thread.currentThread());
+			runs.incrementAndGet();
+		});
+
+		Assertions.assertEquals(2, runs.get());
+	}
+
+	@Test
+	void testRunRethrowsAndStopsStartingPartitions() {
+		source("a", "A1");
+		source("b", "B1", "import a.A1");
+		AtomicInteger runs = new AtomicInteger();
+
+		IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class,
+				() -> CompilationPartitioner.run(partition(1), null, 0, partition -> {
+					runs.incrementAndGet();
+					throw new IllegalStateException("failed");
+				}));
+
+		Assertions.assertEquals("failed", thrown.getMessage());
+		Assertions.assertEquals(1, runs.get());
+	}
+
+	private List<CompilationPartitioner.Partition> partition(int maxFiles) {
+		return CompilationPartitioner.partition(contents.keySet(), new DependencyGraph(), contents::get, maxFiles);
+	}
+
+	private URI source(String packageName, String className, String... imports) {
+		URI uri = URI.create("file:///project/src/" + packageName + "/" + className + ".groovy");
+		StringBuilder text = new StringBuilder("package ").append(packageName).append('\n');
+		for (String imported : imports) {
+			text.append(imported).append('\n');
+		}
+		text.append("class ").append(className).append(" {}\n");
+		contents.put(uri, text.toString());
+		return uri;
+	}
+}
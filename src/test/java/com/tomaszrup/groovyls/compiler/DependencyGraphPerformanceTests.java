@@ -0,0 +1,119 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times {@link DependencyGraph} on a generated workspace-sized graph.
+ * Timings are logged; the bounds are generous so that slow or busy machines
+ * don't fail the build, while a quadratic regression still would.
+ */
+class DependencyGraphPerformanceTests {
+	private static final Logger logger = LoggerFactory.getLogger(DependencyGraphPerformanceTests.class);
+
+	/**
+	 * Builds a generated 10,000-file graph — five dependencies per file,
+	 * mostly on earlier files with some intra-package cycles — in shuffled
+	 * order, then times exact transitive queries and incremental updates.
+	 */
+	@Test
+	void testGeneratedTenThousandFileGraph() {
+		DependencyGraph graph = new DependencyGraph();
+		int fileCount = 10_000;
+		Random random = new Random(42);
+		List<URI> files = new ArrayList<>();
+		for (int i = 0; i < fileCount; i++) {
+			files.add(URI.create("file:///project/src/pkg" + (i / 50) + "/File" + i + ".groovy"));
+		}
+		List<Integer> buildOrder = new ArrayList<>();
+		for (int i = 0; i < fileCount; i++) {
+			buildOrder.add(i);
+		}
+		Collections.shuffle(buildOrder, random);
+
+		Map<URI, Set<URI>> reference = new HashMap<>();
+		long start = System.nanoTime();
+		for (int i : buildOrder) {
+			Set<URI> deps = generatedDependencies(files, i, random);
+			graph.updateDependencies(files.get(i), deps);
+			reference.put(files.get(i), deps);
+		}
+		long buildNanos = System.nanoTime() - start;
+		DependencyGraphTests.assertCondensationConsistent(graph);
+
+		List<Set<URI>> queries = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			queries.add(Collections.singleton(files.get(random.nextInt(fileCount))));
+		}
+		long resultSizes = 0;
+		start = System.nanoTime();
+		for (Set<URI> changed : queries) {
+			resultSizes += graph.getTransitiveDependents(changed).size();
+		}
+		long queryNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int n = 0; n < 1000; n++) {
+			int i = random.nextInt(fileCount);
+			Set<URI> deps = generatedDependencies(files, i, random);
+			graph.updateDependencies(files.get(i), deps);
+			reference.put(files.get(i), deps);
+		}
+		long updateNanos = System.nanoTime() - start;
+		DependencyGraphTests.assertCondensationConsistent(graph);
+
+		logger.info("{} files, {} edges, {} components: build {} ms, "
+				+ "1000 transitive queries {} ms (avg {} dependents), 1000 updates {} ms",
+				fileCount, graph.getEdgeCount(), graph.getComponentCount(), buildNanos / 1_000_000,
+				queryNanos / 1_000_000, resultSizes / queries.size(), updateNanos / 1_000_000);
+		for (int i = 0; i < 20; i++) {
+			Set<URI> changed = Collections.singleton(files.get(random.nextInt(fileCount)));
+			Assertions.assertEquals(DependencyGraphTests.referenceDependents(reference, changed),
+					graph.getTransitiveDependents(changed));
+		}
+		Assertions.assertTrue(buildNanos < 30_000_000_000L,
+				"Building the graph took " + buildNanos / 1_000_000 + "ms, expected < 30s");
+		Assertions.assertTrue(queryNanos < 30_000_000_000L,
+				"1000 transitive queries took " + queryNanos / 1_000_000 + "ms, expected < 30s");
+		Assertions.assertTrue(updateNanos < 30_000_000_000L,
+				"1000 updates took " + updateNanos / 1_000_000 + "ms, expected < 30s");
+	}
+
+	private static Set<URI> generatedDependencies(List<URI> files, int index, Random random) {
+		Set<URI> deps = new HashSet<>();
+		for (int i = 0; i < 5; i++) {
+			int target = random.nextInt(10) == 0
+					? (index / 50) * 50 + random.nextInt(50)
+					: random.nextInt(Math.max(1, index));
+			deps.add(files.get(target));
+		}
+		return deps;
+	}
+}
@@ -16,9 +16,17 @@
 package com.tomaszrup.groovyls.compiler;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,8 +34,8 @@ import org.junit.jupiter.api.Test;
 
 /**
  * Unit tests for {@link DependencyGraph}: forward/reverse edge management,
- * transitive dependency resolution, file removal, and circular dependency
- * handling.
+ * transitive dependency resolution, file removal, circular dependency
+ * handling, and the incrementally maintained strongly connected components.
  */
 class DependencyGraphTests {
 
@@ -248,8 +256,213 @@ class DependencyGraphTests {
 		Assertions.assertTrue(affected.isEmpty());
 	}
 
+	@Test
+	void testTransitiveDependentsHaveNoDepthLimit() {
+		// F0 ← F1 ← ... ← F49
+		List<URI> chain = files(50);
+		for (int i = 1; i < chain.size(); i++) {
+			graph.updateDependencies(chain.get(i), setOf(chain.get(i - 1)));
+		}
+
+		Set<URI> affected = graph.getTransitiveDependents(Collections.singleton(chain.get(0)));
+		Assertions.assertEquals(new HashSet<>(chain.subList(1, chain.size())), affected);
+	}
+
+	@Test
+	void testTransitiveDependenciesRespectMaxDepth() {
+		// A → B → C → D
+		graph.updateDependencies(FILE_A, setOf(FILE_B));
+		graph.updateDependencies(FILE_B, setOf(FILE_C));
+		graph.updateDependencies(FILE_C, setOf(FILE_D));
+
+		Assertions.assertEquals(setOf(FILE_B, FILE_C),
+				graph.getTransitiveDependencies(setOf(FILE_A), 2));
+		Assertions.assertEquals(setOf(FILE_B, FILE_C, FILE_D),
+				graph.getTransitiveDependencies(setOf(FILE_A), 10));
+	}
+
+	// --- Strongly connected components ---
+
+	@Test
+	void testCycleMergesComponents() {
+		// A → B → C, then C → A closes the cycle
+		graph.updateDependencies(FILE_A, setOf(FILE_B));
+		graph.updateDependencies(FILE_B, setOf(FILE_C));
+		Assertions.assertEquals(3, graph.getComponentCount());
+		Assertions.assertEquals(setOf(FILE_A), graph.getStronglyConnectedComponent(FILE_A));
+
+		graph.updateDependencies(FILE_C, setOf(FILE_A));
+		assertCondensationConsistent(graph);
+		Assertions.assertEquals(1, graph.getComponentCount());
+		Assertions.assertEquals(setOf(FILE_A, FILE_B, FILE_C), graph.getStronglyConnectedComponent(FILE_B));
+	}
+
+	@Test
+	void testBrokenCycleSplitsComponent() {
+		// A → B → C → A, D → A
+		graph.updateDependencies(FILE_A, setOf(FILE_B));
+		graph.updateDependencies(FILE_B, setOf(FILE_C));
+		graph.updateDependencies(FILE_C, setOf(FILE_A));
+		graph.updateDependencies(FILE_D, setOf(FILE_A));
+		Assertions.assertEquals(2, graph.getComponentCount());
+
+		// Breaking B → C leaves the chain C → A → B
+		graph.updateDependencies(FILE_B, Collections.emptySet());
+		assertCondensationConsistent(graph);
+		Assertions.assertEquals(4, graph.getComponentCount());
+		Assertions.assertEquals(setOf(FILE_A, FILE_C, FILE_D),
+				graph.getTransitiveDependents(Collections.singleton(FILE_B)));
+		Assertions.assertEquals(setOf(FILE_C, FILE_D), graph.getTransitiveDependents(Collections.singleton(FILE_A)));
+	}
+
+	@Test
+	void testRemovingFileSplitsComponent() {
+		// A → B → C → A, plus A → C
+		graph.updateDependencies(FILE_A, setOf(FILE_B, FILE_C));
+		graph.updateDependencies(FILE_B, setOf(FILE_C));
+		graph.updateDependencies(FILE_C, setOf(FILE_A));
+		Assertions.assertEquals(1, graph.getComponentCount());
+
+		graph.removeFile(FILE_B);
+		assertCondensationConsistent(graph);
+		Assertions.assertEquals(setOf(FILE_A, FILE_C), graph.getStronglyConnectedComponent(FILE_A));
+		Assertions.assertTrue(graph.getStronglyConnectedComponent(FILE_B).isEmpty());
+
+		graph.removeFile(FILE_C);
+		assertCondensationConsistent(graph);
+		Assertions.assertTrue(graph.isEmpty());
+		Assertions.assertEquals(0, graph.getComponentCount());
+	}
+
+	@Test
+	void testSelfDependency() {
+		graph.updateDependencies(FILE_A, setOf(FILE_A, FILE_B));
+		Assertions.assertEquals(2, graph.getEdgeCount());
+		Assertions.assertEquals(setOf(FILE_A), graph.getStronglyConnectedComponent(FILE_A));
+		Assertions.assertTrue(graph.getTransitiveDependents(Collections.singleton(FILE_A)).isEmpty());
+		Assertions.assertEquals(setOf(FILE_A), graph.getTransitiveDependents(Collections.singleton(FILE_B)));
+
+		graph.removeFile(FILE_A);
+		assertCondensationConsistent(graph);
+		Assertions.assertTrue(graph.isEmpty());
+	}
+
+	@Test
+	void testComponentsInDependencyOrder() {
+		// A -> B <-> C -> D
+		graph.updateDependencies(FILE_A, setOf(FILE_B));
+		graph.updateDependencies(FILE_B, setOf(FILE_C));
+		graph.updateDependencies(FILE_C, setOf(FILE_B, FILE_D));
+
+		List<Set<URI>> components = graph.getComponentsInDependencyOrder();
+		Assertions.assertEquals(List.of(setOf(FILE_D), setOf(FILE_B, FILE_C), setOf(FILE_A)), components);
+	}
+
+	@Test
+	void testRandomUpdatesMatchReferenceGraph() {
+		Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			DependencyGraph randomGraph = new DependencyGraph();
+			Map<URI, Set<URI>> reference = new HashMap<>();
+			List<URI> files = files(5 + random.nextInt(25));
+			for (int step = 0; step < 100; step++) {
+				URI file = files.get(random.nextInt(files.size()));
+				if (random.nextInt(10) == 0) {
+					randomGraph.removeFile(file);
+					reference.remove(file);
+					reference.values().forEach(deps -> deps.remove(file));
+				} else {
+					Set<URI> deps = new HashSet<>();
+					for (int i = random.nextInt(4); i > 0; i--) {
+						deps.add(files.get(random.nextInt(files.size())));
+					}
+					randomGraph.updateDependencies(file, deps);
+					reference.put(file, deps);
+				}
+				assertCondensationConsistent(randomGraph);
+
+				Set<URI> changed = setOf(files.get(random.nextInt(files.size())));
+				Assertions.assertEquals(referenceDependents(reference, changed),
+						randomGraph.getTransitiveDependents(changed), "round " + round + ", step " + step);
+				Assertions.assertEquals(reference.values().stream().mapToInt(Set::size).sum(),
+						randomGraph.getEdgeCount());
+			}
+		}
+	}
+
 	// --- Helpers ---
 
+	private static List<URI> files(int count) {
+		List<URI> files = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			files.add(URI.create("file:///project/src/F" + i + ".groovy"));
+		}
+		return files;
+	}
+
+	/**
+	 * Checks the condensation against the file graph: components partition
+	 * the files, each component is strongly connected, and every dependency
+	 * is in the same or an earlier component.
+	 */
+	static void assertCondensationConsistent(DependencyGraph graph) {
+		List<Set<URI>> components = graph.getComponentsInDependencyOrder();
+		Assertions.assertEquals(components.size(), graph.getComponentCount());
+		Map<URI, Integer> position = new HashMap<>();
+		for (int i = 0; i < components.size(); i++) {
+			for (URI file : components.get(i)) {
+				Assertions.assertNull(position.put(file, i), "Components overlap at " + file);
+			}
+		}
+		for (int i = 0; i < components.size(); i++) {
+			Set<URI> component = components.get(i);
+			for (URI file : component) {
+				for (URI dependency : graph.getDirectDependencies(file)) {
+					Integer other = position.get(dependency);
+					Assertions.assertNotNull(other, "Dependency " + dependency + " is in no component");
+					Assertions.assertTrue(other <= i, "Order is not topological: " + file + " → " + dependency);
+				}
+			}
+			URI first = component.iterator().next();
+			Assertions.assertEquals(component, reachWithin(component, first, graph::getDirectDependencies),
+					"Component " + i + " is not strongly connected");
+			Assertions.assertEquals(component, reachWithin(component, first, graph::getDirectDependents),
+					"Component " + i + " is not strongly connected");
+		}
+	}
+
+	private static Set<URI> reachWithin(Set<URI> component, URI start, Function<URI, Set<URI>> edges) {
+		Set<URI> visited = new HashSet<>();
+		visited.add(start);
+		Deque<URI> queue = new ArrayDeque<>(visited);
+		while (!queue.isEmpty()) {
+			for (URI next : edges.apply(queue.poll())) {
+				if (component.contains(next) && visited.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+		return visited;
+	}
+
+	/** Transitive dependents by breadth-first search over a plain map. */
+	static Set<URI> referenceDependents(Map<URI, Set<URI>> dependsOn, Set<URI> changed) {
+		Map<URI, Set<URI>> dependedOnBy = new HashMap<>();
+		dependsOn.forEach((file, deps) -> deps.forEach(
+				dep -> dependedOnBy.computeIfAbsent(dep, k -> new HashSet<>()).add(file)));
+		Set<URI> visited = new HashSet<>(changed);
+		Deque<URI> queue = new ArrayDeque<>(changed);
+		while (!queue.isEmpty()) {
+			for (URI dependent : dependedOnBy.getOrDefault(queue.poll(), Collections.emptySet())) {
+				if (visited.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+		visited.removeAll(changed);
+		return visited;
+	}
+
 	@SafeVarargs
 	private static <T> Set<T> setOf(T... elements) {
 		Set<T> set = new HashSet<>();
@@ -0,0 +1,137 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IncrementalCompilationPlanner}.
+ */
+class IncrementalCompilationPlannerTests {
+	private static final long MS = 1_000_000L;
+
+	private DependencyGraph graph;
+
+	@BeforeEach
+	void setup() {
+		graph = new DependencyGraph();
+	}
+
+	@Test
+	void testUnitIncludesContextUpToDepthTwo() {
+		graph.updateDependencies(uri("A"), Set.of(uri("B")));
+		graph.updateDependencies(uri("B"), Set.of(uri("C")));
+		graph.updateDependencies(uri("C"), Set.of(uri("D")));
+
+		IncrementalCompilationPlanner.Plan plan = IncrementalCompilationPlanner.plan(
+				graph, Set.of(uri("A")), new CompilationCostModel());
+
+		Assertions.assertEquals(1, plan.getUnits().size());
+		Assertions.assertEquals(Set.of(uri("A")), plan.getUnits().get(0).getTargets());
+		Assertions.assertEquals(Set.of(uri("A"), uri("B"), uri("C")), plan.getUnits().get(0).getFiles());
+		Assertions.assertEquals(3, plan.getCompiledFileCount());
+	}
+
+	@Test
+	void testTargetsAreBatchedByMeasuredCost() {
+		Set<URI> targets = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			targets.add(uri(String.format("pkg/F%03d", i)));
+			graph.updateDependencies(uri(String.format("pkg/F%03d", i)), Set.of(uri("pkg/Shared")));
+		}
+		CompilationCostModel costModel = new CompilationCostModel();
+		costModel.recordFull(1, 50 * MS);
+		Assertions.assertEquals(20, costModel.batchSize());
+
+		IncrementalCompilationPlanner.Plan plan = IncrementalCompilationPlanner.plan(graph, targets, costModel);
+
+		Set<URI> planned = new HashSet<>();
+		for (IncrementalCompilationPlanner.Unit unit : plan.getUnits()) {
+			Assertions.assertTrue(unit.getFiles().size() <= 20, "unit of " + unit.getFiles().size());
+			Assertions.assertTrue(unit.getFiles().contains(uri("pkg/Shared")));
+			Assertions.assertTrue(unit.getFiles().containsAll(unit.getTargets()));
+			planned.addAll(unit.getTargets());
+		}
+		Assertions.assertEquals(targets, planned);
+		Assertions.assertEquals(6, plan.getUnits().size());
+		Assertions.assertEquals(
+				new ArrayList<>(plan.getUnits().get(0).getTargets()).get(0), uri("pkg/F000"), "URI order");
+	}
+
+	@Test
+	void testOversizedTargetGetsOwnUnit() {
+		Set<URI> context = new HashSet<>();
+		for (int i = 0; i < 30; i++) {
+			context.add(uri("Dep" + i));
+		}
+		graph.updateDependencies(uri("Big"), context);
+		CompilationCostModel costModel = new CompilationCostModel();
+		costModel.recordFull(10, 1000 * MS);
+
+		IncrementalCompilationPlanner.Plan plan = IncrementalCompilationPlanner.plan(
+				graph, List.of(uri("Big"), uri("Small")), costModel);
+
+		Assertions.assertEquals(2, plan.getUnits().size());
+		Assertions.assertEquals(31, plan.getUnits().get(0).getFiles().size());
+		Assertions.assertEquals(Set.of(uri("Small")), plan.getUnits().get(1).getFiles());
+	}
+
+	@Test
+	void testPlanLargerThanProject() {
+		graph.updateDependencies(uri("A"), Set.of(uri("B"), uri("C")));
+		CompilationCostModel costModel = new CompilationCostModel();
+		costModel.recordFull(3, 30 * MS);
+
+		IncrementalCompilationPlanner.Plan plan = IncrementalCompilationPlanner.plan(
+				graph, Set.of(uri("A")), costModel);
+
+		Assertions.assertFalse(plan.isLargerThanProject(3, costModel));
+		Assertions.assertTrue(plan.isLargerThanProject(2, costModel));
+	}
+
+	@Test
+	void testFollowingPlansAddUp() {
+		graph.updateDependencies(uri("A"), Set.of(uri("B")));
+		graph.updateDependencies(uri("C"), Set.of(uri("B")));
+		CompilationCostModel costModel = new CompilationCostModel();
+		costModel.recordFull(3, 30 * MS);
+
+		IncrementalCompilationPlanner.Plan first = IncrementalCompilationPlanner.plan(
+				graph, Set.of(uri("A")), costModel);
+		IncrementalCompilationPlanner.Plan second = IncrementalCompilationPlanner.plan(
+				graph, Set.of(uri("C")), costModel);
+		IncrementalCompilationPlanner.Plan total = first.followedBy(second);
+
+		Assertions.assertEquals(2, total.getUnits().size());
+		Assertions.assertEquals(4, total.getCompiledFileCount());
+		Assertions.assertEquals(first.getEstimatedNanos() + second.getEstimatedNanos(), total.getEstimatedNanos());
+		Assertions.assertFalse(first.isLargerThanProject(3, costModel));
+		Assertions.assertFalse(second.isLargerThanProject(3, costModel));
+		Assertions.assertTrue(total.isLargerThanProject(3, costModel), "two waves of two files each");
+	}
+
+	private static URI uri(String name) {
+		return URI.create("file:///project/src/" + name + ".groovy");
+	}
+}
@@ -0,0 +1,245 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Tests for {@link WorkspaceReferenceIndex}: signatures, fan-out across
+ * scopes, incremental contributions and persisted summaries.
+ */
+class WorkspaceReferenceIndexTests {
+
+	private static final String DTO_SOURCE = "package shared\n"
+			+ "class Dto {\n"
+			+ "  String name\n"
+			+ "  void rename(String newName) {}\n"
+			+ "}\n";
+	private static final String USE_SOURCE = "import shared.Dto\n"
+			+ "class Use {\n"
+			+ "  void run() {\n"
+			+ "    new Dto().rename('x')\n"
+			+ "  }\n"
+			+ "}\n";
+	private static final String RENAME_SIGNATURE = "shared.Dto#rename(java.lang.String)";
+
+	@TempDir
+	Path tempDir;
+
+	private Path cacheDir;
+	private Path rootA;
+	private Path rootB;
+	private URI dtoURI;
+	private URI useURI;
+
+	@BeforeEach
+	void setup() throws IOException {
+		cacheDir = tempDir.resolve("cache");
+		rootA = tempDir.resolve("a");
+		rootB = tempDir.resolve("b");
+		dtoURI = write(rootA.resolve("Dto.groovy"), DTO_SOURCE);
+		useURI = write(rootB.resolve("Use.groovy"), USE_SOURCE);
+	}
+
+	// --- Signatures ---
+
+	@Test
+	void testSignatureOfClassesAndMembers() {
+		ASTNodeVisitor visitor = visit(dtoURI, DTO_SOURCE);
+		ClassNode dto = visitor.getClassNodeByName("shared.Dto");
+
+		Assertions.assertEquals("shared.Dto", WorkspaceReferenceIndex.signatureOf(dto));
+		Assertions.assertEquals(RENAME_SIGNATURE,
+				WorkspaceReferenceIndex.signatureOf(dto.getMethods("rename").get(0)));
+		Assertions.assertEquals("shared.Dto#name",
+				WorkspaceReferenceIndex.signatureOf(dto.getProperty("name")));
+		Assertions.assertEquals("shared.Dto#name",
+				WorkspaceReferenceIndex.signatureOf(dto.getField("name")));
+		Assertions.assertNull(WorkspaceReferenceIndex.signatureOf(ClassHelper.STRING_TYPE));
+		Assertions.assertNull(WorkspaceReferenceIndex.signatureOf(ClassHelper.int_TYPE));
+		Assertions.assertNull(WorkspaceReferenceIndex.signatureOf(null));
+	}
+
+	// --- Fan-out ---
+
+	@Test
+	void testUsagesInOtherScopesAreFoundBySignature() {
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		index.scheduleContribution(rootA, visit(dtoURI, DTO_SOURCE), Collections.emptySet());
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+
+		List<WorkspaceReferenceIndex.Usage> fromA = index.findUsages(RENAME_SIGNATURE, rootA);
+		Assertions.assertFalse(fromA.isEmpty());
+		for (WorkspaceReferenceIndex.Usage usage : fromA) {
+			Assertions.assertEquals(useURI, usage.getUri());
+		}
+		Assertions.assertTrue(fromA.stream().anyMatch(usage -> usage.getRange().getStart().getLine() == 3
+				&& usage.getKind() == WorkspaceReferenceIndex.UsageKind.NAME), "the call in Use.run()");
+
+		List<WorkspaceReferenceIndex.Usage> all = index.findUsages(RENAME_SIGNATURE, null);
+		Assertions.assertTrue(all.stream().anyMatch(usage -> usage.getUri().equals(dtoURI)
+				&& usage.getKind() == WorkspaceReferenceIndex.UsageKind.METHOD), "the declaration in Dto");
+		Assertions.assertTrue(index.findUsages("java.lang.String", null).isEmpty(),
+				"JDK classes are not indexed");
+	}
+
+	// --- Incremental contributions ---
+
+	@Test
+	void testFullVisitDropsFilesMissingFromTheSnapshot() throws IOException {
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		URI otherURI = write(rootB.resolve("Other.groovy"), "class Other { void o() { new shared.Dto() } }\n");
+		index.scheduleContribution(rootB, visit(otherURI, "class Other { void o() { new shared.Dto() } }\n"),
+				Collections.emptySet());
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+		Assertions.assertEquals(2, index.getIndexedFileCount());
+
+		// A full visit of scope B without Other.groovy (e.g. it was deleted)
+		index.scheduleContribution(rootB, visitBoth(), Collections.emptySet());
+
+		Assertions.assertEquals(2, index.getIndexedFileCount(), "Use.groovy and Dto.groovy");
+		Assertions.assertTrue(index.findUsages("Other", null).isEmpty());
+	}
+
+	@Test
+	void testOlderContributionDoesNotReplaceNewerOne() {
+		List<Runnable> queued = new ArrayList<>();
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, queued::add);
+		String edited = USE_SOURCE.replace("rename('x')", "getName()");
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+		index.scheduleContribution(rootB, visit(useURI, edited), Set.of(useURI));
+
+		// Run the newer contribution first
+		queued.get(1).run();
+		queued.get(0).run();
+
+		Assertions.assertTrue(index.findUsages(RENAME_SIGNATURE, null).isEmpty(),
+				"The stale contribution must not win");
+	}
+
+	// --- Persistence ---
+
+	@Test
+	void testPersistedSummaryIsLoadedWhileFileIsUnchanged() throws IOException {
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+		index.saveAll();
+		Assertions.assertTrue(Files.isRegularFile(index.getCacheFile(rootB)));
+
+		WorkspaceReferenceIndex restarted = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		restarted.scheduleLoad(rootB);
+		Assertions.assertFalse(restarted.findUsages(RENAME_SIGNATURE, rootA).isEmpty(),
+				"Scope B takes part without being compiled");
+
+		Path usePath = Path.of(useURI);
+		Files.setLastModifiedTime(usePath,
+				FileTime.fromMillis(Files.getLastModifiedTime(usePath).toMillis() + 5000));
+		WorkspaceReferenceIndex afterEdit = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		afterEdit.loadScope(rootB);
+		Assertions.assertTrue(afterEdit.findUsages(RENAME_SIGNATURE, rootA).isEmpty(),
+				"Files changed since they were indexed are skipped");
+	}
+
+	@Test
+	void testContributionSupersedesPersistedSummary() {
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+		index.saveAll();
+
+		WorkspaceReferenceIndex restarted = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		String edited = USE_SOURCE.replace("rename('x')", "getName()");
+		restarted.scheduleContribution(rootB, visit(useURI, edited), Set.of(useURI));
+		restarted.loadScope(rootB);
+
+		Assertions.assertTrue(restarted.findUsages(RENAME_SIGNATURE, null).isEmpty());
+	}
+
+	@Test
+	void testSummaryOfUnsavedBufferIsNotPersisted() {
+		WorkspaceReferenceIndex index = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		index.setUnsavedCheck(useURI::equals);
+		index.scheduleContribution(rootB, visitBoth(), Set.of(useURI));
+		Assertions.assertFalse(index.findUsages(RENAME_SIGNATURE, rootA).isEmpty(),
+				"Unsaved buffers still take part while the server runs");
+		index.saveAll();
+
+		WorkspaceReferenceIndex restarted = new WorkspaceReferenceIndex(cacheDir, Runnable::run);
+		restarted.loadScope(rootB);
+		Assertions.assertTrue(restarted.findUsages(RENAME_SIGNATURE, rootA).isEmpty(),
+				"The disk copy may differ from the buffer that was indexed");
+	}
+
+	// --- Helpers ---
+
+	private static URI write(Path path, String contents) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, contents);
+		return path.toUri();
+	}
+
+	/** Scope B sees {@code Dto} as a source, standing in for its classpath. */
+	private ASTNodeVisitor visitBoth() {
+		return visit(new URI[] { dtoURI, useURI }, new String[] { DTO_SOURCE, USE_SOURCE });
+	}
+
+	private static ASTNodeVisitor visit(URI uri, String source) {
+		return visit(new URI[] { uri }, new String[] { source });
+	}
+
+	private static ASTNodeVisitor visit(URI[] uris, String[] sources) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		GroovyClassLoader classLoader = new GroovyClassLoader(
+				ClassLoader.getSystemClassLoader().getParent(), config, true);
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
+		for (int i = 0; i < uris.length; i++) {
+			cu.addSource(new SourceUnit(uris[i].getPath(),
+					new StringReaderSourceWithURI(sources[i], uris[i], config),
+					config, classLoader, cu.getErrorCollector()));
+		}
+		try {
+			cu.compile(Phases.CANONICALIZATION);
+		} catch (Exception e) {
+			// unresolved classes are expected in some test cases
+		}
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(cu);
+		return visitor;
+	}
+}
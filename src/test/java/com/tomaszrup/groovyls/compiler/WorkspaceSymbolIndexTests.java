@@ -0,0 +1,255 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Tests for {@link WorkspaceSymbolIndex}: fuzzy matching and ranking,
+ * incremental contributions and persisted declarations.
+ */
+class WorkspaceSymbolIndexTests {
+
+	private static final String CUSTOMER_SOURCE = "package shop\n"
+			+ "class CustomerAccount {\n"
+			+ "  String fullName\n"
+			+ "  String getFullNameUpper() { fullName.toUpperCase() }\n"
+			+ "  void accountClosed() {}\n"
+			+ "}\n";
+	private static final String ORDER_SOURCE = "package shop\n"
+			+ "class OrderService {\n"
+			+ "  void placeOrder() {}\n"
+			+ "}\n";
+
+	@TempDir
+	Path tempDir;
+
+	private Path cacheDir;
+	private Path rootA;
+	private Path rootB;
+	private URI customerURI;
+	private URI orderURI;
+
+	@BeforeEach
+	void setup() throws IOException {
+		cacheDir = tempDir.resolve("cache");
+		rootA = tempDir.resolve("a");
+		rootB = tempDir.resolve("b");
+		customerURI = write(rootA.resolve("CustomerAccount.groovy"), CUSTOMER_SOURCE);
+		orderURI = write(rootB.resolve("OrderService.groovy"), ORDER_SOURCE);
+	}
+
+	// --- Matching ---
+
+	@Test
+	void testCamelMatch() {
+		Assertions.assertTrue(WorkspaceSymbolIndex.camelMatch("getFullName", 0, "gFN", 0));
+		Assertions.assertTrue(WorkspaceSymbolIndex.camelMatch("getFullName", 0, "fulnam", 0));
+		Assertions.assertTrue(WorkspaceSymbolIndex.camelMatch("shop.CustomerAccount", 0, "CA", 0));
+		Assertions.assertTrue(WorkspaceSymbolIndex.camelMatch("MAX_RESULTS", 0, "MR", 0));
+		Assertions.assertFalse(WorkspaceSymbolIndex.camelMatch("getFullName", 0, "gNF", 0));
+		Assertions.assertFalse(WorkspaceSymbolIndex.camelMatch("getFullName", 0, "ullN", 0),
+				"matches start at a hump");
+	}
+
+	@Test
+	void testScoreRanksExactThenPrefixThenCamelThenSubstring() {
+		Assertions.assertEquals(0, WorkspaceSymbolIndex.score("shop.CustomerAccount", "customeraccount"));
+		Assertions.assertEquals(1, WorkspaceSymbolIndex.score("shop.CustomerAccount", "Cust"));
+		Assertions.assertEquals(2, WorkspaceSymbolIndex.score("getFullName", "gfn"));
+		Assertions.assertEquals(3, WorkspaceSymbolIndex.score("getFullName", "llna"));
+		Assertions.assertEquals(-1, WorkspaceSymbolIndex.score("getFullName", "xyz"));
+	}
+
+	@Test
+	void testSearchAcrossScopes() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		index.contribute(rootA, visit(customerURI, CUSTOMER_SOURCE), Collections.emptySet());
+		index.contribute(rootB, visit(orderURI, ORDER_SOURCE), Collections.emptySet());
+
+		List<WorkspaceSymbolIndex.Symbol> bySubstring = index.search("order", 10);
+		Assertions.assertEquals(List.of("shop.OrderService", "placeOrder"), names(bySubstring),
+				"a prefix of the simple name ranks above a camel hump");
+
+		List<WorkspaceSymbolIndex.Symbol> byCamel = index.search("CA", 10);
+		WorkspaceSymbolIndex.Symbol customer = byCamel.get(0);
+		Assertions.assertEquals("shop.CustomerAccount", customer.getName());
+		Assertions.assertEquals(SymbolKind.Class, customer.getKind());
+		Assertions.assertEquals(customerURI, customer.getUri());
+		Assertions.assertEquals(1, customer.getRange().getStart().getLine());
+
+		WorkspaceSymbolIndex.Symbol method = index.search("gFNU", 10).get(0);
+		Assertions.assertEquals("getFullNameUpper", method.getName());
+		Assertions.assertEquals("shop.CustomerAccount", method.getContainerName());
+
+		Assertions.assertTrue(index.search("xyzNonExistent", 10).isEmpty());
+	}
+
+	@Test
+	void testSearchRanksExactMatchesFirstAndHonorsLimit() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		index.contribute(rootA, visit(customerURI, CUSTOMER_SOURCE), Collections.emptySet());
+
+		List<WorkspaceSymbolIndex.Symbol> results = index.search("fullName", 10);
+		Assertions.assertEquals("fullName", results.get(0).getName());
+		Assertions.assertTrue(names(results).contains("getFullNameUpper"));
+
+		int all = index.search("", Integer.MAX_VALUE).size();
+		Assertions.assertTrue(all >= 4, "class, property, methods: " + all);
+		Assertions.assertEquals(2, index.search("", 2).size());
+	}
+
+	// --- Incremental contributions ---
+
+	@Test
+	void testIncrementalContributionReplacesOnlyVisitedFiles() throws IOException {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		URI otherURI = write(rootA.resolve("Other.groovy"), "class Other {}\n");
+		index.contribute(rootA, visit(new URI[] { customerURI, otherURI },
+				new String[] { CUSTOMER_SOURCE, "class Other {}\n" }), Collections.emptySet());
+
+		String renamed = CUSTOMER_SOURCE.replace("accountClosed", "accountReopened");
+		index.contribute(rootA, visit(customerURI, renamed), Set.of(customerURI));
+
+		Assertions.assertTrue(index.search("accountClosed", 10).isEmpty());
+		Assertions.assertFalse(index.search("accountReopened", 10).isEmpty());
+		Assertions.assertFalse(index.search("Other", 10).isEmpty(), "Other.groovy was not re-visited");
+
+		// A full visit without Other.groovy (e.g. it was deleted)
+		index.contribute(rootA, visit(customerURI, renamed), Collections.emptySet());
+		Assertions.assertTrue(index.search("Other", 10).isEmpty());
+	}
+
+	@Test
+	void testRepeatedContributionsRebuildPostings() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		ASTNodeVisitor visitor = visit(customerURI, CUSTOMER_SOURCE);
+		index.contribute(rootA, visitor, Collections.emptySet());
+		int size = index.size();
+		for (int i = 0; i < 500; i++) {
+			index.contribute(rootA, visitor, Set.of(customerURI));
+		}
+
+		Assertions.assertEquals(size, index.size());
+		Assertions.assertEquals(1, index.search("CustomerAccount", 10).stream()
+				.filter(symbol -> symbol.getKind() == SymbolKind.Class).count());
+	}
+
+	// --- Persistence ---
+
+	@Test
+	void testPersistedDeclarationsAreLoadedWhileFileIsUnchanged() throws IOException {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		index.contribute(rootA, visit(customerURI, CUSTOMER_SOURCE), Collections.emptySet());
+		Assertions.assertTrue(Files.isRegularFile(index.getCacheFile(rootA)), "saved after a full visit");
+
+		WorkspaceSymbolIndex restarted = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		restarted.scheduleLoad(rootA);
+		Assertions.assertEquals(names(index.search("", 100)), names(restarted.search("", 100)),
+				"Scope A takes part without being compiled");
+
+		Path customerPath = Path.of(customerURI);
+		Files.setLastModifiedTime(customerPath,
+				FileTime.fromMillis(Files.getLastModifiedTime(customerPath).toMillis() + 5000));
+		WorkspaceSymbolIndex afterEdit = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		afterEdit.loadScope(rootA);
+		Assertions.assertEquals(0, afterEdit.size(), "Files changed since they were indexed are skipped");
+	}
+
+	@Test
+	void testContributionSupersedesPersistedDeclarations() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		index.contribute(rootA, visit(customerURI, CUSTOMER_SOURCE), Collections.emptySet());
+
+		WorkspaceSymbolIndex restarted = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		String renamed = CUSTOMER_SOURCE.replace("accountClosed", "accountReopened");
+		restarted.contribute(rootA, visit(customerURI, renamed), Set.of(customerURI));
+		restarted.loadScope(rootA);
+
+		Assertions.assertTrue(restarted.search("accountClosed", 10).isEmpty());
+	}
+
+	@Test
+	void testDeclarationsOfUnsavedBufferAreNotPersisted() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		index.setUnsavedCheck(customerURI::equals);
+		index.contribute(rootA, visit(customerURI, CUSTOMER_SOURCE), Collections.emptySet());
+		Assertions.assertTrue(index.size() > 0, "Unsaved buffers are still searchable while the server runs");
+
+		WorkspaceSymbolIndex restarted = new WorkspaceSymbolIndex(cacheDir, Runnable::run);
+		restarted.loadScope(rootA);
+		Assertions.assertEquals(0, restarted.size(), "The disk copy may differ from the buffer that was indexed");
+	}
+
+	// --- Helpers ---
+
+	private static List<String> names(List<WorkspaceSymbolIndex.Symbol> symbols) {
+		return symbols.stream().map(WorkspaceSymbolIndex.Symbol::getName).collect(Collectors.toList());
+	}
+
+	private static URI write(Path path, String contents) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, contents);
+		return path.toUri();
+	}
+
+	private static ASTNodeVisitor visit(URI uri, String source) {
+		return visit(new URI[] { uri }, new String[] { source });
+	}
+
+	private static ASTNodeVisitor visit(URI[] uris, String[] sources) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		GroovyClassLoader classLoader = new GroovyClassLoader(
+				ClassLoader.getSystemClassLoader().getParent(), config, true);
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
+		for (int i = 0; i < uris.length; i++) {
+			cu.addSource(new SourceUnit(uris[i].getPath(),
+					new StringReaderSourceWithURI(sources[i], uris[i], config),
+					config, classLoader, cu.getErrorCollector()));
+		}
+		try {
+			cu.compile(Phases.CANONICALIZATION);
+		} catch (Exception e) {
+			// unresolved classes are expected in some test cases
+		}
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(cu);
+		return visitor;
+	}
+}
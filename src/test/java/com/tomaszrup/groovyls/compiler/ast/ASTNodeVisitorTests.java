@@ -18,6 +18,7 @@ package com.tomaszrup.groovyls.compiler.ast;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassNode;
@@ -127,6 +128,31 @@ class ASTNodeVisitorTests {
 		Assertions.assertNull(visitor.getClassNodeByName("Absent"));
 	}
 
+	@Test
+	void testClassNodesBySimpleNameFollowsRevisits() {
+		GroovyLSCompilationUnit cu = compileSource(
+				"package a\n" +
+				"class Shared {}\n" +
+				"class Other {}\n");
+		visitor.visitCompilationUnit(cu);
+		URI uri = cu.iterator().next().getSource().getURI();
+
+		List<ClassNode> shared = visitor.getClassNodesBySimpleName("Shared");
+		Assertions.assertEquals(1, shared.size());
+		Assertions.assertEquals("a.Shared", shared.get(0).getName());
+		Assertions.assertTrue(visitor.getClassNodesBySimpleName("a.Shared").isEmpty());
+
+		ASTNodeVisitor snapshot = visitor.createSnapshotExcluding(Collections.singleton(uri));
+		Assertions.assertTrue(snapshot.getClassNodesBySimpleName("Shared").isEmpty(),
+				"a snapshot builds its own map");
+		Assertions.assertEquals(1, visitor.getClassNodesBySimpleName("Shared").size());
+
+		GroovyLSCompilationUnit renamed = compileSource("package a\nclass Renamed {}\n");
+		visitor.visitCompilationUnit(renamed, Collections.singleton(uri));
+		Assertions.assertTrue(visitor.getClassNodesBySimpleName("Shared").isEmpty());
+		Assertions.assertEquals(1, visitor.getClassNodesBySimpleName("Renamed").size());
+	}
+
 	// --- Parent tracking ---
 
 	@Test
@@ -307,6 +333,47 @@ class ASTNodeVisitorTests {
 		Assertions.assertTrue(current.getNodeCount(uri) > 0);
 	}
 
+	@Test
+	void testMergeAddsFilesOfOtherVisitor() {
+		URI first = URI.create("file:///First.groovy");
+		URI second = URI.create("file:///Second.groovy");
+		visitor.visitCompilationUnit(compileSource("class First {}\n", first));
+		ASTNodeVisitor other = new ASTNodeVisitor();
+		other.visitCompilationUnit(compileSource("class Second { First first }\n", second));
+
+		visitor.merge(other);
+
+		Assertions.assertNotNull(visitor.getClassNodeByName("First"));
+		ClassNode merged = visitor.getClassNodeByName("Second");
+		Assertions.assertNotNull(merged);
+		Assertions.assertEquals(second, visitor.getURI(merged));
+		Assertions.assertEquals(other.getNodeCount(second), visitor.getNodeCount(second));
+		Assertions.assertNotNull(visitor.getNodeAtLineAndColumn(second, 0, 7));
+	}
+
+	@Test
+	void testSnapshotExcludingDropsUriWithoutMutatingSource() {
+		GroovyLSCompilationUnit cu = compileSource("class Snap { void run() {} }\n");
+		visitor.visitCompilationUnit(cu);
+		URI uri = cu.iterator().next().getSource().getURI();
+		ClassNode classNode = visitor.getClassNodeByName("Snap");
+		Assertions.assertNotNull(classNode);
+
+		ASTNodeVisitor snapshot = visitor.createSnapshotExcluding(Collections.singleton(uri));
+
+		Assertions.assertEquals(0, snapshot.getNodeCount(uri));
+		Assertions.assertNull(snapshot.getClassNodeByName("Snap"));
+		Assertions.assertNull(snapshot.getURI(classNode));
+		Assertions.assertTrue(visitor.getNodeCount(uri) > 0, "Source visitor must keep its nodes");
+		Assertions.assertSame(classNode, visitor.getClassNodeByName("Snap"));
+		Assertions.assertEquals(uri, visitor.getURI(classNode));
+
+		ASTNodeVisitor unchanged = visitor.createSnapshotExcluding(Collections.emptySet());
+		Assertions.assertSame(visitor.getNodes(uri), unchanged.getNodes(uri),
+				"Untouched URIs should be shared, not copied");
+		Assertions.assertEquals(uri, unchanged.getURI(classNode));
+	}
+
 	@Test
 	void testVisitCompilationUnitTraversesComplexStatementsAndExpressions() {
 		String source = "import com.dep.One\n"
@@ -375,15 +442,65 @@ class ASTNodeVisitorTests {
 
 	// --- Helper ---
 
+	@Test
+	void testRecordsMemberReferencesAndTypeDependencies() {
+		GroovyLSCompilationUnit cu = compileSource(
+				"import static java.lang.Math.PI\n" +
+				"class Helper { int x; int compute() { 1 } }\n" +
+				"class User {\n" +
+				"  List<Helper> helpers\n" +
+				"  int read(Helper h) { h.x + h.@x }\n" +
+				"  def run() { new Helper(x: 1).compute(); String.valueOf(PI); this.&read }\n" +
+				"}\n");
+		visitor.visitCompilationUnit(cu);
+		URI uri = cu.iterator().next().getSource().getURI();
+
+		Set<String> references = visitor.getMemberReferences(uri);
+		Assertions.assertTrue(references.containsAll(Set.of("x", "compute", "valueOf", "PI", "read")),
+				references.toString());
+		Assertions.assertFalse(references.contains(ASTNodeVisitor.ANY_MEMBER));
+		Set<String> dependencies = visitor.getDependenciesByURI().get(uri);
+		Assertions.assertTrue(dependencies.contains("Helper"), dependencies.toString());
+		Assertions.assertFalse(dependencies.contains("java.lang.String"));
+		Assertions.assertNull(visitor.getMemberReferences(URI.create("file:///other.groovy")));
+	}
+
+	@Test
+	void testDynamicMemberNameReferencesAnyMember() {
+		GroovyLSCompilationUnit cu = compileSource(
+				"class Dyn { def run(def o, String name) { o.\"$name\"() } }\n");
+		visitor.visitCompilationUnit(cu);
+		URI uri = cu.iterator().next().getSource().getURI();
+
+		Assertions.assertTrue(visitor.getMemberReferences(uri).contains(ASTNodeVisitor.ANY_MEMBER));
+	}
+
+	@Test
+	void testMemberReferencesFollowSnapshotsAndRestores() {
+		GroovyLSCompilationUnit cu = compileSource("class Caller { def run(def o) { o.target() } }\n");
+		visitor.visitCompilationUnit(cu);
+		URI uri = cu.iterator().next().getSource().getURI();
+
+		ASTNodeVisitor snapshot = visitor.createSnapshotExcluding(Collections.singleton(uri));
+		Assertions.assertNull(snapshot.getMemberReferences(uri));
+		Assertions.assertTrue(visitor.getMemberReferences(uri).contains("target"));
+
+		snapshot.restoreFromPrevious(uri, visitor);
+		Assertions.assertTrue(snapshot.getMemberReferences(uri).contains("target"));
+	}
+
 	private GroovyLSCompilationUnit compileSource(String source) {
+		return compileSource(source, URI.create("file:///test.groovy"));
+	}
+
+	private GroovyLSCompilationUnit compileSource(String source, URI uri) {
 		CompilerConfiguration config = new CompilerConfiguration();
 		config.getOptimizationOptions().put(CompilerConfiguration.GROOVYDOC, true);
 		GroovyClassLoader classLoader = new GroovyClassLoader(
 				ClassLoader.getSystemClassLoader().getParent(), config, true);
 		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
 
-		URI uri = URI.create("file:///test.groovy");
-		SourceUnit sourceUnit = new SourceUnit("test.groovy",
+		SourceUnit sourceUnit = new SourceUnit(uri.getPath().substring(1),
 				new StringReaderSourceWithURI(source, uri, config),
 				config, classLoader, cu.getErrorCollector());
 		cu.addSource(sourceUnit);
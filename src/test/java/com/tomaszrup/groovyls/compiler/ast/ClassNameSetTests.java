@@ -0,0 +1,51 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.ast;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ClassNameSet}.
+ */
+class ClassNameSetTests {
+
+	@Test
+	void testBehavesLikeTheCopiedSet() {
+		List<String> names = Arrays.asList("com.example.B", "com.example.A", "com.example.C", "com.example.A");
+		Set<String> set = ClassNameSet.copyOf(names);
+
+		Assertions.assertEquals(new HashSet<>(names), set);
+		Assertions.assertEquals(3, set.size());
+		Assertions.assertTrue(set.contains("com.example.C"));
+		Assertions.assertFalse(set.contains("com.example.Missing"));
+		Assertions.assertFalse(set.contains(42));
+	}
+
+	@Test
+	void testEmptyAndImmutable() {
+		Set<String> empty = ClassNameSet.copyOf(new HashSet<>());
+		Assertions.assertTrue(empty.isEmpty());
+		Set<String> set = ClassNameSet.copyOf(Arrays.asList("com.example.A"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> set.add("com.example.B"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> set.remove("com.example.A"));
+	}
+}
@@ -0,0 +1,198 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.ast;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
+import com.tomaszrup.groovyls.util.GroovyLanguageServerUtils;
+import com.tomaszrup.lsp.utils.Positions;
+import com.tomaszrup.lsp.utils.Ranges;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Tests for {@link NodePositionIndex}: the indexed lookup must return
+ * exactly what a linear scan over all nodes would, and the index must be
+ * rebuilt only for re-visited URIs.
+ */
+class NodePositionIndexTests {
+
+	private static final String SOURCE = "import java.util.List\n"
+			+ "class Outer {\n"
+			+ "  String name = 'x'\n"
+			+ "  Outer() { this('y') }\n"
+			+ "  Outer(String n) { name = n }\n"
+			+ "  def run(List<String> items, int count) {\n"
+			+ "    for (String s : items) { println(s.length() + count) }\n"
+			+ "    def c = { a -> a * 2 }\n"
+			+ "    return c(count) ? items.collect { it.toUpperCase() } : null\n"
+			+ "  }\n"
+			+ "  static class Inner { int value; int twice() { value * 2 } }\n"
+			+ "}\n"
+			+ "enum Color { RED, GREEN }\n";
+
+	// --- Equivalence with the linear scan ---
+
+	@Test
+	void testIndexedLookupMatchesLinearScanAtEveryPosition() {
+		URI uri = URI.create("file:///Outer.groovy");
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(compileSource(SOURCE, uri));
+
+		String[] lines = SOURCE.split("\n", -1);
+		for (int line = 0; line < lines.length + 1; line++) {
+			int width = line < lines.length ? lines[line].length() + 2 : 3;
+			for (int column = 0; column < width; column++) {
+				ASTNode expected = linearScan(visitor, uri, line, column);
+				ASTNode actual = visitor.getNodeAtLineAndColumn(uri, line, column);
+				Assertions.assertSame(expected, actual, "Mismatch at " + line + ":" + column);
+			}
+		}
+	}
+
+	@Test
+	void testConstructorDoesNotShadowClassWithIdenticalRange() {
+		URI uri = URI.create("file:///Plain.groovy");
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(compileSource("class Plain {}\n", uri));
+
+		ASTNode node = visitor.getNodeAtLineAndColumn(uri, 0, 8);
+		Assertions.assertTrue(node instanceof ClassNode, "Expected class node, got " + node);
+		Assertions.assertSame(linearScan(visitor, uri, 0, 8), node);
+	}
+
+	@Test
+	void testEmptyIndexReturnsNull() {
+		NodePositionIndex index = NodePositionIndex.build(Collections.emptyList(), new ASTNodeVisitor());
+		Assertions.assertEquals(0, index.size());
+		Assertions.assertNull(index.getNodeAt(0, 0));
+	}
+
+	// --- Incremental maintenance ---
+
+	@Test
+	void testSnapshotSharesIndexForUntouchedUris() {
+		URI first = URI.create("file:///First.groovy");
+		URI second = URI.create("file:///Second.groovy");
+		GroovyLSCompilationUnit unit = compileSources(
+				new String[] { "class First { void a() {} }\n", "class Second { void b() {} }\n" },
+				new URI[] { first, second });
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(unit);
+		NodePositionIndex firstIndex = visitor.positionIndexByURI.get(first);
+		NodePositionIndex secondIndex = visitor.positionIndexByURI.get(second);
+		Assertions.assertNotNull(firstIndex);
+		Assertions.assertNotNull(secondIndex);
+
+		ASTNodeVisitor snapshot = visitor.createSnapshotExcluding(Set.of(second));
+		snapshot.visitCompilationUnit(unit, Set.of(second));
+
+		Assertions.assertSame(firstIndex, snapshot.positionIndexByURI.get(first),
+				"Untouched URI should keep its index");
+		Assertions.assertNotSame(secondIndex, snapshot.positionIndexByURI.get(second),
+				"Re-visited URI should be re-indexed");
+		Assertions.assertSame(secondIndex, visitor.positionIndexByURI.get(second),
+				"Original visitor must not be mutated");
+		Assertions.assertNotNull(snapshot.getNodeAtLineAndColumn(second, 0, 16));
+	}
+
+	@Test
+	void testRestoreFromPreviousRestoresIndex() {
+		URI uri = URI.create("file:///Restore.groovy");
+		ASTNodeVisitor previous = new ASTNodeVisitor();
+		previous.visitCompilationUnit(compileSource("class Restore { void ok() {} }\n", uri));
+		ASTNodeVisitor current = new ASTNodeVisitor();
+		current.visitCompilationUnit(compileSource("class Broken {\n", uri));
+
+		current.restoreFromPrevious(uri, previous);
+
+		Assertions.assertSame(previous.positionIndexByURI.get(uri), current.positionIndexByURI.get(uri));
+		Assertions.assertSame(previous.getNodeAtLineAndColumn(uri, 0, 22),
+				current.getNodeAtLineAndColumn(uri, 0, 22));
+	}
+
+	// --- Helpers ---
+
+	/** Reference implementation: the original linear scan. */
+	private static ASTNode linearScan(ASTNodeVisitor visitor, URI uri, int line, int column) {
+		Position position = new Position(line, column);
+		ASTNode best = null;
+		Range bestRange = null;
+		for (ASTNode node : visitor.getNodes(uri)) {
+			if (node.getLineNumber() == -1) {
+				continue;
+			}
+			Range range = GroovyLanguageServerUtils.astNodeToRange(node);
+			if (range == null || !Ranges.contains(range, position)) {
+				continue;
+			}
+			if (best == null) {
+				best = node;
+				bestRange = range;
+				continue;
+			}
+			int startCmp = Positions.COMPARATOR.compare(range.getStart(), bestRange.getStart());
+			int endCmp = Positions.COMPARATOR.compare(range.getEnd(), bestRange.getEnd());
+			boolean better = startCmp > 0
+					|| (startCmp == 0 && endCmp < 0)
+					|| (startCmp == 0 && endCmp == 0 && NodePositionIndex.isAncestor(visitor, best, node, visitor.getNodes(uri).size())
+							&& !(best instanceof ClassNode && node instanceof ConstructorNode));
+			if (better) {
+				best = node;
+				bestRange = range;
+			}
+		}
+		return best;
+	}
+
+	private static GroovyLSCompilationUnit compileSource(String source, URI uri) {
+		return compileSources(new String[] { source }, new URI[] { uri });
+	}
+
+	private static GroovyLSCompilationUnit compileSources(String[] sources, URI[] uris) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		GroovyClassLoader classLoader = new GroovyClassLoader(
+				ClassLoader.getSystemClassLoader().getParent(), config, true);
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
+		for (int i = 0; i < sources.length; i++) {
+			String name = uris[i].getPath().substring(1);
+			cu.addSource(new SourceUnit(name,
+					new StringReaderSourceWithURI(sources[i], uris[i], config),
+					config, classLoader, cu.getErrorCollector()));
+		}
+		try {
+			cu.compile(Phases.CANONICALIZATION);
+		} catch (Exception e) {
+			// Compilation errors are expected in some test cases
+		}
+		return cu;
+	}
+}
@@ -0,0 +1,160 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CachingParserPluginFactory}.
+ */
+class CachingParserPluginFactoryTests {
+	private static final String SOURCE = "package app\n"
+			+ "\n"
+			+ "import java.util.concurrent.atomic.AtomicInteger\n"
+			+ "\n"
+			+ "/** A counter. */\n"
+			+ "class Counter {\n"
+			+ "\tprivate final AtomicInteger count = new AtomicInteger()\n"
+			+ "\n"
+			+ "\tint increment(int by = 1) {\n"
+			+ "\t\tcount.addAndGet(by)\n"
+			+ "\t}\n"
+			+ "\n"
+			+ "\tList<String> labels(Map<String, Integer> values) {\n"
+			+ "\t\tvalues.findAll { it.value > 0 }.collect { \"${it.key}=${it.value}\" }\n"
+			+ "\t}\n"
+			+ "\n"
+			+ "\tstatic class Nested {\n"
+			+ "\t\tString name\n"
+			+ "\t}\n"
+			+ "}\n";
+
+	private ParseTreeCache cache;
+	private CompilerConfiguration config;
+
+	@BeforeEach
+	void setup() {
+		cache = new ParseTreeCache(Long.MAX_VALUE);
+		config = new CompilerConfiguration();
+		config.setPluginFactory(new CachingParserPluginFactory(cache));
+	}
+
+	@Test
+	void testSecondCompileBuildsSameAstFromCachedTree() {
+		GroovyLSCompilationUnit first = compile(Map.of("Counter.groovy", SOURCE));
+		Assertions.assertEquals(1, cache.size());
+		Assertions.assertEquals(0, cache.getHitCount());
+
+		GroovyLSCompilationUnit second = compile(Map.of("Counter.groovy", SOURCE));
+
+		Assertions.assertEquals(1, cache.getHitCount());
+		Assertions.assertEquals(1, cache.size());
+		Assertions.assertFalse(second.getErrorCollector().hasErrors());
+		Assertions.assertEquals(describe(first), describe(second));
+	}
+
+	@Test
+	void testChangedSourceIsParsedAgain() {
+		compile(Map.of("Counter.groovy", SOURCE));
+
+		GroovyLSCompilationUnit unit = compile(Map.of("Counter.groovy", SOURCE.replace("increment", "add")));
+
+		Assertions.assertEquals(0, cache.getHitCount());
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertTrue(describe(unit).toString().contains(" add("));
+	}
+
+	@Test
+	void testSourceWithErrorsIsNotCached() {
+		String broken = "class Broken {\n\tvoid method( {\n}\n";
+
+		GroovyLSCompilationUnit first = compile(Map.of("Broken.groovy", broken));
+		GroovyLSCompilationUnit second = compile(Map.of("Broken.groovy", broken));
+
+		Assertions.assertTrue(first.getErrorCollector().hasErrors());
+		Assertions.assertTrue(second.getErrorCollector().hasErrors());
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	void testEverySourceOfAUnitIsCached() {
+		Map<String, String> sources = new HashMap<>();
+		for (int i = 0; i < 8; i++) {
+			sources.put("Counter" + i + ".groovy", SOURCE.replace("Counter", "Counter" + i));
+		}
+
+		GroovyLSCompilationUnit first = compile(sources);
+		GroovyLSCompilationUnit second = compile(sources);
+
+		Assertions.assertEquals(8, cache.size());
+		Assertions.assertEquals(8, cache.getHitCount());
+		Assertions.assertEquals(describe(first), describe(second));
+	}
+
+	private GroovyLSCompilationUnit compile(Map<String, String> sources) {
+		GroovyLSCompilationUnit unit = new GroovyLSCompilationUnit(config);
+		sources.forEach(unit::addSource);
+		try {
+			unit.compile(Phases.CANONICALIZATION);
+		} catch (CompilationFailedException e) {
+			// reported through the error collector
+		}
+		return unit;
+	}
+
+	/** Lists the classes, members and their positions of a compiled unit. */
+	private static List<String> describe(GroovyLSCompilationUnit unit) {
+		List<String> lines = new ArrayList<>();
+		for (ModuleNode module : unit.getAST().getModules()) {
+			for (ClassNode classNode : module.getClasses()) {
+				lines.add(classNode.getName() + position(classNode.getLineNumber(), classNode.getColumnNumber(),
+						classNode.getLastLineNumber(), classNode.getLastColumnNumber()));
+				for (FieldNode field : classNode.getFields()) {
+					lines.add("  " + field.getType().getName() + " " + field.getName()
+							+ position(field.getLineNumber(), field.getColumnNumber(),
+									field.getLastLineNumber(), field.getLastColumnNumber()));
+				}
+				for (MethodNode method : classNode.getMethods()) {
+					lines.add("  " + method.getTypeDescriptor()
+							+ position(method.getLineNumber(), method.getColumnNumber(),
+									method.getLastLineNumber(), method.getLastColumnNumber())
+							+ (method.getCode() != null ? " " + method.getCode().getText() : ""));
+				}
+			}
+		}
+		lines.sort(null);
+		return lines;
+	}
+
+	private static String position(int line, int column, int lastLine, int lastColumn) {
+		return " [" + line + ":" + column + "-" + lastLine + ":" + lastColumn + "]";
+	}
+}
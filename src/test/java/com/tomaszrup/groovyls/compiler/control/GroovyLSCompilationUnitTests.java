@@ -15,11 +15,21 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls.compiler.control;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.Phases;
@@ -188,6 +198,182 @@ class GroovyLSCompilationUnitTests {
 		Assertions.assertTrue(cu.getAST().getModules().isEmpty());
 	}
 
+	// ------------------------------------------------------------------
+	// Cancellation
+	// ------------------------------------------------------------------
+
+	@Test
+	void testCancellationCheckAbortsBetweenSourceUnits() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///A.groovy"), "class A {}");
+		addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		addSource(cu, URI.create("file:///C.groovy"), "class C {}");
+		int[] checks = { 0 };
+		// checked before initialization, parsing and conversion, before
+		// building each source's AST, then per converted source
+		cu.setCancellationCheck(() -> ++checks[0] > 7);
+
+		CompilationCancelledException e = Assertions.assertThrows(CompilationCancelledException.class,
+				() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(Phases.CONVERSION, e.getUnit().getPhase(),
+				"Should stop within conversion, not at the end of the compilation");
+		Assertions.assertTrue(cu.getAST().getModules().size() < 3, "Remaining sources should not be converted");
+	}
+
+	@Test
+	void testCancelledUnitCanBeCompiledAgain() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///A.groovy"), "class A { B b }");
+		addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		cu.setCancellationCheck(() -> cu.getPhase() >= Phases.SEMANTIC_ANALYSIS);
+		Assertions.assertThrows(CompilationCancelledException.class, () -> cu.compile(Phases.CANONICALIZATION));
+
+		cu.setCancellationCheck(null);
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(2, cu.getAST().getModules().size());
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors());
+	}
+
+	@Test
+	void testUnitCancelledDuringConversionCanBeCompiledAgain() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///A.groovy"), "class A { B b }");
+		addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		addSource(cu, URI.create("file:///C.groovy"), "enum C { X, Y }");
+		int[] checks = { 0 };
+		// aborts after the second source was converted
+		cu.setCancellationCheck(() -> ++checks[0] > 7);
+		Assertions.assertThrows(CompilationCancelledException.class, () -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(Phases.CONVERSION, cu.getPhase());
+
+		cu.setCancellationCheck(null);
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(3, cu.getAST().getModules().size());
+		Assertions.assertEquals(3, cu.getAST().getClasses().size());
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors());
+	}
+
+	@Test
+	void testCancellationCheckAbortsBetweenParsedSources() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		SourceUnit a = addSource(cu, URI.create("file:///A.groovy"), "class A { B b }");
+		SourceUnit b = addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		SourceUnit c = addSource(cu, URI.create("file:///C.groovy"), "class C {}");
+		int[] checks = { 0 };
+		// aborts before the second AST is built
+		cu.setCancellationCheck(() -> ++checks[0] > 4);
+
+		Assertions.assertThrows(CompilationCancelledException.class, () -> cu.compile(Phases.CANONICALIZATION));
+		long built = Stream.of(a, b, c).filter(source -> source.getAST() != null).count();
+		Assertions.assertEquals(1, built, "Remaining sources should not be parsed");
+		Assertions.assertTrue(cu.getAST().getModules().isEmpty());
+
+		cu.setCancellationCheck(null);
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(3, cu.getAST().getModules().size());
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors());
+	}
+
+	@Test
+	void testParseHelpersBuildMissingASTs() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		SourceUnit a = addSource(cu, URI.create("file:///A.groovy"), "class A { B b }");
+		SourceUnit b = addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		SourceUnit c = addSource(cu, URI.create("file:///C.groovy"), "class C {}");
+		CountDownLatch helperParsing = new CountDownLatch(1);
+		AtomicBoolean helpersStarted = new AtomicBoolean();
+		cu.setParseExecutor(task -> {
+			helpersStarted.set(true);
+			new Thread(task).start();
+		}, 2);
+		cu.setCancellationCheck(waitForHelper(helperParsing, helpersStarted, false));
+
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(0, helperParsing.getCount(), "A helper should have parsed a source");
+		Assertions.assertTrue(Stream.of(a, b, c).allMatch(source -> source.getAST() != null));
+		Assertions.assertEquals(3, cu.getAST().getModules().size());
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors());
+	}
+
+	@Test
+	void testCancellationOnParseHelperAbortsCompilation() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///A.groovy"), "class A { B b }");
+		addSource(cu, URI.create("file:///B.groovy"), "class B {}");
+		addSource(cu, URI.create("file:///C.groovy"), "class C {}");
+		CountDownLatch helperParsing = new CountDownLatch(1);
+		AtomicBoolean helpersStarted = new AtomicBoolean();
+		cu.setParseExecutor(task -> {
+			helpersStarted.set(true);
+			new Thread(task).start();
+		}, 2);
+		cu.setCancellationCheck(waitForHelper(helperParsing, helpersStarted, true));
+
+		Assertions.assertThrows(CompilationCancelledException.class, () -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertTrue(cu.getAST().getModules().isEmpty());
+
+		cu.setParseExecutor(null, 0);
+		cu.setCancellationCheck(null);
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertEquals(3, cu.getAST().getModules().size());
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors());
+	}
+
+	@Test
+	void testUnitCancelledAfterSemanticAnalysisDoesNotRepeatTransforms() {
+		assertResumesAfterCancellationAt(Phases.SEMANTIC_ANALYSIS);
+	}
+
+	@Test
+	void testUnitCancelledAfterCanonicalizationDoesNotRepeatTransforms() {
+		assertResumesAfterCancellationAt(Phases.CANONICALIZATION);
+	}
+
+	@Test
+	void testNoCancellationCheckCompilesNormally() {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///A.groovy"), "class A {}");
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.CANONICALIZATION));
+		Assertions.assertDoesNotThrow(cu::checkCancelled);
+	}
+
+	// ------------------------------------------------------------------
+	// In-memory output
+	// ------------------------------------------------------------------
+
+	@Test
+	void testTargetDirectoryIsDroppedWithoutChangingConfig() throws IOException {
+		Path target = Files.createTempDirectory("cu-target");
+		try {
+			config.setTargetDirectory(target.toFile());
+			GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+
+			Assertions.assertNull(cu.getConfiguration().getTargetDirectory());
+			Assertions.assertEquals(target.toFile(), config.getTargetDirectory());
+		} finally {
+			Files.deleteIfExists(target);
+		}
+	}
+
+	@Test
+	void testCompileAllPhasesWritesNoClassFiles() throws IOException {
+		Path target = Files.createTempDirectory("cu-target");
+		try {
+			config.setTargetDirectory(target.toFile());
+			GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+			addSource(cu, URI.create("file:///Written.groovy"), "class Written {}");
+
+			Assertions.assertDoesNotThrow(() -> cu.compile());
+
+			Assertions.assertEquals(1, cu.getClasses().size(), "Generated classes should stay in memory");
+			try (Stream<Path> files = Files.list(target)) {
+				Assertions.assertEquals(0, files.count());
+			}
+		} finally {
+			Files.deleteIfExists(target);
+		}
+	}
+
 	// ------------------------------------------------------------------
 	// Helpers
 	// ------------------------------------------------------------------
@@ -204,6 +390,57 @@ class GroovyLSCompilationUnitTests {
 		return sourceUnit;
 	}
 
+	/**
+	 * A cancellation check that, once the parse helpers were started, holds
+	 * the compiling thread until a helper checks, so that a helper parses a
+	 * source. Returns {@code cancelHelpers} on helper threads.
+	 */
+	private BooleanSupplier waitForHelper(CountDownLatch helperParsing, AtomicBoolean helpersStarted,
+			boolean cancelHelpers) {
+		Thread compiling = Thread.currentThread();
+		return () -> {
+			if (Thread.currentThread() != compiling) {
+				helperParsing.countDown();
+				return cancelHelpers;
+			}
+			if (helpersStarted.get()) {
+				try {
+					helperParsing.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return false;
+		};
+	}
+
+	/**
+	 * Aborts a unit holding a transformed class once {@code phase} is done,
+	 * then compiles the same unit again, which must not repeat the phase's
+	 * transforms on the already transformed AST.
+	 */
+	private void assertResumesAfterCancellationAt(int phase) {
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config);
+		addSource(cu, URI.create("file:///Person.groovy"),
+				"@groovy.transform.ToString\n@groovy.transform.EqualsAndHashCode\nclass Person { String name }");
+		cu.setCancellationCheck(() -> cu.getPhase() >= phase);
+		CompilationCancelledException e = Assertions.assertThrows(CompilationCancelledException.class,
+				() -> cu.compile(Phases.INSTRUCTION_SELECTION));
+		Assertions.assertEquals(phase, e.getUnit().getPhase());
+
+		cu.setCancellationCheck(null);
+		Assertions.assertDoesNotThrow(() -> cu.compile(Phases.INSTRUCTION_SELECTION));
+		Assertions.assertFalse(cu.getErrorCollector().hasErrors(),
+				String.valueOf(cu.getErrorCollector().getErrors()));
+		ClassNode person = cu.getAST().getClass("Person");
+		Assertions.assertEquals(1, person.getDeclaredMethods("toString").size());
+		Assertions.assertEquals(1, person.getDeclaredMethods("canEqual").size());
+		// A repeated transform renames what it generates the second time
+		for (MethodNode method : person.getMethods()) {
+			Assertions.assertFalse(method.getName().startsWith("_"), "generated again: " + method.getName());
+		}
+	}
+
 	private void compileToPhase(GroovyLSCompilationUnit cu, int phase) {
 		try {
 			cu.compile(phase);
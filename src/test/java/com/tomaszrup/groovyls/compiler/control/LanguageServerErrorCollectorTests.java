@@ -15,6 +15,12 @@
 ////////////////////////////////////////////////////////////////////////////////
 package com.tomaszrup.groovyls.compiler.control;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
@@ -152,4 +158,26 @@ class LanguageServerErrorCollectorTests {
 		Assertions.assertTrue(collector.hasWarnings());
 		Assertions.assertEquals(2, collector.getWarningCount());
 	}
+
+	@Test
+	void testConcurrentErrorsAreAllKept() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 500; i++) {
+						collector.addErrorAndContinue(new SimpleMessage("err" + i, cu));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertEquals(2000, collector.getErrorCount());
+	}
 }
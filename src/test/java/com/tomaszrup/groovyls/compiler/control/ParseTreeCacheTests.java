@@ -0,0 +1,109 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.compiler.control;
+
+import org.apache.groovy.parser.antlr4.GroovyParser;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ParseTreeCache}.
+ */
+class ParseTreeCacheTests {
+	private static final int SOURCE_LENGTH = 100;
+	private static final long ENTRY_WEIGHT = (long) SOURCE_LENGTH * ParseTreeCache.BYTES_PER_SOURCE_CHAR;
+
+	@Test
+	void testTakeRemovesEntry() {
+		ParseTreeCache cache = new ParseTreeCache(10 * ENTRY_WEIGHT);
+		GroovyParser.CompilationUnitContext tree = tree();
+		cache.put("a", tree, SOURCE_LENGTH);
+
+		Assertions.assertSame(tree, cache.take("a"));
+		Assertions.assertNull(cache.take("a"));
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0, cache.getWeight());
+		Assertions.assertEquals(1, cache.getHitCount());
+		Assertions.assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	void testEvictsLeastRecentlyUsedAboveMaxWeight() {
+		ParseTreeCache cache = new ParseTreeCache(2 * ENTRY_WEIGHT);
+		cache.put("a", tree(), SOURCE_LENGTH);
+		cache.put("b", tree(), SOURCE_LENGTH);
+		// Lending "a" out and back makes "b" the eldest
+		cache.put("a", cache.take("a"), SOURCE_LENGTH);
+		cache.put("c", tree(), SOURCE_LENGTH);
+
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertEquals(2 * ENTRY_WEIGHT, cache.getWeight());
+		Assertions.assertNull(cache.take("b"));
+		Assertions.assertNotNull(cache.take("a"));
+		Assertions.assertNotNull(cache.take("c"));
+	}
+
+	@Test
+	void testTreeHeavierThanMaxWeightIsNotCached() {
+		ParseTreeCache cache = new ParseTreeCache(ENTRY_WEIGHT);
+		cache.put("a", tree(), SOURCE_LENGTH + 1);
+
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	void testPutClearsNodeMetaData() {
+		ParseTreeCache cache = new ParseTreeCache(10 * ENTRY_WEIGHT);
+		GroovyParser.CompilationUnitContext tree = tree();
+		tree.putNodeMetaData("key", "value");
+
+		cache.put("a", tree, SOURCE_LENGTH);
+
+		Assertions.assertNull(tree.getNodeMetaData("key"));
+	}
+
+	@Test
+	void testClear() {
+		ParseTreeCache cache = new ParseTreeCache(10 * ENTRY_WEIGHT);
+		cache.put("a", tree(), SOURCE_LENGTH);
+		cache.put("b", tree(), SOURCE_LENGTH);
+
+		cache.clear();
+
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0, cache.getWeight());
+		Assertions.assertNull(cache.take("a"));
+	}
+
+	@Test
+	void testKeyDependsOnSourceAndParserSettings() {
+		CompilerConfiguration config = new CompilerConfiguration();
+		CompilerConfiguration groovydoc = new CompilerConfiguration();
+		groovydoc.getOptimizationOptions().put(CompilerConfiguration.GROOVYDOC, true);
+
+		String key = ParseTreeCache.keyOf("class A {}", config);
+
+		Assertions.assertEquals(key, ParseTreeCache.keyOf("class A {}", new CompilerConfiguration()));
+		Assertions.assertNotEquals(key, ParseTreeCache.keyOf("class B {}", config));
+		Assertions.assertNotEquals(key, ParseTreeCache.keyOf("class A {}", groovydoc));
+	}
+
+	private static GroovyParser.CompilationUnitContext tree() {
+		return new GroovyParser.CompilationUnitContext(null, 0);
+	}
+}
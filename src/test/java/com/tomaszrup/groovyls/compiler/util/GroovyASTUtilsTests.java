@@ -16,7 +16,9 @@
 package com.tomaszrup.groovyls.compiler.util;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassNode;
@@ -159,6 +161,76 @@ class GroovyASTUtilsTests {
 		Assertions.assertTrue(refs.isEmpty());
 	}
 
+	@Test
+	void testReferencePartitionsOfUnaffectedFilesSurviveIncrementalVisit() {
+		GroovyLSCompilationUnit cu = compileSources(
+				"A", "class A { void a() {} }\n",
+				"B", "class B { void b() { new A().a() } }\n",
+				"C", "class C { void c() { println('c') } }\n");
+		ASTNodeVisitor ast = new ASTNodeVisitor();
+		ast.visitCompilationUnit(cu);
+		MethodNode a = findMethod(ast, "A", "a");
+		int referenceCount = GroovyASTUtils.getReferences(a, ast).size();
+		Assertions.assertTrue(referenceCount > 0);
+		Map<ASTNode, List<ASTNode>> partitionA = ast.getReferencePartition(uriOf("A"));
+		Map<ASTNode, List<ASTNode>> partitionB = ast.getReferencePartition(uriOf("B"));
+		Assertions.assertNotNull(partitionA);
+		Assertions.assertNotNull(partitionB);
+
+		// Edit C, which neither declares nor references anything of A or B
+		GroovyLSCompilationUnit edited = compileSources(
+				"C", "class C { void c() { println('edited') } }\n");
+		ASTNodeVisitor next = ast.createSnapshotExcluding(Collections.singleton(uriOf("C")));
+		next.visitCompilationUnit(edited, Collections.singleton(uriOf("C")));
+
+		Assertions.assertSame(partitionA, next.getReferencePartition(uriOf("A")));
+		Assertions.assertSame(partitionB, next.getReferencePartition(uriOf("B")));
+		Assertions.assertNull(next.getReferencePartition(uriOf("C")));
+		Assertions.assertEquals(referenceCount, GroovyASTUtils.getReferences(a, next).size());
+		Assertions.assertNotNull(next.getReferencePartition(uriOf("C")), "Rebuilt on demand");
+		Assertions.assertSame(partitionA, ast.getReferencePartition(uriOf("A")),
+				"The previous snapshot must keep its partitions");
+	}
+
+	@Test
+	void testReferencePartitionsReferencingRevisitedFileAreRebuilt() {
+		GroovyLSCompilationUnit cu = compileSources(
+				"A", "class A { void a() {} }\n",
+				"B", "class B { void b() { new A().a() } }\n",
+				"C", "class C { void c() { println('c') } }\n");
+		ASTNodeVisitor ast = new ASTNodeVisitor();
+		ast.visitCompilationUnit(cu);
+		GroovyASTUtils.getReferences(findMethod(ast, "A", "a"), ast);
+		Map<ASTNode, List<ASTNode>> partitionC = ast.getReferencePartition(uriOf("C"));
+
+		ASTNodeVisitor next = ast.createSnapshotExcluding(Collections.singleton(uriOf("A")));
+
+		Assertions.assertNull(next.getReferencePartition(uriOf("A")));
+		Assertions.assertNull(next.getReferencePartition(uriOf("B")),
+				"B references definitions declared in A");
+		Assertions.assertSame(partitionC, next.getReferencePartition(uriOf("C")));
+	}
+
+	@Test
+	void testNewClassInvalidatesAllReferencePartitions() {
+		GroovyLSCompilationUnit cu = compileSources(
+				"A", "class A { void a() {} }\n",
+				"C", "class C { void c() { println('c') } }\n");
+		ASTNodeVisitor ast = new ASTNodeVisitor();
+		ast.visitCompilationUnit(cu);
+		GroovyASTUtils.getReferences(findMethod(ast, "A", "a"), ast);
+		Assertions.assertNotNull(ast.getReferencePartition(uriOf("A")));
+
+		GroovyLSCompilationUnit edited = compileSources(
+				"C", "class C { void c() {} }\nclass D {}\n");
+		ASTNodeVisitor next = ast.createSnapshotExcluding(Collections.singleton(uriOf("C")));
+		next.visitCompilationUnit(edited, Collections.singleton(uriOf("C")));
+
+		Assertions.assertNull(next.getReferencePartition(uriOf("A")),
+				"D may resolve references that A recorded as unresolved");
+		Assertions.assertNotNull(ast.getReferencePartition(uriOf("A")));
+	}
+
 	// ------------------------------------------------------------------
 	// getTypeOfNode
 	// ------------------------------------------------------------------
@@ -488,6 +560,31 @@ class GroovyASTUtilsTests {
 		return ast;
 	}
 
+	/** Compiles {@code name, source} pairs, one file per pair. */
+	private GroovyLSCompilationUnit compileSources(String... namesAndSources) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		GroovyClassLoader classLoader = new GroovyClassLoader(
+				ClassLoader.getSystemClassLoader().getParent(), config, true);
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
+		for (int i = 0; i < namesAndSources.length; i += 2) {
+			String name = namesAndSources[i];
+			SourceUnit sourceUnit = new SourceUnit(name + ".groovy",
+					new StringReaderSourceWithURI(namesAndSources[i + 1], uriOf(name), config),
+					config, classLoader, cu.getErrorCollector());
+			cu.addSource(sourceUnit);
+		}
+		try {
+			cu.compile(Phases.CANONICALIZATION);
+		} catch (Exception e) {
+			// expected for some test cases
+		}
+		return cu;
+	}
+
+	private static URI uriOf(String name) {
+		return URI.create("file:///" + name + ".groovy");
+	}
+
 	private ClassNode findClass(ASTNodeVisitor ast, String name) {
 		return ast.getClassNodes().stream()
 				.filter(cn -> cn.getNameWithoutPackage().equals(name))
@@ -205,6 +205,23 @@ class CompilationUnitFactoryTests {
 		Assertions.assertTrue(found, "Should find PickedUp.groovy in the compilation unit");
 	}
 
+	// --- Partitioned sources ---
+
+	@Test
+	void testPartitionedSourcesOnlyAboveFullUnitLimit() throws Exception {
+		Path first = srcRoot.resolve("First.groovy");
+		Path second = srcRoot.resolve("Second.groovy");
+		Files.writeString(first, "class First {}");
+		Files.writeString(second, "class Second {}");
+		FileContentsTracker tracker = new FileContentsTracker();
+
+		Assertions.assertNull(factory.getPartitionedSources(tempDir, tracker));
+
+		factory.setMaxFullCompilationFiles(1);
+		Assertions.assertEquals(Set.of(first.toUri(), second.toUri()), factory.getPartitionedSources(tempDir, tracker));
+		Assertions.assertNull(factory.getPartitionedSources(null, tracker));
+	}
+
 	// --- Excluded directories ---
 
 	@Test
@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.providers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.RenameParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.WorkspaceEdit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tomaszrup.groovyls.compiler.WorkspaceReferenceIndex;
+import com.tomaszrup.groovyls.compiler.ast.ASTNodeVisitor;
+import com.tomaszrup.groovyls.compiler.control.GroovyLSCompilationUnit;
+import com.tomaszrup.groovyls.compiler.control.io.StringReaderSourceWithURI;
+import com.tomaszrup.groovyls.util.FileContentsTracker;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Tests for renames that reach usages in other scopes through the
+ * {@link WorkspaceReferenceIndex}.
+ */
+class RenameProviderTests {
+
+	private static final String DTO_SOURCE = "package shared\n"
+			+ "class Dto {\n"
+			+ "  void rename(String newName) {}\n"
+			+ "}\n";
+	private static final String USE_SOURCE = "import shared.Dto\n"
+			+ "class Use {\n"
+			+ "  void run() {\n"
+			+ "    new Dto().rename('x')\n"
+			+ "  }\n"
+			+ "}\n";
+	/** Position of {@code rename} in the declaration in Dto. */
+	private static final Position RENAME_DECLARATION = new Position(2, 8);
+
+	@TempDir
+	Path tempDir;
+
+	private Path rootA;
+	private Path rootB;
+	private URI dtoURI;
+	private URI useURI;
+	private WorkspaceReferenceIndex index;
+	private FileContentsTracker files;
+
+	@BeforeEach
+	void setup() throws IOException {
+		rootA = tempDir.resolve("a");
+		rootB = tempDir.resolve("b");
+		dtoURI = write(rootA.resolve("Dto.groovy"), DTO_SOURCE);
+		useURI = write(rootB.resolve("Use.groovy"), USE_SOURCE);
+		index = new WorkspaceReferenceIndex(tempDir.resolve("cache"), Runnable::run);
+		// Scope B sees Dto as a source, standing in for its classpath
+		index.scheduleContribution(rootB, visit(new URI[] { dtoURI, useURI },
+				new String[] { DTO_SOURCE, USE_SOURCE }), Set.of(useURI));
+		files = new FileContentsTracker();
+	}
+
+	@Test
+	void testRenameReachesIndexedUsageInOtherScope() throws Exception {
+		List<TextEdit> edits = editsOf(renameInScopeA(), useURI);
+
+		Assertions.assertEquals(1, edits.size());
+		Assertions.assertEquals(new Position(3, 14), edits.get(0).getRange().getStart());
+		Assertions.assertEquals("resize", edits.get(0).getNewText());
+	}
+
+	@Test
+	void testFileEditedOnDiskAfterIndexingIsNotRenamed() throws Exception {
+		Path usePath = Path.of(useURI);
+		Files.writeString(usePath, "// moved down a line\n" + USE_SOURCE);
+		Files.setLastModifiedTime(usePath,
+				FileTime.fromMillis(Files.getLastModifiedTime(usePath).toMillis() + 5000));
+
+		Assertions.assertTrue(editsOf(renameInScopeA(), useURI).isEmpty());
+	}
+
+	@Test
+	void testUnsavedEditAfterIndexingIsNotRenamed() throws Exception {
+		files.setContents(useURI, USE_SOURCE.replace("rename('x')", "rebase('x')"));
+
+		Assertions.assertTrue(editsOf(renameInScopeA(), useURI).isEmpty());
+	}
+
+	private WorkspaceEdit renameInScopeA() throws Exception {
+		ASTNodeVisitor ast = visit(new URI[] { dtoURI }, new String[] { DTO_SOURCE });
+		RenameProvider provider = new RenameProvider(ast, files, index, rootA);
+		return provider.provideRename(new RenameParams(new TextDocumentIdentifier(dtoURI.toString()),
+				RENAME_DECLARATION, "resize")).get();
+	}
+
+	private static List<TextEdit> editsOf(WorkspaceEdit workspaceEdit, URI uri) {
+		List<TextEdit> edits = new ArrayList<>();
+		workspaceEdit.getDocumentChanges().forEach(change -> {
+			if (change.isLeft() && change.getLeft().getTextDocument().getUri().equals(uri.toString())) {
+				edits.addAll(change.getLeft().getEdits());
+			}
+		});
+		return edits;
+	}
+
+	private static URI write(Path path, String contents) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, contents);
+		return path.toUri();
+	}
+
+	private static ASTNodeVisitor visit(URI[] uris, String[] sources) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		GroovyClassLoader classLoader = new GroovyClassLoader(
+				ClassLoader.getSystemClassLoader().getParent(), config, true);
+		GroovyLSCompilationUnit cu = new GroovyLSCompilationUnit(config, null, classLoader);
+		for (int i = 0; i < uris.length; i++) {
+			cu.addSource(new SourceUnit(uris[i].getPath(),
+					new StringReaderSourceWithURI(sources[i], uris[i], config),
+					config, classLoader, cu.getErrorCollector()));
+		}
+		cu.compile(Phases.CANONICALIZATION);
+		ASTNodeVisitor visitor = new ASTNodeVisitor();
+		visitor.visitCompilationUnit(cu);
+		return visitor;
+	}
+}
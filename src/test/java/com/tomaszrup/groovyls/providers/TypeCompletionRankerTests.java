@@ -0,0 +1,176 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.providers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TypeCompletionRanker} and {@link TypeUsageHistory}.
+ */
+class TypeCompletionRankerTests {
+
+	// --- Bounded heap ---
+
+	@Test
+	void testKeepsBestCandidatesWhenTruncated() {
+		TypeCompletionRanker ranker = ranker("Li", "com.example", Collections.emptySet(), null, 2);
+		offerDependency(ranker, "org.lib.LinkA");
+		offerDependency(ranker, "org.lib.LinkB");
+		offerJdk(ranker, "java.util.List");
+		ranker.offer("ListenerImpl", "com.example.ListenerImpl", "com.example", CompletionItemKind.Class, true,
+				false);
+
+		Assertions.assertTrue(ranker.isTruncated());
+		Assertions.assertEquals(List.of("com.example.ListenerImpl", "java.util.List"), names(ranker));
+	}
+
+	@Test
+	void testNotTruncatedWithinLimit() {
+		TypeCompletionRanker ranker = ranker("", null, Collections.emptySet(), null, 10);
+		offerJdk(ranker, "java.util.List");
+		offerJdk(ranker, "java.util.Map");
+
+		Assertions.assertFalse(ranker.isTruncated());
+		Assertions.assertEquals(List.of("java.util.Map", "java.util.List"), names(ranker),
+				"equal scores rank shorter names first");
+	}
+
+	@Test
+	void testZeroLimitKeepsNothing() {
+		TypeCompletionRanker ranker = ranker("", null, Collections.emptySet(), null, 0);
+		offerJdk(ranker, "java.util.List");
+
+		Assertions.assertTrue(ranker.isTruncated());
+		Assertions.assertTrue(ranker.getRanked().isEmpty());
+	}
+
+	// --- Scoring ---
+
+	@Test
+	void testMatchQualityRanksExactThenPrefixThenCamel() {
+		TypeCompletionRanker ranker = ranker("Map", null, Collections.emptySet(), null, 10);
+		offerDependency(ranker, "org.lib.MapperAdapterProvider");
+		offerDependency(ranker, "org.lib.Map");
+		offerDependency(ranker, "org.lib.MutableAsyncPool");
+
+		Assertions.assertEquals(List.of("org.lib.Map", "org.lib.MapperAdapterProvider", "org.lib.MutableAsyncPool"),
+				names(ranker));
+	}
+
+	@Test
+	void testImportsAndPackageProximityOutrankOrigin() {
+		TypeCompletionRanker ranker = ranker("Str", "com.acme.web",
+				Set.of("org.lib.StringUtils"), null, 10);
+		offerJdk(ranker, "java.lang.StrictMath");
+		offerDependency(ranker, "com.acme.core.Stripe");
+		offerDependency(ranker, "org.lib.StringUtils");
+		offerDependency(ranker, "com.acme.web.Stream");
+
+		Assertions.assertEquals(List.of("org.lib.StringUtils", "com.acme.web.Stream", "com.acme.core.Stripe",
+				"java.lang.StrictMath"), names(ranker));
+	}
+
+	@Test
+	void testImportedPackageAndJdkInternals() {
+		TypeCompletionRanker ranker = new TypeCompletionRanker("Ab", null, Collections.emptySet(),
+				Set.of("org.used"), null, 10);
+		offerJdk(ranker, "sun.misc.Abc");
+		offerDependency(ranker, "org.other.Abc");
+		offerDependency(ranker, "org.used.Abc");
+
+		Assertions.assertEquals(List.of("org.used.Abc", "org.other.Abc", "sun.misc.Abc"), names(ranker));
+	}
+
+	@Test
+	void testRecentlyUsedTypesRankFirst() {
+		TypeUsageHistory history = new TypeUsageHistory();
+		history.recordUses(List.of("org.lib.OldHandler"));
+		for (int i = 0; i < 10; i++) {
+			history.recordUses(List.of("org.lib.Filler" + i));
+		}
+		history.recordUses(List.of("org.lib.NewHandler"));
+		TypeCompletionRanker ranker = ranker("", null, Collections.emptySet(), history, 10);
+		offerDependency(ranker, "org.lib.Aaa");
+		offerDependency(ranker, "org.lib.OldHandler");
+		offerDependency(ranker, "org.lib.NewHandler");
+
+		Assertions.assertEquals(List.of("org.lib.NewHandler", "org.lib.OldHandler", "org.lib.Aaa"),
+				names(ranker));
+	}
+
+	@Test
+	void testRecencyDecaysOutsideWindow() {
+		TypeUsageHistory history = new TypeUsageHistory();
+		history.recordUses(List.of("a.Used"));
+		Assertions.assertEquals(TypeUsageHistory.RECENCY_WINDOW, history.recency("a.Used"));
+		history.recordUses(List.of("a.Other"));
+		Assertions.assertEquals(TypeUsageHistory.RECENCY_WINDOW - 1, history.recency("a.Used"));
+		for (int i = 0; i < TypeUsageHistory.RECENCY_WINDOW; i++) {
+			history.recordUses(List.of("a.Other"));
+		}
+		Assertions.assertEquals(0, history.recency("a.Used"));
+		Assertions.assertEquals(0, history.recency("a.Never"));
+	}
+
+	@Test
+	void testSharedSegments() {
+		Assertions.assertEquals(2, TypeCompletionRanker.sharedSegments("com.acme", "com.acme.util"));
+		Assertions.assertEquals(1, TypeCompletionRanker.sharedSegments("com.ac", "com.acme"));
+		Assertions.assertEquals(1, TypeCompletionRanker.sharedSegments("com.acme.x", "com.acmf"));
+		Assertions.assertEquals(3, TypeCompletionRanker.sharedSegments("a.b.c", "a.b.c"));
+		Assertions.assertEquals(0, TypeCompletionRanker.sharedSegments("", "a.b"));
+		Assertions.assertEquals(0, TypeCompletionRanker.sharedSegments("org.x", "com.x"));
+	}
+
+	// --- Helpers ---
+
+	private static TypeCompletionRanker ranker(String prefix, String enclosingPackage, Set<String> imports,
+			TypeUsageHistory history, int limit) {
+		Set<String> importedPackages = imports.stream()
+				.map(TypeCompletionRankerTests::packageOf)
+				.collect(Collectors.toSet());
+		return new TypeCompletionRanker(prefix, enclosingPackage, imports, importedPackages, history, limit);
+	}
+
+	private static void offerJdk(TypeCompletionRanker ranker, String className) {
+		ranker.offer(simpleNameOf(className), className, packageOf(className), CompletionItemKind.Class, false,
+				true);
+	}
+
+	private static void offerDependency(TypeCompletionRanker ranker, String className) {
+		ranker.offer(simpleNameOf(className), className, packageOf(className), CompletionItemKind.Class, false,
+				false);
+	}
+
+	private static String packageOf(String className) {
+		return className.substring(0, className.lastIndexOf('.'));
+	}
+
+	private static String simpleNameOf(String className) {
+		return className.substring(className.lastIndexOf('.') + 1);
+	}
+
+	private static List<String> names(TypeCompletionRanker ranker) {
+		return ranker.getRanked().stream().map(candidate -> candidate.className).collect(Collectors.toList());
+	}
+}
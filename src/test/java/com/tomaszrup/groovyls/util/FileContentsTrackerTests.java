@@ -105,6 +105,22 @@ class FileContentsTrackerTests {
 		Assertions.assertEquals("hello\nwaffles", tracker.getContents(URI.create("file.txt")));
 	}
 
+	@Test
+	void testDidChangeWithOutOfRangeCharacterIsClamped() {
+		DidOpenTextDocumentParams openParams = new DidOpenTextDocumentParams();
+		openParams.setTextDocument(new TextDocumentItem("file.txt", "plaintext", 1, "hello\nworld"));
+		tracker.didOpen(openParams);
+		DidChangeTextDocumentParams changeParams = new DidChangeTextDocumentParams();
+		changeParams.setTextDocument(new VersionedTextDocumentIdentifier("file.txt", 2));
+		TextDocumentContentChangeEvent changeEvent = new TextDocumentContentChangeEvent();
+		changeEvent.setText("!");
+		// Character 99 is past the end of line 0 and defaults back to its length
+		changeEvent.setRange(new Range(new Position(0, 99), new Position(0, 99)));
+		changeParams.setContentChanges(Collections.singletonList(changeEvent));
+		tracker.didChange(changeParams);
+		Assertions.assertEquals("hello!\nworld", tracker.getContents(URI.create("file.txt")));
+	}
+
 	// ------------------------------------------------------------------
 	// didClose
 	// ------------------------------------------------------------------
@@ -258,6 +274,20 @@ class FileContentsTrackerTests {
 		Assertions.assertEquals("custom content", tracker.getContents(uri));
 	}
 
+	@Test
+	void testGetOffsetOfOpenDocument() {
+		URI uri = URI.create("file.txt");
+		tracker.setContents(uri, "ab\ncd");
+		String contents = tracker.getContents(uri);
+		Assertions.assertEquals(4, tracker.getOffset(uri, contents, new Position(1, 1)));
+		Assertions.assertEquals(-1, tracker.getOffset(uri, contents, new Position(2, 0)));
+
+		// An older snapshot is converted against its own text
+		tracker.setContents(uri, "x\n" + contents);
+		Assertions.assertEquals(4, tracker.getOffset(uri, contents, new Position(1, 1)));
+		Assertions.assertEquals(6, tracker.getOffset(uri, tracker.getContents(uri), new Position(2, 1)));
+	}
+
 	@Test
 	void testGetContentsForNonExistentFile() {
 		URI uri = URI.create("file:///nonexistent_file_12345.txt");
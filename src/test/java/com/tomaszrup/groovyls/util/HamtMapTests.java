@@ -0,0 +1,211 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link HamtMap}: map semantics against {@link HashMap}, fork
+ * isolation, hash collisions and identity keys.
+ */
+class HamtMapTests {
+
+	/** Key with a controllable hash code, to force collisions. */
+	private static final class Key {
+		final String name;
+		final int hash;
+
+		Key(String name, int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).name.equals(name);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	// --- Map semantics ---
+
+	@Test
+	void testPutGetRemove() {
+		HamtMap<String, Integer> map = new HamtMap<>();
+		Assertions.assertNull(map.put("a", 1));
+		Assertions.assertEquals(1, map.put("a", 2));
+		Assertions.assertEquals(2, map.get("a"));
+		Assertions.assertTrue(map.containsKey("a"));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(2, map.remove("a"));
+		Assertions.assertNull(map.remove("a"));
+		Assertions.assertTrue(map.isEmpty());
+		Assertions.assertNull(map.get("a"));
+	}
+
+	@Test
+	void testNullValuesAreSupported() {
+		HamtMap<String, Integer> map = new HamtMap<>();
+		map.put("a", null);
+		Assertions.assertTrue(map.containsKey("a"));
+		Assertions.assertNull(map.get("a"));
+		Assertions.assertEquals(1, map.size());
+	}
+
+	@Test
+	void testRandomOperationsMatchHashMap() {
+		Random random = new Random(7);
+		HamtMap<Integer, Integer> map = new HamtMap<>();
+		Map<Integer, Integer> reference = new HashMap<>();
+		for (int i = 0; i < 20_000; i++) {
+			int key = random.nextInt(3000);
+			if (random.nextInt(3) == 0) {
+				Assertions.assertEquals(reference.remove(key), map.remove(key));
+			} else {
+				Assertions.assertEquals(reference.put(key, i), map.put(key, i));
+			}
+			Assertions.assertEquals(reference.size(), map.size());
+		}
+		Assertions.assertEquals(reference, map);
+		Assertions.assertEquals(reference, new HashMap<>(map));
+		Map<Integer, Integer> visited = new HashMap<>();
+		map.forEach(visited::put);
+		Assertions.assertEquals(reference, visited);
+	}
+
+	@Test
+	void testClear() {
+		HamtMap<String, Integer> map = new HamtMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.clear();
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertFalse(map.entrySet().iterator().hasNext());
+	}
+
+	// --- Fork isolation ---
+
+	@Test
+	void testForkSharesContentsButNotWrites() {
+		HamtMap<Integer, String> original = new HamtMap<>();
+		for (int i = 0; i < 1000; i++) {
+			original.put(i, "v" + i);
+		}
+		HamtMap<Integer, String> fork = original.fork();
+		Assertions.assertEquals(original, fork);
+
+		fork.remove(5);
+		fork.put(6, "changed");
+		fork.put(5000, "new");
+		original.put(7, "original-only");
+
+		Assertions.assertEquals("v5", original.get(5));
+		Assertions.assertEquals("v6", original.get(6));
+		Assertions.assertNull(original.get(5000));
+		Assertions.assertEquals(1000, original.size());
+
+		Assertions.assertNull(fork.get(5));
+		Assertions.assertEquals("changed", fork.get(6));
+		Assertions.assertEquals("v7", fork.get(7));
+		Assertions.assertEquals(1000, fork.size());
+	}
+
+	@Test
+	void testRandomForksStayIndependent() {
+		Random random = new Random(11);
+		HamtMap<Integer, Integer> map = new HamtMap<>();
+		Map<Integer, Integer> reference = new HashMap<>();
+		for (int round = 0; round < 20; round++) {
+			HamtMap<Integer, Integer> fork = map.fork();
+			Map<Integer, Integer> forkReference = new HashMap<>(reference);
+			for (int i = 0; i < 500; i++) {
+				int key = random.nextInt(2000);
+				if (random.nextBoolean()) {
+					fork.remove(key);
+					forkReference.remove(key);
+				} else {
+					fork.put(key, i);
+					forkReference.put(key, i);
+				}
+			}
+			Assertions.assertEquals(reference, map, "Original changed by writes to its fork");
+			Assertions.assertEquals(forkReference, fork);
+			map = fork;
+			reference = forkReference;
+		}
+	}
+
+	// --- Collisions and identity ---
+
+	@Test
+	void testFullHashCollisions() {
+		HamtMap<Key, Integer> map = new HamtMap<>();
+		Key a = new Key("a", 42);
+		Key b = new Key("b", 42);
+		Key c = new Key("c", 42);
+		Key d = new Key("d", 42 | (1 << 20));
+		map.put(a, 1);
+		map.put(b, 2);
+		HamtMap<Key, Integer> fork = map.fork();
+		fork.put(c, 3);
+		fork.put(d, 4);
+
+		Assertions.assertEquals(2, map.size());
+		Assertions.assertNull(map.get(c));
+		Assertions.assertEquals(4, fork.size());
+		Assertions.assertEquals(3, fork.get(new Key("c", 42)));
+		Assertions.assertEquals(4, fork.get(d));
+
+		Assertions.assertEquals(1, fork.remove(a));
+		Assertions.assertEquals(2, fork.remove(b));
+		Assertions.assertEquals(3, fork.remove(c));
+		Assertions.assertEquals(1, fork.size());
+		Assertions.assertEquals(4, fork.get(d));
+		Assertions.assertEquals(1, map.get(a));
+	}
+
+	@Test
+	void testIdentityKeysIgnoreEquals() {
+		HamtMap<String, Integer> map = HamtMap.withIdentityKeys();
+		String first = new String("same");
+		String second = new String("same");
+		map.put(first, 1);
+		map.put(second, 2);
+		Assertions.assertEquals(2, map.size());
+		Assertions.assertEquals(1, map.get(first));
+		Assertions.assertEquals(2, map.get(second));
+		Assertions.assertNull(map.get("same"));
+		Assertions.assertEquals(1, map.remove(first));
+		Assertions.assertEquals(1, map.size());
+	}
+
+	@Test
+	void testNullKeyIsRejectedOnPut() {
+		HamtMap<String, Integer> map = new HamtMap<>();
+		Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 1));
+		Assertions.assertNull(map.get(null));
+		Assertions.assertFalse(map.containsKey(null));
+	}
+}
@@ -0,0 +1,117 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link InternRegistry}: canonical instances, stable ids, weakly
+ * held entries and concurrent interning.
+ */
+class InternRegistryTests {
+
+	@Test
+	void testEqualUrisShareOneInstanceAndId() {
+		URI first = URI.create("file:///intern-registry-tests/A.groovy");
+		URI second = URI.create("file:///intern-registry-tests/A.groovy");
+		Assertions.assertNotSame(first, second);
+
+		Assertions.assertSame(InternRegistry.intern(first), InternRegistry.intern(second));
+		int id = InternRegistry.uriId(second);
+		Assertions.assertEquals(id, InternRegistry.uriId(first));
+		Assertions.assertEquals(id, InternRegistry.findUriId(URI.create("file:///intern-registry-tests/A.groovy")));
+		Assertions.assertSame(InternRegistry.intern(first), InternRegistry.uri(id));
+	}
+
+	@Test
+	void testFindDoesNotIntern() {
+		URI uri = URI.create("file:///intern-registry-tests/never-interned.groovy");
+		Assertions.assertEquals(-1, InternRegistry.findUriId(uri));
+		Assertions.assertEquals(-1, InternRegistry.findClassNameId("intern.registry.tests.NeverInterned"));
+		Assertions.assertEquals(-1, InternRegistry.findUriId(uri), "find must not have interned the URI");
+		Assertions.assertNull(InternRegistry.intern(null));
+	}
+
+	@Test
+	void testClassNamesHaveTheirOwnIds() {
+		String name = new String("com.example.InternRegistryTests");
+		int id = InternRegistry.classNameId(name);
+		Assertions.assertEquals(name, InternRegistry.className(id));
+		Assertions.assertSame(InternRegistry.className(id),
+				InternRegistry.internClassName(new String("com.example.InternRegistryTests")));
+	}
+
+	@Test
+	void testUnknownIdIsRejected() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> InternRegistry.uri(-1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> InternRegistry.className(Integer.MAX_VALUE));
+	}
+
+	@Test
+	void testUnreachableValuesAreDroppedAndTheirIdsRetired() {
+		String path = "file:///intern-registry-tests/dropped.groovy";
+		URI uri = InternRegistry.intern(URI.create(path));
+		int id = InternRegistry.uriId(uri);
+		Assertions.assertSame(uri, InternRegistry.uri(id));
+		uri = null;
+
+		for (int i = 0; i < 50 && InternRegistry.findUriId(URI.create(path)) >= 0; i++) {
+			System.gc();
+		}
+		Assertions.assertEquals(-1, InternRegistry.findUriId(URI.create(path)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> InternRegistry.uri(id));
+
+		URI again = InternRegistry.intern(URI.create(path));
+		Assertions.assertNotEquals(id, InternRegistry.uriId(again), "Ids are never reused");
+	}
+
+	@Test
+	void testConcurrentInterningAssignsOneIdPerValue() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<URI[]>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				futures.add(executor.submit(() -> {
+					URI[] canonical = new URI[2000];
+					for (int i = 0; i < canonical.length; i++) {
+						canonical[i] = InternRegistry.intern(URI.create("file:///intern-registry-tests/concurrent/F" + i + ".groovy"));
+					}
+					return canonical;
+				}));
+			}
+			URI[] expected = futures.get(0).get();
+			for (Future<URI[]> future : futures) {
+				URI[] actual = future.get();
+				for (int i = 0; i < expected.length; i++) {
+					Assertions.assertSame(expected[i], actual[i]);
+				}
+			}
+			for (URI uri : expected) {
+				Assertions.assertSame(uri, InternRegistry.uri(InternRegistry.uriId(uri)));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright 2026 Tomasz Rup
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License
+////////////////////////////////////////////////////////////////////////////////
+package com.tomaszrup.groovyls.util;
+
+import java.util.Random;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.tomaszrup.lsp.utils.Positions;
+
+/**
+ * Tests for {@link TextDocument}: piece-table edits, snapshot caching and
+ * the incrementally maintained line-start index.
+ */
+class TextDocumentTests {
+
+	@Test
+	void testInitialText() {
+		TextDocument doc = new TextDocument("hello\nworld", 1);
+		Assertions.assertEquals("hello\nworld", doc.getText());
+		Assertions.assertEquals(11, doc.length());
+		Assertions.assertEquals(6, doc.getOffset(new Position(1, 0)));
+		Assertions.assertEquals(-1, doc.getOffset(new Position(2, 0)));
+		Assertions.assertEquals(1, doc.getVersion());
+	}
+
+	@Test
+	void testNullTextIsEmpty() {
+		TextDocument doc = new TextDocument(null, 0);
+		Assertions.assertEquals("", doc.getText());
+		Assertions.assertEquals(0, doc.getOffset(new Position(0, 0)));
+		Assertions.assertEquals(-1, doc.getOffset(new Position(1, 0)));
+	}
+
+	@Test
+	void testReplaceInsertAndDelete() {
+		TextDocument doc = new TextDocument("hello world", 1);
+		doc.replace(5, 11, ", friend");
+		Assertions.assertEquals("hello, friend", doc.getText());
+		doc.replace(0, 0, ">> ");
+		Assertions.assertEquals(">> hello, friend", doc.getText());
+		doc.replace(3, 8, "");
+		Assertions.assertEquals(">> , friend", doc.getText());
+	}
+
+	@Test
+	void testSequentialTypingExtendsPiece() {
+		TextDocument doc = new TextDocument("class A {}", 1);
+		String typed = " int count = 0 ";
+		for (int i = 0; i < typed.length(); i++) {
+			doc.replace(9 + i, 9 + i, String.valueOf(typed.charAt(i)));
+		}
+		Assertions.assertEquals("class A {" + typed + "}", doc.getText());
+	}
+
+	@Test
+	void testSnapshotIsCachedUntilNextEdit() {
+		TextDocument doc = new TextDocument("abc", 1);
+		doc.replace(1, 2, "X");
+		String first = doc.getText();
+		Assertions.assertSame(first, doc.getText(), "Snapshot should be reused for the same version");
+		doc.replace(0, 0, "-");
+		Assertions.assertNotSame(first, doc.getText());
+		Assertions.assertEquals("-aXc", doc.getText());
+	}
+
+	@Test
+	void testGetOffsetMatchesPositions() {
+		String text = "line one\r\nline two\n\nlast";
+		TextDocument doc = new TextDocument(text, 1);
+		for (int line = 0; line < 6; line++) {
+			for (int character = 0; character < 12; character++) {
+				Position position = new Position(line, character);
+				Assertions.assertEquals(Positions.getOffset(text, position), doc.getOffset(position),
+						"Offset mismatch at " + line + ":" + character);
+			}
+		}
+	}
+
+	@Test
+	void testLineIndexUpdatedAfterMultilineEdits() {
+		TextDocument doc = new TextDocument("a\nb\nc", 1);
+		doc.replace(1, 3, "\nX\nY");
+		Assertions.assertEquals("a\nX\nY\nc", doc.getText());
+		Assertions.assertEquals(6, doc.getOffset(new Position(3, 0)));
+		Assertions.assertEquals(-1, doc.getOffset(new Position(4, 0)));
+		doc.replace(0, doc.length(), "single");
+		Assertions.assertEquals(-1, doc.getOffset(new Position(1, 0)));
+	}
+
+	@Test
+	void testClampedOffsetStaysWithinDocument() {
+		TextDocument doc = new TextDocument("ab\r\ncd", 1);
+		Assertions.assertEquals(1, doc.getClampedOffset(new Position(0, 1)));
+		Assertions.assertEquals(2, doc.getClampedOffset(new Position(0, 10)));
+		Assertions.assertEquals(6, doc.getClampedOffset(new Position(1, 10)));
+		Assertions.assertEquals(6, doc.getClampedOffset(new Position(5, 0)));
+		Assertions.assertEquals(0, doc.getClampedOffset(new Position(-1, 3)));
+	}
+
+	@Test
+	void testInvalidRangeThrows() {
+		TextDocument doc = new TextDocument("abc", 1);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> doc.replace(2, 1, "x"));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> doc.replace(0, 4, "x"));
+	}
+
+	@Test
+	void testRandomEditsMatchStringReference() {
+		Random random = new Random(42);
+		StringBuilder reference = new StringBuilder("class Foo {\n  def bar() {\n    return 1\n  }\n}\n");
+		TextDocument doc = new TextDocument(reference.toString(), 1);
+		String alphabet = "ab\n\r {}";
+		// More edits than MAX_PIECES so that compaction is exercised too
+		for (int i = 0; i < TextDocument.MAX_PIECES * 4; i++) {
+			int start = random.nextInt(reference.length() + 1);
+			int end = Math.min(reference.length(), start + random.nextInt(4));
+			StringBuilder insert = new StringBuilder();
+			int insertLength = random.nextInt(4);
+			for (int j = 0; j < insertLength; j++) {
+				insert.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			reference.replace(start, end, insert.toString());
+			doc.replace(start, end, insert.toString());
+
+			if (i % 17 == 0) {
+				Assertions.assertEquals(reference.toString(), doc.getText());
+			}
+			String text = reference.toString();
+			int line = random.nextInt(8);
+			int character = random.nextInt(6);
+			Position position = new Position(line, character);
+			Assertions.assertEquals(Positions.getOffset(text, position), doc.getOffset(position),
+					"Offset mismatch after edit " + i + " at " + line + ":" + character);
+		}
+		Assertions.assertEquals(reference.toString(), doc.getText());
+		Assertions.assertEquals(reference.length(), doc.length());
+	}
+}